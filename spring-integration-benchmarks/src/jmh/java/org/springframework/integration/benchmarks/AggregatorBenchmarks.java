@@ -0,0 +1,108 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.integration.aggregator.AggregatingMessageHandler;
+import org.springframework.integration.aggregator.DefaultAggregatingMessageGroupProcessor;
+import org.springframework.integration.aggregator.MessageCountReleaseStrategy;
+import org.springframework.integration.annotation.ServiceActivator;
+import org.springframework.integration.config.EnableIntegration;
+import org.springframework.integration.store.SimpleMessageStore;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+
+/**
+ * Aggregates groups of {@value #GROUP_SIZE} messages with an
+ * {@link AggregatingMessageHandler} backed by a {@link SimpleMessageStore}.
+ * The score is per message.
+ *
+ * @since 5.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class AggregatorBenchmarks {
+
+	private static final int GROUP_SIZE = 10;
+
+	private final Message<?>[] group = new Message<?>[GROUP_SIZE];
+
+	private AnnotationConfigApplicationContext context;
+
+	private MessageChannel input;
+
+	@Setup
+	public void setup() {
+		this.context = new AnnotationConfigApplicationContext(Config.class);
+		this.input = this.context.getBean("aggregatorInput", MessageChannel.class);
+		for (int i = 0; i < GROUP_SIZE; i++) {
+			this.group[i] = MessageBuilder.withPayload("foo" + i)
+					.setCorrelationId("group")
+					.setSequenceNumber(i + 1)
+					.setSequenceSize(GROUP_SIZE)
+					.build();
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		this.context.close();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(GROUP_SIZE)
+	public void aggregate() {
+		for (Message<?> message : this.group) {
+			this.input.send(message);
+		}
+	}
+
+	@Configuration
+	@EnableIntegration
+	public static class Config {
+
+		@Bean
+		@ServiceActivator(inputChannel = "aggregatorInput")
+		public AggregatingMessageHandler aggregator() {
+			AggregatingMessageHandler aggregator = new AggregatingMessageHandler(
+					new DefaultAggregatingMessageGroupProcessor(), new SimpleMessageStore());
+			aggregator.setReleaseStrategy(new MessageCountReleaseStrategy(GROUP_SIZE));
+			// the same correlation key is reused by every invocation
+			aggregator.setExpireGroupsUponCompletion(true);
+			aggregator.setOutputChannelName("nullChannel");
+			return aggregator;
+		}
+
+	}
+
+}
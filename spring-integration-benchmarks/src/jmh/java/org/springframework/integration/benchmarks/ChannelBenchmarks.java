@@ -0,0 +1,171 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.benchmarks;
+
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.integration.annotation.ServiceActivator;
+import org.springframework.integration.channel.DirectChannel;
+import org.springframework.integration.channel.ExecutorChannel;
+import org.springframework.integration.channel.PublishSubscribeChannel;
+import org.springframework.integration.channel.QueueChannel;
+import org.springframework.integration.config.EnableIntegration;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.PollableChannel;
+import org.springframework.messaging.support.GenericMessage;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Sends to the standard channel types, each with no-op subscribers.
+ *
+ * @since 5.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ChannelBenchmarks {
+
+	private final Message<String> message = new GenericMessage<>("foo");
+
+	private AnnotationConfigApplicationContext context;
+
+	private MessageChannel direct;
+
+	private PollableChannel queue;
+
+	private MessageChannel executor;
+
+	private MessageChannel publishSubscribe;
+
+	@Setup
+	public void setup() {
+		this.context = new AnnotationConfigApplicationContext(Config.class);
+		this.direct = this.context.getBean("direct", MessageChannel.class);
+		this.queue = this.context.getBean("queue", PollableChannel.class);
+		this.executor = this.context.getBean("executor", MessageChannel.class);
+		this.publishSubscribe = this.context.getBean("publishSubscribe", MessageChannel.class);
+	}
+
+	@TearDown
+	public void tearDown() {
+		this.context.close();
+	}
+
+	@Benchmark
+	public boolean directChannelSend() {
+		return this.direct.send(this.message);
+	}
+
+	@Benchmark
+	public Message<?> queueChannelSendAndReceive() {
+		this.queue.send(this.message);
+		return this.queue.receive(0);
+	}
+
+	@Benchmark
+	public boolean executorChannelSend() {
+		return this.executor.send(this.message);
+	}
+
+	@Benchmark
+	public boolean publishSubscribeChannelSend() {
+		return this.publishSubscribe.send(this.message);
+	}
+
+	@Configuration
+	@EnableIntegration
+	public static class Config {
+
+		@Bean
+		public DirectChannel direct() {
+			return new DirectChannel();
+		}
+
+		@Bean
+		public QueueChannel queue() {
+			return new QueueChannel();
+		}
+
+		@Bean
+		public TaskExecutor benchmarkExecutor() {
+			ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+			executor.setCorePoolSize(2);
+			executor.setQueueCapacity(1000);
+			// the sending thread runs the handler when the executor is saturated
+			executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+			return executor;
+		}
+
+		@Bean
+		public ExecutorChannel executor() {
+			return new ExecutorChannel(benchmarkExecutor());
+		}
+
+		@Bean
+		public PublishSubscribeChannel publishSubscribe() {
+			return new PublishSubscribeChannel();
+		}
+
+		@Bean
+		@ServiceActivator(inputChannel = "direct")
+		public MessageHandler directHandler() {
+			return m -> { };
+		}
+
+		@Bean
+		@ServiceActivator(inputChannel = "executor")
+		public MessageHandler executorHandler() {
+			return m -> { };
+		}
+
+		@Bean
+		@ServiceActivator(inputChannel = "publishSubscribe")
+		public MessageHandler subscriber1() {
+			return m -> { };
+		}
+
+		@Bean
+		@ServiceActivator(inputChannel = "publishSubscribe")
+		public MessageHandler subscriber2() {
+			return m -> { };
+		}
+
+		@Bean
+		@ServiceActivator(inputChannel = "publishSubscribe")
+		public MessageHandler subscriber3() {
+			return m -> { };
+		}
+
+	}
+
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.integration.config.EnableIntegration;
+import org.springframework.integration.dsl.IntegrationFlow;
+import org.springframework.integration.dsl.context.IntegrationFlowContext;
+import org.springframework.integration.dsl.context.IntegrationFlowContext.IntegrationFlowRegistration;
+import org.springframework.integration.dsl.context.IntegrationFlowContext.IntegrationFlowRegistrationBuilder;
+
+/**
+ * Registers and removes (per-tenant style) flows with the {@link IntegrationFlowContext}
+ * while a number of other flows are registered; the scores are flow registrations (and
+ * removals) per millisecond.
+ *
+ * @since 5.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class FlowRegistrationBenchmarks {
+
+	private static final int BATCH_SIZE = 10;
+
+	@Param({ "100", "1000" })
+	public int registeredFlows;
+
+	private AnnotationConfigApplicationContext context;
+
+	private IntegrationFlowContext flowContext;
+
+	private int flowId;
+
+	@Setup
+	public void setup() {
+		this.context = new AnnotationConfigApplicationContext(Config.class);
+		this.flowContext = this.context.getBean(IntegrationFlowContext.class);
+		for (int i = 0; i < this.registeredFlows; i++) {
+			this.flowContext.registration(tenantFlow()).id("existing" + i).register();
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		this.context.close();
+	}
+
+	@Benchmark
+	public void registerAndRemove() {
+		IntegrationFlowRegistration registration = this.flowContext.registration(tenantFlow())
+				.id("tenant" + this.flowId++)
+				.register();
+		registration.destroy();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH_SIZE)
+	public void registerAllAndRemove() {
+		List<IntegrationFlowRegistrationBuilder> builders = new ArrayList<>(BATCH_SIZE);
+		for (int i = 0; i < BATCH_SIZE; i++) {
+			builders.add(this.flowContext.registration(tenantFlow()).id("tenant" + this.flowId++));
+		}
+		this.flowContext.registerAll(builders).forEach(IntegrationFlowRegistration::destroy);
+	}
+
+	private static IntegrationFlow tenantFlow() {
+		return f -> f
+				.filter(p -> p != null)
+				.<Object, String>transform(String::valueOf)
+				.channel(c -> c.queue(10))
+				.bridge(e -> e.poller(p -> p.fixedDelay(1000)))
+				.channel("nullChannel");
+	}
+
+	@Configuration
+	@EnableIntegration
+	public static class Config {
+
+	}
+
+}
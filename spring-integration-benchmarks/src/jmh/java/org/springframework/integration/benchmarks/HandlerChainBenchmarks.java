@@ -0,0 +1,93 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.benchmarks;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.integration.annotation.ServiceActivator;
+import org.springframework.integration.config.EnableIntegration;
+import org.springframework.integration.filter.MessageFilter;
+import org.springframework.integration.handler.MessageHandlerChain;
+import org.springframework.integration.transformer.MessageTransformingHandler;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.support.GenericMessage;
+
+/**
+ * Sends through a {@link MessageHandlerChain} of a filter and two transformers.
+ *
+ * @since 5.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class HandlerChainBenchmarks {
+
+	private final Message<String> message = new GenericMessage<>("foo");
+
+	private AnnotationConfigApplicationContext context;
+
+	private MessageChannel input;
+
+	@Setup
+	public void setup() {
+		this.context = new AnnotationConfigApplicationContext(Config.class);
+		this.input = this.context.getBean("chainInput", MessageChannel.class);
+	}
+
+	@TearDown
+	public void tearDown() {
+		this.context.close();
+	}
+
+	@Benchmark
+	public boolean chain() {
+		return this.input.send(this.message);
+	}
+
+	@Configuration
+	@EnableIntegration
+	public static class Config {
+
+		@Bean
+		@ServiceActivator(inputChannel = "chainInput")
+		public MessageHandlerChain chain() {
+			MessageHandlerChain chain = new MessageHandlerChain();
+			chain.setHandlers(Arrays.asList(
+					new MessageFilter(m -> m.getPayload() instanceof String),
+					new MessageTransformingHandler(m -> m),
+					new MessageTransformingHandler(m -> m)));
+			chain.setOutputChannelName("nullChannel");
+			return chain;
+		}
+
+	}
+
+}
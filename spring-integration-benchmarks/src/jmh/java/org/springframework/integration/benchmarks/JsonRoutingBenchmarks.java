@@ -0,0 +1,90 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.integration.json.JsonPathUtils;
+import org.springframework.integration.json.JsonPropertyAccessor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.GenericMessage;
+
+import com.jayway.jsonpath.Predicate;
+
+/**
+ * Evaluates a filter and a router expression against each new JSON {@code String}
+ * payload, with the {@link JsonPropertyAccessor} and the {@code #jsonPath} function.
+ *
+ * @since 5.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class JsonRoutingBenchmarks {
+
+	private static final String JSON = "{\"order\":{\"id\":1234,\"type\":\"express\",\"priority\":5},"
+			+ "\"customer\":{\"name\":\"foo\",\"addresses\":[{\"city\":\"bar\"},{\"city\":\"baz\"}]},"
+			+ "\"items\":[{\"sku\":\"a\",\"qty\":1},{\"sku\":\"b\",\"qty\":2},{\"sku\":\"c\",\"qty\":3}]}";
+
+	private final StandardEvaluationContext evaluationContext = new StandardEvaluationContext();
+
+	private Expression propertyFilter;
+
+	private Expression propertyRouter;
+
+	private Expression jsonPathFilter;
+
+	private Expression jsonPathRouter;
+
+	@Setup
+	public void setup() throws Exception {
+		this.evaluationContext.addPropertyAccessor(new JsonPropertyAccessor());
+		this.evaluationContext.registerFunction("jsonPath",
+				JsonPathUtils.class.getMethod("evaluate", Object.class, String.class, Predicate[].class));
+		SpelExpressionParser parser = new SpelExpressionParser();
+		this.propertyFilter = parser.parseExpression("payload.order.priority.toString() != '0'");
+		this.propertyRouter = parser.parseExpression("payload.order.type.toString()");
+		this.jsonPathFilter = parser.parseExpression("#jsonPath(payload, '$.order.priority') > 0");
+		this.jsonPathRouter = parser.parseExpression("#jsonPath(payload, '$.order.type')");
+	}
+
+	@Benchmark
+	public Object propertyAccessor() {
+		Message<String> message = new GenericMessage<>(new String(JSON));
+		this.propertyFilter.getValue(this.evaluationContext, message);
+		return this.propertyRouter.getValue(this.evaluationContext, message);
+	}
+
+	@Benchmark
+	public Object jsonPath() {
+		Message<String> message = new GenericMessage<>(new String(JSON));
+		this.jsonPathFilter.getValue(this.evaluationContext, message);
+		return this.jsonPathRouter.getValue(this.evaluationContext, message);
+	}
+
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.benchmarks;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.integration.config.EnableIntegration;
+import org.springframework.integration.json.JsonToObjectTransformer;
+import org.springframework.integration.json.ObjectToJsonTransformer;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.GenericMessage;
+
+/**
+ * Converts a small object graph to and from JSON with the Jackson-based transformers,
+ * comparing {@code String} and binary ({@code byte[]} and {@code ByteBuffer}) JSON.
+ *
+ * @since 5.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class JsonTransformerBenchmarks {
+
+	private AnnotationConfigApplicationContext context;
+
+	private ObjectToJsonTransformer toJson;
+
+	private ObjectToJsonTransformer toJsonBytes;
+
+	private JsonToObjectTransformer fromJson;
+
+	private Message<Order> objectMessage;
+
+	private Message<?> jsonMessage;
+
+	private Message<?> jsonBytesMessage;
+
+	private byte[] jsonBytes;
+
+	@Setup
+	public void setup() {
+		this.context = new AnnotationConfigApplicationContext(Config.class);
+		this.toJson = this.context.getBean("objectToJsonTransformer", ObjectToJsonTransformer.class);
+		this.toJsonBytes = this.context.getBean("objectToJsonBytesTransformer", ObjectToJsonTransformer.class);
+		this.fromJson = this.context.getBean(JsonToObjectTransformer.class);
+		Order order = new Order();
+		order.setId("1234");
+		order.setCustomer("ACME");
+		order.setAmount(123.45);
+		order.setItems(Arrays.asList("foo", "bar", "baz"));
+		this.objectMessage = new GenericMessage<>(order);
+		this.jsonMessage = new GenericMessage<>(this.toJson.transform(this.objectMessage).getPayload());
+		this.jsonBytes = (byte[]) this.toJsonBytes.transform(this.objectMessage).getPayload();
+		this.jsonBytesMessage = new GenericMessage<>(this.jsonBytes);
+	}
+
+	@TearDown
+	public void tearDown() {
+		this.context.close();
+	}
+
+	@Benchmark
+	public Message<?> objectToJson() {
+		return this.toJson.transform(this.objectMessage);
+	}
+
+	@Benchmark
+	public Message<?> objectToJsonBytes() {
+		return this.toJsonBytes.transform(this.objectMessage);
+	}
+
+	@Benchmark
+	public Message<?> jsonToObject() {
+		return this.fromJson.transform(this.jsonMessage);
+	}
+
+	@Benchmark
+	public Message<?> jsonBytesToObject() {
+		return this.fromJson.transform(this.jsonBytesMessage);
+	}
+
+	@Benchmark
+	public Message<?> jsonByteBufferToObject() {
+		return this.fromJson.transform(new GenericMessage<>(ByteBuffer.wrap(this.jsonBytes)));
+	}
+
+	@Configuration
+	@EnableIntegration
+	public static class Config {
+
+		@Bean
+		public ObjectToJsonTransformer objectToJsonTransformer() {
+			return new ObjectToJsonTransformer();
+		}
+
+		@Bean
+		public ObjectToJsonTransformer objectToJsonBytesTransformer() {
+			return new ObjectToJsonTransformer(ObjectToJsonTransformer.ResultType.BYTES);
+		}
+
+		@Bean
+		public JsonToObjectTransformer jsonToObjectTransformer() {
+			return new JsonToObjectTransformer(Order.class);
+		}
+
+	}
+
+	public static class Order {
+
+		private String id;
+
+		private String customer;
+
+		private double amount;
+
+		private List<String> items;
+
+		public String getId() {
+			return this.id;
+		}
+
+		public void setId(String id) {
+			this.id = id;
+		}
+
+		public String getCustomer() {
+			return this.customer;
+		}
+
+		public void setCustomer(String customer) {
+			this.customer = customer;
+		}
+
+		public double getAmount() {
+			return this.amount;
+		}
+
+		public void setAmount(double amount) {
+			this.amount = amount;
+		}
+
+		public List<String> getItems() {
+			return this.items;
+		}
+
+		public void setItems(List<String> items) {
+			this.items = items;
+		}
+
+	}
+
+}
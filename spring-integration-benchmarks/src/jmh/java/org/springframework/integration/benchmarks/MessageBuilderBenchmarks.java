@@ -0,0 +1,87 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.integration.support.MutableMessageBuilder;
+import org.springframework.messaging.Message;
+
+/**
+ * Copies the headers of a message with a configurable number of headers.
+ *
+ * @since 5.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MessageBuilderBenchmarks {
+
+	@Param({ "2", "10", "50" })
+	private int headerCount;
+
+	private Message<String> message;
+
+	@Setup
+	public void setup() {
+		MessageBuilder<String> builder = MessageBuilder.withPayload("foo");
+		for (int i = 0; i < this.headerCount; i++) {
+			builder.setHeader("header" + i, "value" + i);
+		}
+		this.message = builder.build();
+	}
+
+	@Benchmark
+	public Message<String> withPayloadCopyHeaders() {
+		return MessageBuilder.withPayload("bar")
+				.copyHeaders(this.message.getHeaders())
+				.build();
+	}
+
+	@Benchmark
+	public Message<String> withPayloadCopyHeadersIfAbsent() {
+		return MessageBuilder.withPayload("bar")
+				.setHeader("header0", "other")
+				.copyHeadersIfAbsent(this.message.getHeaders())
+				.build();
+	}
+
+	@Benchmark
+	public Message<String> fromMessageSetHeader() {
+		return MessageBuilder.fromMessage(this.message)
+				.setHeader("extra", "value")
+				.build();
+	}
+
+	@Benchmark
+	public Message<String> mutableFromMessageSetHeader() {
+		return MutableMessageBuilder.fromMessage(this.message)
+				.setHeader("extra", "value")
+				.build();
+	}
+
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import org.springframework.integration.support.management.ExponentialMovingAverage;
+import org.springframework.integration.support.management.ExponentialMovingAverageRate;
+import org.springframework.integration.support.management.ExponentialMovingAverageRatio;
+
+/**
+ * Records measurements in the exponential moving average metrics used by the legacy
+ * channel and handler metrics, from several threads at once (as when many threads send
+ * to the same channel), with and without a concurrent reader.
+ *
+ * @since 5.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MetricsBenchmarks {
+
+	private static final int WINDOW = 10;
+
+	private final ExponentialMovingAverage duration = new ExponentialMovingAverage(WINDOW, 1000000.);
+
+	private final ExponentialMovingAverageRate rate = new ExponentialMovingAverageRate(1, 60, WINDOW, true);
+
+	private final ExponentialMovingAverageRatio ratio = new ExponentialMovingAverageRatio(60, WINDOW, true);
+
+	@Benchmark
+	@Threads(4)
+	public void averageAppend() {
+		this.duration.append(42);
+	}
+
+	@Benchmark
+	@Threads(4)
+	public void rateIncrement() {
+		this.rate.increment();
+	}
+
+	@Benchmark
+	@Threads(4)
+	public void ratioSuccess() {
+		this.ratio.success();
+	}
+
+	@Benchmark
+	@Group("appendWhileReading")
+	@GroupThreads(3)
+	public void append() {
+		this.duration.append(42);
+	}
+
+	@Benchmark
+	@Group("appendWhileReading")
+	@GroupThreads(1)
+	public double read() {
+		return this.duration.getMean();
+	}
+
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.benchmarks;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import org.springframework.beans.MutablePropertyValues;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.integration.support.json.Jackson2JsonObjectMapper;
+import org.springframework.integration.transformer.MapToObjectTransformer;
+import org.springframework.integration.transformer.ObjectToMapTransformer;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.GenericMessage;
+import org.springframework.validation.DataBinder;
+
+/**
+ * Converts a small bean to a (flat) map and back, comparing the cached property accessors
+ * with the JSON round trip and the {@link DataBinder} they replace.
+ *
+ * @since 5.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ObjectToMapBenchmarks {
+
+	private final ObjectToMapTransformer toMap = new ObjectToMapTransformer();
+
+	private final ObjectToMapTransformer toMapViaJson = new ObjectToMapTransformer(new Jackson2JsonObjectMapper());
+
+	private final MapToObjectTransformer fromMap = new MapToObjectTransformer(Order.class);
+
+	private Message<Order> objectMessage;
+
+	private Message<Map<?, ?>> mapMessage;
+
+	@Setup
+	@SuppressWarnings("unchecked")
+	public void setup() {
+		Order order = new Order();
+		order.setId("1234");
+		order.setCustomer("ACME");
+		order.setQuantity(12);
+		order.setAmount(123.45);
+		order.setItems(Arrays.asList("foo", "bar", "baz"));
+		this.objectMessage = new GenericMessage<>(order);
+		Map<String, Object> map = (Map<String, Object>) this.toMap.transform(this.objectMessage).getPayload();
+		map.remove("items[0]");
+		map.remove("items[1]");
+		map.remove("items[2]");
+		map.put("quantity", "12");
+		this.mapMessage = new GenericMessage<>(map);
+	}
+
+	@Benchmark
+	public Message<?> objectToMap() {
+		return this.toMap.transform(this.objectMessage);
+	}
+
+	@Benchmark
+	public Message<?> objectToMapViaJson() {
+		return this.toMapViaJson.transform(this.objectMessage);
+	}
+
+	@Benchmark
+	public Message<?> mapToObject() {
+		return this.fromMap.transform(this.mapMessage);
+	}
+
+	@Benchmark
+	public Object mapToObjectWithDataBinder() {
+		Order order = new Order();
+		DataBinder binder = new DataBinder(order);
+		binder.setConversionService(DefaultConversionService.getSharedInstance());
+		binder.bind(new MutablePropertyValues(this.mapMessage.getPayload()));
+		return order;
+	}
+
+	public static class Order {
+
+		private String id;
+
+		private String customer;
+
+		private int quantity;
+
+		private double amount;
+
+		private List<String> items;
+
+		public String getId() {
+			return this.id;
+		}
+
+		public void setId(String id) {
+			this.id = id;
+		}
+
+		public String getCustomer() {
+			return this.customer;
+		}
+
+		public void setCustomer(String customer) {
+			this.customer = customer;
+		}
+
+		public int getQuantity() {
+			return this.quantity;
+		}
+
+		public void setQuantity(int quantity) {
+			this.quantity = quantity;
+		}
+
+		public double getAmount() {
+			return this.amount;
+		}
+
+		public void setAmount(double amount) {
+			this.amount = amount;
+		}
+
+		public List<String> getItems() {
+			return this.items;
+		}
+
+		public void setItems(List<String> items) {
+			this.items = items;
+		}
+
+	}
+
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import org.springframework.integration.scheduling.TimingWheelTaskScheduler;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.Trigger;
+import org.springframework.scheduling.TriggerContext;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.scheduling.support.PeriodicTrigger;
+
+/**
+ * Runs a large number of pollers (fixed rate, {@value #PERIOD} ms) on a
+ * {@link ThreadPoolTaskScheduler} and a {@link TimingWheelTaskScheduler}, and measures
+ * the cost of scheduling an additional poller while they run. The {@code polls} and
+ * {@code latePolls} (started more than {@value #LATE} ms after their scheduled time)
+ * counters show the poll throughput and jitter.
+ *
+ * @since 5.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PollSchedulerBenchmarks {
+
+	private static final long PERIOD = 100;
+
+	private static final long LATE = 20;
+
+	@Param({ "threadPool", "timingWheel" })
+	private String schedulerType;
+
+	@Param({ "10000" })
+	private int pollers;
+
+	private final LongAdder polls = new LongAdder();
+
+	private final LongAdder latePolls = new LongAdder();
+
+	private final List<ScheduledFuture<?>> futures = new ArrayList<>();
+
+	private final PeriodicTrigger trigger = new PeriodicTrigger(PERIOD);
+
+	private TaskScheduler scheduler;
+
+	@Setup
+	public void setup() {
+		int threads = Runtime.getRuntime().availableProcessors() * 2;
+		if ("threadPool".equals(this.schedulerType)) {
+			ThreadPoolTaskScheduler threadPool = new ThreadPoolTaskScheduler();
+			threadPool.setPoolSize(threads);
+			threadPool.afterPropertiesSet();
+			this.scheduler = threadPool;
+		}
+		else {
+			TimingWheelTaskScheduler timingWheel = new TimingWheelTaskScheduler();
+			timingWheel.afterPropertiesSet();
+			this.scheduler = timingWheel;
+		}
+		this.trigger.setFixedRate(true);
+		for (int i = 0; i < this.pollers; i++) {
+			Poller poller = new Poller();
+			this.futures.add(this.scheduler.schedule(poller, poller));
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		this.futures.forEach(f -> f.cancel(false));
+		if (this.scheduler instanceof ThreadPoolTaskScheduler) {
+			((ThreadPoolTaskScheduler) this.scheduler).destroy();
+		}
+		else {
+			((TimingWheelTaskScheduler) this.scheduler).destroy();
+		}
+	}
+
+	@Benchmark
+	public boolean scheduleAndCancel(PollCounters counters) {
+		ScheduledFuture<?> future = this.scheduler.schedule(() -> { }, this.trigger);
+		counters.polls += this.polls.sumThenReset();
+		counters.latePolls += this.latePolls.sumThenReset();
+		return future.cancel(false);
+	}
+
+	/**
+	 * Poll counters reported by JMH as secondary results.
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class PollCounters {
+
+		public long polls;
+
+		public long latePolls;
+
+		@Setup(Level.Iteration)
+		public void clean() {
+			this.polls = 0;
+			this.latePolls = 0;
+		}
+
+	}
+
+	/**
+	 * A poller that is its own trigger, so that it knows the time each run was scheduled
+	 * for (the scheduler asks for the next time after each run).
+	 */
+	private final class Poller implements Runnable, Trigger {
+
+		private volatile long scheduled;
+
+		@Override
+		public Date nextExecutionTime(TriggerContext triggerContext) {
+			Date next = PollSchedulerBenchmarks.this.trigger.nextExecutionTime(triggerContext);
+			this.scheduled = next.getTime();
+			return next;
+		}
+
+		@Override
+		public void run() {
+			long now = System.currentTimeMillis();
+			PollSchedulerBenchmarks.this.polls.increment();
+			if (now - this.scheduled > LATE) {
+				PollSchedulerBenchmarks.this.latePolls.increment();
+			}
+		}
+
+	}
+
+}
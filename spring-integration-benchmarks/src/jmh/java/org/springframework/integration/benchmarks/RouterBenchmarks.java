@@ -0,0 +1,110 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.integration.annotation.Router;
+import org.springframework.integration.config.EnableIntegration;
+import org.springframework.integration.router.AbstractMessageRouter;
+import org.springframework.integration.router.ExpressionEvaluatingRouter;
+import org.springframework.integration.router.PayloadTypeRouter;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+
+/**
+ * Routes messages with a {@link PayloadTypeRouter} and an
+ * {@link ExpressionEvaluatingRouter} to the {@code nullChannel}.
+ *
+ * @since 5.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RouterBenchmarks {
+
+	private final Message<String> message = MessageBuilder.withPayload("foo")
+			.setHeader("type", "b")
+			.build();
+
+	private AnnotationConfigApplicationContext context;
+
+	private MessageChannel payloadTypeInput;
+
+	private MessageChannel expressionInput;
+
+	@Setup
+	public void setup() {
+		this.context = new AnnotationConfigApplicationContext(Config.class);
+		this.payloadTypeInput = this.context.getBean("payloadTypeInput", MessageChannel.class);
+		this.expressionInput = this.context.getBean("expressionInput", MessageChannel.class);
+	}
+
+	@TearDown
+	public void tearDown() {
+		this.context.close();
+	}
+
+	@Benchmark
+	public boolean payloadTypeRouter() {
+		return this.payloadTypeInput.send(this.message);
+	}
+
+	@Benchmark
+	public boolean expressionEvaluatingRouter() {
+		return this.expressionInput.send(this.message);
+	}
+
+	@Configuration
+	@EnableIntegration
+	public static class Config {
+
+		@Bean
+		@Router(inputChannel = "payloadTypeInput")
+		public AbstractMessageRouter payloadTypeRouter() {
+			PayloadTypeRouter router = new PayloadTypeRouter();
+			router.setChannelMapping(Integer.class.getName(), "nullChannel");
+			router.setChannelMapping(CharSequence.class.getName(), "nullChannel");
+			router.setChannelMapping(Object.class.getName(), "nullChannel");
+			return router;
+		}
+
+		@Bean
+		@Router(inputChannel = "expressionInput")
+		public AbstractMessageRouter expressionRouter() {
+			ExpressionEvaluatingRouter router = new ExpressionEvaluatingRouter("headers.type");
+			router.setChannelMapping("a", "nullChannel");
+			router.setChannelMapping("b", "nullChannel");
+			return router;
+		}
+
+	}
+
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.integration.annotation.ServiceActivator;
+import org.springframework.integration.config.EnableIntegration;
+import org.springframework.integration.handler.ExpressionEvaluatingMessageProcessor;
+import org.springframework.integration.handler.ServiceActivatingHandler;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.support.GenericMessage;
+
+/**
+ * Compares service activators that invoke a POJO method with ones that evaluate an
+ * equivalent SpEL expression, interpreted and compiled.
+ *
+ * @since 5.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ServiceActivatorBenchmarks {
+
+	private final Message<String> message = new GenericMessage<>("foo");
+
+	private AnnotationConfigApplicationContext context;
+
+	private MessageChannel pojoInput;
+
+	private MessageChannel spelInput;
+
+	private MessageChannel compiledSpelInput;
+
+	@Setup
+	public void setup() {
+		this.context = new AnnotationConfigApplicationContext(Config.class);
+		this.pojoInput = this.context.getBean("pojoInput", MessageChannel.class);
+		this.spelInput = this.context.getBean("spelInput", MessageChannel.class);
+		this.compiledSpelInput = this.context.getBean("compiledSpelInput", MessageChannel.class);
+	}
+
+	@TearDown
+	public void tearDown() {
+		this.context.close();
+	}
+
+	@Benchmark
+	public boolean pojo() {
+		return this.pojoInput.send(this.message);
+	}
+
+	@Benchmark
+	public boolean spel() {
+		return this.spelInput.send(this.message);
+	}
+
+	@Benchmark
+	public boolean compiledSpel() {
+		return this.compiledSpelInput.send(this.message);
+	}
+
+	@Configuration
+	@EnableIntegration
+	public static class Config {
+
+		@Bean
+		@ServiceActivator(inputChannel = "pojoInput")
+		public ServiceActivatingHandler pojoHandler() {
+			ServiceActivatingHandler handler = new ServiceActivatingHandler(new Service(), "upperCase");
+			handler.setOutputChannelName("nullChannel");
+			return handler;
+		}
+
+		@Bean
+		@ServiceActivator(inputChannel = "spelInput")
+		public ServiceActivatingHandler spelHandler() {
+			return spelHandler(new SpelExpressionParser());
+		}
+
+		@Bean
+		@ServiceActivator(inputChannel = "compiledSpelInput")
+		public ServiceActivatingHandler compiledSpelHandler() {
+			return spelHandler(new SpelExpressionParser(
+					new SpelParserConfiguration(SpelCompilerMode.IMMEDIATE, getClass().getClassLoader())));
+		}
+
+		private static ServiceActivatingHandler spelHandler(SpelExpressionParser parser) {
+			ServiceActivatingHandler handler = new ServiceActivatingHandler(
+					new ExpressionEvaluatingMessageProcessor<>(parser.parseExpression("payload.toUpperCase()")));
+			handler.setOutputChannelName("nullChannel");
+			return handler;
+		}
+
+	}
+
+	public static class Service {
+
+		public String upperCase(String in) {
+			return in.toUpperCase();
+		}
+
+	}
+
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import org.springframework.integration.ip.tcp.serializer.AbstractByteArraySerializer;
+import org.springframework.integration.ip.tcp.serializer.ByteArrayCrLfSerializer;
+import org.springframework.integration.ip.tcp.serializer.ByteArrayLengthHeaderSerializer;
+import org.springframework.integration.ip.tcp.serializer.ByteArrayStxEtxSerializer;
+
+/**
+ * Serializes and deserializes payloads with the standard TCP (de)serializers.
+ *
+ * @since 5.1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TcpSerializerBenchmarks {
+
+	@Param({ "crlf", "lengthHeader", "stxEtx" })
+	private String serializerType;
+
+	@Param({ "64", "1024", "16384" })
+	private int payloadSize;
+
+	private final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+	private AbstractByteArraySerializer serializer;
+
+	private byte[] payload;
+
+	private byte[] serialized;
+
+	@Setup
+	public void setup() throws IOException {
+		switch (this.serializerType) {
+			case "crlf":
+				this.serializer = new ByteArrayCrLfSerializer();
+				break;
+			case "lengthHeader":
+				this.serializer = new ByteArrayLengthHeaderSerializer();
+				break;
+			default:
+				this.serializer = new ByteArrayStxEtxSerializer();
+		}
+		this.serializer.setMaxMessageSize(this.payloadSize + 16);
+		this.payload = new byte[this.payloadSize];
+		Arrays.fill(this.payload, (byte) 'a');
+		this.serializer.serialize(this.payload, this.outputStream);
+		this.serialized = this.outputStream.toByteArray();
+	}
+
+	@Benchmark
+	public int serialize() throws IOException {
+		this.outputStream.reset();
+		this.serializer.serialize(this.payload, this.outputStream);
+		return this.outputStream.size();
+	}
+
+	@Benchmark
+	public byte[] deserialize() throws IOException {
+		return this.serializer.deserialize(new ByteArrayInputStream(this.serialized));
+	}
+
+}
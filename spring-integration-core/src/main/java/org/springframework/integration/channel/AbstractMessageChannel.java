@@ -35,7 +35,9 @@ import org.springframework.integration.support.management.AbstractMessageChannel
 import org.springframework.integration.support.management.ConfigurableMetricsAware;
 import org.springframework.integration.support.management.DefaultMessageChannelMetrics;
 import org.springframework.integration.support.management.IntegrationManagedResource;
+import org.springframework.integration.support.management.LatencyHistogram;
 import org.springframework.integration.support.management.MessageChannelMetrics;
+import org.springframework.integration.support.management.MessagePathTracer;
 import org.springframework.integration.support.management.MetricsContext;
 import org.springframework.integration.support.management.Statistics;
 import org.springframework.integration.support.management.TrackableComponent;
@@ -75,6 +77,8 @@ public abstract class AbstractMessageChannel extends IntegrationObjectSupport
 
 	private volatile boolean shouldTrack = false;
 
+	private volatile MessagePathTracer pathTracer;
+
 	private volatile Class<?>[] datatypes = new Class<?>[0];
 
 	private volatile String fullChannelName;
@@ -109,6 +113,11 @@ public abstract class AbstractMessageChannel extends IntegrationObjectSupport
 		this.shouldTrack = shouldTrack;
 	}
 
+	@Override
+	public void setPathTracer(MessagePathTracer pathTracer) {
+		this.pathTracer = pathTracer;
+	}
+
 	@Override
 	public void registerMetricsCaptor(MetricsCaptor metricsCaptor) {
 		this.metricsCaptor = metricsCaptor;
@@ -329,6 +338,11 @@ public abstract class AbstractMessageChannel extends IntegrationObjectSupport
 		return this.channelMetrics.getSendDuration();
 	}
 
+	@Override
+	public LatencyHistogram getSendDurationHistogram() {
+		return this.channelMetrics.getSendDurationHistogram();
+	}
+
 	@Override
 	public Statistics getSendRate() {
 		return this.channelMetrics.getSendRate();
@@ -413,6 +427,10 @@ public abstract class AbstractMessageChannel extends IntegrationObjectSupport
 		if (this.shouldTrack) {
 			message = MessageHistory.write(message, this, this.getMessageBuilderFactory());
 		}
+		MessagePathTracer pathTracer = this.pathTracer;
+		if (pathTracer != null) {
+			pathTracer.trace(message, this);
+		}
 
 		Deque<ChannelInterceptor> interceptorStack = null;
 		boolean sent = false;
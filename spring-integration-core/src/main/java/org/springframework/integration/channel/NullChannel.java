@@ -27,6 +27,7 @@ import org.springframework.integration.support.management.AbstractMessageChannel
 import org.springframework.integration.support.management.ConfigurableMetricsAware;
 import org.springframework.integration.support.management.DefaultMessageChannelMetrics;
 import org.springframework.integration.support.management.IntegrationManagedResource;
+import org.springframework.integration.support.management.LatencyHistogram;
 import org.springframework.integration.support.management.MessageChannelMetrics;
 import org.springframework.integration.support.management.Statistics;
 import org.springframework.integration.support.management.metrics.MetricsCaptor;
@@ -208,6 +209,11 @@ public class NullChannel implements PollableChannel, MessageChannelMetrics,
 		return this.channelMetrics.getSendDuration();
 	}
 
+	@Override
+	public LatencyHistogram getSendDurationHistogram() {
+		return this.channelMetrics.getSendDurationHistogram();
+	}
+
 	@Override
 	public Statistics getSendRate() {
 		return this.channelMetrics.getSendRate();
@@ -0,0 +1,523 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.codec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.core.serializer.support.SerializingConverter;
+import org.springframework.integration.IntegrationMessageHeaderAccessor;
+import org.springframework.integration.mapping.support.JsonHeaders;
+import org.springframework.integration.store.MessageHolder;
+import org.springframework.integration.support.MutableMessage;
+import org.springframework.integration.support.MutableMessageHeaders;
+import org.springframework.integration.support.converter.WhiteListDeserializingConverter;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.ErrorMessage;
+import org.springframework.messaging.support.GenericMessage;
+import org.springframework.util.Assert;
+import org.springframework.util.StreamUtils;
+
+/**
+ * A {@link Codec} with a compact, versioned, binary format for {@link Message}s,
+ * intended for message stores.
+ * <p>
+ * {@link GenericMessage}s, {@link MutableMessage}s and {@link ErrorMessage}s (without an
+ * original message), as well as the {@link MessageHolder}s of the key/value stores, are
+ * written field by field: the well-known headers are written as a one byte tag instead
+ * of their name, and {@code String}, primitive wrapper, {@link UUID}, {@link Date} and
+ * {@code byte[]} header values and payloads are written natively. Any other value (and
+ * any other object) is written with Java serialization; as with Java serialization of
+ * {@link MessageHeaders}, header values which are not {@link Serializable} are dropped.
+ * Header names read back are interned in a dictionary, so the messages read from a store
+ * share the same name instances.
+ * <p>
+ * Data written with Java serialization (for example by a store before it was configured
+ * with this codec) is recognized and read with a {@link WhiteListDeserializingConverter},
+ * so existing data can still be read after switching to this format.
+ *
+ * @since 5.1
+ */
+public class CompactMessageCodec implements Codec {
+
+	/**
+	 * The first two bytes of any data written by this codec.
+	 */
+	public static final short MAGIC = 0x5349;
+
+	/**
+	 * The current format version.
+	 */
+	public static final byte VERSION = 1;
+
+	private static final Log logger = LogFactory.getLog(CompactMessageCodec.class);
+
+	private static final short JAVA_SERIALIZATION_MAGIC = (short) 0xACED;
+
+	private static final int MAX_DICTIONARY_SIZE = 1024;
+
+	private static final byte KIND_OBJECT = 0;
+
+	private static final byte KIND_GENERIC_MESSAGE = 1;
+
+	private static final byte KIND_MUTABLE_MESSAGE = 2;
+
+	private static final byte KIND_ERROR_MESSAGE = 3;
+
+	private static final byte KIND_MESSAGE_HOLDER = 4;
+
+	private static final byte TYPE_NULL = 0;
+
+	private static final byte TYPE_STRING = 1;
+
+	private static final byte TYPE_INTEGER = 2;
+
+	private static final byte TYPE_LONG = 3;
+
+	private static final byte TYPE_TRUE = 4;
+
+	private static final byte TYPE_FALSE = 5;
+
+	private static final byte TYPE_DOUBLE = 6;
+
+	private static final byte TYPE_FLOAT = 7;
+
+	private static final byte TYPE_SHORT = 8;
+
+	private static final byte TYPE_BYTE = 9;
+
+	private static final byte TYPE_CHARACTER = 10;
+
+	private static final byte TYPE_UUID = 11;
+
+	private static final byte TYPE_DATE = 12;
+
+	private static final byte TYPE_BYTES = 13;
+
+	private static final byte TYPE_SERIALIZED = 14;
+
+	private static final byte NAME_LITERAL = 0;
+
+	/*
+	 * The tag of a well-known header is its index + 1; the tags are part of the format, so
+	 * names can only be appended to this array.
+	 */
+	private static final String[] WELL_KNOWN_HEADERS = {
+			MessageHeaders.ID,
+			MessageHeaders.TIMESTAMP,
+			MessageHeaders.CONTENT_TYPE,
+			MessageHeaders.REPLY_CHANNEL,
+			MessageHeaders.ERROR_CHANNEL,
+			IntegrationMessageHeaderAccessor.CORRELATION_ID,
+			IntegrationMessageHeaderAccessor.SEQUENCE_NUMBER,
+			IntegrationMessageHeaderAccessor.SEQUENCE_SIZE,
+			IntegrationMessageHeaderAccessor.SEQUENCE_DETAILS,
+			IntegrationMessageHeaderAccessor.EXPIRATION_DATE,
+			IntegrationMessageHeaderAccessor.PRIORITY,
+			IntegrationMessageHeaderAccessor.ROUTING_SLIP,
+			IntegrationMessageHeaderAccessor.DUPLICATE_MESSAGE,
+			IntegrationMessageHeaderAccessor.DELIVERY_ATTEMPT,
+			JsonHeaders.TYPE_ID,
+			JsonHeaders.CONTENT_TYPE_ID,
+			JsonHeaders.KEY_TYPE_ID
+	};
+
+	private static final Map<String, Byte> WELL_KNOWN_TAGS = new HashMap<>();
+
+	static {
+		for (int i = 0; i < WELL_KNOWN_HEADERS.length; i++) {
+			WELL_KNOWN_TAGS.put(WELL_KNOWN_HEADERS[i], (byte) (i + 1));
+		}
+	}
+
+	private final ConcurrentMap<String, String> dictionary = new ConcurrentHashMap<>();
+
+	private final Converter<Object, byte[]> serializingConverter = new SerializingConverter();
+
+	private final WhiteListDeserializingConverter deserializingConverter;
+
+	/**
+	 * Construct an instance using the default class loader for Java deserialization.
+	 */
+	public CompactMessageCodec() {
+		this.deserializingConverter = new WhiteListDeserializingConverter();
+	}
+
+	/**
+	 * Construct an instance using the provided class loader for Java deserialization.
+	 * @param classLoader the class loader.
+	 */
+	public CompactMessageCodec(ClassLoader classLoader) {
+		this.deserializingConverter = new WhiteListDeserializingConverter(classLoader);
+	}
+
+	/**
+	 * Add patterns for packages/classes that are allowed to be deserialized, when values
+	 * (or data in the Java serialization format) are read with Java deserialization. A
+	 * class can be fully qualified or a wildcard '*' is allowed at the beginning or end
+	 * of the class name. Examples: {@code com.foo.*}, {@code *.MyClass}.
+	 * @param patterns the patterns.
+	 */
+	public void addWhiteListPatterns(String... patterns) {
+		this.deserializingConverter.addWhiteListPatterns(patterns);
+	}
+
+	@Override
+	public byte[] encode(Object object) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+		encode(object, out);
+		return out.toByteArray();
+	}
+
+	@Override
+	public void encode(Object object, OutputStream outputStream) throws IOException {
+		Assert.notNull(object, "'object' cannot be null");
+		DataOutputStream out = new DataOutputStream(outputStream);
+		out.writeShort(MAGIC);
+		out.writeByte(VERSION);
+		if (object instanceof MessageHolder) {
+			MessageHolder holder = (MessageHolder) object;
+			if (isCompact(holder.getMessage())) {
+				out.writeByte(KIND_MESSAGE_HOLDER);
+				out.writeLong(holder.getMessageMetadata().getTimestamp());
+				writeMessage(holder.getMessage(), out);
+			}
+			else {
+				writeObject(object, out);
+			}
+		}
+		else if (object instanceof Message && isCompact((Message<?>) object)) {
+			writeMessage((Message<?>) object, out);
+		}
+		else {
+			writeObject(object, out);
+		}
+		out.flush();
+	}
+
+	@Override
+	public <T> T decode(InputStream inputStream, Class<T> type) throws IOException {
+		return decode(StreamUtils.copyToByteArray(inputStream), type);
+	}
+
+	@Override
+	public <T> T decode(byte[] bytes, Class<T> type) throws IOException {
+		Object decoded;
+		if (bytes.length >= 2 && (short) ((bytes[0] << 8) | (bytes[1] & 0xff)) == JAVA_SERIALIZATION_MAGIC) {
+			decoded = this.deserializingConverter.convert(bytes);
+		}
+		else {
+			decoded = read(new DataInputStream(new ByteArrayInputStream(bytes)));
+		}
+		return type.cast(decoded);
+	}
+
+	private static boolean isCompact(Message<?> message) {
+		Class<?> messageClass = message.getClass();
+		return messageClass.equals(GenericMessage.class)
+				|| messageClass.equals(MutableMessage.class)
+				|| (messageClass.equals(ErrorMessage.class) && ((ErrorMessage) message).getOriginalMessage() == null);
+	}
+
+	private void writeMessage(Message<?> message, DataOutput out) throws IOException {
+		if (message instanceof ErrorMessage) {
+			out.writeByte(KIND_ERROR_MESSAGE);
+		}
+		else if (message instanceof MutableMessage) {
+			out.writeByte(KIND_MUTABLE_MESSAGE);
+		}
+		else {
+			out.writeByte(KIND_GENERIC_MESSAGE);
+		}
+		MessageHeaders headers = message.getHeaders();
+		int count = 0;
+		for (Object value : headers.values()) {
+			if (isWritable(value)) {
+				count++;
+			}
+		}
+		writeVarInt(count, out);
+		for (Map.Entry<String, Object> header : headers.entrySet()) {
+			Object value = header.getValue();
+			if (isWritable(value)) {
+				writeName(header.getKey(), out);
+				writeValue(value, out);
+			}
+			else if (logger.isDebugEnabled()) {
+				logger.debug("Header '" + header.getKey() + "' is not Serializable and is not written");
+			}
+		}
+		writeValue(message.getPayload(), out);
+	}
+
+	private static boolean isWritable(Object value) {
+		return value == null || value instanceof Serializable;
+	}
+
+	private static void writeName(String name, DataOutput out) throws IOException {
+		Byte tag = WELL_KNOWN_TAGS.get(name);
+		if (tag != null) {
+			out.writeByte(tag);
+		}
+		else {
+			out.writeByte(NAME_LITERAL);
+			writeString(name, out);
+		}
+	}
+
+	private void writeValue(Object value, DataOutput out) throws IOException {
+		if (value == null) {
+			out.writeByte(TYPE_NULL);
+		}
+		else if (value instanceof String) {
+			out.writeByte(TYPE_STRING);
+			writeString((String) value, out);
+		}
+		else if (value instanceof Integer) {
+			out.writeByte(TYPE_INTEGER);
+			out.writeInt((Integer) value);
+		}
+		else if (value instanceof Long) {
+			out.writeByte(TYPE_LONG);
+			out.writeLong((Long) value);
+		}
+		else if (value instanceof Boolean) {
+			out.writeByte((Boolean) value ? TYPE_TRUE : TYPE_FALSE);
+		}
+		else if (value instanceof Double) {
+			out.writeByte(TYPE_DOUBLE);
+			out.writeDouble((Double) value);
+		}
+		else if (value instanceof Float) {
+			out.writeByte(TYPE_FLOAT);
+			out.writeFloat((Float) value);
+		}
+		else if (value instanceof Short) {
+			out.writeByte(TYPE_SHORT);
+			out.writeShort((Short) value);
+		}
+		else if (value instanceof Byte) {
+			out.writeByte(TYPE_BYTE);
+			out.writeByte((Byte) value);
+		}
+		else if (value instanceof Character) {
+			out.writeByte(TYPE_CHARACTER);
+			out.writeChar((Character) value);
+		}
+		else if (value instanceof UUID) {
+			out.writeByte(TYPE_UUID);
+			out.writeLong(((UUID) value).getMostSignificantBits());
+			out.writeLong(((UUID) value).getLeastSignificantBits());
+		}
+		else if (value.getClass().equals(Date.class)) {
+			out.writeByte(TYPE_DATE);
+			out.writeLong(((Date) value).getTime());
+		}
+		else if (value instanceof byte[]) {
+			out.writeByte(TYPE_BYTES);
+			writeBytes((byte[]) value, out);
+		}
+		else {
+			out.writeByte(TYPE_SERIALIZED);
+			writeBytes(this.serializingConverter.convert(value), out);
+		}
+	}
+
+	private void writeObject(Object object, DataOutput out) throws IOException {
+		out.writeByte(KIND_OBJECT);
+		writeBytes(this.serializingConverter.convert(object), out);
+	}
+
+	private static void writeString(String string, DataOutput out) throws IOException {
+		writeBytes(string.getBytes(StandardCharsets.UTF_8), out);
+	}
+
+	private static void writeBytes(byte[] bytes, DataOutput out) throws IOException {
+		writeVarInt(bytes.length, out);
+		out.write(bytes);
+	}
+
+	private static void writeVarInt(int value, DataOutput out) throws IOException {
+		int remaining = value;
+		while ((remaining & ~0x7f) != 0) {
+			out.writeByte((remaining & 0x7f) | 0x80);
+			remaining >>>= 7;
+		}
+		out.writeByte(remaining);
+	}
+
+	private Object read(DataInputStream in) throws IOException {
+		short magic = in.readShort();
+		if (magic != MAGIC) {
+			throw new IOException("Not a compact message: unexpected magic 0x" + Integer.toHexString(magic & 0xffff));
+		}
+		byte version = in.readByte();
+		if (version != VERSION) {
+			throw new IOException("Unsupported compact message format version: " + version);
+		}
+		byte kind = in.readByte();
+		switch (kind) {
+			case KIND_OBJECT:
+				return this.deserializingConverter.convert(readBytes(in));
+			case KIND_MESSAGE_HOLDER:
+				long timestamp = in.readLong();
+				MessageHolder holder = new MessageHolder(readMessage(in.readByte(), in));
+				holder.setTimestamp(timestamp);
+				return holder;
+			default:
+				return readMessage(kind, in);
+		}
+	}
+
+	private Message<?> readMessage(byte kind, DataInputStream in) throws IOException {
+		int count = readLength(in);
+		Map<String, Object> headers = new HashMap<>(count * 4 / 3 + 1);
+		for (int i = 0; i < count; i++) {
+			String name = readName(in);
+			headers.put(name, readValue(in));
+		}
+		Object payload = readValue(in);
+		switch (kind) {
+			case KIND_GENERIC_MESSAGE:
+				return new GenericMessage<>(payload, new MutableMessageHeaders(headers));
+			case KIND_MUTABLE_MESSAGE:
+				return new MutableMessage<>(payload, headers);
+			case KIND_ERROR_MESSAGE:
+				return new ErrorMessage((Throwable) payload, new MutableMessageHeaders(headers));
+			default:
+				throw new IOException("Unknown message kind: " + kind);
+		}
+	}
+
+	private String readName(DataInputStream in) throws IOException {
+		int tag = in.readUnsignedByte();
+		if (tag == NAME_LITERAL) {
+			String name = readString(in);
+			String interned = this.dictionary.get(name);
+			if (interned == null) {
+				interned = name;
+				if (this.dictionary.size() < MAX_DICTIONARY_SIZE) {
+					String existing = this.dictionary.putIfAbsent(name, name);
+					if (existing != null) {
+						interned = existing;
+					}
+				}
+			}
+			return interned;
+		}
+		else if (tag <= WELL_KNOWN_HEADERS.length) {
+			return WELL_KNOWN_HEADERS[tag - 1];
+		}
+		else {
+			throw new IOException("Unknown header tag: " + tag);
+		}
+	}
+
+	private Object readValue(DataInputStream in) throws IOException {
+		byte type = in.readByte();
+		switch (type) {
+			case TYPE_NULL:
+				return null;
+			case TYPE_STRING:
+				return readString(in);
+			case TYPE_INTEGER:
+				return in.readInt();
+			case TYPE_LONG:
+				return in.readLong();
+			case TYPE_TRUE:
+				return Boolean.TRUE;
+			case TYPE_FALSE:
+				return Boolean.FALSE;
+			case TYPE_DOUBLE:
+				return in.readDouble();
+			case TYPE_FLOAT:
+				return in.readFloat();
+			case TYPE_SHORT:
+				return in.readShort();
+			case TYPE_BYTE:
+				return in.readByte();
+			case TYPE_CHARACTER:
+				return in.readChar();
+			case TYPE_UUID:
+				return new UUID(in.readLong(), in.readLong());
+			case TYPE_DATE:
+				return new Date(in.readLong());
+			case TYPE_BYTES:
+				return readBytes(in);
+			case TYPE_SERIALIZED:
+				return this.deserializingConverter.convert(readBytes(in));
+			default:
+				throw new IOException("Unknown value type: " + type);
+		}
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		return new String(readBytes(in), StandardCharsets.UTF_8);
+	}
+
+	private static byte[] readBytes(DataInputStream in) throws IOException {
+		byte[] bytes = new byte[readLength(in)];
+		in.readFully(bytes);
+		return bytes;
+	}
+
+	/*
+	 * A length (or count) can't exceed the remaining bytes; this guards against allocating
+	 * a huge array for corrupt data. The stream is always backed by a byte array, so
+	 * available() is exact.
+	 */
+	private static int readLength(DataInputStream in) throws IOException {
+		int length = readVarInt(in);
+		int remaining = in.available();
+		if (length < 0 || length > remaining) {
+			throw new IOException("Invalid length " + length + " with " + remaining + " bytes remaining");
+		}
+		return length;
+	}
+
+	private static int readVarInt(DataInputStream in) throws IOException {
+		int value = 0;
+		for (int shift = 0; shift < 32; shift += 7) {
+			int b = in.readUnsignedByte();
+			value |= (b & 0x7f) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new IOException("Malformed variable length integer");
+	}
+
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.codec.compression;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.springframework.integration.codec.Codec;
+import org.springframework.util.Assert;
+import org.springframework.util.StreamUtils;
+
+/**
+ * A {@link Codec} decorator which compresses the data encoded by its delegate, when it
+ * is larger than a threshold; see {@link CompressionSupport} for the format. For
+ * example, a message store can be configured with
+ * {@code new CompressingCodec(new CompactMessageCodec())}.
+ * <p>
+ * Data which doesn't start with a compression marker, such as the data written by the
+ * {@link org.springframework.integration.codec.CompactMessageCodec} or with Java
+ * serialization before compression was enabled, is decoded by the delegate as is.
+ *
+ * @since 5.1
+ */
+public class CompressingCodec implements Codec {
+
+	private final Codec delegate;
+
+	private final CompressionSupport compressionSupport;
+
+	/**
+	 * Construct an instance using a {@link DeflateCompressor}.
+	 * @param delegate the codec to encode and decode the data.
+	 */
+	public CompressingCodec(Codec delegate) {
+		this(delegate, new CompressionSupport());
+	}
+
+	/**
+	 * Construct an instance using the provided {@link CompressionSupport}.
+	 * @param delegate the codec to encode and decode the data.
+	 * @param compressionSupport the compression support.
+	 */
+	public CompressingCodec(Codec delegate, CompressionSupport compressionSupport) {
+		Assert.notNull(delegate, "'delegate' cannot be null");
+		Assert.notNull(compressionSupport, "'compressionSupport' cannot be null");
+		this.delegate = delegate;
+		this.compressionSupport = compressionSupport;
+	}
+
+	/**
+	 * Set the size (in bytes) of the encoded data below which it is not compressed;
+	 * default {@value CompressionSupport#DEFAULT_THRESHOLD}.
+	 * @param threshold the threshold.
+	 */
+	public void setThreshold(int threshold) {
+		this.compressionSupport.setThreshold(threshold);
+	}
+
+	@Override
+	public void encode(Object object, OutputStream outputStream) throws IOException {
+		outputStream.write(encode(object));
+	}
+
+	@Override
+	public byte[] encode(Object object) throws IOException {
+		return this.compressionSupport.compress(this.delegate.encode(object));
+	}
+
+	@Override
+	public <T> T decode(InputStream inputStream, Class<T> type) throws IOException {
+		return decode(StreamUtils.copyToByteArray(inputStream), type);
+	}
+
+	@Override
+	public <T> T decode(byte[] bytes, Class<T> type) throws IOException {
+		Assert.notNull(bytes, "'bytes' cannot be null");
+		if (bytes.length > 0 && bytes[0] == CompressionSupport.UNCOMPRESSED) {
+			return this.delegate.decode(new ByteArrayInputStream(bytes, 1, bytes.length - 1), type);
+		}
+		else if (this.compressionSupport.isCompressed(bytes)) {
+			return this.delegate.decode(this.compressionSupport.decompress(bytes), type);
+		}
+		else {
+			// written before compression was enabled
+			return this.delegate.decode(bytes, type);
+		}
+	}
+
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.codec.compression;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.util.Assert;
+
+/**
+ * Compresses data above a size threshold, recording the algorithm in a marker byte:
+ * <ul>
+ * <li>{@code 0} followed by the data, when the data is not compressed (because it is
+ * smaller than the threshold, or compression would not make it smaller);</li>
+ * <li>the {@link Compressor#getId() id} of the compressor, followed by the original
+ * length (4 bytes) and the compressed data, otherwise.</li>
+ * </ul>
+ * The first compressor is used to compress; all the compressors can be used to
+ * decompress, so an application can switch to a different algorithm and still read the
+ * data written with the previous one.
+ * <p>
+ * The original length is not trusted when decompressing: data which claims to be larger
+ * than the {@link #setMaxDecompressedLength(int) maximum} is rejected.
+ *
+ * @since 5.1
+ */
+public class CompressionSupport {
+
+	/**
+	 * The marker of data which is not compressed.
+	 */
+	public static final byte UNCOMPRESSED = 0;
+
+	/**
+	 * The default threshold, below which data is not compressed.
+	 */
+	public static final int DEFAULT_THRESHOLD = 1024;
+
+	private static final int HEADER_LENGTH = 5;
+
+	// the first byte of the CompactMessageCodec.MAGIC, so data stored without compression can still be read
+	private static final byte RESERVED_ID = 0x53;
+
+	private final Compressor compressor;
+
+	private final Map<Byte, Compressor> compressors = new HashMap<>();
+
+	private volatile int threshold = DEFAULT_THRESHOLD;
+
+	private volatile int maxDecompressedLength = Integer.MAX_VALUE;
+
+	/**
+	 * Construct an instance with a {@link DeflateCompressor}.
+	 */
+	public CompressionSupport() {
+		this(new DeflateCompressor());
+	}
+
+	/**
+	 * Construct an instance with the provided compressors; the first one is used to
+	 * compress, all of them can be used to decompress.
+	 * @param compressors the compressors.
+	 */
+	public CompressionSupport(Compressor... compressors) {
+		Assert.notEmpty(compressors, "at least one 'compressor' is required");
+		Assert.noNullElements(compressors, "'compressors' cannot contain null elements");
+		this.compressor = compressors[0];
+		for (Compressor candidate : compressors) {
+			Assert.isTrue(candidate.getId() > UNCOMPRESSED, () -> "Compressor ids must be greater than 0: " + candidate);
+			Assert.isTrue(candidate.getId() != RESERVED_ID, () -> "Compressor id " + RESERVED_ID + " is reserved: "
+					+ candidate);
+			Compressor existing = this.compressors.put(candidate.getId(), candidate);
+			Assert.isTrue(existing == null || existing == candidate,
+					() -> "Duplicate compressor id " + candidate.getId() + ": " + existing + " and " + candidate);
+		}
+	}
+
+	/**
+	 * Set the size (in bytes) below which the data is not compressed; default
+	 * {@value #DEFAULT_THRESHOLD}.
+	 * @param threshold the threshold.
+	 */
+	public void setThreshold(int threshold) {
+		Assert.isTrue(threshold >= 0, "'threshold' cannot be negative");
+		this.threshold = threshold;
+	}
+
+	public int getThreshold() {
+		return this.threshold;
+	}
+
+	/**
+	 * Set the maximum length (in bytes) of decompressed data; compressed data with a
+	 * larger original length is rejected. Default {@link Integer#MAX_VALUE}.
+	 * @param maxDecompressedLength the maximum length.
+	 */
+	public void setMaxDecompressedLength(int maxDecompressedLength) {
+		Assert.isTrue(maxDecompressedLength >= 0, "'maxDecompressedLength' cannot be negative");
+		this.maxDecompressedLength = maxDecompressedLength;
+	}
+
+	public int getMaxDecompressedLength() {
+		return this.maxDecompressedLength;
+	}
+
+	/**
+	 * Determine whether the data starts with the marker of one of the compressors.
+	 * @param data the data.
+	 * @return true if the data is compressed.
+	 */
+	public boolean isCompressed(byte[] data) {
+		return data.length > 0 && this.compressors.containsKey(data[0]);
+	}
+
+	/**
+	 * Compress the data, if it is not smaller than the threshold, and add the marker.
+	 * @param data the data.
+	 * @return the marked (and possibly compressed) data.
+	 * @throws IOException if the operation fails.
+	 */
+	public byte[] compress(byte[] data) throws IOException {
+		Assert.notNull(data, "'data' cannot be null");
+		if (data.length >= this.threshold) {
+			byte[] compressed = this.compressor.compress(data);
+			if (compressed.length + HEADER_LENGTH < data.length + 1) {
+				byte[] result = new byte[compressed.length + HEADER_LENGTH];
+				result[0] = this.compressor.getId();
+				result[1] = (byte) (data.length >>> 24);
+				result[2] = (byte) (data.length >>> 16);
+				result[3] = (byte) (data.length >>> 8);
+				result[4] = (byte) data.length;
+				System.arraycopy(compressed, 0, result, HEADER_LENGTH, compressed.length);
+				return result;
+			}
+		}
+		byte[] result = new byte[data.length + 1];
+		result[0] = UNCOMPRESSED;
+		System.arraycopy(data, 0, result, 1, data.length);
+		return result;
+	}
+
+	/**
+	 * Remove the marker and decompress the data, if it is compressed.
+	 * @param data the marked data.
+	 * @return the original data.
+	 * @throws IOException if the data has no valid marker or the operation fails.
+	 * @see #setMaxDecompressedLength(int)
+	 */
+	public byte[] decompress(byte[] data) throws IOException {
+		return decompress(data, this.maxDecompressedLength);
+	}
+
+	/**
+	 * Remove the marker and decompress the data, if it is compressed, with a maximum
+	 * length for the decompressed data.
+	 * @param data the marked data.
+	 * @param maxLength the maximum length of the decompressed data; the lower of this and
+	 * the {@link #setMaxDecompressedLength(int) maxDecompressedLength} applies.
+	 * @return the original data.
+	 * @throws IOException if the data has no valid marker, is too large, or the operation
+	 * fails.
+	 */
+	public byte[] decompress(byte[] data, int maxLength) throws IOException {
+		Assert.notNull(data, "'data' cannot be null");
+		if (data.length == 0) {
+			throw new IOException("No compression marker");
+		}
+		byte marker = data[0];
+		if (marker == UNCOMPRESSED) {
+			return Arrays.copyOfRange(data, 1, data.length);
+		}
+		Compressor decompressor = this.compressors.get(marker);
+		if (decompressor == null) {
+			throw new IOException("Unknown compression marker: " + marker);
+		}
+		if (data.length < HEADER_LENGTH) {
+			throw new IOException("Compressed data is truncated");
+		}
+		int originalLength = ((data[1] & 0xff) << 24) | ((data[2] & 0xff) << 16)
+				| ((data[3] & 0xff) << 8) | (data[4] & 0xff);
+		if (originalLength < 0) {
+			throw new IOException("Invalid original length: " + originalLength);
+		}
+		int max = Math.min(maxLength, this.maxDecompressedLength);
+		if (originalLength > max) {
+			throw new IOException("Original length " + originalLength + " exceeds the maximum " + max);
+		}
+		return decompressor.decompress(data, HEADER_LENGTH, data.length - HEADER_LENGTH, originalLength);
+	}
+
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.codec.compression;
+
+import java.io.IOException;
+
+/**
+ * Strategy to compress and decompress data; used by the {@link CompressionSupport}.
+ * Implementations must be thread-safe.
+ *
+ * @since 5.1
+ */
+public interface Compressor {
+
+	/**
+	 * Return the id of this algorithm; it is written as the marker byte before the
+	 * compressed data, so it must be unique and must not change. It must be greater than
+	 * 0; 0 indicates uncompressed data. Ids less than 16 are reserved for the framework,
+	 * as is {@code 0x53}, the first byte of the
+	 * {@link org.springframework.integration.codec.CompactMessageCodec} format, so that
+	 * data written before compression was enabled can still be read.
+	 * @return the id.
+	 */
+	byte getId();
+
+	/**
+	 * Compress the data.
+	 * @param data the data.
+	 * @return the compressed data.
+	 * @throws IOException if the operation fails.
+	 */
+	byte[] compress(byte[] data) throws IOException;
+
+	/**
+	 * Decompress the data.
+	 * @param data the array containing the compressed data.
+	 * @param offset the offset of the compressed data.
+	 * @param length the length of the compressed data.
+	 * @param originalLength the length of the data before it was compressed.
+	 * @return the decompressed data.
+	 * @throws IOException if the operation fails.
+	 */
+	byte[] decompress(byte[] data, int offset, int length, int originalLength) throws IOException;
+
+}
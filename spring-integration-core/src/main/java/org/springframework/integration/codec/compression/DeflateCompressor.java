@@ -0,0 +1,123 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.codec.compression;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.springframework.util.Assert;
+
+/**
+ * A {@link Compressor} using the {@code java.util.zip} {@link Deflater} and
+ * {@link Inflater} (zlib format). The (native) deflaters and inflaters are reused by
+ * each thread, instead of being created for each operation.
+ *
+ * @since 5.1
+ */
+public class DeflateCompressor implements Compressor {
+
+	/**
+	 * The id of this algorithm.
+	 */
+	public static final byte ID = 1;
+
+	private static final ThreadLocal<byte[]> buffers = ThreadLocal.withInitial(() -> new byte[8192]);
+
+	private final ThreadLocal<Deflater> deflaters;
+
+	private final ThreadLocal<Inflater> inflaters = ThreadLocal.withInitial(Inflater::new);
+
+	/**
+	 * Construct an instance with the default compression level.
+	 */
+	public DeflateCompressor() {
+		this(Deflater.DEFAULT_COMPRESSION);
+	}
+
+	/**
+	 * Construct an instance with the provided compression level.
+	 * @param level the level (0-9) or {@link Deflater#DEFAULT_COMPRESSION}.
+	 * @see Deflater#setLevel(int)
+	 */
+	public DeflateCompressor(int level) {
+		Assert.isTrue(level == Deflater.DEFAULT_COMPRESSION
+				|| (level >= Deflater.NO_COMPRESSION && level <= Deflater.BEST_COMPRESSION),
+				"'level' must be between 0 and 9, or -1 for the default");
+		this.deflaters = ThreadLocal.withInitial(() -> new Deflater(level));
+	}
+
+	@Override
+	public byte getId() {
+		return ID;
+	}
+
+	@Override
+	public byte[] compress(byte[] data) throws IOException {
+		Deflater deflater = this.deflaters.get();
+		byte[] buffer = buffers.get();
+		ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length / 2));
+		try {
+			deflater.setInput(data);
+			deflater.finish();
+			while (!deflater.finished()) {
+				int count = deflater.deflate(buffer);
+				out.write(buffer, 0, count);
+			}
+		}
+		finally {
+			deflater.reset();
+		}
+		return out.toByteArray();
+	}
+
+	@Override
+	public byte[] decompress(byte[] data, int offset, int length, int originalLength) throws IOException {
+		Inflater inflater = this.inflaters.get();
+		// grown as the data is inflated, rather than trusting the original length up front
+		byte[] result = new byte[(int) Math.min(originalLength, Math.max(256L, length * 4L))];
+		int position = 0;
+		try {
+			inflater.setInput(data, offset, length);
+			while (position < originalLength) {
+				if (position == result.length) {
+					result = Arrays.copyOf(result, (int) Math.min(originalLength, result.length * 2L));
+				}
+				int count = inflater.inflate(result, position, result.length - position);
+				if (count == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+					break;
+				}
+				position += count;
+			}
+		}
+		catch (DataFormatException e) {
+			throw new IOException("Invalid compressed data", e);
+		}
+		finally {
+			inflater.reset();
+		}
+		if (position != originalLength) {
+			throw new IOException("Compressed data is truncated; expected " + originalLength
+					+ " bytes, but only " + position + " could be decompressed");
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,4 @@
+/**
+ * Classes to compress the data encoded by a {@code Codec} or a serializer.
+ */
+package org.springframework.integration.codec.compression;
@@ -1,5 +1,5 @@
 /*
- * Copyright 2015-2016 the original author or authors.
+ * Copyright 2015-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,52 +16,169 @@
 
 package org.springframework.integration.codec.kryo;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
 
+import org.springframework.beans.factory.InitializingBean;
 import org.springframework.integration.codec.Codec;
 import org.springframework.util.Assert;
 
 import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.ByteBufferInput;
+import com.esotericsoftware.kryo.io.ByteBufferOutput;
 import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
-import com.esotericsoftware.kryo.pool.KryoFactory;
+import com.esotericsoftware.kryo.pool.KryoCallback;
 import com.esotericsoftware.kryo.pool.KryoPool;
 
 /**
  * Base class for {@link Codec}s using {@link Kryo}.
- * Manages pooled {@link Kryo} instances.
+ * Manages pooled {@link Kryo} instances and {@link Output} buffers.
+ * <p>
+ * The pools are bounded and lock-free; a thread starts looking for a free instance at a
+ * slot derived from its id, so threads tend to reuse the same instances. When a pool is
+ * exhausted, a new instance is created (and discarded on release if the pool is full).
+ * <p>
+ * Objects can also be encoded to (and decoded from) a {@link ByteBuffer}, including
+ * direct buffers, without an intermediate {@code byte[]}.
  *
  * @author David Turanski
  * @since 4.2
  */
-public abstract class AbstractKryoCodec implements Codec {
+public abstract class AbstractKryoCodec implements Codec, InitializingBean {
+
+	/**
+	 * The default maximum number of pooled {@link Kryo} instances and buffers.
+	 */
+	public static final int DEFAULT_POOL_SIZE = Math.max(8, Runtime.getRuntime().availableProcessors() * 2);
+
+	private static final int OUTPUT_BUFFER_SIZE = 4096;
+
+	private static final int MAX_RETAINED_OUTPUT_BUFFER_SIZE = 64 * 1024;
 
 	protected final KryoPool pool;
 
+	private final BoundedPool<Kryo> kryos;
+
+	private final BoundedPool<Output> outputs;
+
+	private final BoundedPool<Input> inputs;
+
+	private volatile boolean warmedUp;
+
 	protected AbstractKryoCodec() {
-		KryoFactory factory = () -> {
+		this(DEFAULT_POOL_SIZE);
+	}
+
+	/**
+	 * Construct an instance with the provided maximum number of pooled {@link Kryo}
+	 * instances and buffers.
+	 * @param poolSize the pool size.
+	 * @since 5.1
+	 */
+	protected AbstractKryoCodec(int poolSize) {
+		Assert.isTrue(poolSize > 0, "'poolSize' must be greater than 0");
+		this.kryos = new BoundedPool<>(poolSize, () -> {
 			Kryo kryo = new Kryo();
 			// configure Kryo instance, customize settings
 			configureKryoInstance(kryo);
 			return kryo;
-		};
-		// Build pool with SoftReferences enabled (optional)
-		this.pool = new KryoPool.Builder(factory).softReferences().build();
+		});
+		this.outputs = new BoundedPool<>(poolSize, () -> new Output(OUTPUT_BUFFER_SIZE, -1));
+		this.inputs = new BoundedPool<>(poolSize, () -> new Input(OUTPUT_BUFFER_SIZE));
+		this.pool = new BoundedKryoPool(this.kryos);
+	}
+
+	@Override
+	public void afterPropertiesSet() {
+		warmUp();
+	}
+
+	/**
+	 * Create and register the types with the {@link Kryo} instances up front, so that
+	 * the first objects encoded or decoded don't incur that cost. Invoked when the codec
+	 * is initialized as a bean; otherwise, it can be invoked after the codec is
+	 * constructed.
+	 * @since 5.1
+	 */
+	public void warmUp() {
+		if (!this.warmedUp) {
+			this.warmedUp = true;
+			int count = Math.min(this.kryos.size(), Runtime.getRuntime().availableProcessors());
+			Kryo[] created = new Kryo[count];
+			for (int i = 0; i < count; i++) {
+				created[i] = this.kryos.borrow();
+			}
+			for (Kryo kryo : created) {
+				this.kryos.release(kryo);
+			}
+		}
 	}
 
 	@Override
 	public void encode(final Object object, OutputStream outputStream) throws IOException {
 		Assert.notNull(object, "cannot encode a null object");
 		Assert.notNull(outputStream, "'outputSteam' cannot be null");
-		final Output output = (outputStream instanceof Output ? (Output) outputStream : new Output(outputStream));
-		this.pool.run(kryo -> {
-			doEncode(kryo, object, output);
-			return Void.class;
-		});
-		output.close();
+		if (outputStream instanceof Output) {
+			Output output = (Output) outputStream;
+			write(object, output);
+			output.close();
+		}
+		else {
+			Output output = this.outputs.borrow();
+			try {
+				output.setOutputStream(outputStream);
+				write(object, output);
+				output.flush();
+			}
+			finally {
+				output.setOutputStream(null);
+				releaseOutput(output);
+			}
+			outputStream.close();
+		}
+	}
+
+	@Override
+	public byte[] encode(Object object) throws IOException {
+		Assert.notNull(object, "cannot encode a null object");
+		Output output = this.outputs.borrow();
+		try {
+			write(object, output);
+			return output.toBytes();
+		}
+		finally {
+			releaseOutput(output);
+		}
+	}
+
+	/**
+	 * Encode an object to a {@link ByteBuffer}, starting at its current position; the
+	 * position is advanced past the encoded object. The buffer can be direct.
+	 * @param object the object to encode.
+	 * @param buffer the buffer.
+	 * @throws IOException if the operation fails.
+	 * @throws com.esotericsoftware.kryo.KryoException if the buffer is too small.
+	 * @since 5.1
+	 */
+	public void encode(Object object, ByteBuffer buffer) throws IOException {
+		Assert.notNull(object, "cannot encode a null object");
+		Assert.notNull(buffer, "'buffer' cannot be null");
+		ByteOrder order = buffer.order();
+		buffer.order(ByteOrder.BIG_ENDIAN); // same format as the stream and byte[] variants
+		try {
+			ByteBufferOutput output = new ByteBufferOutput(buffer);
+			write(object, output);
+			buffer.position(output.position());
+		}
+		finally {
+			buffer.order(order);
+		}
 	}
 
 	@Override
@@ -69,7 +186,7 @@ public abstract class AbstractKryoCodec implements Codec {
 		Assert.notNull(bytes, "'bytes' cannot be null");
 		final Input input = new Input(bytes);
 		try {
-			return decode(input, type);
+			return read(input, type);
 		}
 		finally {
 			input.close();
@@ -80,24 +197,84 @@ public abstract class AbstractKryoCodec implements Codec {
 	public <T> T decode(InputStream inputStream, final Class<T> type) throws IOException {
 		Assert.notNull(inputStream, "'inputStream' cannot be null");
 		Assert.notNull(type, "'type' cannot be null");
-		final Input input = (inputStream instanceof Input ? (Input) inputStream : new Input(inputStream));
-		T result = null;
+		if (inputStream instanceof Input) {
+			Input input = (Input) inputStream;
+			try {
+				return read(input, type);
+			}
+			finally {
+				input.close();
+			}
+		}
+		else {
+			Input input = this.inputs.borrow();
+			try {
+				input.setInputStream(inputStream);
+				return read(input, type);
+			}
+			finally {
+				input.setInputStream(null);
+				this.inputs.release(input);
+				inputStream.close();
+			}
+		}
+	}
+
+	/**
+	 * Decode an object of a given type from a {@link ByteBuffer}, starting at its current
+	 * position; the position is advanced past the decoded object. The buffer can be
+	 * direct.
+	 * @param buffer the buffer.
+	 * @param type the object's class.
+	 * @param <T> the object's type.
+	 * @return the object.
+	 * @throws IOException if the operation fails.
+	 * @since 5.1
+	 */
+	public <T> T decode(ByteBuffer buffer, Class<T> type) throws IOException {
+		Assert.notNull(buffer, "'buffer' cannot be null");
+		Assert.notNull(type, "'type' cannot be null");
+		ByteOrder order = buffer.order();
+		buffer.order(ByteOrder.BIG_ENDIAN);
 		try {
-			result = this.pool.run(kryo -> doDecode(kryo, input, type));
+			ByteBufferInput input = new ByteBufferInput(buffer);
+			T result = read(input, type);
+			buffer.position(input.position());
+			return result;
 		}
 		finally {
-			input.close();
+			buffer.order(order);
 		}
-		return result;
 	}
 
-	@Override
-	public byte[] encode(Object object) throws IOException {
-		ByteArrayOutputStream bos = new ByteArrayOutputStream();
-		encode(object, bos);
-		byte[] bytes = bos.toByteArray();
-		bos.close();
-		return bytes;
+	private void write(Object object, Output output) {
+		Kryo kryo = this.kryos.borrow();
+		try {
+			doEncode(kryo, object, output);
+		}
+		finally {
+			this.kryos.release(kryo);
+		}
+	}
+
+	private <T> T read(Input input, Class<T> type) {
+		Kryo kryo = this.kryos.borrow();
+		try {
+			return doDecode(kryo, input, type);
+		}
+		finally {
+			this.kryos.release(kryo);
+		}
+	}
+
+	private void releaseOutput(Output output) {
+		if (output.getBuffer().length > MAX_RETAINED_OUTPUT_BUFFER_SIZE) {
+			output.setBuffer(new byte[OUTPUT_BUFFER_SIZE], -1);
+		}
+		else {
+			output.clear();
+		}
+		this.outputs.release(output);
 	}
 
 	/**
@@ -125,4 +302,80 @@ public abstract class AbstractKryoCodec implements Codec {
 	 */
 	protected abstract void configureKryoInstance(Kryo kryo);
 
+	/**
+	 * A bounded, lock-free pool; a slot is claimed or filled with a CAS, starting at a
+	 * slot derived from the current thread's id.
+	 */
+	private static final class BoundedPool<T> {
+
+		private final AtomicReferenceArray<T> slots;
+
+		private final Supplier<T> factory;
+
+		BoundedPool(int size, Supplier<T> factory) {
+			this.slots = new AtomicReferenceArray<>(size);
+			this.factory = factory;
+		}
+
+		int size() {
+			return this.slots.length();
+		}
+
+		T borrow() {
+			int size = this.slots.length();
+			int start = (int) (Thread.currentThread().getId() % size);
+			for (int i = 0; i < size; i++) {
+				int index = (start + i) % size;
+				T item = this.slots.get(index);
+				if (item != null && this.slots.compareAndSet(index, item, null)) {
+					return item;
+				}
+			}
+			return this.factory.get();
+		}
+
+		void release(T item) {
+			int size = this.slots.length();
+			int start = (int) (Thread.currentThread().getId() % size);
+			for (int i = 0; i < size; i++) {
+				int index = (start + i) % size;
+				if (this.slots.get(index) == null && this.slots.compareAndSet(index, null, item)) {
+					return;
+				}
+			}
+		}
+
+	}
+
+	private static final class BoundedKryoPool implements KryoPool {
+
+		private final BoundedPool<Kryo> kryos;
+
+		BoundedKryoPool(BoundedPool<Kryo> kryos) {
+			this.kryos = kryos;
+		}
+
+		@Override
+		public Kryo borrow() {
+			return this.kryos.borrow();
+		}
+
+		@Override
+		public void release(Kryo kryo) {
+			this.kryos.release(kryo);
+		}
+
+		@Override
+		public <T> T run(KryoCallback<T> callback) {
+			Kryo kryo = borrow();
+			try {
+				return callback.execute(kryo);
+			}
+			finally {
+				release(kryo);
+			}
+		}
+
+	}
+
 }
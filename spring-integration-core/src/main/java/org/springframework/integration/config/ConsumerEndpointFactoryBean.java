@@ -300,6 +300,10 @@ public class ConsumerEndpointFactoryBean
 				pollingConsumer.setMaxMessagesPerPoll(this.pollerMetadata.getMaxMessagesPerPoll());
 
 				pollingConsumer.setErrorHandler(this.pollerMetadata.getErrorHandler());
+				pollingConsumer.setConcurrency(this.pollerMetadata.getMinConcurrency(), this.pollerMetadata.getMaxConcurrency());
+				pollingConsumer.setScaleUpThreshold(this.pollerMetadata.getScaleUpThreshold());
+				pollingConsumer.setScaleDownThreshold(this.pollerMetadata.getScaleDownThreshold());
+				pollingConsumer.setBacklogThreshold(this.pollerMetadata.getBacklogThreshold());
 
 				pollingConsumer.setReceiveTimeout(this.pollerMetadata.getReceiveTimeout());
 				pollingConsumer.setTransactionSynchronizationFactory(
@@ -116,4 +116,21 @@ public @interface EnableIntegrationManagement {
 	 */
 	String metricsFactory() default "";
 
+	/**
+	 * The percentiles (each between 0 and 1, e.g. "0.5, 0.99") of the latency to report
+	 * for channel sends, handler invocations and message source receives, for components
+	 * with counts enabled. Defaults to none (latency histograms disabled).
+	 * @return the percentiles.
+	 * @since 5.1
+	 */
+	String[] latencyPercentiles() default { };
+
+	/**
+	 * Set to "true" to report the latency percentiles of the interval since they were
+	 * last read, rather than cumulative values.
+	 * @return the value; false by default.
+	 * @since 5.1
+	 */
+	String latencyIntervalReset() default "false";
+
 }
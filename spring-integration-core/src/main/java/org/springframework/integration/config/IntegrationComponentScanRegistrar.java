@@ -1,5 +1,5 @@
 /*
- * Copyright 2014-2016 the original author or authors.
+ * Copyright 2014-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,12 +16,15 @@
 
 package org.springframework.integration.config;
 
+import java.io.IOException;
 import java.lang.annotation.Annotation;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -30,6 +33,7 @@ import java.util.regex.Pattern;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.Aware;
 import org.springframework.beans.factory.BeanClassLoaderAware;
+import org.springframework.beans.factory.BeanDefinitionStoreException;
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.BeanFactoryAware;
 import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
@@ -41,10 +45,15 @@ import org.springframework.context.ResourceLoaderAware;
 import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
 import org.springframework.context.annotation.FilterType;
 import org.springframework.context.annotation.ImportBeanDefinitionRegistrar;
+import org.springframework.context.annotation.ScannedGenericBeanDefinition;
 import org.springframework.core.annotation.AnnotationAttributes;
 import org.springframework.core.env.Environment;
+import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.core.io.support.ResourcePatternUtils;
 import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.core.type.classreading.MetadataReader;
 import org.springframework.core.type.filter.AnnotationTypeFilter;
 import org.springframework.core.type.filter.AspectJTypeFilter;
 import org.springframework.core.type.filter.AssignableTypeFilter;
@@ -98,22 +107,17 @@ public class IntegrationComponentScanRegistrar implements ImportBeanDefinitionRe
 			basePackages = Collections.singleton(ClassUtils.getPackageName(importingClassMetadata.getClassName()));
 		}
 
-		ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false) {
+		IntegrationComponentScanner scanner = new IntegrationComponentScanner();
 
-			@Override
-			protected boolean isCandidateComponent(AnnotatedBeanDefinition beanDefinition) {
-				return beanDefinition.getMetadata().isIndependent()
-						&& !beanDefinition.getMetadata().isAnnotation();
-			}
-		};
-
-		if ((boolean) componentScan.get("useDefaultFilters")) {
+		boolean useDefaultFilters = (boolean) componentScan.get("useDefaultFilters");
+		if (useDefaultFilters) {
 			for (TypeFilter typeFilter : this.componentRegistrars.keySet()) {
 				scanner.addIncludeFilter(typeFilter);
 			}
 		}
 
-		for (AnnotationAttributes filter : (AnnotationAttributes[]) componentScan.get("includeFilters")) {
+		AnnotationAttributes[] includeFilters = (AnnotationAttributes[]) componentScan.get("includeFilters");
+		for (AnnotationAttributes filter : includeFilters) {
 			for (TypeFilter typeFilter : typeFiltersFor(filter, registry)) {
 				scanner.addIncludeFilter(typeFilter);
 			}
@@ -125,10 +129,24 @@ public class IntegrationComponentScanRegistrar implements ImportBeanDefinitionRe
 		}
 
 
-		scanner.setResourceLoader(this.resourceLoader);
+		// the index only knows about the default filters; custom include filters need a full scan
+		IntegrationComponentsIndex componentsIndex = useDefaultFilters && includeFilters.length == 0
+				? IntegrationComponentsIndex.loadIndex(
+						this.resourceLoader != null ? this.resourceLoader.getClassLoader() : null)
+				: null;
+		if (componentsIndex != null) {
+			scanner.setResourceLoader(new IndexedRootsExcludingResourcePatternResolver(this.resourceLoader,
+					componentsIndex));
+		}
+		else {
+			scanner.setResourceLoader(this.resourceLoader);
+		}
 
 		for (String basePackage : basePackages) {
 			Set<BeanDefinition> candidateComponents = scanner.findCandidateComponents(basePackage);
+			if (componentsIndex != null) {
+				candidateComponents.addAll(scanner.findIndexedCandidateComponents(componentsIndex, basePackage));
+			}
 			for (BeanDefinition candidateComponent : candidateComponents) {
 				if (candidateComponent instanceof AnnotatedBeanDefinition) {
 					for (ImportBeanDefinitionRegistrar registrar : this.componentRegistrars.values()) {
@@ -224,4 +242,127 @@ public class IntegrationComponentScanRegistrar implements ImportBeanDefinitionRe
 		}
 	}
 
+	/**
+	 * The scanner for {@code @MessagingGateway} (and custom) components; it can also
+	 * resolve the candidates from a {@link IntegrationComponentsIndex}.
+	 */
+	private static class IntegrationComponentScanner extends ClassPathScanningCandidateComponentProvider {
+
+		IntegrationComponentScanner() {
+			super(false);
+		}
+
+		@Override
+		protected boolean isCandidateComponent(AnnotatedBeanDefinition beanDefinition) {
+			return beanDefinition.getMetadata().isIndependent()
+					&& !beanDefinition.getMetadata().isAnnotation();
+		}
+
+		Set<BeanDefinition> findIndexedCandidateComponents(IntegrationComponentsIndex componentsIndex,
+				String basePackage) {
+
+			Set<BeanDefinition> candidates = new LinkedHashSet<>();
+			String packageToUse = getEnvironment().resolveRequiredPlaceholders(basePackage);
+			for (String className : componentsIndex.getGateways(packageToUse)) {
+				try {
+					MetadataReader metadataReader = getMetadataReaderFactory().getMetadataReader(className);
+					if (isCandidateComponent(metadataReader)) {
+						ScannedGenericBeanDefinition beanDefinition = new ScannedGenericBeanDefinition(metadataReader);
+						beanDefinition.setResource(metadataReader.getResource());
+						beanDefinition.setSource(metadataReader.getResource());
+						if (isCandidateComponent(beanDefinition)) {
+							candidates.add(beanDefinition);
+						}
+					}
+				}
+				catch (IOException ex) {
+					throw new BeanDefinitionStoreException("Failed to read indexed candidate component class: "
+							+ className, ex);
+				}
+			}
+			return candidates;
+		}
+
+	}
+
+	/**
+	 * A {@link ResourcePatternResolver} which hides the class files of the indexed
+	 * classpath roots from the scanner; their candidates come from the index instead.
+	 * A {@code classpath*:} pattern is resolved against each root that is not indexed,
+	 * so the indexed roots are not traversed at all.
+	 */
+	private static class IndexedRootsExcludingResourcePatternResolver implements ResourcePatternResolver {
+
+		private final ResourcePatternResolver delegate;
+
+		private final IntegrationComponentsIndex componentsIndex;
+
+		IndexedRootsExcludingResourcePatternResolver(ResourceLoader resourceLoader,
+				IntegrationComponentsIndex componentsIndex) {
+
+			this.delegate = ResourcePatternUtils.getResourcePatternResolver(resourceLoader);
+			this.componentsIndex = componentsIndex;
+		}
+
+		@Override
+		public Resource[] getResources(String locationPattern) throws IOException {
+			String rootDir = null;
+			if (locationPattern.startsWith(CLASSPATH_ALL_URL_PREFIX)) {
+				String path = locationPattern.substring(CLASSPATH_ALL_URL_PREFIX.length());
+				int wildcard = indexOfWildcard(path);
+				if (wildcard > 0) {
+					rootDir = path.substring(0, path.lastIndexOf('/', wildcard) + 1);
+				}
+			}
+			List<Resource> result = new ArrayList<>();
+			if (StringUtils.hasLength(rootDir)) {
+				String subPattern = locationPattern.substring(CLASSPATH_ALL_URL_PREFIX.length() + rootDir.length());
+				for (Resource root : this.delegate.getResources(CLASSPATH_ALL_URL_PREFIX + rootDir)) {
+					if (!isIndexed(root)) {
+						result.addAll(Arrays.asList(this.delegate.getResources(root.getURL() + subPattern)));
+					}
+				}
+			}
+			else {
+				// no root directory to start from; filter the complete result instead
+				for (Resource resource : this.delegate.getResources(locationPattern)) {
+					if (!isIndexed(resource)) {
+						result.add(resource);
+					}
+				}
+			}
+			return result.toArray(new Resource[0]);
+		}
+
+		private static int indexOfWildcard(String path) {
+			for (int i = 0; i < path.length(); i++) {
+				char c = path.charAt(i);
+				if (c == '*' || c == '?' || c == '{') {
+					return i;
+				}
+			}
+			return -1;
+		}
+
+		private boolean isIndexed(Resource resource) {
+			try {
+				return this.componentsIndex.isIndexed(resource.getURL());
+			}
+			catch (IOException ex) {
+				return false;
+			}
+		}
+
+		@Override
+		public Resource getResource(String location) {
+			return this.delegate.getResource(location);
+		}
+
+		@Override
+		public ClassLoader getClassLoader() {
+			return this.delegate.getClassLoader();
+		}
+
+	}
+
 }
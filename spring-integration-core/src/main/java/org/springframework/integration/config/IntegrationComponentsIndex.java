@@ -0,0 +1,238 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.config;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.core.KotlinDetector;
+import org.springframework.core.SpringProperties;
+import org.springframework.core.io.UrlResource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.lang.Nullable;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.StringUtils;
+
+/**
+ * The messaging components index generated at compile time by the
+ * {@code spring-integration-indexer} annotation processor. Each
+ * {@value #COMPONENTS_RESOURCE_LOCATION} file lists the classes of its classpath root
+ * which have messaging annotations ({@value #ENDPOINT}) on their methods and the
+ * {@code @MessagingGateway} interfaces ({@value #GATEWAY}).
+ * <p>
+ * The index is authoritative only for the roots that contain an index file; classes from
+ * any other root (or those which are not named, such as anonymous classes) are always
+ * introspected as before. Set the {@value #IGNORE_INDEX} Spring property (or system
+ * property) to {@code true} to disable the index altogether.
+ * <p>
+ * The annotation processor only sees Java sources, so an index in a root which also
+ * contains Kotlin classes (detected by a {@code META-INF/*.kotlin_module} file) is
+ * ignored with a warning, and Kotlin and Groovy classes are always introspected.
+ *
+ * @since 5.1
+ */
+public final class IntegrationComponentsIndex {
+
+	/**
+	 * The location of the index files.
+	 */
+	public static final String COMPONENTS_RESOURCE_LOCATION = "META-INF/spring-integration.components";
+
+	/**
+	 * The property to ignore the index.
+	 */
+	public static final String IGNORE_INDEX = "spring.integration.index.ignore";
+
+	/**
+	 * The index value for classes with messaging annotations on their methods.
+	 */
+	public static final String ENDPOINT = "endpoint";
+
+	/**
+	 * The index value for {@code @MessagingGateway} interfaces.
+	 */
+	public static final String GATEWAY = "gateway";
+
+	private static final String KOTLIN_MODULE_LOCATION = "META-INF/*.kotlin_module";
+
+	private static final String GROOVY_OBJECT = "groovy.lang.GroovyObject";
+
+	private static final Log logger = LogFactory.getLog(IntegrationComponentsIndex.class);
+
+	private static final boolean shouldIgnoreIndex = SpringProperties.getFlag(IGNORE_INDEX);
+
+	private static final ConcurrentMap<ClassLoader, IntegrationComponentsIndex> cache =
+			new ConcurrentReferenceHashMap<>();
+
+	private final AntPathMatcher pathMatcher = new AntPathMatcher(".");
+
+	private final List<String> roots;
+
+	private final Set<String> endpoints = new HashSet<>();
+
+	private final Set<String> gateways = new HashSet<>();
+
+	/**
+	 * Construct an instance from the index files, keyed by their classpath root.
+	 * @param indexes the index contents.
+	 */
+	IntegrationComponentsIndex(Map<String, Properties> indexes) {
+		this.roots = new ArrayList<>(indexes.keySet());
+		for (Properties index : indexes.values()) {
+			for (String className : index.stringPropertyNames()) {
+				Set<String> types = StringUtils.commaDelimitedListToSet(index.getProperty(className));
+				if (types.contains(ENDPOINT)) {
+					this.endpoints.add(className);
+				}
+				if (types.contains(GATEWAY)) {
+					this.gateways.add(className);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Determine whether the class may have messaging annotations on its methods. Returns
+	 * true unless the class comes from an indexed root and is not in that index.
+	 * @param type the class.
+	 * @return true if the methods of the class need to be introspected.
+	 */
+	public boolean mayHaveMessagingAnnotations(Class<?> type) {
+		Class<?> userClass = ClassUtils.getUserClass(type);
+		return this.endpoints.contains(userClass.getName()) || !isIndexed(userClass);
+	}
+
+	/**
+	 * Return the indexed {@code @MessagingGateway} interfaces in the base package (which
+	 * may contain ant-style wildcards) or any of its sub-packages.
+	 * @param basePackage the base package.
+	 * @return the interface names.
+	 */
+	public Set<String> getGateways(String basePackage) {
+		Set<String> result = new HashSet<>();
+		String pattern = basePackage + ".**";
+		for (String gateway : this.gateways) {
+			if (this.pathMatcher.match(pattern, gateway)) {
+				result.add(gateway);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Determine whether the resource (such as a class file found by scanning) comes from
+	 * an indexed root.
+	 * @param url the resource url.
+	 * @return true if indexed.
+	 */
+	public boolean isIndexed(URL url) {
+		String location = url.toString();
+		for (String root : this.roots) {
+			if (location.startsWith(root)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private boolean isIndexed(Class<?> type) {
+		if (type.isAnonymousClass() || type.isLocalClass() || type.isSynthetic() || type.getClassLoader() == null
+				|| KotlinDetector.isKotlinType(type) || isGroovyType(type)) {
+			return false;
+		}
+		URL url = type.getResource(ClassUtils.getClassFileName(type));
+		return url != null && isIndexed(url);
+	}
+
+	private static boolean isGroovyType(Class<?> type) {
+		for (Class<?> candidate : ClassUtils.getAllInterfacesForClassAsSet(type)) {
+			if (GROOVY_OBJECT.equals(candidate.getName())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Load the index from all the {@value #COMPONENTS_RESOURCE_LOCATION} files available
+	 * to the class loader.
+	 * @param classLoader the class loader; the default class loader if null.
+	 * @return the index, or null if there are no index files or the index is ignored.
+	 */
+	@Nullable
+	public static IntegrationComponentsIndex loadIndex(@Nullable ClassLoader classLoader) {
+		ClassLoader classLoaderToUse = classLoader;
+		if (classLoaderToUse == null) {
+			classLoaderToUse = ClassUtils.getDefaultClassLoader();
+		}
+		if (shouldIgnoreIndex || classLoaderToUse == null) {
+			return null;
+		}
+		return cache.computeIfAbsent(classLoaderToUse, IntegrationComponentsIndex::doLoadIndex);
+	}
+
+	@Nullable
+	private static IntegrationComponentsIndex doLoadIndex(ClassLoader classLoader) {
+		try {
+			Enumeration<URL> urls = classLoader.getResources(COMPONENTS_RESOURCE_LOCATION);
+			if (!urls.hasMoreElements()) {
+				return null;
+			}
+			PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver(classLoader);
+			Map<String, Properties> indexes = new LinkedHashMap<>();
+			for (URL url : Collections.list(urls)) {
+				String location = url.toString();
+				String root = location.substring(0, location.length() - COMPONENTS_RESOURCE_LOCATION.length());
+				if (resolver.getResources(root + KOTLIN_MODULE_LOCATION).length > 0) {
+					logger.warn("Ignoring the messaging components index in " + root
+							+ " because it also contains Kotlin classes, which are not indexed");
+				}
+				else {
+					indexes.put(root, PropertiesLoaderUtils.loadProperties(new UrlResource(url)));
+				}
+			}
+			if (indexes.isEmpty()) {
+				return null;
+			}
+			if (logger.isDebugEnabled()) {
+				logger.debug("Loaded messaging components index for " + indexes.keySet());
+			}
+			return new IntegrationComponentsIndex(indexes);
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Unable to load indexes from location ["
+					+ COMPONENTS_RESOURCE_LOCATION + "]", ex);
+		}
+	}
+
+}
@@ -80,9 +80,26 @@ public class IntegrationManagementConfiguration implements ImportAware, Environm
 				Boolean.parseBoolean(this.environment.resolvePlaceholders(
 						(String) this.attributes.get("defaultStatsEnabled"))));
 		configurer.setMetricsFactoryBeanName((String) this.attributes.get("metricsFactory"));
+		setupLatencyPercentiles(configurer);
+		configurer.setLatencyIntervalReset(
+				Boolean.parseBoolean(this.environment.resolvePlaceholders(
+						(String) this.attributes.get("latencyIntervalReset"))));
 		return configurer;
 	}
 
+	private void setupLatencyPercentiles(IntegrationManagementConfigurer configurer) {
+		List<Double> percentiles = new ArrayList<>();
+		for (String percentile : this.attributes.getStringArray("latencyPercentiles")) {
+			String resolved = this.environment.resolvePlaceholders(percentile);
+			for (String value : StringUtils.commaDelimitedListToStringArray(resolved)) {
+				if (StringUtils.hasText(value)) {
+					percentiles.add(Double.valueOf(value.trim()));
+				}
+			}
+		}
+		configurer.setLatencyPercentiles(percentiles.stream().mapToDouble(Double::doubleValue).toArray());
+	}
+
 	private void setupCountsEnabledNamePatterns(IntegrationManagementConfigurer configurer) {
 		List<String> patterns = new ArrayList<String>();
 		String[] countsEnabled = this.attributes.getStringArray("countsEnabled");
@@ -37,6 +37,7 @@ import org.springframework.integration.support.management.ConfigurableMetricsAwa
 import org.springframework.integration.support.management.DefaultMetricsFactory;
 import org.springframework.integration.support.management.IntegrationManagement;
 import org.springframework.integration.support.management.IntegrationManagement.ManagementOverrides;
+import org.springframework.integration.support.management.LatencyHistogram;
 import org.springframework.integration.support.management.MessageChannelMetrics;
 import org.springframework.integration.support.management.MessageHandlerMetrics;
 import org.springframework.integration.support.management.MessageSourceMetrics;
@@ -98,6 +99,10 @@ public class IntegrationManagementConfigurer
 
 	private String[] enabledStatsPatterns = { };
 
+	private double[] latencyPercentiles = { };
+
+	private boolean latencyIntervalReset;
+
 	private volatile boolean singletonsInstantiated;
 
 	private MetricsCaptor metricsCaptor;
@@ -197,6 +202,31 @@ public class IntegrationManagementConfigurer
 		return this.defaultStatsEnabled;
 	}
 
+	/**
+	 * Set the percentiles (each between 0 and 1, e.g. 0.99) of the latency to report
+	 * for channel sends, handler invocations and message source receives. When set, each
+	 * component for which counts are enabled records its latencies in a
+	 * {@link LatencyHistogram}, exposed via the management API and JMX, and the
+	 * Micrometer timers (if any) publish these percentiles. Defaults to none (disabled).
+	 * @param latencyPercentiles the percentiles.
+	 * @since 5.1
+	 * @see LatencyHistogram#DEFAULT_PERCENTILES
+	 */
+	public void setLatencyPercentiles(double... latencyPercentiles) {
+		Assert.notNull(latencyPercentiles, "'latencyPercentiles' cannot be null");
+		this.latencyPercentiles = Arrays.copyOf(latencyPercentiles, latencyPercentiles.length);
+	}
+
+	/**
+	 * Set to true to report the latency percentiles of the interval since they were last
+	 * read, rather than since the component was started (or reset).
+	 * @param latencyIntervalReset true to reset the histograms on each read.
+	 * @since 5.1
+	 */
+	public void setLatencyIntervalReset(boolean latencyIntervalReset) {
+		this.latencyIntervalReset = latencyIntervalReset;
+	}
+
 	/**
 	 * Disable all logging in the normal message flow in framework components. When 'false', such logging will be
 	 * skipped, regardless of logging level. When 'true', the logging is controlled as normal by the logging
@@ -231,6 +261,9 @@ public class IntegrationManagementConfigurer
 			this.metricsCaptor = MicrometerMetricsCaptor.loadCaptor(this.applicationContext);
 		}
 		if (this.metricsCaptor != null) {
+			if (this.latencyPercentiles.length > 0 && this.metricsCaptor instanceof MicrometerMetricsCaptor) {
+				((MicrometerMetricsCaptor) this.metricsCaptor).setPercentiles(this.latencyPercentiles);
+			}
 			injectCaptor();
 			registerComponentGauges();
 		}
@@ -352,6 +385,9 @@ public class IntegrationManagementConfigurer
 				metrics.setFullStatsEnabled(this.defaultStatsEnabled);
 			}
 		}
+		if (this.latencyPercentiles.length > 0) {
+			metrics.setSendDurationHistogram(createLatencyHistogram());
+		}
 		if (bean instanceof ConfigurableMetricsAware && !overrides.metricsConfigured) {
 			((ConfigurableMetricsAware<AbstractMessageChannelMetrics>) bean).configureMetrics(metrics);
 		}
@@ -383,6 +419,9 @@ public class IntegrationManagementConfigurer
 				metrics.setFullStatsEnabled(this.defaultStatsEnabled);
 			}
 		}
+		if (this.latencyPercentiles.length > 0) {
+			metrics.setDurationHistogram(createLatencyHistogram());
+		}
 		if (bean instanceof ConfigurableMetricsAware && !overrides.metricsConfigured) {
 			((ConfigurableMetricsAware<AbstractMessageHandlerMetrics>) bean).configureMetrics(metrics);
 		}
@@ -400,9 +439,16 @@ public class IntegrationManagementConfigurer
 				bean.setCountsEnabled(this.defaultCountsEnabled);
 			}
 		}
+		if (this.latencyPercentiles.length > 0 && bean.getReceiveDurationHistogram() == null) {
+			bean.setReceiveDurationHistogram(createLatencyHistogram());
+		}
 		this.sourcesByName.put(bean.getManagedName() != null ? bean.getManagedName() : name, bean);
 	}
 
+	private LatencyHistogram createLatencyHistogram() {
+		return new LatencyHistogram(this.latencyPercentiles, this.latencyIntervalReset);
+	}
+
 	private void registerComponentGauges() {
 		this.metricsCaptor.gaugeBuilder("spring.integration.channels", this,
 				(c) -> this.applicationContext.getBeansOfType(MessageChannel.class).size())
@@ -34,6 +34,7 @@ import org.springframework.beans.factory.support.BeanDefinitionRegistry;
 import org.springframework.beans.factory.support.ManagedMap;
 import org.springframework.beans.factory.support.RootBeanDefinition;
 import org.springframework.context.annotation.ImportBeanDefinitionRegistrar;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.core.type.AnnotationMetadata;
 import org.springframework.expression.common.LiteralExpression;
 import org.springframework.integration.annotation.AnnotationConstants;
@@ -68,6 +69,10 @@ public class MessagingGatewayRegistrar implements ImportBeanDefinitionRegistrar
 					importingClassMetadata.getAnnotationAttributes(MessagingGateway.class.getName());
 			replaceEmptyOverrides(valuesHierarchy, annotationAttributes);
 			annotationAttributes.put("serviceInterface", importingClassMetadata.getClassName());
+			if (importingClassMetadata.isAnnotated(Lazy.class.getName())) {
+				annotationAttributes.put("lazyInit",
+						importingClassMetadata.getAnnotationAttributes(Lazy.class.getName()).get("value"));
+			}
 
 			BeanDefinitionReaderUtils.registerBeanDefinition(this.parse(annotationAttributes), registry);
 		}
@@ -168,6 +173,11 @@ public class MessagingGatewayRegistrar implements ImportBeanDefinitionRegistrar
 
 		gatewayProxyBuilder.addConstructorArgValue(serviceInterface);
 
+		if (Boolean.TRUE.equals(gatewayAttributes.get("lazyInit"))) {
+			// the proxy itself must be eager to take part in the lifecycle
+			gatewayProxyBuilder.addPropertyValue("lazyInit", true);
+		}
+
 		AbstractBeanDefinition beanDefinition = gatewayProxyBuilder.getBeanDefinition();
 		beanDefinition.addMetadataAttribute(new BeanMetadataAttribute(IntegrationConfigUtils.FACTORY_BEAN_OBJECT_TYPE,
 				serviceInterface));
@@ -196,6 +196,10 @@ public class SourcePollingChannelAdapterFactoryBean implements FactoryBean<Sourc
 			spca.setAdviceChain(this.pollerMetadata.getAdviceChain());
 			spca.setTrigger(this.pollerMetadata.getTrigger());
 			spca.setErrorHandler(this.pollerMetadata.getErrorHandler());
+			spca.setConcurrency(this.pollerMetadata.getMinConcurrency(), this.pollerMetadata.getMaxConcurrency());
+			spca.setScaleUpThreshold(this.pollerMetadata.getScaleUpThreshold());
+			spca.setScaleDownThreshold(this.pollerMetadata.getScaleDownThreshold());
+			spca.setBacklogThreshold(this.pollerMetadata.getBacklogThreshold());
 			spca.setBeanClassLoader(this.beanClassLoader);
 			spca.setAutoStartup(this.autoStartup);
 			spca.setPhase(this.phase);
@@ -409,6 +409,10 @@ public abstract class AbstractMethodAnnotationPostProcessor<T extends Annotation
 		pollingEndpoint.setAdviceChain(pollerMetadata.getAdviceChain());
 		pollingEndpoint.setMaxMessagesPerPoll(pollerMetadata.getMaxMessagesPerPoll());
 		pollingEndpoint.setErrorHandler(pollerMetadata.getErrorHandler());
+		pollingEndpoint.setConcurrency(pollerMetadata.getMinConcurrency(), pollerMetadata.getMaxConcurrency());
+		pollingEndpoint.setScaleUpThreshold(pollerMetadata.getScaleUpThreshold());
+		pollingEndpoint.setScaleDownThreshold(pollerMetadata.getScaleDownThreshold());
+		pollingEndpoint.setBacklogThreshold(pollerMetadata.getBacklogThreshold());
 		if (pollingEndpoint instanceof PollingConsumer) {
 			((PollingConsumer) pollingEndpoint).setReceiveTimeout(pollerMetadata.getReceiveTimeout());
 		}
@@ -27,6 +27,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -50,6 +51,7 @@ import org.springframework.integration.annotation.Router;
 import org.springframework.integration.annotation.ServiceActivator;
 import org.springframework.integration.annotation.Splitter;
 import org.springframework.integration.annotation.Transformer;
+import org.springframework.integration.config.IntegrationComponentsIndex;
 import org.springframework.integration.endpoint.AbstractEndpoint;
 import org.springframework.integration.util.MessagingAnnotationUtils;
 import org.springframework.util.Assert;
@@ -80,6 +82,8 @@ public class MessagingAnnotationPostProcessor implements BeanPostProcessor, Bean
 	private final Set<Class<?>> noAnnotationsCache =
 			Collections.newSetFromMap(new ConcurrentHashMap<Class<?>, Boolean>(256));
 
+	private IntegrationComponentsIndex componentsIndex;
+
 	@Override
 	public void setBeanFactory(BeanFactory beanFactory) {
 		Assert.isAssignable(ConfigurableListableBeanFactory.class, beanFactory.getClass(),
@@ -109,6 +113,10 @@ public class MessagingAnnotationPostProcessor implements BeanPostProcessor, Bean
 		if (!CollectionUtils.isEmpty(customPostProcessors)) {
 			this.postProcessors.putAll(customPostProcessors);
 		}
+		else {
+			// the index only knows about the standard annotations
+			this.componentsIndex = IntegrationComponentsIndex.loadIndex(this.beanFactory.getBeanClassLoader());
+		}
 	}
 
 	protected Map<Class<? extends Annotation>, MethodAnnotationPostProcessor<?>> setupCustomPostProcessors() {
@@ -118,6 +126,7 @@ public class MessagingAnnotationPostProcessor implements BeanPostProcessor, Bean
 	public <A extends Annotation> void addMessagingAnnotationPostProcessor(Class<A> annotation,
 			MethodAnnotationPostProcessor<A> postProcessor) {
 		this.postProcessors.put(annotation, postProcessor);
+		this.componentsIndex = null;
 	}
 
 	@Override
@@ -136,6 +145,12 @@ public class MessagingAnnotationPostProcessor implements BeanPostProcessor, Bean
 			return bean;
 		}
 
+		if (this.componentsIndex != null && !this.componentsIndex.mayHaveMessagingAnnotations(beanClass)) {
+			this.noAnnotationsCache.add(beanClass);
+			return bean;
+		}
+
+		AtomicBoolean annotated = new AtomicBoolean();
 		ReflectionUtils.doWithMethods(beanClass, method -> {
 			Map<Class<? extends Annotation>, List<Annotation>> annotationChains = new HashMap<>();
 			for (Class<? extends Annotation> annotationType :
@@ -158,11 +173,15 @@ public class MessagingAnnotationPostProcessor implements BeanPostProcessor, Bean
 				processAnnotationTypeOnMethod(bean, beanName, method, annotationType, annotations);
 			}
 
-			if (annotationChains.size() == 0) {
-				this.noAnnotationsCache.add(beanClass);
+			if (annotationChains.size() > 0) {
+				annotated.set(true);
 			}
 		}, ReflectionUtils.USER_DECLARED_METHODS);
 
+		if (!annotated.get()) {
+			this.noAnnotationsCache.add(beanClass);
+		}
+
 		return bean;
 	}
 
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2014 the original author or authors.
+ * Copyright 2002-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -42,6 +42,7 @@ public class ClaimCheckOutParser extends AbstractTransformerParser {
 		String messageStoreRef = element.getAttribute("message-store");
 		Assert.hasText(messageStoreRef, "The 'message-store' attribute is required.");
 		IntegrationNamespaceUtils.setValueIfAttributeDefined(builder, element, "remove-message");
+		IntegrationNamespaceUtils.setValueIfAttributeDefined(builder, element, "cache-size");
 		builder.addConstructorArgReference(messageStoreRef);
 	}
 
@@ -53,6 +53,8 @@ public class IntegrationManagementParser extends AbstractBeanDefinitionParser {
 		IntegrationNamespaceUtils.setValueIfAttributeDefined(builder, element, "stats-enabled-patterns",
 				"enabledStatsPatterns");
 		IntegrationNamespaceUtils.setReferenceIfAttributeDefined(builder, element, "metrics-factory");
+		IntegrationNamespaceUtils.setValueIfAttributeDefined(builder, element, "latency-percentiles");
+		IntegrationNamespaceUtils.setValueIfAttributeDefined(builder, element, "latency-interval-reset");
 		return builder.getBeanDefinition();
 	}
 
@@ -1,5 +1,5 @@
 /*
- * Copyright 2016-2017 the original author or authors.
+ * Copyright 2016-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -192,6 +192,48 @@ public final class PollerSpec extends IntegrationComponentSpec<PollerSpec, Polle
 		return this;
 	}
 
+	/**
+	 * Specify the minimum and maximum number of concurrent poll workers; the endpoint
+	 * scales between them according to its backlog.
+	 * @param minConcurrency the minimum concurrency.
+	 * @param maxConcurrency the maximum concurrency.
+	 * @return the spec.
+	 * @since 5.1
+	 * @see PollerMetadata#setConcurrency(int, int)
+	 */
+	public PollerSpec concurrency(int minConcurrency, int maxConcurrency) {
+		this.target.setConcurrency(minConcurrency, maxConcurrency);
+		return this;
+	}
+
+	/**
+	 * Specify the number of consecutive busy polls after which a poll worker is added and
+	 * the number of consecutive empty polls after which one is removed.
+	 * @param scaleUpThreshold the scale up threshold (default 3).
+	 * @param scaleDownThreshold the scale down threshold (default 10).
+	 * @return the spec.
+	 * @since 5.1
+	 * @see PollerMetadata#setScaleUpThreshold(int)
+	 * @see PollerMetadata#setScaleDownThreshold(int)
+	 */
+	public PollerSpec scaleThresholds(int scaleUpThreshold, int scaleDownThreshold) {
+		this.target.setScaleUpThreshold(scaleUpThreshold);
+		this.target.setScaleDownThreshold(scaleDownThreshold);
+		return this;
+	}
+
+	/**
+	 * Specify the backlog above which a poll is considered busy.
+	 * @param backlogThreshold the threshold (default 0).
+	 * @return the spec.
+	 * @since 5.1
+	 * @see PollerMetadata#setBacklogThreshold(int)
+	 */
+	public PollerSpec backlogThreshold(int backlogThreshold) {
+		this.target.setBacklogThreshold(backlogThreshold);
+		return this;
+	}
+
 	@Override
 	public Map<Object, String> getComponentsToRegister() {
 		return this.componentsToRegister;
@@ -16,9 +16,10 @@
 
 package org.springframework.integration.dsl.context;
 
-import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Set;
 
 import org.springframework.aop.framework.ProxyFactory;
 import org.springframework.aop.support.NameMatchMethodPointcutAdvisor;
@@ -35,6 +36,7 @@ import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.beans.factory.config.BeanDefinitionCustomizer;
 import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.config.DestructionAwareBeanPostProcessor;
 import org.springframework.beans.factory.config.EmbeddedValueResolver;
 import org.springframework.beans.factory.support.AbstractBeanDefinition;
 import org.springframework.beans.factory.support.BeanDefinitionBuilder;
@@ -55,6 +57,7 @@ import org.springframework.integration.channel.FixedSubscriberChannel;
 import org.springframework.integration.config.ConsumerEndpointFactoryBean;
 import org.springframework.integration.config.IntegrationConfigUtils;
 import org.springframework.integration.config.SourcePollingChannelAdapterFactoryBean;
+import org.springframework.integration.core.MessageProducer;
 import org.springframework.integration.core.MessageSource;
 import org.springframework.integration.dsl.ComponentsRegistration;
 import org.springframework.integration.dsl.ConsumerEndpointSpec;
@@ -68,9 +71,13 @@ import org.springframework.integration.dsl.StandardIntegrationFlow;
 import org.springframework.integration.dsl.support.MessageChannelReference;
 import org.springframework.integration.gateway.AnnotationGatewayProxyFactoryBean;
 import org.springframework.integration.support.context.NamedComponent;
+import org.springframework.messaging.MessageChannel;
 import org.springframework.messaging.MessageHandler;
 import org.springframework.util.Assert;
 import org.springframework.util.CollectionUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.ConcurrentReferenceHashMap.ReferenceType;
+import org.springframework.util.ReflectionUtils;
 import org.springframework.util.StringUtils;
 import org.springframework.util.StringValueResolver;
 
@@ -85,7 +92,7 @@ import org.springframework.util.StringValueResolver;
  * @since 5.0
  */
 public class IntegrationFlowBeanPostProcessor
-		implements BeanPostProcessor, ApplicationContextAware, SmartInitializingSingleton {
+		implements DestructionAwareBeanPostProcessor, ApplicationContextAware, SmartInitializingSingleton {
 
 	private ConfigurableApplicationContext applicationContext;
 
@@ -93,6 +100,13 @@ public class IntegrationFlowBeanPostProcessor
 
 	private ConfigurableListableBeanFactory beanFactory;
 
+	// the flow component singletons initialized by the bean factory, to avoid a getBeansOfType() for each
+	// flow component; only those with identity equality, since the set uses equals()
+	private final Set<Object> beans =
+			Collections.newSetFromMap(new ConcurrentReferenceHashMap<>(256, ReferenceType.WEAK));
+
+	private final Map<Class<?>, Boolean> identityTypes = new ConcurrentReferenceHashMap<>();
+
 	private volatile IntegrationFlowContext flowContext;
 
 	@Override
@@ -121,6 +135,28 @@ public class IntegrationFlowBeanPostProcessor
 		return bean;
 	}
 
+	@Override
+	public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+		// also invoked for the objects from factory beans
+		if (isTracked(bean) && isSingleton(beanName)) {
+			this.beans.add(bean);
+		}
+		return bean;
+	}
+
+	@Override
+	public boolean requiresDestruction(Object bean) {
+		return isTracked(bean) && this.beans.contains(bean);
+	}
+
+	@Override
+	public void postProcessBeforeDestruction(Object bean, String beanName) throws BeansException {
+		this.beans.remove(bean);
+		if (bean instanceof IntegrationComponentSpec) {
+			this.beans.remove(((IntegrationComponentSpec<?, ?>) bean).get());
+		}
+	}
+
 	@Override
 	public void afterSingletonsInstantiated() {
 		for (String beanName : this.beanFactory.getBeanNamesForType(IntegrationFlow.class)) {
@@ -163,11 +199,7 @@ public class IntegrationFlowBeanPostProcessor
 					id = flowNamePrefix + id;
 				}
 
-				Collection<?> messageHandlers =
-						this.beanFactory.getBeansOfType(messageHandler.getClass(), false, false)
-								.values();
-
-				if (!messageHandlers.contains(messageHandler)) {
+				if (!isBean(messageHandler)) {
 					String handlerBeanName = generateBeanName(messageHandler, flowNamePrefix);
 
 					registerComponent(messageHandler, handlerBeanName, flowBeanName);
@@ -178,8 +210,7 @@ public class IntegrationFlowBeanPostProcessor
 				targetIntegrationComponents.put(endpoint, id);
 			}
 			else {
-				Collection<?> values = this.beanFactory.getBeansOfType(component.getClass(), false, false).values();
-				if (!values.contains(component)) {
+				if (!isBean(component)) {
 					if (component instanceof AbstractMessageChannel) {
 						String channelBeanName = ((AbstractMessageChannel) component).getComponentName();
 						if (channelBeanName == null) {
@@ -216,10 +247,7 @@ public class IntegrationFlowBeanPostProcessor
 						if (!CollectionUtils.isEmpty(componentsToRegister)) {
 							componentsToRegister.entrySet()
 									.stream()
-									.filter(o ->
-											!this.beanFactory.getBeansOfType(o.getKey().getClass(), false, false)
-													.values()
-													.contains(o.getKey()))
+									.filter(o -> !isBean(o.getKey()))
 									.forEach(o ->
 											registerComponent(o.getKey(),
 													generateBeanName(o.getKey(), flowNamePrefix, o.getValue(),
@@ -239,9 +267,7 @@ public class IntegrationFlowBeanPostProcessor
 						targetIntegrationComponents.put(pollingChannelAdapterFactoryBean, id);
 
 						MessageSource<?> messageSource = spec.get().getT2();
-						if (!this.beanFactory.getBeansOfType(messageSource.getClass(), false, false)
-								.values()
-								.contains(messageSource)) {
+						if (!isBean(messageSource)) {
 							String messageSourceId = id + ".source";
 							if (messageSource instanceof NamedComponent
 									&& ((NamedComponent) messageSource).getComponentName() != null) {
@@ -338,6 +364,9 @@ public class IntegrationFlowBeanPostProcessor
 
 	private void processIntegrationComponentSpec(String beanName, IntegrationComponentSpec<?, ?> bean) {
 		Object target = bean.get();
+		if (isTracked(target) && isSingleton(beanName)) {
+			this.beans.add(target);
+		}
 
 		invokeBeanInitializationHooks(beanName, target);
 
@@ -347,10 +376,7 @@ public class IntegrationFlowBeanPostProcessor
 
 				componentsToRegister.entrySet()
 						.stream()
-						.filter(component ->
-								!this.beanFactory.getBeansOfType(component.getKey().getClass(), false, false)
-										.values()
-										.contains(component.getKey()))
+						.filter(component -> !isBean(component.getKey()))
 						.forEach(component ->
 								registerComponent(component.getKey(),
 										generateBeanName(component.getKey(), component.getValue())));
@@ -391,6 +417,46 @@ public class IntegrationFlowBeanPostProcessor
 		}
 	}
 
+	/**
+	 * Determine whether the component is already a bean; this replaces a
+	 * {@code getBeansOfType()} for each component, which is a pass over all the bean
+	 * definitions (with a cold type cache, since each registration clears it) and
+	 * made the dynamic registration of flows quadratic. Other objects (and components
+	 * which override {@code equals()}) are still looked up by type.
+	 */
+	private boolean isBean(Object component) {
+		if (!isTracked(component)) {
+			return this.beanFactory.getBeansOfType(component.getClass(), false, false)
+					.values()
+					.contains(component);
+		}
+		if (this.beans.contains(component)) {
+			return true;
+		}
+		// a singleton registered without initialization, e.g. with registerSingleton()
+		if (component instanceof NamedComponent) {
+			String name = ((NamedComponent) component).getComponentName();
+			return name != null && this.beanFactory.containsSingleton(name)
+					&& this.beanFactory.getSingleton(name) == component;
+		}
+		return false;
+	}
+
+	private boolean isTracked(Object bean) {
+		return (bean instanceof MessageHandler || bean instanceof MessageChannel || bean instanceof MessageSource
+				|| bean instanceof MessageProducer || bean instanceof NamedComponent
+				|| bean instanceof IntegrationComponentSpec)
+				&& this.identityTypes.computeIfAbsent(bean.getClass(),
+						type -> ReflectionUtils.findMethod(type, "equals", Object.class).getDeclaringClass()
+								== Object.class);
+	}
+
+	private boolean isSingleton(String beanName) {
+		return this.beanFactory.containsSingleton(beanName)
+				|| (this.beanFactory.containsBeanDefinition(beanName)
+						&& this.beanFactory.getMergedBeanDefinition(beanName).isSingleton());
+	}
+
 	private void registerComponent(Object component, String beanName) {
 		registerComponent(component, beanName, null);
 	}
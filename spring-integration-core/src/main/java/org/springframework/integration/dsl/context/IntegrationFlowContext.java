@@ -16,6 +16,9 @@
 
 package org.springframework.integration.dsl.context;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 
 import org.springframework.beans.factory.BeanFactoryAware;
@@ -62,6 +65,23 @@ public interface IntegrationFlowContext {
 	 */
 	IntegrationFlowRegistrationBuilder registration(IntegrationFlow integrationFlow);
 
+	/**
+	 * Register several flows, obtained from {@link #registration(IntegrationFlow)}, as a
+	 * batch. By default, each flow is simply registered in turn.
+	 * @param builders the registration builders.
+	 * @return the registrations, in the same order.
+	 * @since 5.1
+	 */
+	default List<IntegrationFlowRegistration> registerAll(
+			Collection<? extends IntegrationFlowRegistrationBuilder> builders) {
+
+		List<IntegrationFlowRegistration> registrations = new ArrayList<>(builders.size());
+		for (IntegrationFlowRegistrationBuilder builder : builders) {
+			registrations.add(builder.register());
+		}
+		return registrations;
+	}
+
 	/**
 	 * Obtain an {@link IntegrationFlowRegistration} for the {@link IntegrationFlow}
 	 * associated with the provided {@code flowId}.
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.dsl.context;
+
+import java.util.Collection;
+import java.util.Collections;
+
+import org.springframework.integration.events.IntegrationEvent;
+
+/**
+ * Base class for the events published by the {@link StandardIntegrationFlowContext}
+ * when a flow is registered or removed at runtime.
+ *
+ * @since 5.1
+ */
+@SuppressWarnings("serial")
+public abstract class IntegrationFlowEvent extends IntegrationEvent {
+
+	private final String flowId;
+
+	private final Collection<String> beanNames;
+
+	public IntegrationFlowEvent(Object source, String flowId, Collection<String> beanNames) {
+		super(source);
+		this.flowId = flowId;
+		this.beanNames = Collections.unmodifiableCollection(beanNames);
+	}
+
+	/**
+	 * @return the flow id.
+	 */
+	public String getFlowId() {
+		return this.flowId;
+	}
+
+	/**
+	 * @return the names of the flow bean and all the beans registered for its components.
+	 */
+	public Collection<String> getBeanNames() {
+		return this.beanNames;
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + " [flowId=" + this.flowId + ", source=" + getSource() + "]";
+	}
+
+}
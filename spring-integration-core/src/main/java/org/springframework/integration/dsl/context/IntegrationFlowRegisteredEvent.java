@@ -0,0 +1,33 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.dsl.context;
+
+import java.util.Collection;
+
+/**
+ * Published by the {@link StandardIntegrationFlowContext} after a flow is registered (and started, if {@code autoStartup}).
+ *
+ * @since 5.1
+ */
+@SuppressWarnings("serial")
+public class IntegrationFlowRegisteredEvent extends IntegrationFlowEvent {
+
+	public IntegrationFlowRegisteredEvent(Object source, String flowId, Collection<String> beanNames) {
+		super(source, flowId, beanNames);
+	}
+
+}
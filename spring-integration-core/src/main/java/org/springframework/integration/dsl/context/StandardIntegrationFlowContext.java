@@ -16,8 +16,11 @@
 
 package org.springframework.integration.dsl.context;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.Lock;
@@ -31,6 +34,8 @@ import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.beans.factory.support.BeanDefinitionBuilder;
 import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationEventPublisherAware;
 import org.springframework.integration.core.MessagingTemplate;
 import org.springframework.integration.dsl.IntegrationFlow;
 import org.springframework.integration.support.context.NamedComponent;
@@ -40,6 +45,11 @@ import org.springframework.util.StringUtils;
 
 /**
  * Standard implementation of {@link IntegrationFlowContext}.
+ * <p>
+ * An {@link IntegrationFlowRegisteredEvent} or {@link IntegrationFlowRemovedEvent} is
+ * published when a flow is registered or removed, so that interested components (such as
+ * the {@link org.springframework.integration.graph.IntegrationGraphServer}) can update
+ * their state for just the beans of that flow.
  *
  * @author Artem Bilan
  * @author Gary Russell
@@ -47,7 +57,8 @@ import org.springframework.util.StringUtils;
  * @since 5.1
  *
  */
-public final class StandardIntegrationFlowContext implements IntegrationFlowContext, BeanFactoryAware {
+public final class StandardIntegrationFlowContext implements IntegrationFlowContext, BeanFactoryAware,
+		ApplicationEventPublisherAware {
 
 	private final Map<String, IntegrationFlowRegistration> registry = new ConcurrentHashMap<>();
 
@@ -59,6 +70,8 @@ public final class StandardIntegrationFlowContext implements IntegrationFlowCont
 
 	private BeanDefinitionRegistry beanDefinitionRegistry;
 
+	private ApplicationEventPublisher applicationEventPublisher;
+
 	private StandardIntegrationFlowContext() {
 	}
 
@@ -72,6 +85,11 @@ public final class StandardIntegrationFlowContext implements IntegrationFlowCont
 		this.beanDefinitionRegistry = (BeanDefinitionRegistry) this.beanFactory;
 	}
 
+	@Override
+	public void setApplicationEventPublisher(ApplicationEventPublisher applicationEventPublisher) {
+		this.applicationEventPublisher = applicationEventPublisher;
+	}
+
 	/**
 	 * Associate provided {@link IntegrationFlow} with an {@link StandardIntegrationFlowRegistrationBuilder}
 	 * for additional options and farther registration in the application context.
@@ -88,9 +106,68 @@ public final class StandardIntegrationFlowContext implements IntegrationFlowCont
 		return Boolean.TRUE.equals(this.useFlowIdAsPrefix.get(flowId));
 	}
 
+	/**
+	 * Register several flows as a batch. All the flows are registered before any of them
+	 * is started (so that they can reference each other's channels); if any registration
+	 * fails, the flows already registered by the batch are removed. The registration
+	 * events are published after the flows are started.
+	 * @param builders the registration builders, obtained from
+	 * {@link #registration(IntegrationFlow)}.
+	 * @return the registrations, in the same order.
+	 */
+	@Override
+	public List<IntegrationFlowRegistration> registerAll(
+			Collection<? extends IntegrationFlowRegistrationBuilder> builders) {
+
+		List<StandardIntegrationFlowRegistrationBuilder> registered = new ArrayList<>(builders.size());
+		try {
+			for (IntegrationFlowRegistrationBuilder builder : builders) {
+				Assert.isInstanceOf(StandardIntegrationFlowRegistrationBuilder.class, builder,
+						"Builders must be obtained from this context's 'registration()'");
+				StandardIntegrationFlowRegistrationBuilder standardBuilder =
+						(StandardIntegrationFlowRegistrationBuilder) builder;
+				registerFlowBeans(standardBuilder);
+				registered.add(standardBuilder);
+			}
+			for (StandardIntegrationFlowRegistrationBuilder builder : registered) {
+				if (builder.autoStartup) {
+					builder.integrationFlowRegistration.start();
+				}
+			}
+		}
+		catch (RuntimeException ex) {
+			for (StandardIntegrationFlowRegistrationBuilder builder : registered) {
+				String flowId = builder.integrationFlowRegistration.getId();
+				if (this.registry.containsKey(flowId)) {
+					remove(flowId, false);
+				}
+			}
+			throw ex;
+		}
+		List<IntegrationFlowRegistration> registrations = new ArrayList<>(registered.size());
+		for (StandardIntegrationFlowRegistrationBuilder builder : registered) {
+			registrations.add(builder.integrationFlowRegistration);
+			publishRegisteredEvent(builder.integrationFlowRegistration.getId());
+		}
+		return registrations;
+	}
+
 	private void register(StandardIntegrationFlowRegistrationBuilder builder) {
+		registerFlowBeans(builder);
+		if (builder.autoStartup) {
+			builder.integrationFlowRegistration.start();
+		}
+		publishRegisteredEvent(builder.integrationFlowRegistration.getId());
+	}
+
+	private void registerFlowBeans(StandardIntegrationFlowRegistrationBuilder builder) {
 		IntegrationFlow integrationFlow = builder.integrationFlowRegistration.getIntegrationFlow();
 		String flowId = builder.integrationFlowRegistration.getId();
+		Assert.state(!builder.idAsPrefix || StringUtils.hasText(flowId),
+				"An 'id' must be present to use 'useFlowIdAsPrefix'");
+		if (builder.idAsPrefix) {
+			this.useFlowIdAsPrefix.put(flowId, true);
+		}
 		Lock registerBeanLock = null;
 		try {
 			if (flowId == null) {
@@ -118,12 +195,16 @@ public final class StandardIntegrationFlowContext implements IntegrationFlowCont
 		final String theFlowId = flowId;
 		builder.additionalBeans.forEach((key, value) -> registerBean(key, value, theFlowId));
 
-		if (builder.autoStartup) {
-			builder.integrationFlowRegistration.start();
-		}
 		this.registry.put(flowId, builder.integrationFlowRegistration);
 	}
 
+	private void publishRegisteredEvent(String flowId) {
+		if (this.applicationEventPublisher != null) {
+			this.applicationEventPublisher.publishEvent(
+					new IntegrationFlowRegisteredEvent(this, flowId, flowBeanNames(flowId)));
+		}
+	}
+
 	@SuppressWarnings("unchecked")
 	private Object registerBean(Object bean, String beanName, String parentName) {
 		if (beanName == null) {
@@ -161,13 +242,24 @@ public final class StandardIntegrationFlowContext implements IntegrationFlowCont
 	 */
 	@Override
 	public void remove(String flowId) {
-		if (this.registry.containsKey(flowId)) {
-			IntegrationFlowRegistration flowRegistration = this.registry.remove(flowId);
+		remove(flowId, true);
+	}
+
+	private void remove(String flowId, boolean publish) {
+		IntegrationFlowRegistration flowRegistration = this.registry.remove(flowId);
+		if (flowRegistration != null) {
 			flowRegistration.stop();
+			// resolved now, since beans may have been added to the flow after its registration
+			Collection<String> beanNames =
+					publish && this.applicationEventPublisher != null ? flowBeanNames(flowId) : null;
 
 			removeDependantBeans(flowId);
 
 			this.beanDefinitionRegistry.removeBeanDefinition(flowId);
+			this.useFlowIdAsPrefix.remove(flowId);
+			if (beanNames != null) {
+				this.applicationEventPublisher.publishEvent(new IntegrationFlowRemovedEvent(this, flowId, beanNames));
+			}
 		}
 		else {
 			throw new IllegalStateException("An IntegrationFlow with the id "
@@ -188,6 +280,20 @@ public final class StandardIntegrationFlowContext implements IntegrationFlowCont
 		}
 	}
 
+	private Collection<String> flowBeanNames(String flowId) {
+		Collection<String> beanNames = new ArrayList<>();
+		beanNames.add(flowId);
+		collectDependentBeans(flowId, beanNames);
+		return beanNames;
+	}
+
+	private void collectDependentBeans(String parentName, Collection<String> beanNames) {
+		for (String beanName : this.beanFactory.getDependentBeans(parentName)) {
+			beanNames.add(beanName);
+			collectDependentBeans(beanName, beanNames);
+		}
+	}
+
 	/**
 	 * Obtain a {@link MessagingTemplate} with its default destination set to the input channel
 	 * of the {@link IntegrationFlow} for provided {@code flowId}.
@@ -313,12 +419,6 @@ public final class StandardIntegrationFlowContext implements IntegrationFlowCont
 		 */
 		@Override
 		public IntegrationFlowRegistration register() {
-			String id = this.integrationFlowRegistration.getId();
-			Assert.state(!this.idAsPrefix || StringUtils.hasText(id),
-					"An 'id' must be present to use 'useFlowIdAsPrefix'");
-			if (this.idAsPrefix) {
-				StandardIntegrationFlowContext.this.useFlowIdAsPrefix.put(id, this.idAsPrefix);
-			}
 			StandardIntegrationFlowContext.this.register(this);
 			return this.integrationFlowRegistration;
 		}
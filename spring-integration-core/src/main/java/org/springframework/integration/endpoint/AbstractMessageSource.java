@@ -27,6 +27,7 @@ import org.springframework.integration.core.MessageSource;
 import org.springframework.integration.support.AbstractIntegrationMessageBuilder;
 import org.springframework.integration.support.context.NamedComponent;
 import org.springframework.integration.support.management.IntegrationManagedResource;
+import org.springframework.integration.support.management.LatencyHistogram;
 import org.springframework.integration.support.management.MessageSourceMetrics;
 import org.springframework.integration.support.management.metrics.CounterFacade;
 import org.springframework.integration.support.management.metrics.MetricsCaptor;
@@ -67,6 +68,8 @@ public abstract class AbstractMessageSource<T> extends AbstractExpressionEvaluat
 
 	private CounterFacade receiveCounter;
 
+	private volatile LatencyHistogram receiveDurationHistogram;
+
 	public void setHeaderExpressions(Map<String, Expression> headerExpressions) {
 		this.headerExpressions = (headerExpressions != null)
 				? headerExpressions : Collections.emptyMap();
@@ -129,9 +132,23 @@ public abstract class AbstractMessageSource<T> extends AbstractExpressionEvaluat
 		this.managementOverrides.loggingConfigured = true;
 	}
 
+	@Override
+	public void setReceiveDurationHistogram(LatencyHistogram histogram) {
+		this.receiveDurationHistogram = histogram;
+	}
+
+	@Override
+	public LatencyHistogram getReceiveDurationHistogram() {
+		return this.receiveDurationHistogram;
+	}
+
 	@Override
 	public void reset() {
 		this.messageCount.set(0);
+		LatencyHistogram histogram = this.receiveDurationHistogram;
+		if (histogram != null) {
+			histogram.reset();
+		}
 	}
 
 	@Override
@@ -151,6 +168,15 @@ public abstract class AbstractMessageSource<T> extends AbstractExpressionEvaluat
 
 	@Override
 	public final Message<T> receive() {
+		LatencyHistogram histogram = this.receiveDurationHistogram;
+		if (histogram != null && this.countsEnabled) {
+			long start = System.nanoTime();
+			Message<T> message = buildMessage(doReceive());
+			if (message != null) {
+				histogram.record(System.nanoTime() - start);
+			}
+			return message;
+		}
 		return buildMessage(doReceive());
 	}
 
@@ -16,11 +16,15 @@
 
 package org.springframework.integration.endpoint;
 
+import java.util.ArrayDeque;
 import java.util.Collection;
+import java.util.Deque;
 import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 import org.aopalliance.aop.Advice;
@@ -80,6 +84,30 @@ public abstract class AbstractPollingEndpoint extends AbstractEndpoint implement
 
 	private TransactionSynchronizationFactory transactionSynchronizationFactory;
 
+	private int minConcurrency = 1;
+
+	private int maxConcurrency = 1;
+
+	private int scaleUpThreshold = 3;
+
+	private int scaleDownThreshold = 10;
+
+	private int backlogThreshold;
+
+	private final Object concurrencyMonitor = new Object();
+
+	private final Deque<ScheduledFuture<?>> additionalTasks = new ArrayDeque<>(); // guarded by concurrencyMonitor
+
+	private final AtomicInteger busyPolls = new AtomicInteger();
+
+	private final AtomicInteger idlePolls = new AtomicInteger();
+
+	private final AtomicLong scaleUpCount = new AtomicLong();
+
+	private final AtomicLong scaleDownCount = new AtomicLong();
+
+	private volatile int concurrency;
+
 	private volatile ScheduledFuture<?> runningTask;
 
 	private volatile Runnable poller;
@@ -121,6 +149,87 @@ public abstract class AbstractPollingEndpoint extends AbstractEndpoint implement
 		this.errorHandler = errorHandler;
 	}
 
+	/**
+	 * Set the minimum and maximum number of concurrent poll workers. When the maximum
+	 * is greater than the minimum, the endpoint starts with the minimum number of workers,
+	 * adds a worker after {@link #setScaleUpThreshold(int) scaleUpThreshold} consecutive
+	 * busy polls and removes one after {@link #setScaleDownThreshold(int)
+	 * scaleDownThreshold} consecutive polls that received no messages.
+	 * Each worker is scheduled with the same trigger, so the task scheduler (or task
+	 * executor) must have enough threads and the source must be thread-safe.
+	 * @param minConcurrency the minimum concurrency (default 1).
+	 * @param maxConcurrency the maximum concurrency (default 1).
+	 * @since 5.1
+	 */
+	public void setConcurrency(int minConcurrency, int maxConcurrency) {
+		Assert.isTrue(minConcurrency > 0, "'minConcurrency' must be greater than 0");
+		Assert.isTrue(maxConcurrency >= minConcurrency, "'maxConcurrency' must be >= 'minConcurrency'");
+		this.minConcurrency = minConcurrency;
+		this.maxConcurrency = maxConcurrency;
+	}
+
+	/**
+	 * Set the number of consecutive busy polls after which a worker is added.
+	 * A poll is busy when the {@link #getBacklog() backlog} exceeds the
+	 * {@link #setBacklogThreshold(int) backlogThreshold} or, if the backlog is unknown,
+	 * when it received {@code maxMessagesPerPoll} messages.
+	 * @param scaleUpThreshold the threshold (default 3).
+	 * @since 5.1
+	 */
+	public void setScaleUpThreshold(int scaleUpThreshold) {
+		Assert.isTrue(scaleUpThreshold > 0, "'scaleUpThreshold' must be greater than 0");
+		this.scaleUpThreshold = scaleUpThreshold;
+	}
+
+	/**
+	 * Set the number of consecutive polls that received no messages after which a
+	 * worker is removed.
+	 * @param scaleDownThreshold the threshold (default 10).
+	 * @since 5.1
+	 */
+	public void setScaleDownThreshold(int scaleDownThreshold) {
+		Assert.isTrue(scaleDownThreshold > 0, "'scaleDownThreshold' must be greater than 0");
+		this.scaleDownThreshold = scaleDownThreshold;
+	}
+
+	/**
+	 * Set the backlog above which a poll is considered busy.
+	 * @param backlogThreshold the threshold (default 0).
+	 * @since 5.1
+	 */
+	public void setBacklogThreshold(int backlogThreshold) {
+		this.backlogThreshold = backlogThreshold;
+	}
+
+	/**
+	 * Return the current number of poll workers; 0 when stopped.
+	 * @return the concurrency.
+	 * @since 5.1
+	 */
+	public int getConcurrency() {
+		return this.concurrency;
+	}
+
+	/**
+	 * Return the number of times a poll worker has been added since the endpoint
+	 * was created.
+	 * @return the count.
+	 * @since 5.1
+	 */
+	public long getScaleUpCount() {
+		return this.scaleUpCount.get();
+	}
+
+	/**
+	 * Return the number of times a poll worker has been removed since the endpoint
+	 * was created.
+	 * @return the count.
+	 * @since 5.1
+	 */
+	public long getScaleDownCount() {
+		return this.scaleDownCount.get();
+	}
+
 	@Override
 	public void setBeanClassLoader(ClassLoader classLoader) {
 		this.beanClassLoader = classLoader;
@@ -243,15 +352,92 @@ public abstract class AbstractPollingEndpoint extends AbstractEndpoint implement
 			this.initialized = false;
 			throw new MessagingException("Failed to create Poller", e);
 		}
-		this.runningTask = this.getTaskScheduler().schedule(this.poller, this.trigger);
+		synchronized (this.concurrencyMonitor) {
+			this.runningTask = this.getTaskScheduler().schedule(this.poller, this.trigger);
+			for (int i = 1; i < this.minConcurrency; i++) {
+				this.additionalTasks.push(getTaskScheduler().schedule(this.poller, this.trigger));
+			}
+			this.concurrency = this.minConcurrency;
+			this.busyPolls.set(0);
+			this.idlePolls.set(0);
+		}
 	}
 
 	@Override // guarded by super#lifecycleLock
 	protected void doStop() {
-		if (this.runningTask != null) {
-			this.runningTask.cancel(true);
+		synchronized (this.concurrencyMonitor) {
+			if (this.runningTask != null) {
+				this.runningTask.cancel(true);
+			}
+			this.runningTask = null;
+			while (!this.additionalTasks.isEmpty()) {
+				this.additionalTasks.pop().cancel(true);
+			}
+			this.concurrency = 0;
+		}
+	}
+
+	/**
+	 * Return the number of messages waiting to be received, used to decide whether the
+	 * poll workers should be scaled up. Subclasses that can determine their backlog
+	 * cheaply should override; the default returns -1 (unknown), in which case a poll
+	 * that received {@code maxMessagesPerPoll} messages is considered busy.
+	 * @return the backlog, or -1 if unknown.
+	 * @since 5.1
+	 */
+	protected int getBacklog() {
+		return -1;
+	}
+
+	private void adjustConcurrency(int received) {
+		int backlog = getBacklog();
+		boolean busy = backlog >= 0
+				? backlog > this.backlogThreshold
+				: this.maxMessagesPerPoll > 0 && received >= this.maxMessagesPerPoll;
+		if (busy) {
+			this.idlePolls.set(0);
+			if (this.busyPolls.incrementAndGet() >= this.scaleUpThreshold) {
+				scaleUp();
+			}
+		}
+		else if (received == 0) {
+			this.busyPolls.set(0);
+			if (this.idlePolls.incrementAndGet() >= this.scaleDownThreshold) {
+				scaleDown();
+			}
+		}
+		else {
+			this.busyPolls.set(0);
+			this.idlePolls.set(0);
+		}
+	}
+
+	private void scaleUp() {
+		synchronized (this.concurrencyMonitor) {
+			this.busyPolls.set(0);
+			if (this.runningTask != null && this.concurrency < this.maxConcurrency) {
+				this.additionalTasks.push(getTaskScheduler().schedule(this.poller, this.trigger));
+				this.concurrency++;
+				this.scaleUpCount.incrementAndGet();
+				if (logger.isDebugEnabled()) {
+					logger.debug("Increased concurrency to " + this.concurrency + " for " + this);
+				}
+			}
+		}
+	}
+
+	private void scaleDown() {
+		synchronized (this.concurrencyMonitor) {
+			this.idlePolls.set(0);
+			if (this.runningTask != null && this.concurrency > this.minConcurrency) {
+				this.additionalTasks.pop().cancel(false);
+				this.concurrency--;
+				this.scaleDownCount.incrementAndGet();
+				if (logger.isDebugEnabled()) {
+					logger.debug("Decreased concurrency to " + this.concurrency + " for " + this);
+				}
+			}
 		}
-		this.runningTask = null;
 	}
 
 	private boolean doPoll() {
@@ -384,37 +570,45 @@ public abstract class AbstractPollingEndpoint extends AbstractEndpoint implement
 		public void run() {
 			AbstractPollingEndpoint.this.taskExecutor.execute(() -> {
 				int count = 0;
-				while (AbstractPollingEndpoint.this.initialized
-						&& (AbstractPollingEndpoint.this.maxMessagesPerPoll <= 0
-						|| count < AbstractPollingEndpoint.this.maxMessagesPerPoll)) {
-					try {
-						if (!Poller.this.pollingTask.call()) {
-							break;
+				try {
+					while (AbstractPollingEndpoint.this.initialized
+							&& (AbstractPollingEndpoint.this.maxMessagesPerPoll <= 0
+							|| count < AbstractPollingEndpoint.this.maxMessagesPerPoll)) {
+						try {
+							if (!Poller.this.pollingTask.call()) {
+								break;
+							}
+							count++;
 						}
-						count++;
-					}
-					catch (Exception e) {
-						if (e instanceof MessagingException) {
-							throw (MessagingException) e;
+						catch (Exception e) {
+							if (e instanceof MessagingException) {
+								throw (MessagingException) e;
+							}
+							else {
+								Message<?> failedMessage = null;
+								if (AbstractPollingEndpoint.this.transactionSynchronizationFactory != null) {
+									Object resource = TransactionSynchronizationManager.getResource(getResourceToBind());
+									if (resource instanceof IntegrationResourceHolder) {
+										failedMessage = ((IntegrationResourceHolder) resource).getMessage();
+									}
+								}
+								throw new MessagingException(failedMessage, e);
+							}
 						}
-						else {
-							Message<?> failedMessage = null;
+						finally {
 							if (AbstractPollingEndpoint.this.transactionSynchronizationFactory != null) {
-								Object resource = TransactionSynchronizationManager.getResource(getResourceToBind());
-								if (resource instanceof IntegrationResourceHolder) {
-									failedMessage = ((IntegrationResourceHolder) resource).getMessage();
+								Object resource = getResourceToBind();
+								if (TransactionSynchronizationManager.hasResource(resource)) {
+									TransactionSynchronizationManager.unbindResource(resource);
 								}
 							}
-							throw new MessagingException(failedMessage, e);
 						}
 					}
-					finally {
-						if (AbstractPollingEndpoint.this.transactionSynchronizationFactory != null) {
-							Object resource = getResourceToBind();
-							if (TransactionSynchronizationManager.hasResource(resource)) {
-								TransactionSynchronizationManager.unbindResource(resource);
-							}
-						}
+				}
+				finally {
+					// also when a poll fails, so that a failing source does not keep its workers
+					if (AbstractPollingEndpoint.this.maxConcurrency > AbstractPollingEndpoint.this.minConcurrency) {
+						adjustConcurrency(count);
 					}
 				}
 			});
@@ -25,6 +25,7 @@ import org.springframework.integration.history.MessageHistory;
 import org.springframework.integration.support.DefaultErrorMessageStrategy;
 import org.springframework.integration.support.ErrorMessageStrategy;
 import org.springframework.integration.support.ErrorMessageUtils;
+import org.springframework.integration.support.management.MessagePathTracer;
 import org.springframework.integration.support.management.TrackableComponent;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
@@ -58,6 +59,8 @@ public abstract class MessageProducerSupport extends AbstractEndpoint implements
 
 	private volatile boolean shouldTrack = false;
 
+	private volatile MessagePathTracer pathTracer;
+
 	protected MessageProducerSupport() {
 		this.setPhase(Integer.MAX_VALUE / 2);
 	}
@@ -140,6 +143,11 @@ public abstract class MessageProducerSupport extends AbstractEndpoint implements
 		this.shouldTrack = shouldTrack;
 	}
 
+	@Override
+	public void setPathTracer(MessagePathTracer pathTracer) {
+		this.pathTracer = pathTracer;
+	}
+
 	/**
 	 * Set an {@link ErrorMessageStrategy} to use to build an error message when a exception occurs.
 	 * Default is the {@link DefaultErrorMessageStrategy}.
@@ -199,6 +207,10 @@ public abstract class MessageProducerSupport extends AbstractEndpoint implements
 		if (this.shouldTrack) {
 			message = MessageHistory.write(message, this, this.getMessageBuilderFactory());
 		}
+		MessagePathTracer pathTracer = this.pathTracer;
+		if (pathTracer != null) {
+			message = pathTracer.startTrace(message, this, getMessageBuilderFactory());
+		}
 		try {
 			this.messagingTemplate.send(getOutputChannel(), message);
 		}
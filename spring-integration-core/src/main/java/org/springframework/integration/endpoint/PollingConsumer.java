@@ -23,6 +23,7 @@ import java.util.List;
 
 import org.springframework.context.Lifecycle;
 import org.springframework.integration.channel.ExecutorChannelInterceptorAware;
+import org.springframework.integration.channel.QueueChannelOperations;
 import org.springframework.integration.core.MessageProducer;
 import org.springframework.integration.router.MessageRouter;
 import org.springframework.integration.support.utils.IntegrationUtils;
@@ -190,6 +191,13 @@ public class PollingConsumer extends AbstractPollingEndpoint implements Integrat
 				: this.inputChannel.receive();
 	}
 
+	@Override
+	protected int getBacklog() {
+		return this.inputChannel instanceof QueueChannelOperations
+				? ((QueueChannelOperations) this.inputChannel).getQueueSize()
+				: -1;
+	}
+
 	@Override
 	protected Object getResourceToBind() {
 		return this.inputChannel;
@@ -36,6 +36,7 @@ import org.springframework.integration.core.MessageSource;
 import org.springframework.integration.core.MessagingTemplate;
 import org.springframework.integration.history.MessageHistory;
 import org.springframework.integration.support.context.NamedComponent;
+import org.springframework.integration.support.management.MessagePathTracer;
 import org.springframework.integration.support.management.TrackableComponent;
 import org.springframework.integration.transaction.IntegrationResourceHolder;
 import org.springframework.messaging.Message;
@@ -70,6 +71,8 @@ public class SourcePollingChannelAdapter extends AbstractPollingEndpoint
 
 	private volatile boolean shouldTrack;
 
+	private volatile MessagePathTracer pathTracer;
+
 	/**
 	 * Specify the source to be polled for Messages.
 	 *
@@ -129,6 +132,11 @@ public class SourcePollingChannelAdapter extends AbstractPollingEndpoint
 		this.shouldTrack = shouldTrack;
 	}
 
+	@Override
+	public void setPathTracer(MessagePathTracer pathTracer) {
+		this.pathTracer = pathTracer;
+	}
+
 	@Override
 	public String getComponentType() {
 		return (this.source instanceof NamedComponent) ?
@@ -222,6 +230,10 @@ public class SourcePollingChannelAdapter extends AbstractPollingEndpoint
 		if (this.shouldTrack) {
 			message = MessageHistory.write(message, this, getMessageBuilderFactory());
 		}
+		MessagePathTracer pathTracer = this.pathTracer;
+		if (pathTracer != null) {
+			message = pathTracer.startTrace(message, this, getMessageBuilderFactory());
+		}
 		AcknowledgmentCallback ackCallback = StaticMessageHeaderAccessor.getAcknowledgmentCallback(message);
 		try {
 			this.messagingTemplate.send(getOutputChannel(), message);
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.gateway;
+
+import java.lang.reflect.Method;
+
+import org.springframework.integration.events.IntegrationEvent;
+
+/**
+ * Published by a {@link GatewayProxyFactoryBean} with {@code lazyInit} when the gateway
+ * for one of its methods is created, on the first invocation of that method.
+ *
+ * @since 5.1
+ */
+@SuppressWarnings("serial")
+public class GatewayMethodCreatedEvent extends IntegrationEvent {
+
+	private final transient Method method;
+
+	private final transient MessagingGatewaySupport gateway;
+
+	public GatewayMethodCreatedEvent(GatewayProxyFactoryBean source, Method method, MessagingGatewaySupport gateway) {
+		super(source);
+		this.method = method;
+		this.gateway = gateway;
+	}
+
+	/**
+	 * @return the service interface method.
+	 */
+	public Method getMethod() {
+		return this.method;
+	}
+
+	/**
+	 * @return the gateway created for the method.
+	 */
+	public MessagingGatewaySupport getGateway() {
+		return this.gateway;
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + " [source=" + getSource() + ", method=" + this.method + "]";
+	}
+
+}
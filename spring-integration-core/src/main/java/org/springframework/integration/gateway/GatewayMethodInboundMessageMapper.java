@@ -34,11 +34,25 @@ import org.springframework.core.MethodParameter;
 import org.springframework.core.ParameterNameDiscoverer;
 import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.core.annotation.SynthesizingMethodParameter;
+import org.springframework.expression.BeanResolver;
+import org.springframework.expression.ConstructorResolver;
 import org.springframework.expression.EvaluationContext;
 import org.springframework.expression.Expression;
+import org.springframework.expression.MethodResolver;
+import org.springframework.expression.OperatorOverloader;
+import org.springframework.expression.PropertyAccessor;
+import org.springframework.expression.TypeComparator;
+import org.springframework.expression.TypeConverter;
+import org.springframework.expression.TypeLocator;
+import org.springframework.expression.TypedValue;
+import org.springframework.expression.common.LiteralExpression;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpression;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.expression.spel.support.StandardEvaluationContext;
 import org.springframework.integration.expression.ExpressionUtils;
+import org.springframework.integration.expression.ValueExpression;
 import org.springframework.integration.mapping.InboundMessageMapper;
 import org.springframework.integration.mapping.MessageMappingException;
 import org.springframework.integration.support.AbstractIntegrationMessageBuilder;
@@ -86,25 +100,28 @@ class GatewayMethodInboundMessageMapper implements InboundMessageMapper<Object[]
 
 	private final static Log logger = LogFactory.getLog(GatewayMethodInboundMessageMapper.class);
 
-	private static final SpelExpressionParser PARSER = new SpelExpressionParser();
+	private static final SpelExpressionParser PARSER =
+			new SpelExpressionParser(new SpelParserConfiguration(SpelCompilerMode.MIXED, null));
 
 	private final Method method;
 
-	private final Map<String, Expression> headerExpressions;
-
-	private final Map<String, Expression> globalHeaderExpressions;
-
-	private final Map<String, Object> headers;
-
 	private final List<MethodParameter> parameterList;
 
 	private final MethodArgsMessageMapper argsMapper;
 
 	private final MessageBuilderFactory messageBuilderFactory;
 
-	private volatile Expression payloadExpression;
+	private final ParameterMapping[] parameterMappings;
+
+	private final Map<String, Object> constantHeaders = new HashMap<>();
+
+	private final Map<String, Expression> dynamicHeaderExpressions = new HashMap<>();
+
+	private final Map<String, Object> constantDefaultHeaders = new HashMap<>();
 
-	private final Map<String, Expression> parameterPayloadExpressions = new HashMap<String, Expression>();
+	private final Map<String, Expression> dynamicGlobalHeaderExpressions = new HashMap<>();
+
+	private volatile Expression payloadExpression;
 
 	private volatile StandardEvaluationContext payloadExpressionEvaluationContext;
 
@@ -134,16 +151,25 @@ class GatewayMethodInboundMessageMapper implements InboundMessageMapper<Object[]
 			MessageBuilderFactory messageBuilderFactory) {
 		Assert.notNull(method, "method must not be null");
 		this.method = method;
-		this.headerExpressions = headerExpressions;
-		this.headers = headers;
-		this.globalHeaderExpressions = globalHeaderExpressions;
 		this.parameterList = getMethodParameterList(method);
 		this.payloadExpression = parsePayloadExpression(method);
+		prepareHeaderExpressions(headerExpressions, this.constantHeaders, this.dynamicHeaderExpressions);
+		prepareHeaderExpressions(globalHeaderExpressions, this.constantDefaultHeaders,
+				this.dynamicGlobalHeaderExpressions);
+		// Global (default) headers take precedence over the static headers
+		if (headers != null) {
+			headers.forEach(this.constantDefaultHeaders::putIfAbsent);
+		}
 		if (mapper == null) {
 			this.argsMapper = new DefaultMethodArgsMessageMapper();
+			this.parameterMappings = new ParameterMapping[this.parameterList.size()];
+			for (int i = 0; i < this.parameterMappings.length; i++) {
+				this.parameterMappings[i] = new ParameterMapping(this.parameterList.get(i));
+			}
 		}
 		else {
 			this.argsMapper = mapper;
+			this.parameterMappings = null;
 		}
 		if (messageBuilderFactory == null) {
 			this.messageBuilderFactory = new DefaultMessageBuilderFactory();
@@ -185,6 +211,9 @@ class GatewayMethodInboundMessageMapper implements InboundMessageMapper<Object[]
 
 	private Message<?> mapArgumentsToMessage(Object[] arguments, Map<String, Object> headers) {
 		try {
+			if (this.parameterMappings != null) {
+				return doMapArgumentsToMessage(arguments, headers);
+			}
 			return this.argsMapper.toMessage(new MethodArgsHolder(this.method, arguments), headers);
 		}
 		catch (Exception e) {
@@ -207,18 +236,20 @@ class GatewayMethodInboundMessageMapper implements InboundMessageMapper<Object[]
 		return evaluatedHeaders;
 	}
 
-	private StandardEvaluationContext createMethodInvocationEvaluationContext(Object[] arguments) {
-		StandardEvaluationContext context = ExpressionUtils.createStandardEvaluationContext(this.beanFactory);
-		context.setVariable("args", arguments);
-
-		context.setVariable("gatewayMethod", this.method);
-		return context;
+	private StandardEvaluationContext getEvaluationContext() {
+		if (this.payloadExpressionEvaluationContext == null) {
+			this.payloadExpressionEvaluationContext =
+					ExpressionUtils.createStandardEvaluationContext(this.beanFactory);
+		}
+		return this.payloadExpressionEvaluationContext;
 	}
 
-	private Object evaluatePayloadExpression(String expressionString, Object argumentValue) {
-		Expression expression =
-				this.parameterPayloadExpressions.computeIfAbsent(expressionString, PARSER::parseExpression);
-		return expression.getValue(this.payloadExpressionEvaluationContext, argumentValue);
+	private boolean requiresMethodInvocationEvaluationContext() {
+		return this.payloadExpression != null
+				|| !this.dynamicHeaderExpressions.isEmpty()
+				|| !this.dynamicGlobalHeaderExpressions.isEmpty()
+				|| this.sendTimeoutExpression != null
+				|| this.replyTimeoutExpression != null;
 	}
 
 
@@ -274,113 +305,268 @@ class GatewayMethodInboundMessageMapper implements InboundMessageMapper<Object[]
 		return expression;
 	}
 
-	public class DefaultMethodArgsMessageMapper implements MethodArgsMessageMapper {
-
-		@Override
-		public Message<?> toMessage(MethodArgsHolder holder, @Nullable Map<String, Object> headers) throws Exception {
-			Object messageOrPayload = null;
-			boolean foundPayloadAnnotation = false;
-			Object[] arguments = holder.getArgs();
-			EvaluationContext methodInvocationEvaluationContext = createMethodInvocationEvaluationContext(arguments);
-			headers =
-					headers != null
-							? new HashMap<>(headers)
-							: new HashMap<>();
-			if (GatewayMethodInboundMessageMapper.this.payloadExpression != null) {
-				messageOrPayload =
-						GatewayMethodInboundMessageMapper.this.payloadExpression.getValue(methodInvocationEvaluationContext);
+	private Message<?> doMapArgumentsToMessage(Object[] arguments, @Nullable Map<String, Object> headers) {
+		Object messageOrPayload = null;
+		boolean foundPayloadAnnotation = false;
+		EvaluationContext methodInvocationEvaluationContext =
+				requiresMethodInvocationEvaluationContext()
+						? new MethodInvocationEvaluationContext(getEvaluationContext(), arguments, this.method)
+						: null;
+		headers =
+				headers != null
+						? new HashMap<>(headers)
+						: new HashMap<>();
+		if (this.payloadExpression != null) {
+			messageOrPayload = this.payloadExpression.getValue(methodInvocationEvaluationContext);
+		}
+		for (int i = 0; i < this.parameterMappings.length; i++) {
+			Object argumentValue = arguments[i];
+			ParameterMapping mapping = this.parameterMappings[i];
+			if (mapping.annotationType == Payload.class) {
+				if (messageOrPayload != null) {
+					throwExceptionForMultipleMessageOrPayloadParameters(mapping.parameter);
+				}
+				if (mapping.payloadExpression == null) {
+					messageOrPayload = argumentValue;
+				}
+				else {
+					messageOrPayload = mapping.payloadExpression.getValue(getEvaluationContext(), argumentValue);
+				}
+				foundPayloadAnnotation = true;
 			}
-			for (int i = 0; i < GatewayMethodInboundMessageMapper.this.parameterList.size(); i++) {
-				Object argumentValue = arguments[i];
-				MethodParameter methodParameter = GatewayMethodInboundMessageMapper.this.parameterList.get(i);
-				Annotation annotation =
-						MessagingAnnotationUtils.findMessagePartAnnotation(methodParameter.getParameterAnnotations(), false);
-				if (annotation != null) {
-					if (annotation.annotationType().equals(Payload.class)) {
-						if (messageOrPayload != null) {
-							throwExceptionForMultipleMessageOrPayloadParameters(methodParameter);
-						}
-						String expression = (String) AnnotationUtils.getValue(annotation);
-						if (!StringUtils.hasText(expression)) {
-							messageOrPayload = argumentValue;
-						}
-						else {
-							messageOrPayload = evaluatePayloadExpression(expression, argumentValue);
-						}
-						foundPayloadAnnotation = true;
+			else if (mapping.annotationType == Header.class) {
+				if (mapping.required && argumentValue == null) {
+					throw new IllegalArgumentException("Received null argument value for required header: '"
+							+ mapping.headerName + "'");
+				}
+				headers.put(mapping.headerName, argumentValue);
+			}
+			else if (mapping.annotationType == Headers.class) {
+				if (argumentValue != null) {
+					if (!(argumentValue instanceof Map)) {
+						throw new IllegalArgumentException("@Headers annotation is only valid for Map-typed parameters");
 					}
-					else if (annotation.annotationType().equals(Header.class)) {
-						String headerName = determineHeaderName(annotation, methodParameter);
-						if ((Boolean) AnnotationUtils.getValue(annotation, "required") && argumentValue == null) {
-							throw new IllegalArgumentException("Received null argument value for required header: '"
-									+ headerName + "'");
-						}
-						headers.put(headerName, argumentValue);
+					for (Object key : ((Map<?, ?>) argumentValue).keySet()) {
+						Assert.isInstanceOf(String.class, key, "Invalid header name [" + key +
+								"], name type must be String.");
+						Object value = ((Map<?, ?>) argumentValue).get(key);
+						headers.put((String) key, value);
 					}
-					else if (annotation.annotationType().equals(Headers.class)) {
-						if (argumentValue != null) {
-							if (!(argumentValue instanceof Map)) {
-								throw new IllegalArgumentException("@Headers annotation is only valid for Map-typed parameters");
-							}
-							for (Object key : ((Map<?, ?>) argumentValue).keySet()) {
-								Assert.isInstanceOf(String.class, key, "Invalid header name [" + key +
-										"], name type must be String.");
-								Object value = ((Map<?, ?>) argumentValue).get(key);
-								headers.put((String) key, value);
-							}
-						}
+				}
+			}
+			else if (messageOrPayload == null) {
+				messageOrPayload = argumentValue;
+			}
+			else if (mapping.mapTyped) {
+				if (messageOrPayload instanceof Map && !foundPayloadAnnotation) {
+					if (this.payloadExpression == null) {
+						throw new MessagingException("Ambiguous method parameters; found more than one " +
+								"Map-typed parameter and neither one contains a @Payload annotation");
 					}
 				}
-				else if (messageOrPayload == null) {
-					messageOrPayload = argumentValue;
+				copyHeaders((Map<?, ?>) argumentValue, headers);
+			}
+			else if (this.payloadExpression == null) {
+				throwExceptionForMultipleMessageOrPayloadParameters(mapping.parameter);
+			}
+		}
+		Assert.isTrue(messageOrPayload != null, "unable to determine a Message or payload parameter on method ["
+				+ this.method + "]");
+		if (this.sendTimeoutExpression != null) {
+			headers.computeIfAbsent(GenericMessagingTemplate.DEFAULT_SEND_TIMEOUT_HEADER,
+					v -> this.sendTimeoutExpression.getValue(methodInvocationEvaluationContext, Long.class));
+		}
+		if (this.replyTimeoutExpression != null) {
+			headers.computeIfAbsent(GenericMessagingTemplate.DEFAULT_RECEIVE_TIMEOUT_HEADER,
+					v -> this.replyTimeoutExpression.getValue(methodInvocationEvaluationContext, Long.class));
+		}
+		AbstractIntegrationMessageBuilder<?> builder =
+				(messageOrPayload instanceof Message)
+						? this.messageBuilderFactory.fromMessage((Message<?>) messageOrPayload)
+						: this.messageBuilderFactory.withPayload(messageOrPayload);
+		builder.copyHeadersIfAbsent(headers);
+		// Explicit headers in XML override any @Header annotations...
+		if (!this.constantHeaders.isEmpty()) {
+			builder.copyHeaders(this.constantHeaders);
+		}
+		if (!this.dynamicHeaderExpressions.isEmpty()) {
+			builder.copyHeaders(evaluateHeaders(methodInvocationEvaluationContext, this.dynamicHeaderExpressions));
+		}
+		// ...whereas global (default) headers do not...
+		if (!this.dynamicGlobalHeaderExpressions.isEmpty()) {
+			builder.copyHeadersIfAbsent(
+					evaluateHeaders(methodInvocationEvaluationContext, this.dynamicGlobalHeaderExpressions));
+		}
+		if (!this.constantDefaultHeaders.isEmpty()) {
+			builder.copyHeadersIfAbsent(this.constantDefaultHeaders);
+		}
+		return builder.build();
+	}
+
+	/**
+	 * Split the header expressions into constant values, evaluated once, and dynamic
+	 * expressions; the latter are re-parsed (if necessary) to allow SpEL compilation.
+	 */
+	private static void prepareHeaderExpressions(@Nullable Map<String, Expression> headerExpressions,
+			Map<String, Object> constantHeaders, Map<String, Expression> dynamicHeaderExpressions) {
+
+		if (!CollectionUtils.isEmpty(headerExpressions)) {
+			for (Map.Entry<String, Expression> entry : headerExpressions.entrySet()) {
+				Expression expression = entry.getValue();
+				if (expression instanceof LiteralExpression || expression instanceof ValueExpression) {
+					constantHeaders.putIfAbsent(entry.getKey(), expression.getValue());
 				}
-				else if (Map.class.isAssignableFrom(methodParameter.getParameterType())) {
-					if (messageOrPayload instanceof Map && !foundPayloadAnnotation) {
-						if (GatewayMethodInboundMessageMapper.this.payloadExpression == null) {
-							throw new MessagingException("Ambiguous method parameters; found more than one " +
-									"Map-typed parameter and neither one contains a @Payload annotation");
-						}
+				else {
+					if (expression instanceof SpelExpression) {
+						expression = PARSER.parseExpression(expression.getExpressionString());
 					}
-					GatewayMethodInboundMessageMapper.this.copyHeaders((Map<?, ?>) argumentValue, headers);
+					dynamicHeaderExpressions.put(entry.getKey(), expression);
 				}
-				else if (GatewayMethodInboundMessageMapper.this.payloadExpression == null) {
-					GatewayMethodInboundMessageMapper.this
-							.throwExceptionForMultipleMessageOrPayloadParameters(methodParameter);
+			}
+		}
+	}
+
+	public class DefaultMethodArgsMessageMapper implements MethodArgsMessageMapper {
+
+		@Override
+		public Message<?> toMessage(MethodArgsHolder holder, @Nullable Map<String, Object> headers) throws Exception {
+			return doMapArgumentsToMessage(holder.getArgs(), headers);
+		}
+
+	}
+
+	/**
+	 * The mapping of a method parameter, resolved once from its annotations.
+	 */
+	private static final class ParameterMapping {
+
+		private final MethodParameter parameter;
+
+		private final Class<? extends Annotation> annotationType;
+
+		private final Expression payloadExpression;
+
+		private final String headerName;
+
+		private final boolean required;
+
+		private final boolean mapTyped;
+
+		ParameterMapping(MethodParameter parameter) {
+			this.parameter = parameter;
+			Annotation annotation =
+					MessagingAnnotationUtils.findMessagePartAnnotation(parameter.getParameterAnnotations(), false);
+			this.annotationType = annotation != null ? annotation.annotationType() : null;
+			Expression expression = null;
+			String name = null;
+			boolean isRequired = false;
+			if (Payload.class.equals(this.annotationType)) {
+				String expressionString = (String) AnnotationUtils.getValue(annotation);
+				if (StringUtils.hasText(expressionString)) {
+					expression = PARSER.parseExpression(expressionString);
 				}
 			}
-			Assert.isTrue(messageOrPayload != null, "unable to determine a Message or payload parameter on method ["
-					+ GatewayMethodInboundMessageMapper.this.method + "]");
-			if (GatewayMethodInboundMessageMapper.this.sendTimeoutExpression != null) {
-				headers.computeIfAbsent(GenericMessagingTemplate.DEFAULT_SEND_TIMEOUT_HEADER,
-						v -> GatewayMethodInboundMessageMapper.this.sendTimeoutExpression
-								.getValue(methodInvocationEvaluationContext, Long.class));
+			else if (Header.class.equals(this.annotationType)) {
+				name = determineHeaderName(annotation, parameter);
+				isRequired = (Boolean) AnnotationUtils.getValue(annotation, "required");
 			}
-			if (GatewayMethodInboundMessageMapper.this.replyTimeoutExpression != null) {
-				headers.computeIfAbsent(GenericMessagingTemplate.DEFAULT_RECEIVE_TIMEOUT_HEADER,
-						v -> GatewayMethodInboundMessageMapper.this.replyTimeoutExpression
-								.getValue(methodInvocationEvaluationContext, Long.class));
+			this.payloadExpression = expression;
+			this.headerName = name;
+			this.required = isRequired;
+			this.mapTyped = Map.class.isAssignableFrom(parameter.getParameterType());
+		}
+
+	}
+
+	/**
+	 * A light-weight {@link EvaluationContext} for a single gateway method invocation;
+	 * it exposes the {@code #args} and {@code #gatewayMethod} variables and delegates
+	 * everything else to a shared context, avoiding the creation of a full
+	 * {@link StandardEvaluationContext} for each invocation.
+	 */
+	private static final class MethodInvocationEvaluationContext implements EvaluationContext {
+
+		private final EvaluationContext delegate;
+
+		private final Object[] arguments;
+
+		private final Method method;
+
+		private Map<String, Object> variables;
+
+		MethodInvocationEvaluationContext(EvaluationContext delegate, Object[] arguments, Method method) {
+			this.delegate = delegate;
+			this.arguments = arguments;
+			this.method = method;
+		}
+
+		@Override
+		public TypedValue getRootObject() {
+			return this.delegate.getRootObject();
+		}
+
+		@Override
+		public List<PropertyAccessor> getPropertyAccessors() {
+			return this.delegate.getPropertyAccessors();
+		}
+
+		@Override
+		public List<ConstructorResolver> getConstructorResolvers() {
+			return this.delegate.getConstructorResolvers();
+		}
+
+		@Override
+		public List<MethodResolver> getMethodResolvers() {
+			return this.delegate.getMethodResolvers();
+		}
+
+		@Override
+		@Nullable
+		public BeanResolver getBeanResolver() {
+			return this.delegate.getBeanResolver();
+		}
+
+		@Override
+		public TypeLocator getTypeLocator() {
+			return this.delegate.getTypeLocator();
+		}
+
+		@Override
+		public TypeConverter getTypeConverter() {
+			return this.delegate.getTypeConverter();
+		}
+
+		@Override
+		public TypeComparator getTypeComparator() {
+			return this.delegate.getTypeComparator();
+		}
+
+		@Override
+		public OperatorOverloader getOperatorOverloader() {
+			return this.delegate.getOperatorOverloader();
+		}
+
+		@Override
+		public void setVariable(String name, @Nullable Object value) {
+			if (this.variables == null) {
+				this.variables = new HashMap<>();
 			}
-			AbstractIntegrationMessageBuilder<?> builder =
-					(messageOrPayload instanceof Message)
-							? GatewayMethodInboundMessageMapper.this.messageBuilderFactory.fromMessage((Message<?>) messageOrPayload)
-							: GatewayMethodInboundMessageMapper.this.messageBuilderFactory.withPayload(messageOrPayload);
-			builder.copyHeadersIfAbsent(headers);
-			// Explicit headers in XML override any @Header annotations...
-			if (!CollectionUtils.isEmpty(GatewayMethodInboundMessageMapper.this.headerExpressions)) {
-				Map<String, Object> evaluatedHeaders = evaluateHeaders(methodInvocationEvaluationContext,
-						GatewayMethodInboundMessageMapper.this.headerExpressions);
-				builder.copyHeaders(evaluatedHeaders);
+			this.variables.put(name, value);
+		}
+
+		@Override
+		@Nullable
+		public Object lookupVariable(String name) {
+			if (this.variables != null && this.variables.containsKey(name)) {
+				return this.variables.get(name);
 			}
-			// ...whereas global (default) headers do not...
-			if (!CollectionUtils.isEmpty(GatewayMethodInboundMessageMapper.this.globalHeaderExpressions)) {
-				Map<String, Object> evaluatedHeaders = evaluateHeaders(methodInvocationEvaluationContext,
-						GatewayMethodInboundMessageMapper.this.globalHeaderExpressions);
-				builder.copyHeadersIfAbsent(evaluatedHeaders);
+			else if ("args".equals(name)) {
+				return this.arguments;
 			}
-			if (GatewayMethodInboundMessageMapper.this.headers != null) {
-				builder.copyHeadersIfAbsent(GatewayMethodInboundMessageMapper.this.headers);
+			else if ("gatewayMethod".equals(name)) {
+				return this.method;
 			}
-			return builder.build();
+			return this.delegate.lookupVariable(name);
 		}
 
 	}
@@ -28,6 +28,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
 import java.util.function.Supplier;
@@ -44,6 +45,7 @@ import org.springframework.beans.factory.BeanDefinitionStoreException;
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.BeanInitializationException;
 import org.springframework.beans.factory.FactoryBean;
+import org.springframework.context.ApplicationContext;
 import org.springframework.core.MethodParameter;
 import org.springframework.core.convert.ConversionService;
 import org.springframework.core.task.AsyncListenableTaskExecutor;
@@ -56,11 +58,14 @@ import org.springframework.expression.common.LiteralExpression;
 import org.springframework.expression.spel.support.StandardEvaluationContext;
 import org.springframework.integration.annotation.Gateway;
 import org.springframework.integration.annotation.GatewayHeader;
+import org.springframework.integration.context.IntegrationContextUtils;
+import org.springframework.integration.context.IntegrationProperties;
 import org.springframework.integration.endpoint.AbstractEndpoint;
 import org.springframework.integration.expression.ExpressionUtils;
 import org.springframework.integration.expression.ValueExpression;
 import org.springframework.integration.support.DefaultMessageBuilderFactory;
 import org.springframework.integration.support.channel.BeanFactoryChannelResolver;
+import org.springframework.integration.support.management.MessagePathTracer;
 import org.springframework.integration.support.management.TrackableComponent;
 import org.springframework.integration.support.utils.IntegrationUtils;
 import org.springframework.messaging.Message;
@@ -118,13 +123,15 @@ public class GatewayProxyFactoryBean extends AbstractEndpoint
 
 	private volatile boolean shouldTrack = false;
 
+	private volatile MessagePathTracer pathTracer;
+
 	private volatile TypeConverter typeConverter = new SimpleTypeConverter();
 
 	private volatile ClassLoader beanClassLoader = ClassUtils.getDefaultClassLoader();
 
 	private volatile Object serviceProxy;
 
-	private final Map<Method, MethodInvocationGateway> gatewayMap = new HashMap<>();
+	private final Map<Method, MethodInvocationGateway> gatewayMap = new ConcurrentHashMap<>();
 
 	private volatile AsyncTaskExecutor asyncExecutor = new SimpleAsyncTaskExecutor();
 
@@ -144,6 +151,12 @@ public class GatewayProxyFactoryBean extends AbstractEndpoint
 
 	private EvaluationContext evaluationContext = new StandardEvaluationContext();
 
+	private boolean sharedReplyChannelEnabled;
+
+	private SharedReplyChannel sharedReplyChannel;
+
+	private boolean lazyInit;
+
 	/**
 	 * Create a Factory whose service interface type can be configured by setter injection.
 	 * If none is set, it will fall back to the default service interface type,
@@ -317,6 +330,42 @@ public class GatewayProxyFactoryBean extends AbstractEndpoint
 		}
 	}
 
+	@Override
+	public void setPathTracer(MessagePathTracer pathTracer) {
+		this.pathTracer = pathTracer;
+		for (MethodInvocationGateway gateway : this.gatewayMap.values()) {
+			gateway.setPathTracer(pathTracer);
+		}
+	}
+
+	/**
+	 * Set to true to correlate the replies of all the gateway methods through a single,
+	 * long-lived {@link SharedReplyChannel} instead of a temporary reply channel per
+	 * request. Methods returning {@link CompletableFuture} or {@link Mono} are then
+	 * completed by the reply itself, without using the
+	 * {@link #setAsyncExecutor(Executor) asyncExecutor} or blocking a thread.
+	 * @param sharedReplyChannel true to use a shared reply channel.
+	 * @since 5.1
+	 * @see MessagingGatewaySupport#setSharedReplyChannel(boolean)
+	 */
+	public void setSharedReplyChannel(boolean sharedReplyChannel) {
+		this.sharedReplyChannelEnabled = sharedReplyChannel;
+	}
+
+	/**
+	 * Set to true to defer the creation of the gateway for each method of the service
+	 * interface until that method is first invoked. This reduces the startup time of
+	 * applications with many gateway interfaces (or methods) which are rarely used; any
+	 * configuration errors for a method are then reported on its first invocation.
+	 * {@link #getGateways()} only contains the methods invoked so far; a
+	 * {@link GatewayMethodCreatedEvent} is published when a method gateway is created.
+	 * @param lazyInit true to create the method gateways on first use.
+	 * @since 5.1
+	 */
+	public void setLazyInit(boolean lazyInit) {
+		this.lazyInit = lazyInit;
+	}
+
 	/**
 	 * Set the executor for use when the gateway method returns
 	 * {@link java.util.concurrent.Future} or {@link org.springframework.util.concurrent.ListenableFuture}.
@@ -384,11 +433,20 @@ public class GatewayProxyFactoryBean extends AbstractEndpoint
 			if (this.channelResolver == null && beanFactory != null) {
 				this.channelResolver = new BeanFactoryChannelResolver(beanFactory);
 			}
+			if (this.sharedReplyChannelEnabled) {
+				this.sharedReplyChannel = new SharedReplyChannel();
+				this.sharedReplyChannel.setTaskScheduler(getTaskScheduler());
+				this.sharedReplyChannel.setThrowExceptionOnLateReply(Boolean.valueOf(
+						IntegrationContextUtils.getIntegrationProperties(beanFactory)
+								.getProperty(IntegrationProperties.THROW_EXCEPTION_ON_LATE_REPLY)));
+			}
 			Class<?> proxyInterface = this.determineServiceInterface();
-			Method[] methods = ReflectionUtils.getUniqueDeclaredMethods(proxyInterface);
-			for (Method method : methods) {
-				MethodInvocationGateway gateway = this.createGatewayForMethod(method);
-				this.gatewayMap.put(method, gateway);
+			if (!this.lazyInit) {
+				Method[] methods = ReflectionUtils.getUniqueDeclaredMethods(proxyInterface);
+				for (Method method : methods) {
+					MethodInvocationGateway gateway = this.createGatewayForMethod(method);
+					this.gatewayMap.put(method, gateway);
+				}
 			}
 			this.serviceProxy = new ProxyFactory(proxyInterface, this)
 					.getProxy(this.beanClassLoader);
@@ -435,6 +493,10 @@ public class GatewayProxyFactoryBean extends AbstractEndpoint
 	@Override
 	public Object invoke(final MethodInvocation invocation) throws Throwable {
 		final Class<?> returnType = invocation.getMethod().getReturnType();
+		if (this.sharedReplyChannel != null && invocation.getArguments().length > 0
+				&& (CompletableFuture.class.equals(returnType) || Mono.class.isAssignableFrom(returnType))) {
+			return doInvokeWithoutBlocking(invocation, returnType);
+		}
 		if (this.asyncExecutor != null && !Object.class.equals(returnType)) {
 			Invoker invoker = new Invoker(invocation);
 			if (returnType.isAssignableFrom(this.asyncSubmitType)) {
@@ -460,6 +522,14 @@ public class GatewayProxyFactoryBean extends AbstractEndpoint
 		return this.doInvoke(invocation, true);
 	}
 
+	private Object doInvokeWithoutBlocking(MethodInvocation invocation, Class<?> returnType) {
+		Method method = invocation.getMethod();
+		MethodInvocationGateway gateway = getGateway(method);
+		Mono<Message<?>> reply = gateway.sendAndReceiveMessageReactive(invocation.getArguments());
+		Mono<?> result = hasReturnParameterizedWithMessage(method, false) ? reply : reply.map(Message::getPayload);
+		return CompletableFuture.class.equals(returnType) ? result.toFuture() : result;
+	}
+
 	protected Object doInvoke(MethodInvocation invocation, boolean runningOnCallerThread) throws Throwable {
 		Method method = invocation.getMethod();
 		if (AopUtils.isToStringMethod(method)) {
@@ -479,7 +549,7 @@ public class GatewayProxyFactoryBean extends AbstractEndpoint
 			this.afterPropertiesSet();
 		}
 		Method method = invocation.getMethod();
-		MethodInvocationGateway gateway = this.gatewayMap.get(method);
+		MethodInvocationGateway gateway = getGateway(method);
 		Class<?> returnType = method.getReturnType();
 		boolean shouldReturnMessage = Message.class.isAssignableFrom(returnType)
 				|| hasReturnParameterizedWithMessage(method, runningOnCallerThread);
@@ -552,6 +622,35 @@ public class GatewayProxyFactoryBean extends AbstractEndpoint
 		throw originalException;
 	}
 
+	private MethodInvocationGateway getGateway(Method method) {
+		MethodInvocationGateway gateway = this.gatewayMap.get(method);
+		if (gateway == null) {
+			boolean created = false;
+			// lazyInit; create under the lifecycle lock so a concurrent start() can't miss it
+			this.lifecycleLock.lock();
+			try {
+				gateway = this.gatewayMap.get(method);
+				if (gateway == null) {
+					gateway = createGatewayForMethod(method);
+					this.gatewayMap.put(method, gateway);
+					created = true;
+					if (isRunning()) {
+						gateway.start();
+					}
+				}
+			}
+			finally {
+				this.lifecycleLock.unlock();
+			}
+			ApplicationContext applicationContext = getApplicationContext();
+			if (created && applicationContext != null) {
+				// e.g. for the IntegrationGraphServer
+				applicationContext.publishEvent(new GatewayMethodCreatedEvent(this, method, gateway));
+			}
+		}
+		return gateway;
+	}
+
 	private MethodInvocationGateway createGatewayForMethod(Method method) {
 		Gateway gatewayAnnotation = method.getAnnotation(Gateway.class);
 		String requestChannelName = null;
@@ -670,6 +769,9 @@ public class GatewayProxyFactoryBean extends AbstractEndpoint
 		}
 		messageMapper.setBeanFactory(getBeanFactory());
 		MethodInvocationGateway gateway = new MethodInvocationGateway(messageMapper);
+		if (this.sharedReplyChannel != null) {
+			gateway.useSharedReplyChannel(this.sharedReplyChannel);
+		}
 
 		if (this.errorChannel != null) {
 			gateway.setErrorChannel(this.errorChannel);
@@ -728,6 +830,7 @@ public class GatewayProxyFactoryBean extends AbstractEndpoint
 			gateway.setReceiveTimeoutExpression(replyTimeout);
 		}
 		gateway.setShouldTrack(this.shouldTrack);
+		gateway.setPathTracer(this.pathTracer);
 		gateway.afterPropertiesSet();
 		return gateway;
 	}
@@ -18,6 +18,9 @@ package org.springframework.integration.gateway;
 
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.reactivestreams.Subscriber;
@@ -25,11 +28,14 @@ import org.reactivestreams.Subscriber;
 import org.springframework.core.AttributeAccessor;
 import org.springframework.integration.MessageTimeoutException;
 import org.springframework.integration.channel.ReactiveStreamsSubscribableChannel;
+import org.springframework.integration.context.IntegrationContextUtils;
+import org.springframework.integration.context.IntegrationProperties;
 import org.springframework.integration.core.MessagingTemplate;
 import org.springframework.integration.endpoint.AbstractEndpoint;
 import org.springframework.integration.endpoint.EventDrivenConsumer;
 import org.springframework.integration.endpoint.PollingConsumer;
 import org.springframework.integration.endpoint.ReactiveStreamsConsumer;
+import org.springframework.integration.gateway.SharedReplyChannel.PendingReply;
 import org.springframework.integration.handler.BridgeHandler;
 import org.springframework.integration.history.HistoryWritingMessagePostProcessor;
 import org.springframework.integration.mapping.InboundMessageMapper;
@@ -43,6 +49,7 @@ import org.springframework.integration.support.MessageBuilderFactory;
 import org.springframework.integration.support.MutableMessageBuilder;
 import org.springframework.integration.support.converter.SimpleMessageConverter;
 import org.springframework.integration.support.management.IntegrationManagedResource;
+import org.springframework.integration.support.management.MessagePathTracer;
 import org.springframework.integration.support.management.MessageSourceMetrics;
 import org.springframework.integration.support.management.TrackableComponent;
 import org.springframework.lang.Nullable;
@@ -121,6 +128,10 @@ public abstract class MessagingGatewaySupport extends AbstractEndpoint
 
 	private volatile boolean loggingEnabled = true;
 
+	private boolean sharedReplyChannelEnabled;
+
+	private SharedReplyChannel sharedReplyChannel;
+
 
 	/**
 	 * Construct an instance that will return null if no reply is received.
@@ -186,6 +197,29 @@ public abstract class MessagingGatewaySupport extends AbstractEndpoint
 		this.replyChannelName = replyChannelName;
 	}
 
+	/**
+	 * Set to true to correlate replies through a single, long-lived
+	 * {@link SharedReplyChannel} instead of creating a temporary reply channel for each
+	 * request. Reactive requests then complete without parking a thread and are subject
+	 * to the reply timeout. The downstream flow must propagate the
+	 * {@link SharedReplyChannel#REPLY_CORRELATION_HEADER} to the reply.
+	 * @param sharedReplyChannel true to use a shared reply channel.
+	 * @since 5.1
+	 */
+	public void setSharedReplyChannel(boolean sharedReplyChannel) {
+		this.sharedReplyChannelEnabled = sharedReplyChannel;
+	}
+
+	/**
+	 * Use the provided shared reply channel, for example one shared by the gateways of
+	 * all the methods of a gateway proxy.
+	 * @param sharedReplyChannel the channel.
+	 */
+	void useSharedReplyChannel(SharedReplyChannel sharedReplyChannel) {
+		this.sharedReplyChannelEnabled = true;
+		this.sharedReplyChannel = sharedReplyChannel;
+	}
+
 	/**
 	 * Set the error channel. If no error channel is provided, this gateway will
 	 * propagate Exceptions to the caller. To completely suppress Exceptions, provide
@@ -256,6 +290,11 @@ public abstract class MessagingGatewaySupport extends AbstractEndpoint
 		this.historyWritingPostProcessor.setShouldTrack(shouldTrack);
 	}
 
+	@Override
+	public void setPathTracer(MessagePathTracer pathTracer) {
+		this.historyWritingPostProcessor.setPathTracer(pathTracer);
+	}
+
 	@Override
 	public int getMessageCount() {
 		return (int) this.messageCount.get();
@@ -346,6 +385,13 @@ public abstract class MessagingGatewaySupport extends AbstractEndpoint
 			}
 			this.messageConverter.setBeanFactory(this.getBeanFactory());
 		}
+		if (this.sharedReplyChannelEnabled && this.sharedReplyChannel == null) {
+			this.sharedReplyChannel = new SharedReplyChannel();
+			this.sharedReplyChannel.setTaskScheduler(getTaskScheduler());
+			this.sharedReplyChannel.setThrowExceptionOnLateReply(Boolean.valueOf(
+					IntegrationContextUtils.getIntegrationProperties(getBeanFactory())
+							.getProperty(IntegrationProperties.THROW_EXCEPTION_ON_LATE_REPLY)));
+		}
 		this.initialized = true;
 	}
 
@@ -488,7 +534,15 @@ public abstract class MessagingGatewaySupport extends AbstractEndpoint
 			if (this.countsEnabled) {
 				this.messageCount.incrementAndGet();
 			}
-			if (shouldConvert) {
+			if (this.sharedReplyChannel != null) {
+				requestMessage = this.historyWritingPostProcessor.postProcessMessage(
+						this.requestMapper.toMessage(object));
+				Message<?> replyMessage = sendAndReceiveShared(requestChannel, requestMessage);
+				reply = (shouldConvert && replyMessage != null)
+						? this.messageConverter.fromMessage(replyMessage, Object.class)
+						: replyMessage;
+			}
+			else if (shouldConvert) {
 				reply = this.messagingTemplate.convertSendAndReceive(requestChannel, object, Object.class,
 						this.historyWritingPostProcessor);
 				if (reply instanceof Throwable) {
@@ -560,6 +614,54 @@ public abstract class MessagingGatewaySupport extends AbstractEndpoint
 		return reply;
 	}
 
+	private Message<?> sendAndReceiveShared(MessageChannel requestChannel, Message<?> requestMessage)
+			throws Exception {
+
+		PendingReply pendingReply = this.sharedReplyChannel.register(requestMessage, -1);
+		try {
+			sendRequest(requestChannel, pendingReply.getRequestMessage());
+			long receiveTimeout = receiveTimeout(requestMessage);
+			return receiveTimeout < 0
+					? pendingReply.getFuture().get()
+					: pendingReply.getFuture().get(receiveTimeout, TimeUnit.MILLISECONDS);
+		}
+		catch (TimeoutException e) {
+			return null;
+		}
+		catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			throw cause instanceof Exception ? (Exception) cause : e;
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return null;
+		}
+		finally {
+			this.sharedReplyChannel.cancel(pendingReply);
+		}
+	}
+
+	private void sendRequest(MessageChannel requestChannel, Message<?> requestMessage) {
+		if (requestChannel instanceof ReactiveStreamsSubscribableChannel) {
+			((ReactiveStreamsSubscribableChannel) requestChannel)
+					.subscribeTo(Mono.just(requestMessage));
+		}
+		else {
+			long sendTimeout = sendTimeout(requestMessage);
+
+			boolean sent =
+					sendTimeout >= 0
+							? requestChannel.send(requestMessage, sendTimeout)
+							: requestChannel.send(requestMessage);
+
+			if (!sent) {
+				throw new MessageDeliveryException(requestMessage,
+						"Failed to send message to channel '" + requestChannel +
+								"' within timeout: " + sendTimeout);
+			}
+		}
+	}
+
 	protected Mono<Message<?>> sendAndReceiveMessageReactive(Object object) {
 		initializeIfNecessary();
 		Assert.notNull(object, "request must not be null");
@@ -591,6 +693,10 @@ public abstract class MessagingGatewaySupport extends AbstractEndpoint
 				throw new MessageMappingException("Cannot map to message: " + object, e);
 			}
 
+			if (this.sharedReplyChannel != null) {
+				return doSendAndReceiveMessageShared(requestChannel, message, error);
+			}
+
 			Object originalReplyChannelHeader = message.getHeaders().getReplyChannel();
 			Object originalErrorChannelHeader = message.getHeaders().getErrorChannel();
 
@@ -603,24 +709,7 @@ public abstract class MessagingGatewaySupport extends AbstractEndpoint
 					.setErrorChannel(replyChannel)
 					.build();
 
-			if (requestChannel instanceof ReactiveStreamsSubscribableChannel) {
-				((ReactiveStreamsSubscribableChannel) requestChannel)
-						.subscribeTo(Mono.just(requestMessage));
-			}
-			else {
-				long sendTimeout = sendTimeout(requestMessage);
-
-				boolean sent =
-						sendTimeout >= 0
-								? requestChannel.send(requestMessage, sendTimeout)
-								: requestChannel.send(requestMessage);
-
-				if (!sent) {
-					throw new MessageDeliveryException(requestMessage,
-							"Failed to send message to channel '" + requestChannel +
-									"' within timeout: " + sendTimeout);
-				}
-			}
+			sendRequest(requestChannel, requestMessage);
 
 			return Mono.fromFuture(replyChannel.messageFuture)
 					.doOnSubscribe(s -> {
@@ -638,6 +727,32 @@ public abstract class MessagingGatewaySupport extends AbstractEndpoint
 		});
 	}
 
+	private Mono<Message<?>> doSendAndReceiveMessageShared(MessageChannel requestChannel, Message<?> message,
+			boolean error) {
+
+		PendingReply pendingReply = this.sharedReplyChannel.register(message, receiveTimeout(message));
+		try {
+			sendRequest(requestChannel, pendingReply.getRequestMessage());
+		}
+		catch (RuntimeException e) {
+			this.sharedReplyChannel.cancel(pendingReply);
+			throw e;
+		}
+		Mono<Message<?>> reply = Mono.fromFuture(pendingReply.getFuture())
+				.doFinally(s -> this.sharedReplyChannel.cancel(pendingReply));
+		if (this.errorOnTimeout) {
+			reply = reply.switchIfEmpty(Mono.defer(() -> Mono.error(
+					new MessageTimeoutException(message, "No reply received within timeout"))));
+		}
+		return reply
+				.doOnSubscribe(s -> {
+					if (!error && this.countsEnabled) {
+						this.messageCount.incrementAndGet();
+					}
+				})
+				.onErrorResume(t -> error ? Mono.error(t) : handleSendError(message, t));
+	}
+
 	private Mono<Message<?>> handleSendError(Message<?> requestMessage, Throwable exception) {
 		if (logger.isDebugEnabled()) {
 			logger.debug("failure occurred in gateway sendAndReceiveReactive: " + exception.getMessage());
@@ -777,6 +892,9 @@ public abstract class MessagingGatewaySupport extends AbstractEndpoint
 		if (this.replyMessageCorrelator != null) {
 			this.replyMessageCorrelator.stop();
 		}
+		if (this.sharedReplyChannel != null) {
+			this.sharedReplyChannel.stopTicker();
+		}
 	}
 
 	@Override
@@ -0,0 +1,347 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.gateway;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.lang.Nullable;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.support.ErrorMessage;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.util.Assert;
+
+/**
+ * A long-lived reply channel shared by all the requests of a gateway, as an alternative
+ * to creating a {@code TemporaryReplyChannel} (with its latch) for each request.
+ * <p>
+ * Each request is given a unique {@link #REPLY_CORRELATION_HEADER} and is registered
+ * in a correlation map; the reply (or error) message sent to this channel completes the
+ * {@link CompletableFuture} of the matching request, so asynchronous callers do not need
+ * to park a thread while waiting. The timeouts of asynchronous requests are enforced by
+ * a timing wheel, advanced by a single {@link TaskScheduler} task, rather than by a
+ * scheduled task per request. When no scheduler is provided, the channel uses its own
+ * single-threaded scheduler while requests with a timeout are pending.
+ * <p>
+ * Since the same channel instance is used as the {@code replyChannel} and
+ * {@code errorChannel} header of every request, the downstream flow must propagate the
+ * {@link #REPLY_CORRELATION_HEADER} to the reply, which is the default behavior of
+ * reply-producing handlers. As for the reply and error channels, an incoming value of
+ * this header (set by an outer gateway when gateways are nested) is restored on the
+ * reply.
+ *
+ * @since 5.1
+ */
+public class SharedReplyChannel implements MessageChannel {
+
+	/**
+	 * The header used to correlate a reply with its request.
+	 */
+	public static final String REPLY_CORRELATION_HEADER = "gatewayReplyCorrelation";
+
+	private static final Log logger = LogFactory.getLog(SharedReplyChannel.class);
+
+	private static final int DEFAULT_WHEEL_SIZE = 512;
+
+	private static final long DEFAULT_TICK_DURATION = 10L;
+
+	private final Map<String, PendingReply> pendingReplies = new ConcurrentHashMap<>();
+
+	private final String keyPrefix = UUID.randomUUID().toString() + ':';
+
+	private final AtomicLong sequence = new AtomicLong();
+
+	private final Queue<PendingReply>[] wheel;
+
+	private final long tickDuration;
+
+	private final Object tickerMonitor = new Object();
+
+	private TaskScheduler taskScheduler;
+
+	private boolean throwExceptionOnLateReply;
+
+	private volatile ScheduledFuture<?> ticker;
+
+	private ThreadPoolTaskScheduler defaultTaskScheduler;
+
+	private long tick; // guarded by wheel
+
+	/**
+	 * Construct an instance with a timing wheel of 512 slots and a 10 millisecond tick.
+	 */
+	public SharedReplyChannel() {
+		this(DEFAULT_WHEEL_SIZE, DEFAULT_TICK_DURATION);
+	}
+
+	/**
+	 * Construct an instance with the provided timing wheel properties; timeouts are
+	 * enforced with a precision of one tick.
+	 * @param wheelSize the number of slots in the wheel.
+	 * @param tickDuration the duration of a tick in milliseconds.
+	 */
+	@SuppressWarnings("unchecked")
+	public SharedReplyChannel(int wheelSize, long tickDuration) {
+		Assert.isTrue(wheelSize > 0, "'wheelSize' must be greater than 0");
+		Assert.isTrue(tickDuration > 0, "'tickDuration' must be greater than 0");
+		this.wheel = new Queue[wheelSize];
+		for (int i = 0; i < wheelSize; i++) {
+			this.wheel[i] = new ConcurrentLinkedQueue<>();
+		}
+		this.tickDuration = tickDuration;
+	}
+
+	/**
+	 * Set the scheduler used to advance the timing wheel; without a scheduler, a
+	 * single-threaded scheduler is created when the first request with a timeout is
+	 * registered and shut down by {@link #stopTicker()}.
+	 * @param taskScheduler the scheduler.
+	 */
+	public void setTaskScheduler(TaskScheduler taskScheduler) {
+		this.taskScheduler = taskScheduler;
+	}
+
+	/**
+	 * Set to true to reject a reply for which there is no pending request (for example
+	 * because the request timed out), causing the sender to fail; by default such
+	 * replies are logged and discarded.
+	 * @param throwExceptionOnLateReply true to reject late replies.
+	 */
+	public void setThrowExceptionOnLateReply(boolean throwExceptionOnLateReply) {
+		this.throwExceptionOnLateReply = throwExceptionOnLateReply;
+	}
+
+	/**
+	 * Return the number of requests waiting for a reply.
+	 * @return the number of pending replies.
+	 */
+	public int getPendingReplyCount() {
+		return this.pendingReplies.size();
+	}
+
+	/**
+	 * Register a request, returning the pending reply that holds the message to send.
+	 * @param requestMessage the request message.
+	 * @param timeout the reply timeout in milliseconds to enforce with the timing wheel;
+	 * a negative value when the caller enforces its own timeout (or none).
+	 * @return the pending reply.
+	 */
+	PendingReply register(Message<?> requestMessage, long timeout) {
+		String key = this.keyPrefix + this.sequence.incrementAndGet();
+		Message<?> message = MessageBuilder.fromMessage(requestMessage)
+				.setHeader(REPLY_CORRELATION_HEADER, key)
+				.setReplyChannel(this)
+				.setErrorChannel(this)
+				.build();
+		PendingReply pendingReply = new PendingReply(key, message,
+				requestMessage.getHeaders().getReplyChannel(), requestMessage.getHeaders().getErrorChannel(),
+				requestMessage.getHeaders().get(REPLY_CORRELATION_HEADER),
+				timeout >= 0 ? System.currentTimeMillis() + timeout : Long.MAX_VALUE);
+		this.pendingReplies.put(key, pendingReply);
+		if (timeout >= 0) {
+			startTickerIfNecessary();
+			synchronized (this.wheel) {
+				schedule(pendingReply, this.tick, timeout);
+			}
+		}
+		return pendingReply;
+	}
+
+	/**
+	 * Remove a pending reply, typically when the caller has given up waiting.
+	 * @param pendingReply the pending reply.
+	 */
+	void cancel(PendingReply pendingReply) {
+		this.pendingReplies.remove(pendingReply.key, pendingReply);
+	}
+
+	@Override
+	public boolean send(Message<?> message, long timeout) {
+		String key = correlationKey(message);
+		PendingReply pendingReply = key != null ? this.pendingReplies.remove(key) : null;
+		if (pendingReply == null) {
+			if (logger.isWarnEnabled()) {
+				logger.warn("Reply message received but the receiving thread has already received a reply"
+						+ " or timed out: " + message);
+			}
+			return !this.throwExceptionOnLateReply;
+		}
+		if (message instanceof ErrorMessage) {
+			pendingReply.future.completeExceptionally(((ErrorMessage) message).getPayload());
+		}
+		else {
+			pendingReply.future.complete(MessageBuilder.fromMessage(message)
+					.setHeader(MessageHeaders.REPLY_CHANNEL, pendingReply.originalReplyChannel)
+					.setHeader(MessageHeaders.ERROR_CHANNEL, pendingReply.originalErrorChannel)
+					.setHeader(REPLY_CORRELATION_HEADER, pendingReply.originalCorrelation)
+					.build());
+		}
+		return true;
+	}
+
+	/**
+	 * Stop advancing the timing wheel; it is restarted by the next registration.
+	 * Pending replies are not affected.
+	 */
+	void stopTicker() {
+		synchronized (this.tickerMonitor) {
+			if (this.ticker != null) {
+				this.ticker.cancel(false);
+				this.ticker = null;
+			}
+			if (this.defaultTaskScheduler != null) {
+				this.defaultTaskScheduler.shutdown();
+				this.defaultTaskScheduler = null;
+			}
+		}
+	}
+
+	@Nullable
+	private static String correlationKey(Message<?> message) {
+		Object key = message.getHeaders().get(REPLY_CORRELATION_HEADER);
+		if (key == null && message instanceof ErrorMessage) {
+			ErrorMessage errorMessage = (ErrorMessage) message;
+			Message<?> failedMessage = errorMessage.getOriginalMessage();
+			if (failedMessage == null && errorMessage.getPayload() instanceof MessagingException) {
+				failedMessage = ((MessagingException) errorMessage.getPayload()).getFailedMessage();
+			}
+			if (failedMessage != null) {
+				key = failedMessage.getHeaders().get(REPLY_CORRELATION_HEADER);
+			}
+		}
+		return key != null ? key.toString() : null;
+	}
+
+	private void startTickerIfNecessary() {
+		if (this.ticker == null) {
+			synchronized (this.tickerMonitor) {
+				if (this.ticker == null) {
+					TaskScheduler scheduler = this.taskScheduler;
+					if (scheduler == null) {
+						this.defaultTaskScheduler = new ThreadPoolTaskScheduler();
+						this.defaultTaskScheduler.setThreadNamePrefix("sharedReplyChannel-");
+						this.defaultTaskScheduler.setDaemon(true);
+						this.defaultTaskScheduler.initialize();
+						scheduler = this.defaultTaskScheduler;
+					}
+					this.ticker = scheduler.scheduleAtFixedRate(this::advance, this.tickDuration);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Add an entry to the slot that is due after the delay; the caller must hold the
+	 * {@link #wheel} lock, so the current tick cannot advance meanwhile.
+	 */
+	private void schedule(PendingReply pendingReply, long currentTick, long delay) {
+		long ticks = Math.max(1, (delay + this.tickDuration - 1) / this.tickDuration);
+		ticks = Math.min(ticks, this.wheel.length - 1);
+		this.wheel[(int) ((currentTick + ticks) % this.wheel.length)].add(pendingReply);
+	}
+
+	/**
+	 * Advance the wheel by one tick; only ever called by the (non-overlapping) ticker
+	 * task. Entries that are not yet due (because their timeout exceeds one rotation of
+	 * the wheel, or because the tick was late) are rescheduled. The expired futures are
+	 * completed outside the lock, since completion may run dependent actions.
+	 */
+	private void advance() {
+		List<PendingReply> expired = new ArrayList<>();
+		synchronized (this.wheel) {
+			long currentTick = ++this.tick;
+			Queue<PendingReply> slot = this.wheel[(int) (currentTick % this.wheel.length)];
+			long now = System.currentTimeMillis();
+			PendingReply pendingReply;
+			while ((pendingReply = slot.poll()) != null) {
+				if (pendingReply.future.isDone()) {
+					continue;
+				}
+				if (pendingReply.deadline <= now) {
+					expired.add(pendingReply);
+				}
+				else {
+					schedule(pendingReply, currentTick, pendingReply.deadline - now);
+				}
+			}
+		}
+		for (PendingReply pendingReply : expired) {
+			if (this.pendingReplies.remove(pendingReply.key, pendingReply)) {
+				pendingReply.future.complete(null);
+			}
+		}
+	}
+
+	/**
+	 * A registered request and the future completed by its reply; the future is
+	 * completed with {@code null} when the request times out on the timing wheel, and
+	 * exceptionally when an {@link ErrorMessage} is received.
+	 */
+	static final class PendingReply {
+
+		private final String key;
+
+		private final Message<?> requestMessage;
+
+		private final Object originalReplyChannel;
+
+		private final Object originalErrorChannel;
+
+		private final Object originalCorrelation;
+
+		private final long deadline;
+
+		private final CompletableFuture<Message<?>> future = new CompletableFuture<>();
+
+		PendingReply(String key, Message<?> requestMessage, Object originalReplyChannel,
+				Object originalErrorChannel, Object originalCorrelation, long deadline) {
+
+			this.key = key;
+			this.requestMessage = requestMessage;
+			this.originalReplyChannel = originalReplyChannel;
+			this.originalErrorChannel = originalErrorChannel;
+			this.originalCorrelation = originalCorrelation;
+			this.deadline = deadline;
+		}
+
+		Message<?> getRequestMessage() {
+			return this.requestMessage;
+		}
+
+		CompletableFuture<Message<?>> getFuture() {
+			return this.future;
+		}
+
+	}
+
+}
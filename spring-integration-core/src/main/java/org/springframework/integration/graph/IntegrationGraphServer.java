@@ -19,21 +19,35 @@ package org.springframework.integration.graph;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
 
 import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
-import org.springframework.context.ApplicationListener;
+import org.springframework.context.ApplicationEvent;
 import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.SmartApplicationListener;
+import org.springframework.core.Ordered;
+import org.springframework.integration.channel.QueueChannelOperations;
+import org.springframework.integration.dsl.context.IntegrationFlowEvent;
+import org.springframework.integration.dsl.context.IntegrationFlowRegisteredEvent;
+import org.springframework.integration.dsl.context.IntegrationFlowRemovedEvent;
 import org.springframework.integration.endpoint.IntegrationConsumer;
 import org.springframework.integration.endpoint.MessageProducerSupport;
 import org.springframework.integration.endpoint.PollingConsumer;
 import org.springframework.integration.endpoint.SourcePollingChannelAdapter;
+import org.springframework.integration.gateway.GatewayMethodCreatedEvent;
 import org.springframework.integration.gateway.GatewayProxyFactoryBean;
 import org.springframework.integration.gateway.MessagingGatewaySupport;
 import org.springframework.integration.handler.CompositeMessageHandler;
@@ -41,13 +55,28 @@ import org.springframework.integration.handler.DiscardingMessageHandler;
 import org.springframework.integration.router.RecipientListRouter.Recipient;
 import org.springframework.integration.router.RecipientListRouterManagement;
 import org.springframework.integration.support.context.NamedComponent;
+import org.springframework.integration.support.management.LatencyHistogram;
 import org.springframework.integration.support.management.MappingMessageRouterManagement;
+import org.springframework.integration.support.management.MessageChannelMetrics;
+import org.springframework.integration.support.management.MessageHandlerMetrics;
+import org.springframework.integration.support.management.MessagePathTracer;
+import org.springframework.integration.support.management.MessageSourceMetrics;
+import org.springframework.integration.support.management.PathStatistics;
+import org.springframework.lang.Nullable;
 import org.springframework.messaging.MessageChannel;
 import org.springframework.messaging.MessageHandler;
+import org.springframework.util.Assert;
 import org.springframework.util.StringUtils;
 
 /**
  * Builds the runtime object model graph.
+ * <p>
+ * The nodes are cached per bean; when an
+ * {@link org.springframework.integration.dsl.context.IntegrationFlowContext} registers
+ * or removes a flow at runtime, only the nodes for the beans of that flow are created or
+ * discarded and the links are re-derived from the cached nodes. Each change publishes a
+ * new {@link Graph} so that callers of {@link #getGraph()} are never blocked by a
+ * rebuild.
  *
  * @author Gary Russell
  * @author Artem Bilan
@@ -55,18 +84,34 @@ import org.springframework.util.StringUtils;
  * @since 4.3
  *
  */
-public class IntegrationGraphServer implements ApplicationContextAware, ApplicationListener<ContextRefreshedEvent> {
+public class IntegrationGraphServer implements ApplicationContextAware, SmartApplicationListener {
 
 	private static final float GRAPH_VERSION = 1.0f;
 
+	private static final double P99 = 0.99;
+
 	private final NodeFactory nodeFactory = new NodeFactory();
 
+	private final Map<String, List<IntegrationNode>> nodesByBean = new LinkedHashMap<>();
+
+	private final Map<String, MessageChannelNode> channelNodes = new HashMap<>();
+
+	private final Map<Integer, LiveNode> liveNodes = new LinkedHashMap<>();
+
 	private ApplicationContext applicationContext;
 
-	private Graph graph;
+	private Map<String, Object> descriptor;
+
+	private MessagePathTracer pathTracer;
 
 	private String applicationName;
 
+	private long liveRateInterval = TimeUnit.SECONDS.toNanos(1);
+
+	private volatile Graph graph;
+
+	private volatile Collection<LiveNode> liveNodeList = Collections.emptyList();
+
 	@Override
 	public void setApplicationContext(ApplicationContext applicationContext) throws BeansException {
 		this.applicationContext = applicationContext; //NOSONAR (sync)
@@ -82,6 +127,18 @@ public class IntegrationGraphServer implements ApplicationContextAware, Applicat
 		this.applicationName = applicationName; //NOSONAR (sync)
 	}
 
+	/**
+	 * Set the minimum interval (milliseconds) over which the {@link LiveNodeStats#getRate()
+	 * rate} of each node is calculated; polling {@link #getLiveStats()} more frequently
+	 * returns the rate calculated for the previous interval. Default 1 second.
+	 * @param liveRateInterval the interval.
+	 * @since 5.1
+	 */
+	public void setLiveRateInterval(long liveRateInterval) {
+		Assert.isTrue(liveRateInterval > 0, "'liveRateInterval' must be greater than 0");
+		this.liveRateInterval = TimeUnit.MILLISECONDS.toNanos(liveRateInterval); //NOSONAR (sync)
+	}
+
 	/**
 	 * Return the cached graph. Although the graph is cached, the data therein (stats
 	 * etc.) are dynamic.
@@ -89,23 +146,98 @@ public class IntegrationGraphServer implements ApplicationContextAware, Applicat
 	 * @see #rebuild()
 	 */
 	public Graph getGraph() {
-		if (this.graph == null) { //NOSONAR (sync)
+		Graph graph = this.graph;
+		if (graph == null) {
 			synchronized (this) {
-				if (this.graph == null) {
-					buildGraph();
+				graph = this.graph;
+				if (graph == null) {
+					graph = buildGraph();
 				}
 			}
 		}
-		return this.graph;
+		return graph;
+	}
+
+	/**
+	 * Return the latency statistics for each path sampled by the
+	 * {@link MessagePathTracer} in the application context, if there is one. Like the
+	 * node stats, these are dynamic.
+	 * @return the statistics, or null if there is no tracer.
+	 * @since 5.1
+	 */
+	@Nullable
+	public Collection<PathStatistics> getPaths() {
+		getGraph();
+		MessagePathTracer tracer = this.pathTracer;
+		return tracer != null ? tracer.getPaths() : null;
+	}
+
+	/**
+	 * Return the current throughput, 99th percentile latency and queue backlog of each
+	 * node of the {@link #getGraph() graph}. The values are read from the components'
+	 * (lock-free) counters and histograms without blocking the message flow, so this can
+	 * be polled frequently - for example, to overlay a live view on the graph.
+	 * @return the stats, in the same order as the graph nodes.
+	 * @since 5.1
+	 */
+	public Collection<LiveNodeStats> getLiveStats() {
+		getGraph();
+		long now = System.nanoTime();
+		Collection<LiveNode> nodes = this.liveNodeList;
+		List<LiveNodeStats> stats = new ArrayList<>(nodes.size());
+		for (LiveNode node : nodes) {
+			stats.add(node.sample(now, this.liveRateInterval));
+		}
+		return stats;
 	}
 
 	@Override
-	public void onApplicationEvent(ContextRefreshedEvent event) {
-		if (event.getApplicationContext().equals(this.applicationContext)) {
-			buildGraph();
+	public boolean supportsEventType(Class<? extends ApplicationEvent> eventType) {
+		return ContextRefreshedEvent.class.isAssignableFrom(eventType)
+				|| IntegrationFlowRegisteredEvent.class.isAssignableFrom(eventType)
+				|| IntegrationFlowRemovedEvent.class.isAssignableFrom(eventType)
+				|| GatewayMethodCreatedEvent.class.isAssignableFrom(eventType);
+	}
+
+	@Override
+	public boolean supportsSourceType(@Nullable Class<?> sourceType) {
+		return true;
+	}
+
+	@Override
+	public int getOrder() {
+		return Ordered.LOWEST_PRECEDENCE;
+	}
+
+	@Override
+	public void onApplicationEvent(ApplicationEvent event) {
+		if (event instanceof ContextRefreshedEvent) {
+			if (((ContextRefreshedEvent) event).getApplicationContext().equals(this.applicationContext)) {
+				buildGraph();
+			}
+		}
+		else if (event instanceof IntegrationFlowRegisteredEvent) {
+			addBeans(((IntegrationFlowEvent) event).getBeanNames());
+		}
+		else if (event instanceof IntegrationFlowRemovedEvent) {
+			removeBeans(((IntegrationFlowEvent) event).getBeanNames());
+		}
+		else if (event instanceof GatewayMethodCreatedEvent) {
+			addGatewayMethod((GatewayMethodCreatedEvent) event);
 		}
 	}
 
+	/**
+	 * Rebuild the graph, re-cache it, and return it. Use this method if the application
+	 * components have changed (added or removed) other than by registering or removing
+	 * flows with an {@code IntegrationFlowContext}, or to refresh the routes of routers.
+	 * @return the graph.
+	 * @see #getGraph()
+	 */
+	public Graph rebuild() {
+		return buildGraph();
+	}
+
 	private synchronized Graph buildGraph() {
 		String implementationVersion = IntegrationGraphServer.class.getPackage().getImplementationVersion();
 		if (implementationVersion == null) {
@@ -122,129 +254,240 @@ public class IntegrationGraphServer implements ApplicationContextAware, Applicat
 		if (name != null) {
 			descriptor.put("name", name);
 		}
+		this.descriptor = descriptor;
 		this.nodeFactory.reset();
+		this.nodesByBean.clear();
+		this.channelNodes.clear();
+		this.liveNodes.clear();
+		channels();
+		pollingAdapters();
+		gateways();
+		producers();
+		consumers();
+		Map<String, MessagePathTracer> tracers = this.applicationContext.getBeansOfType(MessagePathTracer.class,
+				false, false);
+		this.pathTracer = tracers.size() == 1 ? tracers.values().iterator().next() : null;
+		return assemble();
+	}
+
+	private synchronized void addBeans(Collection<String> beanNames) {
+		if (this.graph == null) {
+			return; // the next getGraph() builds the complete graph
+		}
+		for (String beanName : beanNames) {
+			String factoryBeanName = BeanFactory.FACTORY_BEAN_PREFIX + beanName;
+			if (this.nodesByBean.containsKey(beanName) || this.nodesByBean.containsKey(factoryBeanName)
+					|| !this.applicationContext.containsBean(beanName)) {
+				continue;
+			}
+			if (this.applicationContext.isTypeMatch(factoryBeanName, GatewayProxyFactoryBean.class)) {
+				addGatewayProxy(factoryBeanName, this.applicationContext.getBean(factoryBeanName,
+						GatewayProxyFactoryBean.class));
+				continue;
+			}
+			Object bean = this.applicationContext.getBean(beanName);
+			if (bean instanceof MessageChannel) {
+				addChannel(beanName, (MessageChannel) bean);
+			}
+			else if (bean instanceof SourcePollingChannelAdapter) {
+				addPollingAdapter(beanName, (SourcePollingChannelAdapter) bean);
+			}
+			else if (bean instanceof MessagingGatewaySupport) {
+				addGateway(beanName, (MessagingGatewaySupport) bean);
+			}
+			else if (bean instanceof MessageProducerSupport) {
+				addProducer(beanName, (MessageProducerSupport) bean);
+			}
+			else if (bean instanceof IntegrationConsumer) {
+				addConsumer(beanName, (IntegrationConsumer) bean);
+			}
+		}
+		assemble();
+	}
+
+	private synchronized void removeBeans(Collection<String> beanNames) {
+		if (this.graph == null) {
+			return;
+		}
+		for (String beanName : beanNames) {
+			if (!this.applicationContext.containsBean(beanName)) {
+				removeBean(beanName);
+				removeBean(BeanFactory.FACTORY_BEAN_PREFIX + beanName);
+			}
+		}
+		assemble();
+	}
+
+	/*
+	 * A lazily created gateway of a GatewayProxyFactoryBean that is already in the graph.
+	 */
+	private synchronized void addGatewayMethod(GatewayMethodCreatedEvent event) {
+		if (this.graph == null) {
+			return;
+		}
+		Map<String, GatewayProxyFactoryBean> gpfbs = this.applicationContext
+				.getBeansOfType(GatewayProxyFactoryBean.class, true, false);
+		for (Entry<String, GatewayProxyFactoryBean> entry : gpfbs.entrySet()) {
+			if (entry.getValue() == event.getSource() && this.nodesByBean.containsKey(entry.getKey())) {
+				addGatewayMethod(entry.getKey(), event.getMethod(), event.getGateway());
+				assemble();
+				return;
+			}
+		}
+	}
+
+	private void removeBean(String key) {
+		List<IntegrationNode> nodes = this.nodesByBean.remove(key);
+		if (nodes != null) {
+			for (IntegrationNode node : nodes) {
+				this.liveNodes.remove(node.getNodeId());
+			}
+		}
+		this.channelNodes.remove(key);
+	}
+
+	/*
+	 * Derive the links from the cached nodes and publish a new graph.
+	 */
+	private Graph assemble() {
 		Collection<IntegrationNode> nodes = new ArrayList<>();
 		Collection<LinkNode> links = new ArrayList<>();
-		Map<String, MessageChannelNode> channelNodes = channels(nodes);
-		pollingAdapters(nodes, links, channelNodes);
-		gateways(nodes, links, channelNodes);
-		producers(nodes, links, channelNodes);
-		consumers(nodes, links, channelNodes);
-		this.graph = new Graph(descriptor, nodes, links);
+		for (List<IntegrationNode> beanNodes : this.nodesByBean.values()) {
+			nodes.addAll(beanNodes);
+		}
+		for (IntegrationNode node : nodes) {
+			if (node instanceof MessageHandlerNode) {
+				MessageChannelNode channelNode = this.channelNodes.get(((MessageHandlerNode) node).getInput());
+				if (channelNode != null) {
+					links.add(new LinkNode(channelNode.getNodeId(), node.getNodeId(), LinkNode.Type.input));
+				}
+			}
+			if (node instanceof EndpointNode) {
+				producerLink(links, (EndpointNode) node);
+			}
+		}
+		this.liveNodeList = new ArrayList<>(this.liveNodes.values());
+		this.graph = new Graph(this.descriptor, nodes, links);
 		return this.graph;
 	}
 
-	private Map<String, MessageChannelNode> channels(Collection<IntegrationNode> nodes) {
+	private void addNode(String key, IntegrationNode node, Object component) {
+		this.nodesByBean.computeIfAbsent(key, k -> new ArrayList<>(1)).add(node);
+		this.liveNodes.put(node.getNodeId(), LiveNode.create(node, component));
+	}
+
+	private void channels() {
 		Map<String, MessageChannel> channels = this.applicationContext
 				.getBeansOfType(MessageChannel.class, true, false);
-		Map<String, MessageChannelNode> channelNodes = new HashMap<>();
 		for (Entry<String, MessageChannel> entry : channels.entrySet()) {
-			MessageChannel channel = entry.getValue();
-			MessageChannelNode channelNode = this.nodeFactory.channelNode(entry.getKey(), channel);
-			String beanName = entry.getKey();
-			nodes.add(channelNode);
-			channelNodes.put(beanName, channelNode);
+			addChannel(entry.getKey(), entry.getValue());
 		}
-		return channelNodes;
 	}
 
-	private void pollingAdapters(Collection<IntegrationNode> nodes, Collection<LinkNode> links,
-			Map<String, MessageChannelNode> channelNodes) {
+	private void addChannel(String beanName, MessageChannel channel) {
+		MessageChannelNode channelNode = this.nodeFactory.channelNode(beanName, channel);
+		addNode(beanName, channelNode, channel);
+		this.channelNodes.put(beanName, channelNode);
+	}
 
+	private void pollingAdapters() {
 		Map<String, SourcePollingChannelAdapter> spcas = this.applicationContext
 				.getBeansOfType(SourcePollingChannelAdapter.class, true, false);
 		for (Entry<String, SourcePollingChannelAdapter> entry : spcas.entrySet()) {
-			SourcePollingChannelAdapter adapter = entry.getValue();
-			MessageSourceNode sourceNode = this.nodeFactory.sourceNode(entry.getKey(), adapter);
-			nodes.add(sourceNode);
-			producerLink(links, channelNodes, sourceNode);
+			addPollingAdapter(entry.getKey(), entry.getValue());
 		}
 	}
 
-	private void gateways(Collection<IntegrationNode> nodes, Collection<LinkNode> links,
-			Map<String, MessageChannelNode> channelNodes) {
+	private void addPollingAdapter(String beanName, SourcePollingChannelAdapter adapter) {
+		addNode(beanName, this.nodeFactory.sourceNode(beanName, adapter), adapter.getMessageSource());
+	}
 
+	private void gateways() {
 		Map<String, MessagingGatewaySupport> gateways = this.applicationContext
 				.getBeansOfType(MessagingGatewaySupport.class, true, false);
 		for (Entry<String, MessagingGatewaySupport> entry : gateways.entrySet()) {
-			MessagingGatewaySupport gateway = entry.getValue();
-			MessageGatewayNode gatewayNode = this.nodeFactory.gatewayNode(entry.getKey(), gateway);
-			nodes.add(gatewayNode);
-			producerLink(links, channelNodes, gatewayNode);
+			addGateway(entry.getKey(), entry.getValue());
 		}
 		Map<String, GatewayProxyFactoryBean> gpfbs = this.applicationContext
 				.getBeansOfType(GatewayProxyFactoryBean.class, true, false);
 		for (Entry<String, GatewayProxyFactoryBean> entry : gpfbs.entrySet()) {
-			Map<Method, MessagingGatewaySupport> methodMap = entry.getValue().getGateways();
-			for (Entry<Method, MessagingGatewaySupport> gwEntry : methodMap.entrySet()) {
-				MessagingGatewaySupport gateway = gwEntry.getValue();
-				Method method = gwEntry.getKey();
-				Class<?>[] parameterTypes = method.getParameterTypes();
-				String[] parameterTypeNames = new String[parameterTypes.length];
-				int i = 0;
-				for (Class<?> type : parameterTypes) {
-					parameterTypeNames[i++] = type.getName();
-				}
-				String signature = method.getName() +
-						"(" + StringUtils.arrayToCommaDelimitedString(parameterTypeNames) + ")";
-				MessageGatewayNode gatewayNode = this.nodeFactory.gatewayNode(
-						entry.getKey().substring(1) + "." + signature, gateway);
-				nodes.add(gatewayNode);
-				producerLink(links, channelNodes, gatewayNode);
-			}
+			addGatewayProxy(entry.getKey(), entry.getValue());
 		}
 	}
 
-	private void producers(Collection<IntegrationNode> nodes, Collection<LinkNode> links,
-			Map<String, MessageChannelNode> channelNodes) {
+	private void addGateway(String beanName, MessagingGatewaySupport gateway) {
+		addNode(beanName, this.nodeFactory.gatewayNode(beanName, gateway), gateway);
+	}
 
+	private void addGatewayProxy(String factoryBeanName, GatewayProxyFactoryBean gatewayProxyFactoryBean) {
+		Map<Method, MessagingGatewaySupport> methodMap = gatewayProxyFactoryBean.getGateways();
+		// with lazyInit, an empty node list marks the proxy as known for addGatewayMethod()
+		this.nodesByBean.computeIfAbsent(factoryBeanName, k -> new ArrayList<>(methodMap.size()));
+		for (Entry<Method, MessagingGatewaySupport> gwEntry : methodMap.entrySet()) {
+			addGatewayMethod(factoryBeanName, gwEntry.getKey(), gwEntry.getValue());
+		}
+	}
+
+	private void addGatewayMethod(String factoryBeanName, Method method, MessagingGatewaySupport gateway) {
+		Class<?>[] parameterTypes = method.getParameterTypes();
+		String[] parameterTypeNames = new String[parameterTypes.length];
+		int i = 0;
+		for (Class<?> type : parameterTypes) {
+			parameterTypeNames[i++] = type.getName();
+		}
+		String signature = method.getName() +
+				"(" + StringUtils.arrayToCommaDelimitedString(parameterTypeNames) + ")";
+		String name = factoryBeanName.substring(1) + "." + signature;
+		List<IntegrationNode> nodes = this.nodesByBean.get(factoryBeanName);
+		if (nodes != null && nodes.stream().anyMatch(node -> name.equals(node.getName()))) {
+			return; // created while the graph was being built
+		}
+		addNode(factoryBeanName, this.nodeFactory.gatewayNode(name, gateway), gateway);
+	}
+
+	private void producers() {
 		Map<String, MessageProducerSupport> producers = this.applicationContext
 				.getBeansOfType(MessageProducerSupport.class, true, false);
 		for (Entry<String, MessageProducerSupport> entry : producers.entrySet()) {
-			MessageProducerSupport producer = entry.getValue();
-			MessageProducerNode producerNode = this.nodeFactory.producerNode(entry.getKey(), producer);
-			nodes.add(producerNode);
-			producerLink(links, channelNodes, producerNode);
+			addProducer(entry.getKey(), entry.getValue());
 		}
 	}
 
-	private void consumers(Collection<IntegrationNode> nodes, Collection<LinkNode> links,
-			Map<String, MessageChannelNode> channelNodes) {
+	private void addProducer(String beanName, MessageProducerSupport producer) {
+		addNode(beanName, this.nodeFactory.producerNode(beanName, producer), producer);
+	}
 
+	private void consumers() {
 		Map<String, IntegrationConsumer> consumers = this.applicationContext.getBeansOfType(IntegrationConsumer.class,
 				true, false);
 		for (Entry<String, IntegrationConsumer> entry : consumers.entrySet()) {
-			IntegrationConsumer consumer = entry.getValue();
-			MessageHandlerNode handlerNode = consumer instanceof PollingConsumer
-					? this.nodeFactory.polledHandlerNode(entry.getKey(), (PollingConsumer) consumer)
-					: this.nodeFactory.handlerNode(entry.getKey(), consumer);
-			nodes.add(handlerNode);
-			MessageChannelNode channelNode = channelNodes.get(handlerNode.getInput());
-			if (channelNode != null) {
-				links.add(new LinkNode(channelNode.getNodeId(), handlerNode.getNodeId(), LinkNode.Type.input));
-			}
-			producerLink(links, channelNodes, handlerNode);
+			addConsumer(entry.getKey(), entry.getValue());
 		}
 	}
 
-	private void producerLink(Collection<LinkNode> links, Map<String, MessageChannelNode> channelNodes,
-			EndpointNode endpointNode) {
+	private void addConsumer(String beanName, IntegrationConsumer consumer) {
+		MessageHandlerNode handlerNode = consumer instanceof PollingConsumer
+				? this.nodeFactory.polledHandlerNode(beanName, (PollingConsumer) consumer)
+				: this.nodeFactory.handlerNode(beanName, consumer);
+		addNode(beanName, handlerNode, consumer.getHandler());
+	}
 
+	private void producerLink(Collection<LinkNode> links, EndpointNode endpointNode) {
 		MessageChannelNode channelNode;
 		if (endpointNode.getOutput() != null) {
-			channelNode = channelNodes.get(endpointNode.getOutput());
+			channelNode = this.channelNodes.get(endpointNode.getOutput());
 			if (channelNode != null) {
 				links.add(new LinkNode(endpointNode.getNodeId(), channelNode.getNodeId(), LinkNode.Type.output));
 			}
 		}
 		if (endpointNode instanceof ErrorCapableNode) {
-			channelNode = channelNodes.get(((ErrorCapableNode) endpointNode).getErrors());
+			channelNode = this.channelNodes.get(((ErrorCapableNode) endpointNode).getErrors());
 			if (channelNode != null) {
 				links.add(new LinkNode(endpointNode.getNodeId(), channelNode.getNodeId(), LinkNode.Type.error));
 			}
 		}
 		if (endpointNode instanceof DiscardingMessageHandlerNode) {
-			channelNode = channelNodes.get(((DiscardingMessageHandlerNode) endpointNode).getDiscards());
+			channelNode = this.channelNodes.get(((DiscardingMessageHandlerNode) endpointNode).getDiscards());
 			if (channelNode != null) {
 				links.add(new LinkNode(endpointNode.getNodeId(), channelNode.getNodeId(), LinkNode.Type.discard));
 			}
@@ -252,7 +495,7 @@ public class IntegrationGraphServer implements ApplicationContextAware, Applicat
 		if (endpointNode instanceof RoutingMessageHandlerNode) {
 			Collection<String> routes = ((RoutingMessageHandlerNode) endpointNode).getRoutes();
 			for (String route : routes) {
-				channelNode = channelNodes.get(route);
+				channelNode = this.channelNodes.get(route);
 				if (channelNode != null) {
 					links.add(new LinkNode(endpointNode.getNodeId(), channelNode.getNodeId(), LinkNode.Type.route));
 				}
@@ -261,13 +504,102 @@ public class IntegrationGraphServer implements ApplicationContextAware, Applicat
 	}
 
 	/**
-	 * Rebuild the graph, re-cache it, and return it. Use this method if the application
-	 * components have changed (added or removed).
-	 * @return the graph.
-	 * @see #getGraph()
+	 * Samples the counters of a node's component for {@link #getLiveStats()}. The rate
+	 * is calculated over at least the live rate interval, from an immutable sample that is
+	 * swapped atomically, so concurrent pollers share the same calculation.
 	 */
-	public Graph rebuild() {
-		return buildGraph();
+	private static final class LiveNode {
+
+		private final int nodeId;
+
+		private final String name;
+
+		private final LongSupplier count;
+
+		private final Supplier<LatencyHistogram> histogram;
+
+		private final QueueChannelOperations queue;
+
+		private final AtomicReference<RateSample> lastSample = new AtomicReference<>();
+
+		private LiveNode(int nodeId, String name, @Nullable LongSupplier count,
+				@Nullable Supplier<LatencyHistogram> histogram, @Nullable QueueChannelOperations queue) {
+
+			this.nodeId = nodeId;
+			this.name = name;
+			this.count = count;
+			this.histogram = histogram;
+			this.queue = queue;
+		}
+
+		static LiveNode create(IntegrationNode node, Object component) {
+			LongSupplier count = null;
+			Supplier<LatencyHistogram> histogram = null;
+			if (component instanceof MessageChannelMetrics) {
+				MessageChannelMetrics metrics = (MessageChannelMetrics) component;
+				count = metrics::getSendCountLong;
+				histogram = metrics::getSendDurationHistogram;
+			}
+			else if (component instanceof MessageHandlerMetrics) {
+				MessageHandlerMetrics metrics = (MessageHandlerMetrics) component;
+				count = metrics::getHandleCountLong;
+				histogram = metrics::getDurationHistogram;
+			}
+			else if (component instanceof MessageSourceMetrics) {
+				MessageSourceMetrics metrics = (MessageSourceMetrics) component;
+				count = metrics::getMessageCountLong;
+				histogram = metrics::getReceiveDurationHistogram;
+			}
+			QueueChannelOperations queue = component instanceof QueueChannelOperations
+					? (QueueChannelOperations) component
+					: null;
+			return new LiveNode(node.getNodeId(), node.getName(), count, histogram, queue);
+		}
+
+		LiveNodeStats sample(long now, long rateInterval) {
+			Long count = null;
+			Double rate = null;
+			if (this.count != null) {
+				long current = this.count.getAsLong();
+				RateSample last = this.lastSample.get();
+				if (last == null) {
+					this.lastSample.compareAndSet(null, new RateSample(current, now, 0));
+					rate = 0.0;
+				}
+				else if (now - last.time >= rateInterval) {
+					rate = (current - last.count) * (double) TimeUnit.SECONDS.toNanos(1) / (now - last.time);
+					this.lastSample.compareAndSet(last, new RateSample(current, now, rate));
+				}
+				else {
+					rate = last.rate;
+				}
+				count = current;
+			}
+			Double p99 = null;
+			LatencyHistogram histogram = this.histogram != null ? this.histogram.get() : null;
+			if (histogram != null) {
+				p99 = histogram.peek().getValueAtPercentile(P99);
+			}
+			Integer backlog = this.queue != null ? this.queue.getQueueSize() : null;
+			return new LiveNodeStats(this.nodeId, this.name, count, rate, p99, backlog);
+		}
+
+	}
+
+	private static final class RateSample {
+
+		private final long count;
+
+		private final long time;
+
+		private final double rate;
+
+		RateSample(long count, long time, double rate) {
+			this.count = count;
+			this.time = time;
+			this.rate = rate;
+		}
+
 	}
 
 	private static final class NodeFactory {
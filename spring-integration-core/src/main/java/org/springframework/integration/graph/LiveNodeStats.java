@@ -0,0 +1,103 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.graph;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * A point-in-time overlay for a graph node: its throughput, tail latency and backlog,
+ * keyed by the {@link IntegrationNode#getNodeId() nodeId} of the node in the
+ * {@link Graph}. This object can be exposed, for example, as a JSON object over HTTP.
+ *
+ * @since 5.1
+ *
+ */
+public class LiveNodeStats {
+
+	private final int nodeId;
+
+	private final String name;
+
+	private final Long count;
+
+	private final Double rate;
+
+	private final Double p99Latency;
+
+	private final Integer backlog;
+
+	public LiveNodeStats(int nodeId, String name, @Nullable Long count, @Nullable Double rate,
+			@Nullable Double p99Latency, @Nullable Integer backlog) {
+
+		this.nodeId = nodeId;
+		this.name = name;
+		this.count = count;
+		this.rate = rate;
+		this.p99Latency = p99Latency;
+		this.backlog = backlog;
+	}
+
+	public int getNodeId() {
+		return this.nodeId;
+	}
+
+	public String getName() {
+		return this.name;
+	}
+
+	/**
+	 * @return the number of messages sent, handled or produced by the node, or null if
+	 * the node has no counter.
+	 */
+	@Nullable
+	public Long getCount() {
+		return this.count;
+	}
+
+	/**
+	 * @return the number of messages per second, or null if the node has no counter.
+	 */
+	@Nullable
+	public Double getRate() {
+		return this.rate;
+	}
+
+	/**
+	 * @return the 99th percentile latency (milliseconds), or null if the node has no
+	 * latency histogram.
+	 */
+	@Nullable
+	public Double getP99Latency() {
+		return this.p99Latency;
+	}
+
+	/**
+	 * @return the number of messages queued in the channel, or null if the node is not a
+	 * queue channel.
+	 */
+	@Nullable
+	public Integer getBacklog() {
+		return this.backlog;
+	}
+
+	@Override
+	public String toString() {
+		return "LiveNodeStats [nodeId=" + this.nodeId + ", name=" + this.name + ", count=" + this.count
+				+ ", rate=" + this.rate + ", p99Latency=" + this.p99Latency + ", backlog=" + this.backlog + "]";
+	}
+
+}
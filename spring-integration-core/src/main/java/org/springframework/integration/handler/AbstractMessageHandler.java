@@ -26,7 +26,9 @@ import org.springframework.integration.support.management.AbstractMessageHandler
 import org.springframework.integration.support.management.ConfigurableMetricsAware;
 import org.springframework.integration.support.management.DefaultMessageHandlerMetrics;
 import org.springframework.integration.support.management.IntegrationManagedResource;
+import org.springframework.integration.support.management.LatencyHistogram;
 import org.springframework.integration.support.management.MessageHandlerMetrics;
+import org.springframework.integration.support.management.MessagePathTracer;
 import org.springframework.integration.support.management.MetricsContext;
 import org.springframework.integration.support.management.Statistics;
 import org.springframework.integration.support.management.TrackableComponent;
@@ -61,6 +63,8 @@ public abstract class AbstractMessageHandler extends IntegrationObjectSupport
 
 	private volatile boolean shouldTrack = false;
 
+	private volatile MessagePathTracer pathTracer;
+
 	private volatile int order = Ordered.LOWEST_PRECEDENCE;
 
 	private volatile AbstractMessageHandlerMetrics handlerMetrics = new DefaultMessageHandlerMetrics();
@@ -116,6 +120,11 @@ public abstract class AbstractMessageHandler extends IntegrationObjectSupport
 		this.shouldTrack = shouldTrack;
 	}
 
+	@Override
+	public void setPathTracer(MessagePathTracer pathTracer) {
+		this.pathTracer = pathTracer;
+	}
+
 	@Override
 	public void configureMetrics(AbstractMessageHandlerMetrics metrics) {
 		Assert.notNull(metrics, "'metrics' must not be null");
@@ -153,6 +162,10 @@ public abstract class AbstractMessageHandler extends IntegrationObjectSupport
 			if (this.shouldTrack) {
 				message = MessageHistory.write(message, this, getMessageBuilderFactory());
 			}
+			MessagePathTracer pathTracer = this.pathTracer;
+			if (pathTracer != null) {
+				pathTracer.trace(message, this);
+			}
 			if (countsEnabled) {
 				start = handlerMetrics.beforeHandle();
 				handleMessageInternal(message);
@@ -164,6 +177,9 @@ public abstract class AbstractMessageHandler extends IntegrationObjectSupport
 			else {
 				handleMessageInternal(message);
 			}
+			if (pathTracer != null) {
+				pathTracer.traceCompletion(message, this);
+			}
 		}
 		catch (Exception e) {
 			if (sample != null) {
@@ -277,6 +293,11 @@ public abstract class AbstractMessageHandler extends IntegrationObjectSupport
 		return this.handlerMetrics.getDuration();
 	}
 
+	@Override
+	public LatencyHistogram getDurationHistogram() {
+		return this.handlerMetrics.getDurationHistogram();
+	}
+
 	@Override
 	public void setStatsEnabled(boolean statsEnabled) {
 		if (statsEnabled) {
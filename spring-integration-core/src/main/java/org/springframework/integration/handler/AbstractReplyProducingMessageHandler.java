@@ -180,6 +180,16 @@ public abstract class AbstractReplyProducingMessageHandler extends AbstractMessa
 		 */
 		AbstractReplyProducingMessageHandler getAdvisedHandler();
 
+		/**
+		 * Return true if the advised handler supports async replies, so that an advice
+		 * can return a {@link org.springframework.util.concurrent.ListenableFuture}.
+		 * @return true if async.
+		 * @since 5.1
+		 */
+		default boolean isAsync() {
+			return false;
+		}
+
 	}
 
 	private class AdvisedRequestHandler implements RequestHandler {
@@ -193,6 +203,11 @@ public abstract class AbstractReplyProducingMessageHandler extends AbstractMessa
 			return AbstractReplyProducingMessageHandler.this.handleRequestMessage(requestMessage);
 		}
 
+		@Override
+		public boolean isAsync() {
+			return AbstractReplyProducingMessageHandler.this.isAsync();
+		}
+
 		@Override
 		public String toString() {
 			return AbstractReplyProducingMessageHandler.this.toString();
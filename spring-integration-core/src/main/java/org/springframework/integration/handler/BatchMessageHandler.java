@@ -0,0 +1,40 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.handler;
+
+import java.util.List;
+
+import org.springframework.messaging.Message;
+
+/**
+ * A handler that processes a batch of messages in one call; used with a
+ * {@link BatchingMessageHandler}.
+ *
+ * @since 5.1
+ */
+@FunctionalInterface
+public interface BatchMessageHandler {
+
+	/**
+	 * Handle the batch. If only some of the messages fail, throw a
+	 * {@link BatchMessageHandlingException} identifying them, so that the others are
+	 * acknowledged; any other exception fails every message in the batch.
+	 * @param messages the messages.
+	 */
+	void handleMessages(List<Message<?>> messages);
+
+}
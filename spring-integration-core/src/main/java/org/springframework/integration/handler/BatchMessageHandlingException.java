@@ -0,0 +1,55 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.handler;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.springframework.messaging.MessagingException;
+import org.springframework.util.Assert;
+
+/**
+ * Thrown by a {@link BatchMessageHandler} when some of the messages in a batch could
+ * not be handled.
+ *
+ * @since 5.1
+ */
+@SuppressWarnings("serial")
+public class BatchMessageHandlingException extends MessagingException {
+
+	private final Map<Integer, Throwable> failures;
+
+	/**
+	 * Construct an instance with the failures.
+	 * @param description the description.
+	 * @param failures the failures, keyed by the index of the message in the batch.
+	 */
+	public BatchMessageHandlingException(String description, Map<Integer, Throwable> failures) {
+		super(description);
+		Assert.notNull(failures, "'failures' cannot be null");
+		this.failures = Collections.unmodifiableMap(failures);
+	}
+
+	/**
+	 * Return the failures, keyed by the index of the message in the batch.
+	 * @return the failures.
+	 */
+	public Map<Integer, Throwable> getFailures() {
+		return this.failures;
+	}
+
+}
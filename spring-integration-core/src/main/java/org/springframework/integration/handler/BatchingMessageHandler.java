@@ -0,0 +1,404 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.handler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.ToIntFunction;
+
+import org.springframework.context.Lifecycle;
+import org.springframework.integration.StaticMessageHeaderAccessor;
+import org.springframework.integration.acks.AckUtils;
+import org.springframework.integration.acks.AcknowledgmentCallback;
+import org.springframework.integration.channel.MessagePublishingErrorHandler;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.MessagingException;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.util.Assert;
+
+/**
+ * A {@link MessageHandler} that accumulates messages into batches and hands each batch
+ * to a delegate: either a {@link MessageHandler}, which receives a single message with
+ * a {@code List} payload, or a {@link BatchMessageHandler}.
+ * <p>
+ * A batch is released when it contains {@link #setMaxSize(int) maxSize} messages,
+ * when the estimated size of its payloads reaches {@link #setMaxBytes(long) maxBytes},
+ * or when {@link #setLingerTime(long) lingerTime} has elapsed since its first message
+ * arrived, whichever comes first. The batch is handled on the thread that released
+ * it (or by the {@link #setTaskExecutor(Executor) taskExecutor}, if provided); a linger
+ * timeout is handled on a {@link TaskScheduler} thread.
+ * <p>
+ * Unlike an aggregator, no {@code MessageGroupStore} is involved and no lock is taken:
+ * each message reserves a slot in the current batch with an atomic increment. The
+ * batch is held in memory, so messages in an unreleased batch are lost if the
+ * application fails; use acknowledgments (below) when that matters.
+ * <p>
+ * Because the sender of a message does not necessarily handle the batch containing
+ * it, failures are not thrown to the sender; instead an
+ * {@link org.springframework.messaging.support.ErrorMessage} is sent for each failed
+ * message, to its {@code errorChannel} header or to the
+ * {@link #setErrorChannel(MessageChannel) errorChannel}. When a message with an
+ * auto-acknowledged {@link AcknowledgmentCallback} header is buffered, its auto
+ * acknowledgment by the sender (e.g. a
+ * {@link org.springframework.integration.endpoint.SourcePollingChannelAdapter}) is
+ * disabled; instead, the message is acknowledged or rejected according to its own
+ * outcome when its batch has been handled.
+ * <p>
+ * Messages sent to a stopped handler are rejected with a
+ * {@link MessageDeliveryException}.
+ *
+ * @since 5.1
+ */
+public class BatchingMessageHandler extends AbstractMessageHandler implements Lifecycle {
+
+	private static final int SEALED = Integer.MAX_VALUE / 2;
+
+	private final MessageHandler messageHandler;
+
+	private final BatchMessageHandler batchMessageHandler;
+
+	private final AtomicReference<Batch> currentBatch = new AtomicReference<>();
+
+	private final MessagePublishingErrorHandler errorHandler = new MessagePublishingErrorHandler();
+
+	private int maxSize = 100;
+
+	private long maxBytes;
+
+	private long lingerTime = 100;
+
+	private ToIntFunction<Message<?>> sizeEstimator = BatchingMessageHandler::estimateSize;
+
+	private boolean payloadsOnly = true;
+
+	private Executor taskExecutor;
+
+	private volatile boolean running;
+
+	/**
+	 * Create an instance that sends each batch to the handler as a single message with
+	 * a {@code List} payload.
+	 * @param messageHandler the handler.
+	 * @see #setPayloadsOnly(boolean)
+	 */
+	public BatchingMessageHandler(MessageHandler messageHandler) {
+		Assert.notNull(messageHandler, "'messageHandler' cannot be null");
+		this.messageHandler = messageHandler;
+		this.batchMessageHandler = null;
+	}
+
+	/**
+	 * Create an instance that passes each batch to the batch-aware handler.
+	 * @param batchMessageHandler the handler.
+	 */
+	public BatchingMessageHandler(BatchMessageHandler batchMessageHandler) {
+		Assert.notNull(batchMessageHandler, "'batchMessageHandler' cannot be null");
+		this.messageHandler = null;
+		this.batchMessageHandler = batchMessageHandler;
+	}
+
+	/**
+	 * Set the maximum number of messages in a batch; default 100.
+	 * @param maxSize the maximum size.
+	 */
+	public void setMaxSize(int maxSize) {
+		Assert.isTrue(maxSize > 0, "'maxSize' must be greater than 0");
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * Set the estimated payload size, in bytes, at which a batch is released;
+	 * default 0 (no limit).
+	 * @param maxBytes the maximum bytes.
+	 * @see #setSizeEstimator(ToIntFunction)
+	 */
+	public void setMaxBytes(long maxBytes) {
+		this.maxBytes = maxBytes;
+	}
+
+	/**
+	 * Set the maximum time in milliseconds a batch is held after its first message
+	 * arrives; default 100.
+	 * @param lingerTime the linger time.
+	 */
+	public void setLingerTime(long lingerTime) {
+		Assert.isTrue(lingerTime > 0, "'lingerTime' must be greater than 0");
+		this.lingerTime = lingerTime;
+	}
+
+	/**
+	 * Set a function to estimate the size of a message, used with
+	 * {@link #setMaxBytes(long) maxBytes}. The default uses the length of {@code byte[]}
+	 * and {@code String} payloads and 0 for others.
+	 * @param sizeEstimator the estimator.
+	 */
+	public void setSizeEstimator(ToIntFunction<Message<?>> sizeEstimator) {
+		Assert.notNull(sizeEstimator, "'sizeEstimator' cannot be null");
+		this.sizeEstimator = sizeEstimator;
+	}
+
+	/**
+	 * When delegating to a {@link MessageHandler}, set to false to send a list of the
+	 * messages, rather than a list of their payloads; default true.
+	 * @param payloadsOnly false to send a list of messages.
+	 */
+	public void setPayloadsOnly(boolean payloadsOnly) {
+		this.payloadsOnly = payloadsOnly;
+	}
+
+	/**
+	 * Set an executor on which batches are handled; by default, a batch is handled on
+	 * the thread that released it.
+	 * @param taskExecutor the executor.
+	 */
+	public void setTaskExecutor(Executor taskExecutor) {
+		this.taskExecutor = taskExecutor;
+	}
+
+	/**
+	 * Set the channel to which an error message is sent for each failed message that
+	 * has no {@code errorChannel} header. By default, the {@code errorChannel} bean is used.
+	 * @param errorChannel the channel.
+	 */
+	public void setErrorChannel(MessageChannel errorChannel) {
+		this.errorHandler.setDefaultErrorChannel(errorChannel);
+	}
+
+	/**
+	 * Set the name of the error channel.
+	 * @param errorChannelName the channel name.
+	 * @see #setErrorChannel(MessageChannel)
+	 */
+	public void setErrorChannelName(String errorChannelName) {
+		this.errorHandler.setDefaultErrorChannelName(errorChannelName);
+	}
+
+	/**
+	 * Set the scheduler used to release batches when the linger time expires; by
+	 * default, the {@code taskScheduler} bean is used.
+	 * @param taskScheduler the scheduler.
+	 */
+	@Override
+	public void setTaskScheduler(TaskScheduler taskScheduler) {
+		super.setTaskScheduler(taskScheduler);
+	}
+
+	@Override
+	public String getComponentType() {
+		return "batching-message-handler";
+	}
+
+	@Override
+	protected void onInit() throws Exception {
+		super.onInit();
+		if (getBeanFactory() != null) {
+			this.errorHandler.setBeanFactory(getBeanFactory());
+		}
+		Assert.state(getTaskScheduler() != null, "A 'taskScheduler' is required");
+		this.running = true;
+	}
+
+	@Override
+	public void start() {
+		this.running = true;
+	}
+
+	/**
+	 * Stop the handler, releasing the current batch.
+	 */
+	@Override
+	public void stop() {
+		this.running = false;
+		release(this.currentBatch.get());
+	}
+
+	@Override
+	public boolean isRunning() {
+		return this.running;
+	}
+
+	@Override
+	protected void handleMessageInternal(Message<?> message) throws Exception {
+		if (!this.running) {
+			throw new MessageDeliveryException(message, "The handler [" + this + "] is not running");
+		}
+		AcknowledgmentCallback ackCallback = StaticMessageHeaderAccessor.getAcknowledgmentCallback(message);
+		if (ackCallback != null) {
+			if (ackCallback.isAutoAck()) {
+				// the sender must not ack when send() returns; we ack when the batch has been handled
+				ackCallback.noAutoAck();
+			}
+			else {
+				ackCallback = null;
+			}
+		}
+		int size = this.maxBytes > 0 ? this.sizeEstimator.applyAsInt(message) : 0;
+		Batch newBatch = null;
+		while (true) {
+			Batch batch = this.currentBatch.get();
+			if (batch == null || batch.reserved.get() >= this.maxSize) {
+				// none yet, or full or sealed; make sure a new batch is available and try again
+				if (newBatch == null) {
+					newBatch = new Batch(this.maxSize);
+				}
+				if (this.currentBatch.compareAndSet(batch, newBatch)) {
+					newBatch = null;
+				}
+				continue;
+			}
+			int index = batch.reserved.getAndIncrement();
+			if (index >= this.maxSize) {
+				continue;
+			}
+			batch.messages.set(index, message);
+			batch.ackCallbacks.set(index, ackCallback);
+			long bytes = size > 0 ? batch.bytes.addAndGet(size) : 0;
+			batch.written.incrementAndGet();
+			if (index == this.maxSize - 1 || (this.maxBytes > 0 && bytes >= this.maxBytes)) {
+				release(batch);
+			}
+			else if (index == 0) {
+				getTaskScheduler().schedule(() -> release(batch), new Date(System.currentTimeMillis() + this.lingerTime));
+			}
+			return;
+		}
+	}
+
+	private void release(Batch batch) {
+		if (batch == null) {
+			return;
+		}
+		this.currentBatch.compareAndSet(batch, new Batch(this.maxSize));
+		if (batch.released.compareAndSet(false, true)) {
+			int count = Math.min(batch.reserved.getAndSet(SEALED), this.maxSize);
+			while (batch.written.get() < count) {
+				// a writer has reserved a slot but not yet stored its message
+				Thread.yield();
+			}
+			if (count > 0) {
+				List<Message<?>> messages = new ArrayList<>(count);
+				List<AcknowledgmentCallback> ackCallbacks = new ArrayList<>(count);
+				for (int i = 0; i < count; i++) {
+					messages.add(batch.messages.get(i));
+					ackCallbacks.add(batch.ackCallbacks.get(i));
+				}
+				if (this.taskExecutor != null) {
+					this.taskExecutor.execute(() -> handleBatch(messages, ackCallbacks));
+				}
+				else {
+					handleBatch(messages, ackCallbacks);
+				}
+			}
+		}
+	}
+
+	private void handleBatch(List<Message<?>> messages, List<AcknowledgmentCallback> ackCallbacks) {
+		Map<Integer, Throwable> failures;
+		try {
+			if (this.batchMessageHandler != null) {
+				this.batchMessageHandler.handleMessages(Collections.unmodifiableList(messages));
+			}
+			else {
+				List<Object> payload;
+				if (this.payloadsOnly) {
+					payload = new ArrayList<>(messages.size());
+					for (Message<?> message : messages) {
+						payload.add(message.getPayload());
+					}
+				}
+				else {
+					payload = new ArrayList<>(messages);
+				}
+				this.messageHandler.handleMessage(getMessageBuilderFactory().withPayload(payload).build());
+			}
+			failures = Collections.emptyMap();
+		}
+		catch (BatchMessageHandlingException e) {
+			failures = e.getFailures();
+		}
+		catch (Exception e) {
+			failures = null;
+			for (int i = 0; i < messages.size(); i++) {
+				handleFailure(messages.get(i), ackCallbacks.get(i), e);
+			}
+		}
+		if (failures != null) {
+			for (int i = 0; i < messages.size(); i++) {
+				Throwable failure = failures.get(i);
+				if (failure == null) {
+					AckUtils.accept(ackCallbacks.get(i));
+				}
+				else {
+					handleFailure(messages.get(i), ackCallbacks.get(i), failure);
+				}
+			}
+		}
+	}
+
+	private void handleFailure(Message<?> message, AcknowledgmentCallback ackCallback, Throwable failure) {
+		AckUtils.reject(ackCallback);
+		this.errorHandler.handleError(new MessagingException(message,
+				"Failed to handle batch in [" + this + "]", failure));
+	}
+
+	private static int estimateSize(Message<?> message) {
+		Object payload = message.getPayload();
+		if (payload instanceof byte[]) {
+			return ((byte[]) payload).length;
+		}
+		else if (payload instanceof String) {
+			return ((String) payload).length();
+		}
+		else {
+			return 0;
+		}
+	}
+
+	private static final class Batch {
+
+		private final AtomicReferenceArray<Message<?>> messages;
+
+		private final AtomicReferenceArray<AcknowledgmentCallback> ackCallbacks;
+
+		private final AtomicInteger reserved = new AtomicInteger();
+
+		private final AtomicInteger written = new AtomicInteger();
+
+		private final AtomicLong bytes = new AtomicLong();
+
+		private final AtomicBoolean released = new AtomicBoolean();
+
+		Batch(int size) {
+			this.messages = new AtomicReferenceArray<>(size);
+			this.ackCallbacks = new AtomicReferenceArray<>(size);
+		}
+
+	}
+
+}
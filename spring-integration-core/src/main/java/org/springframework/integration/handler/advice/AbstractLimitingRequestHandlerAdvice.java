@@ -0,0 +1,440 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.handler.advice;
+
+import java.util.Date;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.integration.MessageRejectedException;
+import org.springframework.integration.core.ErrorMessagePublisher;
+import org.springframework.integration.expression.ExpressionUtils;
+import org.springframework.integration.handler.AbstractReplyProducingMessageHandler.RequestHandler;
+import org.springframework.integration.support.management.metrics.CounterFacade;
+import org.springframework.integration.support.management.metrics.MetricsCaptor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.util.Assert;
+import org.springframework.util.concurrent.SettableListenableFuture;
+
+/**
+ * Base class for advices that limit access to the advised handler; a limiter is
+ * maintained per key (by default a single limiter per advised handler) and the
+ * {@link LimitExceededPolicy} determines what happens when no permit is available.
+ * <p>
+ * With {@link LimitExceededPolicy#DELAY}, the invocation is rescheduled on the
+ * {@link TaskScheduler} and the calling thread returns immediately. A
+ * {@link org.springframework.util.concurrent.ListenableFuture} is returned to an
+ * {@code async}
+ * {@link org.springframework.integration.handler.AbstractReplyProducingMessageHandler},
+ * so that the reply is sent when the deferred invocation completes. A reply-producing
+ * handler that is not {@code async} can't be released, so the calling thread waits up to
+ * the {@link #setDelay(long) delay} for a permit instead, after which the message is
+ * rejected. For other handlers, a failure of the deferred invocation is sent to the
+ * {@link #setErrorChannel(MessageChannel) errorChannel}, if configured, or logged. A
+ * deferred invocation is rejected if no permit is available within the
+ * {@link #setTimeout(long) timeout}.
+ *
+ * @param <L> the limiter type.
+ *
+ * @since 5.1
+ */
+public abstract class AbstractLimitingRequestHandlerAdvice<L> extends AbstractRequestHandlerAdvice {
+
+	/**
+	 * The name of the counter incremented for each permitted invocation.
+	 */
+	public static final String PERMITTED_COUNTER_NAME = "spring.integration.limiter.permitted";
+
+	/**
+	 * The name of the counter incremented for each rejected invocation.
+	 */
+	public static final String REJECTED_COUNTER_NAME = "spring.integration.limiter.rejected";
+
+	/**
+	 * The name of the counter incremented for each deferred invocation.
+	 */
+	public static final String DELAYED_COUNTER_NAME = "spring.integration.limiter.delayed";
+
+	private final ConcurrentMap<Object, L> limiters = new ConcurrentHashMap<>();
+
+	private LimitExceededPolicy limitExceededPolicy = LimitExceededPolicy.REJECT;
+
+	private long timeout = 1000;
+
+	private long delay = 100;
+
+	private Expression keyExpression;
+
+	private volatile EvaluationContext evaluationContext;
+
+	private ErrorMessagePublisher errorMessagePublisher;
+
+	private MetricsCaptor metricsCaptor;
+
+	private CounterFacade permittedCounter;
+
+	private CounterFacade rejectedCounter;
+
+	private CounterFacade delayedCounter;
+
+	/**
+	 * Set the policy applied when no permit is available; default
+	 * {@link LimitExceededPolicy#REJECT}.
+	 * @param limitExceededPolicy the policy.
+	 */
+	public void setLimitExceededPolicy(LimitExceededPolicy limitExceededPolicy) {
+		Assert.notNull(limitExceededPolicy, "'limitExceededPolicy' must not be null");
+		this.limitExceededPolicy = limitExceededPolicy;
+	}
+
+	/**
+	 * Set the maximum time in milliseconds to wait for a permit with
+	 * {@link LimitExceededPolicy#WAIT}, or to keep retrying a deferred invocation with
+	 * {@link LimitExceededPolicy#DELAY}, after which the message is rejected; default 1000.
+	 * @param timeout the timeout.
+	 */
+	public void setTimeout(long timeout) {
+		this.timeout = timeout;
+	}
+
+	/**
+	 * Set the time in milliseconds after which a deferred invocation is retried with
+	 * {@link LimitExceededPolicy#DELAY}, when the limiter cannot predict when a permit
+	 * will be available; default 100.
+	 * @param delay the delay.
+	 */
+	public void setDelay(long delay) {
+		Assert.isTrue(delay > 0, "'delay' must be greater than 0");
+		this.delay = delay;
+	}
+
+	/**
+	 * Set an expression, evaluated against the request message, to determine the key
+	 * of the limiter to use; a separate limiter is maintained for each key. By default,
+	 * there is one limiter per advised handler.
+	 * @param keyExpression the expression.
+	 */
+	public void setKeyExpression(Expression keyExpression) {
+		this.keyExpression = keyExpression;
+	}
+
+	/**
+	 * Set an expression string to determine the limiter key.
+	 * @param keyExpression the expression.
+	 * @see #setKeyExpression(Expression)
+	 */
+	public void setKeyExpressionString(String keyExpression) {
+		Assert.hasText(keyExpression, "'keyExpression' must not be empty");
+		this.keyExpression = EXPRESSION_PARSER.parseExpression(keyExpression);
+	}
+
+	/**
+	 * Set a channel to which an {@link org.springframework.messaging.support.ErrorMessage}
+	 * is sent when a message is rejected (instead of throwing a
+	 * {@link MessageRejectedException}), or when a deferred invocation fails.
+	 * @param errorChannel the channel.
+	 */
+	public void setErrorChannel(MessageChannel errorChannel) {
+		obtainErrorMessagePublisher().setChannel(errorChannel);
+	}
+
+	/**
+	 * Set the name of the error channel.
+	 * @param errorChannelName the channel name.
+	 * @see #setErrorChannel(MessageChannel)
+	 */
+	public void setErrorChannelName(String errorChannelName) {
+		obtainErrorMessagePublisher().setChannelName(errorChannelName);
+	}
+
+	/**
+	 * Set a {@link MetricsCaptor} to count permitted, rejected and delayed invocations.
+	 * @param metricsCaptor the captor.
+	 */
+	public void setMetricsCaptor(MetricsCaptor metricsCaptor) {
+		this.metricsCaptor = metricsCaptor;
+	}
+
+	/**
+	 * Set the scheduler used to defer invocations with {@link LimitExceededPolicy#DELAY}.
+	 * By default, the {@code taskScheduler} bean is used.
+	 * @param taskScheduler the scheduler.
+	 */
+	@Override
+	public void setTaskScheduler(TaskScheduler taskScheduler) {
+		super.setTaskScheduler(taskScheduler);
+	}
+
+	private ErrorMessagePublisher obtainErrorMessagePublisher() {
+		if (this.errorMessagePublisher == null) {
+			this.errorMessagePublisher = new ErrorMessagePublisher();
+		}
+		return this.errorMessagePublisher;
+	}
+
+	@Override
+	protected void onInit() throws Exception {
+		super.onInit();
+		if (this.keyExpression != null) {
+			this.evaluationContext = ExpressionUtils.createStandardEvaluationContext(getBeanFactory());
+		}
+		if (this.errorMessagePublisher != null && getBeanFactory() != null) {
+			this.errorMessagePublisher.setBeanFactory(getBeanFactory());
+		}
+		if (this.limitExceededPolicy == LimitExceededPolicy.DELAY) {
+			Assert.state(getTaskScheduler() != null, "A 'taskScheduler' is required for the DELAY policy");
+		}
+		if (this.metricsCaptor != null) {
+			this.permittedCounter = buildCounter(PERMITTED_COUNTER_NAME, "Invocations permitted by the limiter");
+			this.rejectedCounter = buildCounter(REJECTED_COUNTER_NAME, "Invocations rejected by the limiter");
+			this.delayedCounter = buildCounter(DELAYED_COUNTER_NAME, "Invocations deferred by the limiter");
+		}
+	}
+
+	private CounterFacade buildCounter(String name, String description) {
+		return this.metricsCaptor.counterBuilder(name)
+				.tag("name", getComponentName() == null ? "unknown" : getComponentName())
+				.tag("type", getComponentType())
+				.description(description)
+				.build();
+	}
+
+	@Override
+	protected Object doInvoke(ExecutionCallback callback, Object target, Message<?> message) throws Exception {
+		L limiter = obtainLimiter(target, message);
+		if (tryAcquire(limiter)) {
+			return invokeWithPermit(callback, limiter, false);
+		}
+		switch (this.limitExceededPolicy) {
+			case WAIT:
+				try {
+					if (tryAcquire(limiter, TimeUnit.MILLISECONDS.toNanos(this.timeout))) {
+						return invokeWithPermit(callback, limiter, false);
+					}
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return reject(message);
+			case DELAY:
+				return defer(callback, target, message, limiter);
+			default:
+				return reject(message);
+		}
+	}
+
+	private L obtainLimiter(Object target, Message<?> message) {
+		Object key;
+		if (this.keyExpression == null) {
+			key = target instanceof RequestHandler ? ((RequestHandler) target).getAdvisedHandler() : target;
+		}
+		else {
+			EvaluationContext context = this.evaluationContext;
+			if (context == null) {
+				context = ExpressionUtils.createStandardEvaluationContext(getBeanFactory());
+				this.evaluationContext = context;
+			}
+			key = this.keyExpression.getValue(context, message);
+			Assert.state(key != null, () -> "The 'keyExpression' [" + this.keyExpression.getExpressionString()
+					+ "] evaluated to null for message: " + message);
+		}
+		L limiter = this.limiters.get(key);
+		if (limiter == null) {
+			limiter = this.limiters.computeIfAbsent(key, this::createLimiter);
+		}
+		return limiter;
+	}
+
+	private Object invokeWithPermit(ExecutionCallback callback, L limiter, boolean clone) throws Exception {
+		if (this.permittedCounter != null) {
+			this.permittedCounter.increment();
+		}
+		try {
+			return clone ? callback.cloneAndExecute() : callback.execute();
+		}
+		catch (Exception e) {
+			throw unwrapExceptionIfNecessary(e);
+		}
+		finally {
+			release(limiter);
+		}
+	}
+
+	private Object reject(Message<?> message) {
+		if (this.rejectedCounter != null) {
+			this.rejectedCounter.increment();
+		}
+		MessageRejectedException exception = new MessageRejectedException(message,
+				"Limit exceeded for " + getComponentType() + " [" + this + "]");
+		if (this.errorMessagePublisher != null) {
+			this.errorMessagePublisher.publish(message, exception);
+			return null;
+		}
+		throw exception;
+	}
+
+	private Object defer(ExecutionCallback callback, Object target, Message<?> message, L limiter)
+			throws Exception {
+
+		if (this.delayedCounter != null) {
+			this.delayedCounter.increment();
+		}
+		SettableListenableFuture<Object> future = null;
+		if (target instanceof RequestHandler) {
+			if (!((RequestHandler) target).isAsync()) {
+				// the reply would be the future itself; wait for a permit instead
+				try {
+					if (tryAcquire(limiter, TimeUnit.MILLISECONDS.toNanos(this.delay))) {
+						return invokeWithPermit(callback, limiter, false);
+					}
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return reject(message);
+			}
+			future = new SettableListenableFuture<>();
+		}
+		scheduleRetry(callback, message, limiter, future, System.currentTimeMillis() + this.timeout);
+		return future;
+	}
+
+	private void scheduleRetry(ExecutionCallback callback, Message<?> message, L limiter,
+			SettableListenableFuture<Object> future, long deadline) {
+
+		long wait = TimeUnit.NANOSECONDS.toMillis(nanosUntilAvailable(limiter));
+		if (wait <= 0) {
+			wait = this.delay;
+		}
+		getTaskScheduler().schedule(() -> {
+			if (tryAcquire(limiter)) {
+				try {
+					Object result = invokeWithPermit(callback, limiter, true);
+					if (future != null) {
+						future.set(result);
+					}
+				}
+				catch (Exception e) {
+					deferredFailure(message, future, e);
+				}
+			}
+			else if (System.currentTimeMillis() >= deadline) {
+				if (this.rejectedCounter != null) {
+					this.rejectedCounter.increment();
+				}
+				deferredFailure(message, future, new MessageRejectedException(message,
+						"Limit exceeded for " + getComponentType() + " [" + this + "]"));
+			}
+			else {
+				scheduleRetry(callback, message, limiter, future, deadline);
+			}
+		}, new Date(System.currentTimeMillis() + wait));
+	}
+
+	private void deferredFailure(Message<?> message, SettableListenableFuture<Object> future, Exception exception) {
+		if (future != null) {
+			future.setException(exception);
+		}
+		else if (this.errorMessagePublisher != null) {
+			this.errorMessagePublisher.publish(message, exception);
+		}
+		else {
+			this.logger.error("Deferred invocation failed for " + message, exception);
+		}
+	}
+
+	/**
+	 * Create a limiter for the key.
+	 * @param key the key.
+	 * @return the limiter.
+	 */
+	protected abstract L createLimiter(Object key);
+
+	/**
+	 * Attempt to acquire a permit without waiting.
+	 * @param limiter the limiter.
+	 * @return true if a permit was acquired.
+	 */
+	protected abstract boolean tryAcquire(L limiter);
+
+	/**
+	 * Attempt to acquire a permit, waiting up to the timeout.
+	 * @param limiter the limiter.
+	 * @param timeoutNanos the timeout in nanoseconds.
+	 * @return true if a permit was acquired.
+	 * @throws InterruptedException if interrupted while waiting.
+	 */
+	protected abstract boolean tryAcquire(L limiter, long timeoutNanos) throws InterruptedException;
+
+	/**
+	 * Return the time until a permit is expected to be available, or 0 if that cannot be
+	 * predicted, in which case the configured {@link #setDelay(long) delay} is used.
+	 * @param limiter the limiter.
+	 * @return the time in nanoseconds.
+	 */
+	protected long nanosUntilAvailable(L limiter) {
+		return 0;
+	}
+
+	/**
+	 * Release a permit after the invocation completes; the default is a no-op.
+	 * @param limiter the limiter.
+	 */
+	protected void release(L limiter) {
+		// NOSONAR
+	}
+
+	/**
+	 * Return the limiter for the key, if one has been created.
+	 * @param key the key.
+	 * @return the limiter, or null.
+	 */
+	protected L getLimiter(Object key) {
+		return this.limiters.get(key);
+	}
+
+	/**
+	 * The behavior when no permit is available.
+	 */
+	public enum LimitExceededPolicy {
+
+		/**
+		 * Block the calling thread until a permit is available, or the
+		 * {@link AbstractLimitingRequestHandlerAdvice#setTimeout(long) timeout} elapses,
+		 * in which case the message is rejected.
+		 */
+		WAIT,
+
+		/**
+		 * Reject the message with a {@link MessageRejectedException}, or send an
+		 * {@link org.springframework.messaging.support.ErrorMessage} to the error channel.
+		 */
+		REJECT,
+
+		/**
+		 * Release the calling thread and reschedule the invocation on the task scheduler.
+		 */
+		DELAY
+
+	}
+
+}
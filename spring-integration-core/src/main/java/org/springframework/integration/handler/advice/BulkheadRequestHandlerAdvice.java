@@ -0,0 +1,82 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.handler.advice;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.util.Assert;
+
+/**
+ * A bulkhead for message handlers; at most {@link #setMaxConcurrentCalls(int)
+ * maxConcurrentCalls} invocations may be in progress at the same time (per key).
+ * <p>
+ * Permits are managed by a non-fair {@link Semaphore}, which acquires and releases
+ * with a single CAS when a permit is available and only queues threads waiting with
+ * {@link AbstractLimitingRequestHandlerAdvice.LimitExceededPolicy#WAIT}.
+ *
+ * @since 5.1
+ */
+public class BulkheadRequestHandlerAdvice extends AbstractLimitingRequestHandlerAdvice<Semaphore> {
+
+	private int maxConcurrentCalls = 25;
+
+	/**
+	 * Set the maximum number of concurrent invocations; default 25.
+	 * @param maxConcurrentCalls the maximum.
+	 */
+	public void setMaxConcurrentCalls(int maxConcurrentCalls) {
+		Assert.isTrue(maxConcurrentCalls > 0, "'maxConcurrentCalls' must be greater than 0");
+		this.maxConcurrentCalls = maxConcurrentCalls;
+	}
+
+	@Override
+	public String getComponentType() {
+		return "bulkhead-advice";
+	}
+
+	/**
+	 * Return the number of permits currently available for the key.
+	 * @param key the limiter key.
+	 * @return the available permits, or -1 if no limiter exists for the key.
+	 */
+	public int getAvailablePermits(Object key) {
+		Semaphore semaphore = getLimiter(key);
+		return semaphore == null ? -1 : semaphore.availablePermits();
+	}
+
+	@Override
+	protected Semaphore createLimiter(Object key) {
+		return new Semaphore(this.maxConcurrentCalls);
+	}
+
+	@Override
+	protected boolean tryAcquire(Semaphore limiter) {
+		return limiter.tryAcquire();
+	}
+
+	@Override
+	protected boolean tryAcquire(Semaphore limiter, long timeoutNanos) throws InterruptedException {
+		return limiter.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS);
+	}
+
+	@Override
+	protected void release(Semaphore limiter) {
+		limiter.release();
+	}
+
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.handler.advice;
+
+import org.springframework.integration.events.IntegrationEvent;
+import org.springframework.integration.handler.advice.SlidingWindowCircuitBreakerAdvice.State;
+
+/**
+ * Event published by a {@link SlidingWindowCircuitBreakerAdvice} when one of its
+ * circuits changes state.
+ *
+ * @since 5.1
+ */
+public class CircuitBreakerStateChangedEvent extends IntegrationEvent {
+
+	private static final long serialVersionUID = 1L;
+
+	private final transient Object circuitKey;
+
+	private final State previousState;
+
+	private final State state;
+
+	public CircuitBreakerStateChangedEvent(Object source, Object circuitKey, State previousState, State state) {
+		super(source);
+		this.circuitKey = circuitKey;
+		this.previousState = previousState;
+		this.state = state;
+	}
+
+	public Object getCircuitKey() {
+		return this.circuitKey;
+	}
+
+	public State getPreviousState() {
+		return this.previousState;
+	}
+
+	public State getState() {
+		return this.state;
+	}
+
+	@Override
+	public String toString() {
+		return "CircuitBreakerStateChangedEvent [circuitKey=" + this.circuitKey
+				+ ", previousState=" + this.previousState
+				+ ", state=" + this.state
+				+ ", source=" + this.source + "]";
+	}
+
+}
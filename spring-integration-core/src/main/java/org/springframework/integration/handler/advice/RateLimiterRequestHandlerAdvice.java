@@ -0,0 +1,180 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.handler.advice;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.springframework.util.Assert;
+
+/**
+ * A token bucket rate limiter for message handlers; at most
+ * {@link #setLimitForPeriod(int) limitForPeriod} invocations are permitted per
+ * {@link #setPeriod(long) period}, with bursts of up to
+ * {@link #setBurstCapacity(int) burstCapacity} invocations.
+ * <p>
+ * The bucket is implemented as a single "theoretical arrival time" per limiter that
+ * is advanced with a CAS for each permit (the generic cell rate algorithm), so that
+ * acquiring a permit never blocks another thread. With
+ * {@link AbstractLimitingRequestHandlerAdvice.LimitExceededPolicy#WAIT}, a permit in
+ * the future is reserved and the thread parks until it is due.
+ *
+ * @since 5.1
+ */
+public class RateLimiterRequestHandlerAdvice
+		extends AbstractLimitingRequestHandlerAdvice<RateLimiterRequestHandlerAdvice.TokenBucket> {
+
+	private int limitForPeriod = 50;
+
+	private long period = 1000;
+
+	private int burstCapacity;
+
+	/**
+	 * Set the number of invocations permitted per period; default 50.
+	 * @param limitForPeriod the limit.
+	 */
+	public void setLimitForPeriod(int limitForPeriod) {
+		Assert.isTrue(limitForPeriod > 0, "'limitForPeriod' must be greater than 0");
+		this.limitForPeriod = limitForPeriod;
+	}
+
+	/**
+	 * Set the period in milliseconds; default 1000.
+	 * @param period the period.
+	 */
+	public void setPeriod(long period) {
+		Assert.isTrue(period > 0, "'period' must be greater than 0");
+		this.period = period;
+	}
+
+	/**
+	 * Set the maximum number of permits that can be accumulated while idle and then
+	 * consumed in a burst; defaults to {@link #setLimitForPeriod(int) limitForPeriod}.
+	 * @param burstCapacity the capacity.
+	 */
+	public void setBurstCapacity(int burstCapacity) {
+		Assert.isTrue(burstCapacity > 0, "'burstCapacity' must be greater than 0");
+		this.burstCapacity = burstCapacity;
+	}
+
+	@Override
+	public String getComponentType() {
+		return "rate-limiter-advice";
+	}
+
+	/**
+	 * Return the number of permits currently available for the key.
+	 * @param key the limiter key.
+	 * @return the available permits, or -1 if no limiter exists for the key.
+	 */
+	public int getAvailablePermits(Object key) {
+		TokenBucket bucket = getLimiter(key);
+		return bucket == null ? -1 : bucket.availablePermits();
+	}
+
+	@Override
+	protected TokenBucket createLimiter(Object key) {
+		long interval = TimeUnit.MILLISECONDS.toNanos(this.period) / this.limitForPeriod;
+		int capacity = this.burstCapacity > 0 ? this.burstCapacity : this.limitForPeriod;
+		return new TokenBucket(Math.max(1, interval), capacity);
+	}
+
+	@Override
+	protected boolean tryAcquire(TokenBucket limiter) {
+		return limiter.reserve(0) == 0;
+	}
+
+	@Override
+	protected boolean tryAcquire(TokenBucket limiter, long timeoutNanos) throws InterruptedException {
+		long wait = limiter.reserve(timeoutNanos);
+		if (wait < 0) {
+			return false;
+		}
+		long deadline = System.nanoTime() + wait;
+		while (wait > 0) {
+			LockSupport.parkNanos(wait);
+			if (Thread.interrupted()) {
+				throw new InterruptedException();
+			}
+			wait = deadline - System.nanoTime();
+		}
+		return true;
+	}
+
+	@Override
+	protected long nanosUntilAvailable(TokenBucket limiter) {
+		return limiter.nanosUntilAvailable();
+	}
+
+	/**
+	 * A lock-free token bucket.
+	 */
+	public static final class TokenBucket {
+
+		private final AtomicLong theoreticalArrivalTime = new AtomicLong(System.nanoTime());
+
+		private final long interval;
+
+		private final long tolerance;
+
+		TokenBucket(long interval, int capacity) {
+			this.interval = interval;
+			this.tolerance = interval * capacity;
+		}
+
+		/*
+		 * Reserve a permit if one is available within maxWait nanoseconds; returns the time
+		 * to wait for the permit (0 if available now) or -1 if it was not reserved.
+		 */
+		long reserve(long maxWait) {
+			while (true) {
+				long now = System.nanoTime();
+				long tat = this.theoreticalArrivalTime.get();
+				long start = tat - now > 0 ? tat : now;
+				long next = start + this.interval;
+				long wait = next - now - this.tolerance;
+				if (wait < 0) {
+					wait = 0;
+				}
+				if (wait > maxWait) {
+					return -1;
+				}
+				if (this.theoreticalArrivalTime.compareAndSet(tat, next)) {
+					return wait;
+				}
+			}
+		}
+
+		long nanosUntilAvailable() {
+			long now = System.nanoTime();
+			long tat = this.theoreticalArrivalTime.get();
+			long start = tat - now > 0 ? tat : now;
+			return Math.max(0, start + this.interval - now - this.tolerance);
+		}
+
+		int availablePermits() {
+			long now = System.nanoTime();
+			long tat = this.theoreticalArrivalTime.get();
+			long used = tat - now > 0 ? tat - now : 0;
+			return (int) ((this.tolerance - used) / this.interval);
+		}
+
+	}
+
+}
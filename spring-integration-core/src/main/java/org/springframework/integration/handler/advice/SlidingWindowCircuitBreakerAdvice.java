@@ -0,0 +1,519 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.handler.advice;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationEventPublisherAware;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.integration.expression.ExpressionUtils;
+import org.springframework.integration.handler.AbstractReplyProducingMessageHandler.RequestHandler;
+import org.springframework.integration.handler.advice.RequestHandlerCircuitBreakerAdvice.CircuitBreakerOpenException;
+import org.springframework.integration.support.management.metrics.CounterFacade;
+import org.springframework.integration.support.management.metrics.MetricsCaptor;
+import org.springframework.messaging.Message;
+import org.springframework.util.Assert;
+
+/**
+ * A circuit breaker that trips when the failure rate or the slow call rate,
+ * measured over a time-based sliding window, exceeds a threshold.
+ * <p>
+ * The window is divided into buckets; each call increments striped counters in the
+ * bucket for the current time slot, and a stale bucket is replaced with a single
+ * CAS, so recording an outcome never blocks. The window is only summed when a call
+ * fails or is slow, keeping the success path as cheap as possible.
+ * <p>
+ * After {@link #setHalfOpenAfter(long) halfOpenAfter} milliseconds an open circuit
+ * moves to the half-open state, where at most
+ * {@link #setHalfOpenPermits(int) halfOpenPermits} probe calls are allowed to
+ * proceed concurrently; when that many probes have succeeded the circuit closes,
+ * a failed (or slow) probe opens it again.
+ * <p>
+ * By default there is one circuit per advised handler (the same as
+ * {@link RequestHandlerCircuitBreakerAdvice}), keyed by the handler itself; a
+ * {@link #setKeyExpression(Expression) keyExpression} can be provided to maintain a
+ * circuit per key instead - for example per destination host. Note that each distinct key holds a circuit for the life of
+ * the advice so the expression should produce a bounded set of values.
+ * <p>
+ * A {@link CircuitBreakerStateChangedEvent} is published on each state change if an
+ * {@link ApplicationEventPublisher} is available.
+ *
+ * @since 5.1
+ */
+public class SlidingWindowCircuitBreakerAdvice extends AbstractRequestHandlerAdvice
+		implements ApplicationEventPublisherAware {
+
+	/**
+	 * The name of the counter incremented for each call rejected by an open circuit.
+	 */
+	public static final String REJECTED_COUNTER_NAME = "spring.integration.circuitBreaker.rejected";
+
+	/**
+	 * The name of the counter incremented for each circuit state transition.
+	 */
+	public static final String TRANSITION_COUNTER_NAME = "spring.integration.circuitBreaker.transitions";
+
+	private final ConcurrentMap<Object, Circuit> circuits = new ConcurrentHashMap<>();
+
+	private long windowDuration = 10000;
+
+	private int bucketCount = 10;
+
+	private int minimumNumberOfCalls = 10;
+
+	private float failureRateThreshold = 50.0f;
+
+	private float slowCallRateThreshold = 100.0f;
+
+	private long slowCallDuration = 60000;
+
+	private long halfOpenAfter = 1000;
+
+	private int halfOpenPermits = 1;
+
+	private Expression keyExpression;
+
+	private volatile EvaluationContext evaluationContext;
+
+	private ApplicationEventPublisher applicationEventPublisher;
+
+	private MetricsCaptor metricsCaptor;
+
+	/**
+	 * Set the duration of the sliding window in milliseconds; default 10000.
+	 * @param windowDuration the duration.
+	 */
+	public void setWindowDuration(long windowDuration) {
+		Assert.isTrue(windowDuration > 0, "'windowDuration' must be greater than 0");
+		this.windowDuration = windowDuration;
+	}
+
+	/**
+	 * Set the number of buckets the window is divided into; default 10.
+	 * More buckets give a smoother window at the cost of a longer sum when evaluating.
+	 * @param bucketCount the bucket count.
+	 */
+	public void setBucketCount(int bucketCount) {
+		Assert.isTrue(bucketCount > 0, "'bucketCount' must be greater than 0");
+		this.bucketCount = bucketCount;
+	}
+
+	/**
+	 * Set the minimum number of calls in the window before the rates are considered;
+	 * default 10.
+	 * @param minimumNumberOfCalls the minimum number of calls.
+	 */
+	public void setMinimumNumberOfCalls(int minimumNumberOfCalls) {
+		Assert.isTrue(minimumNumberOfCalls > 0, "'minimumNumberOfCalls' must be greater than 0");
+		this.minimumNumberOfCalls = minimumNumberOfCalls;
+	}
+
+	/**
+	 * Set the failure rate percentage at or above which the circuit opens; default 50.
+	 * @param failureRateThreshold the threshold (0 &lt; threshold &lt;= 100).
+	 */
+	public void setFailureRateThreshold(float failureRateThreshold) {
+		Assert.isTrue(failureRateThreshold > 0 && failureRateThreshold <= 100,
+				"'failureRateThreshold' must be greater than 0 and not greater than 100");
+		this.failureRateThreshold = failureRateThreshold;
+	}
+
+	/**
+	 * Set the slow call rate percentage at or above which the circuit opens;
+	 * default 100.
+	 * @param slowCallRateThreshold the threshold (0 &lt; threshold &lt;= 100).
+	 * @see #setSlowCallDuration(long)
+	 */
+	public void setSlowCallRateThreshold(float slowCallRateThreshold) {
+		Assert.isTrue(slowCallRateThreshold > 0 && slowCallRateThreshold <= 100,
+				"'slowCallRateThreshold' must be greater than 0 and not greater than 100");
+		this.slowCallRateThreshold = slowCallRateThreshold;
+	}
+
+	/**
+	 * Set the duration in milliseconds above which a call is considered slow;
+	 * default 60000.
+	 * @param slowCallDuration the duration.
+	 */
+	public void setSlowCallDuration(long slowCallDuration) {
+		Assert.isTrue(slowCallDuration > 0, "'slowCallDuration' must be greater than 0");
+		this.slowCallDuration = slowCallDuration;
+	}
+
+	/**
+	 * Set the time in milliseconds an open circuit waits before allowing probe calls;
+	 * default 1000.
+	 * @param halfOpenAfter the time.
+	 */
+	public void setHalfOpenAfter(long halfOpenAfter) {
+		this.halfOpenAfter = halfOpenAfter;
+	}
+
+	/**
+	 * Set the maximum number of concurrent probe calls in the half-open state; this
+	 * is also the number of successful probes required to close the circuit; default 1.
+	 * @param halfOpenPermits the number of permits.
+	 */
+	public void setHalfOpenPermits(int halfOpenPermits) {
+		Assert.isTrue(halfOpenPermits > 0, "'halfOpenPermits' must be greater than 0");
+		this.halfOpenPermits = halfOpenPermits;
+	}
+
+	/**
+	 * Set an expression, evaluated against the request message, to determine the
+	 * circuit key. By default, a circuit is maintained per advised handler.
+	 * @param keyExpression the expression.
+	 */
+	public void setKeyExpression(Expression keyExpression) {
+		this.keyExpression = keyExpression;
+	}
+
+	/**
+	 * Set an expression string, evaluated against the request message, to determine
+	 * the circuit key.
+	 * @param keyExpression the expression.
+	 * @see #setKeyExpression(Expression)
+	 */
+	public void setKeyExpressionString(String keyExpression) {
+		Assert.hasText(keyExpression, "'keyExpression' must not be empty");
+		this.keyExpression = EXPRESSION_PARSER.parseExpression(keyExpression);
+	}
+
+	@Override
+	public void setApplicationEventPublisher(ApplicationEventPublisher applicationEventPublisher) {
+		this.applicationEventPublisher = applicationEventPublisher;
+	}
+
+	/**
+	 * Set a {@link MetricsCaptor} to count rejected calls and state transitions.
+	 * @param metricsCaptor the captor.
+	 */
+	public void setMetricsCaptor(MetricsCaptor metricsCaptor) {
+		this.metricsCaptor = metricsCaptor;
+	}
+
+	/**
+	 * Return the current state of the circuit for the key.
+	 * @param key the circuit key.
+	 * @return the state, or {@code null} if no call has been made for this key.
+	 */
+	public State getState(Object key) {
+		Circuit circuit = this.circuits.get(key);
+		return circuit == null ? null : circuit.state.get();
+	}
+
+	/**
+	 * Force all circuits back to the closed state and clear their windows.
+	 */
+	public void reset() {
+		this.circuits.values().forEach(Circuit::reset);
+	}
+
+	@Override
+	protected void onInit() throws Exception {
+		super.onInit();
+		if (this.keyExpression != null) {
+			this.evaluationContext = ExpressionUtils.createStandardEvaluationContext(getBeanFactory());
+		}
+	}
+
+	@Override
+	protected Object doInvoke(ExecutionCallback callback, Object target, Message<?> message) throws Exception {
+		Object key = resolveKey(target, message);
+		Circuit circuit = this.circuits.get(key);
+		if (circuit == null) {
+			circuit = this.circuits.computeIfAbsent(key, Circuit::new);
+		}
+		boolean probe = circuit.acquirePermission(message);
+		long start = System.nanoTime();
+		try {
+			Object result = callback.execute();
+			circuit.onResult(false, System.nanoTime() - start, probe);
+			return result;
+		}
+		catch (Exception e) {
+			circuit.onResult(true, System.nanoTime() - start, probe);
+			throw unwrapExceptionIfNecessary(e);
+		}
+	}
+
+	private Object resolveKey(Object target, Message<?> message) {
+		if (this.keyExpression == null) {
+			return target instanceof RequestHandler ? ((RequestHandler) target).getAdvisedHandler() : target;
+		}
+		EvaluationContext context = this.evaluationContext;
+		if (context == null) {
+			context = ExpressionUtils.createStandardEvaluationContext(getBeanFactory());
+			this.evaluationContext = context;
+		}
+		Object key = this.keyExpression.getValue(context, message);
+		Assert.state(key != null, () -> "The 'keyExpression' [" + this.keyExpression.getExpressionString()
+				+ "] evaluated to null for message: " + message);
+		return key;
+	}
+
+	/**
+	 * The circuit states.
+	 */
+	public enum State {
+
+		/**
+		 * Calls are allowed; outcomes are recorded in the sliding window.
+		 */
+		CLOSED,
+
+		/**
+		 * Calls are rejected with a {@link CircuitBreakerOpenException}.
+		 */
+		OPEN,
+
+		/**
+		 * A limited number of probe calls are allowed.
+		 */
+		HALF_OPEN
+
+	}
+
+	private final class Circuit {
+
+		private final Object key;
+
+		private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+
+		private final AtomicInteger probesInFlight = new AtomicInteger();
+
+		private final AtomicInteger probeSuccesses = new AtomicInteger();
+
+		private final SlidingWindow window;
+
+		private final CounterFacade rejectedCounter;
+
+		private volatile long openedAt;
+
+		Circuit(Object key) {
+			this.key = key;
+			this.window = new SlidingWindow(SlidingWindowCircuitBreakerAdvice.this.windowDuration,
+					SlidingWindowCircuitBreakerAdvice.this.bucketCount);
+			MetricsCaptor captor = SlidingWindowCircuitBreakerAdvice.this.metricsCaptor;
+			this.rejectedCounter = captor == null ? null
+					: captor.counterBuilder(REJECTED_COUNTER_NAME)
+							.tag("name", adviceName())
+							.tag("key", key.toString())
+							.description("Calls rejected by the circuit breaker")
+							.build();
+		}
+
+		/*
+		 * Returns true if the call is a half-open probe; throws if the call is not permitted.
+		 */
+		boolean acquirePermission(Message<?> message) {
+			State current = this.state.get();
+			if (current == State.CLOSED) {
+				return false;
+			}
+			if (current == State.OPEN) {
+				if (System.currentTimeMillis() - this.openedAt < SlidingWindowCircuitBreakerAdvice.this.halfOpenAfter) {
+					throw reject(message);
+				}
+				this.probeSuccesses.set(0);
+				transition(State.OPEN, State.HALF_OPEN);
+				current = this.state.get();
+				if (current == State.CLOSED) {
+					return false;
+				}
+				else if (current == State.OPEN) {
+					throw reject(message);
+				}
+			}
+			int permits = SlidingWindowCircuitBreakerAdvice.this.halfOpenPermits;
+			while (true) {
+				int inFlight = this.probesInFlight.get();
+				if (inFlight >= permits) {
+					throw reject(message);
+				}
+				if (this.probesInFlight.compareAndSet(inFlight, inFlight + 1)) {
+					return true;
+				}
+			}
+		}
+
+		void onResult(boolean failure, long elapsedNanos, boolean probe) {
+			boolean slow = TimeUnit.NANOSECONDS.toMillis(elapsedNanos)
+					>= SlidingWindowCircuitBreakerAdvice.this.slowCallDuration;
+			if (probe) {
+				// the circuit might have been reset while the probe was in flight
+				this.probesInFlight.updateAndGet(inFlight -> inFlight > 0 ? inFlight - 1 : 0);
+				if (failure || slow) {
+					this.openedAt = System.currentTimeMillis();
+					transition(State.HALF_OPEN, State.OPEN);
+				}
+				else if (this.probeSuccesses.incrementAndGet() >= SlidingWindowCircuitBreakerAdvice.this.halfOpenPermits) {
+					this.window.reset();
+					transition(State.HALF_OPEN, State.CLOSED);
+				}
+			}
+			else {
+				long now = System.currentTimeMillis();
+				this.window.record(now, failure, slow);
+				if ((failure || slow) && shouldTrip(now)) {
+					this.openedAt = now;
+					transition(State.CLOSED, State.OPEN);
+				}
+			}
+		}
+
+		void reset() {
+			this.window.reset();
+			this.probesInFlight.set(0);
+			this.probeSuccesses.set(0);
+			transition(this.state.get(), State.CLOSED);
+		}
+
+		private boolean shouldTrip(long now) {
+			long[] totals = this.window.totals(now);
+			long calls = totals[0];
+			if (calls < SlidingWindowCircuitBreakerAdvice.this.minimumNumberOfCalls) {
+				return false;
+			}
+			return totals[1] * 100.0f / calls >= SlidingWindowCircuitBreakerAdvice.this.failureRateThreshold
+					|| totals[2] * 100.0f / calls >= SlidingWindowCircuitBreakerAdvice.this.slowCallRateThreshold;
+		}
+
+		void transition(State from, State to) {
+			if (from != to && this.state.compareAndSet(from, to)) {
+				if (SlidingWindowCircuitBreakerAdvice.this.logger.isDebugEnabled()) {
+					SlidingWindowCircuitBreakerAdvice.this.logger.debug("Circuit Breaker for " + this.key
+							+ " changed from " + from + " to " + to);
+				}
+				MetricsCaptor captor = SlidingWindowCircuitBreakerAdvice.this.metricsCaptor;
+				if (captor != null) {
+					captor.counterBuilder(TRANSITION_COUNTER_NAME)
+							.tag("name", adviceName())
+							.tag("key", this.key.toString())
+							.tag("state", to.name())
+							.description("Circuit breaker state transitions")
+							.build()
+							.increment();
+				}
+				ApplicationEventPublisher publisher = SlidingWindowCircuitBreakerAdvice.this.applicationEventPublisher;
+				if (publisher != null) {
+					publisher.publishEvent(new CircuitBreakerStateChangedEvent(SlidingWindowCircuitBreakerAdvice.this,
+							this.key, from, to));
+				}
+			}
+		}
+
+		private CircuitBreakerOpenException reject(Message<?> message) {
+			if (this.rejectedCounter != null) {
+				this.rejectedCounter.increment();
+			}
+			return new CircuitBreakerOpenException(message, "Circuit Breaker is Open for " + this.key);
+		}
+
+		private String adviceName() {
+			String name = getComponentName();
+			return name == null ? "unknown" : name;
+		}
+
+	}
+
+	/**
+	 * A ring of time-slot buckets; a bucket belonging to an expired slot is
+	 * replaced (not cleared) so concurrent writers never see a partially reset bucket.
+	 */
+	private static final class SlidingWindow {
+
+		private final AtomicReferenceArray<Bucket> buckets;
+
+		private final long bucketDuration;
+
+		SlidingWindow(long windowDuration, int bucketCount) {
+			this.buckets = new AtomicReferenceArray<>(bucketCount);
+			this.bucketDuration = Math.max(1, windowDuration / bucketCount);
+		}
+
+		void record(long now, boolean failure, boolean slow) {
+			Bucket bucket = bucketFor(now / this.bucketDuration);
+			bucket.calls.increment();
+			if (failure) {
+				bucket.failures.increment();
+			}
+			if (slow) {
+				bucket.slowCalls.increment();
+			}
+		}
+
+		private Bucket bucketFor(long slot) {
+			int index = (int) (slot % this.buckets.length());
+			Bucket bucket = this.buckets.get(index);
+			while (bucket == null || bucket.slot < slot) {
+				Bucket fresh = new Bucket(slot);
+				if (this.buckets.compareAndSet(index, bucket, fresh)) {
+					return fresh;
+				}
+				bucket = this.buckets.get(index);
+			}
+			return bucket;
+		}
+
+		long[] totals(long now) {
+			long oldest = now / this.bucketDuration - this.buckets.length();
+			long[] totals = new long[3];
+			for (int i = 0; i < this.buckets.length(); i++) {
+				Bucket bucket = this.buckets.get(i);
+				if (bucket != null && bucket.slot > oldest) {
+					totals[0] += bucket.calls.sum();
+					totals[1] += bucket.failures.sum();
+					totals[2] += bucket.slowCalls.sum();
+				}
+			}
+			return totals;
+		}
+
+		void reset() {
+			for (int i = 0; i < this.buckets.length(); i++) {
+				this.buckets.set(i, null);
+			}
+		}
+
+	}
+
+	private static final class Bucket {
+
+		private final long slot;
+
+		private final LongAdder calls = new LongAdder();
+
+		private final LongAdder failures = new LongAdder();
+
+		private final LongAdder slowCalls = new LongAdder();
+
+		Bucket(long slot) {
+			this.slot = slot;
+		}
+
+	}
+
+}
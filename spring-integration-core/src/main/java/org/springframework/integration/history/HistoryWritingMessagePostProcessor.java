@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2010 the original author or authors.
+ * Copyright 2002-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,6 +18,7 @@ package org.springframework.integration.history;
 
 import org.springframework.integration.support.DefaultMessageBuilderFactory;
 import org.springframework.integration.support.MessageBuilderFactory;
+import org.springframework.integration.support.management.MessagePathTracer;
 import org.springframework.integration.support.management.TrackableComponent;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.core.MessagePostProcessor;
@@ -33,6 +34,8 @@ public class HistoryWritingMessagePostProcessor implements MessagePostProcessor
 
 	private volatile boolean shouldTrack;
 
+	private volatile MessagePathTracer pathTracer;
+
 	private volatile MessageBuilderFactory messageBuilderFactory = new DefaultMessageBuilderFactory();
 
 	public HistoryWritingMessagePostProcessor() {
@@ -56,8 +59,21 @@ public class HistoryWritingMessagePostProcessor implements MessagePostProcessor
 		this.shouldTrack = shouldTrack;
 	}
 
+	/**
+	 * Set a tracer with which to start sampled path traces.
+	 * @param pathTracer the tracer; null to stop tracing.
+	 * @since 5.1
+	 */
+	public void setPathTracer(MessagePathTracer pathTracer) {
+		this.pathTracer = pathTracer;
+	}
+
 	@Override
 	public Message<?> postProcessMessage(Message<?> message) {
+		MessagePathTracer pathTracer = this.pathTracer;
+		if (pathTracer != null && this.trackableComponent != null) {
+			message = pathTracer.startTrace(message, this.trackableComponent, this.messageBuilderFactory);
+		}
 		if (this.shouldTrack && this.trackableComponent != null) {
 			return MessageHistory.write(message, this.trackableComponent, this.messageBuilderFactory);
 		}
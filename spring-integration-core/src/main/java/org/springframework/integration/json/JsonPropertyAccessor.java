@@ -26,16 +26,23 @@ import org.springframework.expression.PropertyAccessor;
 import org.springframework.expression.TypedValue;
 import org.springframework.util.Assert;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ContainerNode;
+import com.fasterxml.jackson.databind.node.NullNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
 /**
  * A SpEL {@link PropertyAccessor} that knows how to read properties from JSON objects.
  * Uses Jackson {@link JsonNode} API for nested properties access.
+ * <p>
+ * A top level property of a JSON object {@code String} is looked up by streaming the
+ * document, without building a tree for the other properties, and the value found by
+ * {@link #canRead} is handed over to the {@link #read} that follows, so a property
+ * access parses the {@code String} only once.
  *
  * @author Eric Bottard
  * @author Artem Bilan
@@ -61,6 +68,9 @@ public class JsonPropertyAccessor implements PropertyAccessor {
 	// Note: ObjectMapper is thread-safe
 	private ObjectMapper objectMapper = new ObjectMapper();
 
+	// only set from a successful canRead() to the read() that follows
+	private final ThreadLocal<ParsedJson> pendingRead = new ThreadLocal<>();
+
 	public void setObjectMapper(ObjectMapper objectMapper) {
 		Assert.notNull(objectMapper, "'objectMapper' cannot be null");
 		this.objectMapper = objectMapper;
@@ -73,7 +83,21 @@ public class JsonPropertyAccessor implements PropertyAccessor {
 
 	@Override
 	public boolean canRead(EvaluationContext context, Object target, String name) throws AccessException {
-		ContainerNode<?> container = asJson(target);
+		this.pendingRead.remove();
+		if (target instanceof String) {
+			ParsedJson parsed = new ParsedJson((String) target);
+			boolean canRead = findField(parsed, name)
+					? parsed.fieldValue != null
+					: canRead(asJson(parsed), name);
+			if (canRead) {
+				this.pendingRead.set(parsed);
+			}
+			return canRead;
+		}
+		return canRead(asJson(target), name);
+	}
+
+	private static boolean canRead(ContainerNode<?> container, String name) {
 		Integer index = maybeIndex(name);
 		if (container instanceof ArrayNode) {
 			return index != null;
@@ -106,37 +130,111 @@ public class JsonPropertyAccessor implements PropertyAccessor {
 			return assertContainerNode(wrapper.node);
 		}
 		else if (target instanceof String) {
+			return asJson(new ParsedJson((String) target));
+		}
+		else {
+			throw new IllegalStateException("Can't happen. Check SUPPORTED_CLASSES");
+		}
+	}
+
+	private ContainerNode<?> asJson(ParsedJson parsed) throws AccessException {
+		if (parsed.tree == null) {
 			try {
-				JsonNode json = this.objectMapper.readTree((String) target);
-				return assertContainerNode(json);
-			}
-			catch (JsonProcessingException e) {
-				throw new AccessException("Exception while trying to deserialize String", e);
+				parsed.tree = assertContainerNode(this.objectMapper.readTree(parsed.json));
 			}
 			catch (IOException e) {
 				throw new AccessException("Exception while trying to deserialize String", e);
 			}
 		}
-		else {
-			throw new IllegalStateException("Can't happen. Check SUPPORTED_CLASSES");
+		return parsed.tree;
+	}
+
+	/*
+	 * Look up a top level field of a JSON object by streaming the document; the other fields
+	 * are skipped without building their trees. As with readTree(), the last of duplicate
+	 * fields wins. Return false if the lookup has to be performed on the tree instead: another field has
+	 * already been looked up, or the document is not a JSON object.
+	 */
+	private boolean findField(ParsedJson parsed, String name) throws AccessException {
+		if (parsed.fieldName != null) {
+			return parsed.fieldName.equals(name);
+		}
+		try (JsonParser parser = this.objectMapper.getFactory().createParser(parsed.json)) {
+			if (parser.nextToken() != JsonToken.START_OBJECT) {
+				return false;
+			}
+			JsonNode value = null;
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+				String fieldName = parser.getCurrentName();
+				parser.nextToken();
+				if (name.equals(fieldName)) {
+					value = this.objectMapper.readTree(parser);
+					if (value == null) {
+						value = NullNode.getInstance();
+					}
+				}
+				else {
+					parser.skipChildren();
+				}
+			}
+			parsed.fieldName = name;
+			parsed.fieldValue = value;
+			return true;
+		}
+		catch (IOException e) {
+			throw new AccessException("Exception while trying to deserialize String", e);
 		}
 	}
 
 	/**
 	 * Return an integer if the String property name can be parsed as an int, or null otherwise.
 	 */
-	private Integer maybeIndex(String name) {
-		try {
-			return Integer.valueOf(name);
+	private static Integer maybeIndex(String name) {
+		int length = name.length();
+		int start = 0;
+		boolean negative = false;
+		if (length > 0 && (name.charAt(0) == '-' || name.charAt(0) == '+')) {
+			negative = name.charAt(0) == '-';
+			start = 1;
 		}
-		catch (NumberFormatException e) {
+		if (start == length) {
 			return null;
 		}
+		long value = 0;
+		for (int i = start; i < length; i++) {
+			char c = name.charAt(i);
+			if (c < '0' || c > '9') {
+				return null;
+			}
+			value = value * 10 + (c - '0');
+			if (value > -(long) Integer.MIN_VALUE) {
+				return null;
+			}
+		}
+		if (negative) {
+			value = -value;
+		}
+		return value > Integer.MAX_VALUE ? null : (int) value;
 	}
 
 	@Override
 	public TypedValue read(EvaluationContext context, Object target, String name) throws AccessException {
-		ContainerNode<?> container = asJson(target);
+		ContainerNode<?> container;
+		if (target instanceof String) {
+			ParsedJson parsed = this.pendingRead.get();
+			this.pendingRead.remove();
+			// identity - a String is immutable; SpEL may also call read() without canRead()
+			if (parsed == null || parsed.json != target) {
+				parsed = new ParsedJson((String) target);
+			}
+			if (parsed.tree == null && findField(parsed, name)) {
+				return typedValue(parsed.fieldValue);
+			}
+			container = asJson(parsed);
+		}
+		else {
+			container = asJson(target);
+		}
 		Integer index = maybeIndex(name);
 		if (index != null && container.has(index)) {
 			return typedValue(container.get(index));
@@ -177,6 +275,22 @@ public class JsonPropertyAccessor implements PropertyAccessor {
 		}
 	}
 
+	private static final class ParsedJson {
+
+		private final String json;
+
+		private ContainerNode<?> tree;
+
+		private String fieldName;
+
+		private JsonNode fieldValue;
+
+		ParsedJson(String json) {
+			this.json = json;
+		}
+
+	}
+
 	/**
 	 * The base interface for wrapped {@link JsonNode}.
 	 * @since 5.0
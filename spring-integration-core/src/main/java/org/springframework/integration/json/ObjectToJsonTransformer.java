@@ -16,8 +16,6 @@
 
 package org.springframework.integration.json;
 
-import java.io.ByteArrayOutputStream;
-import java.io.OutputStreamWriter;
 import java.util.Map;
 
 import org.springframework.integration.support.json.JsonObjectMapper;
@@ -147,10 +145,7 @@ public class ObjectToJsonTransformer extends AbstractTransformer {
 				return this.jsonObjectMapper.toJsonNode(payload);
 
 			case BYTES:
-				try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-					this.jsonObjectMapper.toJson(payload, new OutputStreamWriter(baos));
-					return baos.toByteArray();
-				}
+				return this.jsonObjectMapper.toJsonBytes(payload);
 
 			default:
 				throw new IllegalArgumentException("Unsupported ResultType provided: " + this.resultType);
@@ -28,16 +28,21 @@ import java.util.Map.Entry;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import org.springframework.integration.mapping.support.HeaderNameMatchCache;
+import org.springframework.integration.mapping.support.HeaderNamePattern;
 import org.springframework.lang.Nullable;
 import org.springframework.messaging.MessageChannel;
 import org.springframework.messaging.MessageHeaders;
 import org.springframework.util.Assert;
 import org.springframework.util.CollectionUtils;
-import org.springframework.util.PatternMatchUtils;
 import org.springframework.util.StringUtils;
 
 /**
  * Abstract base class for {@link RequestReplyHeaderMapper} implementations.
+ * <p>
+ * The header name patterns are compiled when the mapper is configured and the mapping
+ * decision for each distinct header name is cached (up to
+ * {@link HeaderNameMatchCache#DEFAULT_MAX_SIZE} names).
  *
  * @author Mark Fisher
  * @author Oleg Zhurakousky
@@ -92,8 +97,10 @@ public abstract class AbstractHeaderMapper<T> implements RequestReplyHeaderMappe
 		this.standardHeaderPrefix = standardHeaderPrefix;
 		this.requestHeaderNames = requestHeaderNames;
 		this.replyHeaderNames = replyHeaderNames;
-		this.requestHeaderMatcher = createDefaultHeaderMatcher(this.standardHeaderPrefix, this.requestHeaderNames);
-		this.replyHeaderMatcher = createDefaultHeaderMatcher(this.standardHeaderPrefix, this.replyHeaderNames);
+		this.requestHeaderMatcher = new CachingHeaderMatcher(
+				createDefaultHeaderMatcher(this.standardHeaderPrefix, this.requestHeaderNames));
+		this.replyHeaderMatcher = new CachingHeaderMatcher(
+				createDefaultHeaderMatcher(this.standardHeaderPrefix, this.replyHeaderNames));
 	}
 
 	/**
@@ -104,7 +111,7 @@ public abstract class AbstractHeaderMapper<T> implements RequestReplyHeaderMappe
 	 */
 	public void setRequestHeaderNames(String... requestHeaderNames) {
 		Assert.notNull(requestHeaderNames, "'requestHeaderNames' must not be null");
-		this.requestHeaderMatcher = createHeaderMatcher(Arrays.asList(requestHeaderNames));
+		this.requestHeaderMatcher = new CachingHeaderMatcher(createHeaderMatcher(Arrays.asList(requestHeaderNames)));
 	}
 
 	/**
@@ -116,7 +123,7 @@ public abstract class AbstractHeaderMapper<T> implements RequestReplyHeaderMappe
 	 */
 	public void setReplyHeaderNames(String... replyHeaderNames) {
 		Assert.notNull(replyHeaderNames, "'replyHeaderNames' must not be null");
-		this.replyHeaderMatcher = createHeaderMatcher(Arrays.asList(replyHeaderNames));
+		this.replyHeaderMatcher = new CachingHeaderMatcher(createHeaderMatcher(Arrays.asList(replyHeaderNames)));
 	}
 
 	/**
@@ -433,29 +440,30 @@ public abstract class AbstractHeaderMapper<T> implements RequestReplyHeaderMappe
 
 	/**
 	 * A pattern-based {@link HeaderMatcher} that matches if the specified
-	 * header matches one of the specified simple patterns.
-	 * @see org.springframework.util.PatternMatchUtils#simpleMatch(String, String)
+	 * header matches one of the specified simple patterns; the patterns are compiled
+	 * when the matcher is created.
+	 * @see HeaderNamePattern
 	 * @since 4.1
 	 */
 	protected static class PatternBasedHeaderMatcher implements HeaderMatcher {
 
 		private static final Log logger = LogFactory.getLog(HeaderMatcher.class);
 
-		private final Collection<String> patterns = new ArrayList<String>();
+		private final Collection<HeaderNamePattern> patterns = new ArrayList<HeaderNamePattern>();
 
 		public PatternBasedHeaderMatcher(Collection<String> patterns) {
 			Assert.notNull(patterns, "Patterns must no be null");
 			Assert.notEmpty(patterns, "At least one pattern must be specified");
 			for (String pattern : patterns) {
-				this.patterns.add(pattern.toLowerCase());
+				this.patterns.add(HeaderNamePattern.compile(pattern.toLowerCase()));
 			}
 		}
 
 		@Override
 		public boolean matchHeader(String headerName) {
 			String header = headerName.toLowerCase();
-			for (String pattern : this.patterns) {
-				if (PatternMatchUtils.simpleMatch(pattern, header)) {
+			for (HeaderNamePattern pattern : this.patterns) {
+				if (pattern.matches(header)) {
 					if (logger.isDebugEnabled()) {
 						logger.debug(MessageFormat.format(
 								"headerName=[{0}] WILL be mapped, matched pattern={1}", headerName, pattern));
@@ -477,14 +485,14 @@ public abstract class AbstractHeaderMapper<T> implements RequestReplyHeaderMappe
 	 * A pattern-based {@link HeaderMatcher} that matches if the specified
 	 * header matches the specified simple pattern.
 	 * <p> The {@code negate == true} state indicates if the matching should be treated as "not matched".
-	 * @see org.springframework.util.PatternMatchUtils#simpleMatch(String, String)
+	 * @see HeaderNamePattern
 	 * @since 4.3
 	 */
 	protected static class SinglePatternBasedHeaderMatcher implements HeaderMatcher {
 
 		private static final Log logger = LogFactory.getLog(HeaderMatcher.class);
 
-		private final String pattern;
+		private final HeaderNamePattern pattern;
 
 		private final boolean negate;
 
@@ -494,14 +502,14 @@ public abstract class AbstractHeaderMapper<T> implements RequestReplyHeaderMappe
 
 		public SinglePatternBasedHeaderMatcher(String pattern, boolean negate) {
 			Assert.notNull(pattern, "Pattern must no be null");
-			this.pattern = pattern.toLowerCase();
+			this.pattern = HeaderNamePattern.compile(pattern.toLowerCase());
 			this.negate = negate;
 		}
 
 		@Override
 		public boolean matchHeader(String headerName) {
 			String header = headerName.toLowerCase();
-			if (PatternMatchUtils.simpleMatch(this.pattern, header)) {
+			if (this.pattern.matches(header)) {
 				if (logger.isDebugEnabled()) {
 					logger.debug(MessageFormat.format(
 							"headerName=[{0}] WILL be mapped, matched pattern={1}", headerName, this.pattern));
@@ -599,4 +607,34 @@ public abstract class AbstractHeaderMapper<T> implements RequestReplyHeaderMappe
 
 	}
 
+	/**
+	 * A {@link HeaderMatcher} that caches the decisions of the configured matcher per
+	 * header name, so that the patterns are normally evaluated only once for each
+	 * distinct header name; the decisions are therefore only logged when they are
+	 * first made.
+	 * @since 5.1
+	 */
+	private static final class CachingHeaderMatcher implements HeaderMatcher {
+
+		private final HeaderMatcher delegate;
+
+		private final HeaderNameMatchCache cache;
+
+		CachingHeaderMatcher(HeaderMatcher delegate) {
+			this.delegate = delegate;
+			this.cache = new HeaderNameMatchCache(delegate::matchHeader);
+		}
+
+		@Override
+		public boolean matchHeader(String headerName) {
+			return this.cache.matches(headerName);
+		}
+
+		@Override
+		public boolean isNegated() {
+			return this.delegate.isNegated();
+		}
+
+	}
+
 }
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.mapping.support;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+import org.springframework.util.Assert;
+
+/**
+ * Caches the decisions of a header name {@link Predicate} (e.g. whether a header should
+ * be mapped) per distinct header name. Header names are usually a small, stable set, so
+ * the predicate (pattern matching) is normally evaluated only once per name.
+ * <p>
+ * The cache is bounded; when it is full, names that are not already cached are simply
+ * evaluated each time, so that a source with an unbounded number of header names
+ * (e.g. arbitrary HTTP request headers) cannot cause the cache to grow without bound.
+ * The predicate must always return the same result for the same name.
+ *
+ * @since 5.1
+ */
+public class HeaderNameMatchCache {
+
+	/**
+	 * The default maximum number of cached header names.
+	 */
+	public static final int DEFAULT_MAX_SIZE = 1024;
+
+	private final Map<String, Boolean> decisions = new ConcurrentHashMap<>();
+
+	private final Predicate<String> matcher;
+
+	private final int maxSize;
+
+	/**
+	 * Construct an instance with the {@link #DEFAULT_MAX_SIZE}.
+	 * @param matcher the predicate to cache.
+	 */
+	public HeaderNameMatchCache(Predicate<String> matcher) {
+		this(matcher, DEFAULT_MAX_SIZE);
+	}
+
+	/**
+	 * Construct an instance with the provided maximum size.
+	 * @param matcher the predicate to cache.
+	 * @param maxSize the maximum number of cached header names.
+	 */
+	public HeaderNameMatchCache(Predicate<String> matcher, int maxSize) {
+		Assert.notNull(matcher, "'matcher' cannot be null");
+		Assert.isTrue(maxSize >= 0, "'maxSize' cannot be negative");
+		this.matcher = matcher;
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * Return the (possibly cached) decision for this header name.
+	 * @param headerName the header name.
+	 * @return the decision.
+	 */
+	public boolean matches(String headerName) {
+		if (headerName == null) {
+			return this.matcher.test(null);
+		}
+		Boolean decision = this.decisions.get(headerName);
+		if (decision == null) {
+			decision = this.matcher.test(headerName);
+			if (this.decisions.size() < this.maxSize) {
+				this.decisions.put(headerName, decision);
+			}
+		}
+		return decision;
+	}
+
+	/**
+	 * Return the number of cached decisions.
+	 * @return the size.
+	 */
+	public int size() {
+		return this.decisions.size();
+	}
+
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.mapping.support;
+
+import org.springframework.util.Assert;
+import org.springframework.util.PatternMatchUtils;
+
+/**
+ * A simple header name pattern ("xxx*", "*xxx", "*xxx*" or "xxx*yyy"), analyzed once
+ * when it is compiled, so that the common forms are matched with a single
+ * {@link String} operation instead of being re-parsed for each header name. Matches
+ * exactly as {@link PatternMatchUtils#simpleMatch(String, String)}.
+ *
+ * @since 5.1
+ */
+public final class HeaderNamePattern {
+
+	private enum Kind {
+		EXACT, ANY, PREFIX, SUFFIX, CONTAINS, GENERAL
+	}
+
+	private final String pattern;
+
+	private final Kind kind;
+
+	private final String part;
+
+	private HeaderNamePattern(String pattern, Kind kind, String part) {
+		this.pattern = pattern;
+		this.kind = kind;
+		this.part = part;
+	}
+
+	/**
+	 * Compile the pattern.
+	 * @param pattern the pattern.
+	 * @return the compiled pattern.
+	 */
+	public static HeaderNamePattern compile(String pattern) {
+		Assert.notNull(pattern, "'pattern' cannot be null");
+		int first = pattern.indexOf('*');
+		if (first == -1) {
+			return new HeaderNamePattern(pattern, Kind.EXACT, pattern);
+		}
+		int last = pattern.lastIndexOf('*');
+		int stars = 0;
+		for (int i = first; i <= last; i++) {
+			if (pattern.charAt(i) == '*') {
+				stars++;
+			}
+		}
+		if (stars == pattern.length()) {
+			return new HeaderNamePattern(pattern, Kind.ANY, "");
+		}
+		if (stars == 1 && last == pattern.length() - 1) {
+			return new HeaderNamePattern(pattern, Kind.PREFIX, pattern.substring(0, last));
+		}
+		if (stars == 1 && first == 0) {
+			return new HeaderNamePattern(pattern, Kind.SUFFIX, pattern.substring(1));
+		}
+		if (stars == 2 && first == 0 && last == pattern.length() - 1) {
+			return new HeaderNamePattern(pattern, Kind.CONTAINS, pattern.substring(1, last));
+		}
+		return new HeaderNamePattern(pattern, Kind.GENERAL, pattern);
+	}
+
+	/**
+	 * Return true if the name matches this pattern.
+	 * @param name the name.
+	 * @return true if it matches.
+	 */
+	public boolean matches(String name) {
+		if (name == null) {
+			return false;
+		}
+		switch (this.kind) {
+			case EXACT:
+				return this.part.equals(name);
+			case ANY:
+				return true;
+			case PREFIX:
+				return name.startsWith(this.part);
+			case SUFFIX:
+				return name.endsWith(this.part);
+			case CONTAINS:
+				return name.contains(this.part);
+			default:
+				return PatternMatchUtils.simpleMatch(this.pattern, name);
+		}
+	}
+
+	/**
+	 * Return the pattern.
+	 * @return the pattern.
+	 */
+	public String getPattern() {
+		return this.pattern;
+	}
+
+	@Override
+	public String toString() {
+		return this.pattern;
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2014-2016 the original author or authors.
+ * Copyright 2014-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,7 +16,8 @@
 
 package org.springframework.integration.metadata;
 
-
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Supports atomic updates to values in the store.
@@ -47,4 +48,23 @@ public interface ConcurrentMetadataStore extends MetadataStore {
 	 */
 	boolean replace(String key, String oldValue, String newValue);
 
+	/**
+	 * Insert each of the entries into the store if its key is absent. The default
+	 * implementation calls {@link #putIfAbsent(String, String)} for each entry;
+	 * implementations that can write several entries in one round trip should override it.
+	 * @param entries The entries.
+	 * @return the entries that were not inserted, with the value already in the store.
+	 * @since 5.1
+	 */
+	default Map<String, String> putAllIfAbsent(Map<String, String> entries) {
+		Map<String, String> existing = new HashMap<>();
+		entries.forEach((key, value) -> {
+			String oldValue = putIfAbsent(key, value);
+			if (oldValue != null) {
+				existing.put(key, oldValue);
+			}
+		});
+		return existing;
+	}
+
 }
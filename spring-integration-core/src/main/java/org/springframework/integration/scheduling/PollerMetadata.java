@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2016 the original author or authors.
+ * Copyright 2002-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -60,6 +60,16 @@ public class PollerMetadata {
 
 	private volatile TransactionSynchronizationFactory transactionSynchronizationFactory;
 
+	private volatile int minConcurrency = 1;
+
+	private volatile int maxConcurrency = 1;
+
+	private volatile int scaleUpThreshold = 3;
+
+	private volatile int scaleDownThreshold = 10;
+
+	private volatile int backlogThreshold;
+
 
 	public void setTransactionSynchronizationFactory(
 			TransactionSynchronizationFactory transactionSynchronizationFactory) {
@@ -138,6 +148,79 @@ public class PollerMetadata {
 		this.sendTimeout = sendTimeout;
 	}
 
+	/**
+	 * Set the minimum and maximum number of concurrent poll workers. When the maximum
+	 * is greater than the minimum, the endpoint starts with the minimum and adds or
+	 * removes workers according to its backlog. Default 1 and 1 (a single poller).
+	 * The message source (or channel), the trigger, and the task scheduler or task
+	 * executor must support the maximum concurrency.
+	 * @param minConcurrency the minimum concurrency.
+	 * @param maxConcurrency the maximum concurrency.
+	 * @since 5.1
+	 * @see #setScaleUpThreshold(int)
+	 * @see #setScaleDownThreshold(int)
+	 */
+	public void setConcurrency(int minConcurrency, int maxConcurrency) {
+		Assert.isTrue(minConcurrency > 0, "'minConcurrency' must be greater than 0");
+		Assert.isTrue(maxConcurrency >= minConcurrency, "'maxConcurrency' must be >= 'minConcurrency'");
+		this.minConcurrency = minConcurrency;
+		this.maxConcurrency = maxConcurrency;
+	}
+
+	public int getMinConcurrency() {
+		return this.minConcurrency;
+	}
+
+	public int getMaxConcurrency() {
+		return this.maxConcurrency;
+	}
+
+	/**
+	 * Set the number of consecutive busy polls after which a poll worker is added.
+	 * A poll is busy when the backlog exceeds the {@link #setBacklogThreshold(int)
+	 * backlogThreshold} or, when the backlog is not known, when the poll received
+	 * {@code maxMessagesPerPoll} messages. Default 3.
+	 * @param scaleUpThreshold the threshold.
+	 * @since 5.1
+	 */
+	public void setScaleUpThreshold(int scaleUpThreshold) {
+		Assert.isTrue(scaleUpThreshold > 0, "'scaleUpThreshold' must be greater than 0");
+		this.scaleUpThreshold = scaleUpThreshold;
+	}
+
+	public int getScaleUpThreshold() {
+		return this.scaleUpThreshold;
+	}
+
+	/**
+	 * Set the number of consecutive polls that received no messages after which a poll
+	 * worker is removed. Default 10.
+	 * @param scaleDownThreshold the threshold.
+	 * @since 5.1
+	 */
+	public void setScaleDownThreshold(int scaleDownThreshold) {
+		Assert.isTrue(scaleDownThreshold > 0, "'scaleDownThreshold' must be greater than 0");
+		this.scaleDownThreshold = scaleDownThreshold;
+	}
+
+	public int getScaleDownThreshold() {
+		return this.scaleDownThreshold;
+	}
+
+	/**
+	 * Set the backlog (for example, the queue size of the input channel of a polling
+	 * consumer) above which a poll is considered busy. Default 0.
+	 * @param backlogThreshold the threshold.
+	 * @since 5.1
+	 */
+	public void setBacklogThreshold(int backlogThreshold) {
+		this.backlogThreshold = backlogThreshold;
+	}
+
+	public int getBacklogThreshold() {
+		return this.backlogThreshold;
+	}
+
 
 	/**
 	 * Return the default {@link PollerMetadata} bean if available.
@@ -0,0 +1,706 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.scheduling;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.factory.BeanNameAware;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.Trigger;
+import org.springframework.scheduling.support.PeriodicTrigger;
+import org.springframework.scheduling.support.SimpleTriggerContext;
+import org.springframework.scheduling.support.TaskUtils;
+import org.springframework.util.Assert;
+import org.springframework.util.ErrorHandler;
+
+/**
+ * A {@link TaskScheduler} intended for applications with a very large number of polling
+ * endpoints (for example, thousands of dynamically registered pollers).
+ * <p>
+ * Instead of a single delay queue, tasks are distributed (round robin) over a number of
+ * shards (by default, one per available processor). Each shard has a hashed timing
+ * wheel, advanced by a dedicated ticker thread, so scheduling and expiring a task is a
+ * constant time operation. Tasks due in the same tick are dispatched together, in
+ * batches, to the shard's worker threads, which coalesces pollers with identical triggers
+ * into a single hand-off. When the number of tasks in flight in a shard reaches
+ * {@link #setMaxInFlight(int) maxInFlight}, due tasks are deferred to the next tick
+ * rather than queued without bound.
+ * <p>
+ * Execution times are rounded up to the {@link #setTickDuration(long) tick duration},
+ * so this scheduler is not suitable for tasks that need a finer resolution.
+ * Set a bean named {@code taskScheduler} of this type to use it for all pollers.
+ * <p>
+ * When the scheduler is destroyed, the tasks that are not running are cancelled; in
+ * particular, {@link ScheduledFuture#get()} throws a {@link CancellationException} for
+ * tasks that were due but still waiting for a worker.
+ *
+ * @since 5.1
+ *
+ */
+public class TimingWheelTaskScheduler implements TaskScheduler, InitializingBean, DisposableBean, BeanNameAware {
+
+	/**
+	 * The default tick duration in milliseconds.
+	 */
+	public static final long DEFAULT_TICK_DURATION = 10;
+
+	/**
+	 * The default number of buckets in each wheel.
+	 */
+	public static final int DEFAULT_WHEEL_SIZE = 512;
+
+	/**
+	 * The default number of worker threads in each shard.
+	 */
+	public static final int DEFAULT_WORKERS_PER_SHARD = 2;
+
+	/**
+	 * The default maximum number of tasks in each batch handed to a worker.
+	 */
+	public static final int DEFAULT_BATCH_SIZE = 32;
+
+	private static final Log logger = LogFactory.getLog(TimingWheelTaskScheduler.class);
+
+	private final AtomicInteger nextShard = new AtomicInteger();
+
+	private int shardCount = Runtime.getRuntime().availableProcessors();
+
+	private long tickDuration = DEFAULT_TICK_DURATION;
+
+	private int wheelSize = DEFAULT_WHEEL_SIZE;
+
+	private int workersPerShard = DEFAULT_WORKERS_PER_SHARD;
+
+	private int batchSize = DEFAULT_BATCH_SIZE;
+
+	private int maxInFlight;
+
+	private ErrorHandler errorHandler;
+
+	private String beanName = "timingWheelTaskScheduler";
+
+	private volatile Shard[] shards;
+
+	private volatile boolean running;
+
+	/**
+	 * Set the number of shards. Default: the number of available processors.
+	 * @param shardCount the number of shards.
+	 */
+	public void setShardCount(int shardCount) {
+		Assert.isTrue(shardCount > 0, "'shardCount' must be greater than 0");
+		this.shardCount = shardCount;
+	}
+
+	/**
+	 * Set the duration of a wheel tick (the scheduling resolution) in milliseconds.
+	 * Default {@value #DEFAULT_TICK_DURATION}.
+	 * @param tickDuration the tick duration.
+	 */
+	public void setTickDuration(long tickDuration) {
+		Assert.isTrue(tickDuration > 0, "'tickDuration' must be greater than 0");
+		this.tickDuration = tickDuration;
+	}
+
+	/**
+	 * Set the number of buckets in each wheel; rounded up to a power of two.
+	 * Tasks due more than one revolution ahead stay in their bucket for
+	 * additional revolutions. Default {@value #DEFAULT_WHEEL_SIZE}.
+	 * @param wheelSize the wheel size.
+	 */
+	public void setWheelSize(int wheelSize) {
+		Assert.isTrue(wheelSize > 0 && wheelSize <= 1 << 30, "'wheelSize' must be between 1 and 2^30");
+		this.wheelSize = wheelSize;
+	}
+
+	/**
+	 * Set the number of threads that run tasks in each shard.
+	 * Default {@value #DEFAULT_WORKERS_PER_SHARD}.
+	 * @param workersPerShard the number of workers.
+	 */
+	public void setWorkersPerShard(int workersPerShard) {
+		Assert.isTrue(workersPerShard > 0, "'workersPerShard' must be greater than 0");
+		this.workersPerShard = workersPerShard;
+	}
+
+	/**
+	 * Set the maximum number of due tasks handed to a worker thread at once.
+	 * Default {@value #DEFAULT_BATCH_SIZE}.
+	 * @param batchSize the batch size.
+	 */
+	public void setBatchSize(int batchSize) {
+		Assert.isTrue(batchSize > 0, "'batchSize' must be greater than 0");
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Set the maximum number of tasks that may be dispatched, but not yet completed, in
+	 * each shard. When reached, further due tasks are deferred to the next tick.
+	 * Default: {@code workersPerShard * batchSize * 2}.
+	 * @param maxInFlight the maximum number of tasks in flight.
+	 */
+	public void setMaxInFlight(int maxInFlight) {
+		Assert.isTrue(maxInFlight > 0, "'maxInFlight' must be greater than 0");
+		this.maxInFlight = maxInFlight;
+	}
+
+	/**
+	 * Set the {@link ErrorHandler} for exceptions thrown by tasks. By default, exceptions
+	 * thrown by repeating tasks are logged and suppressed, and exceptions thrown by
+	 * one-time tasks are propagated to the {@link ScheduledFuture#get()} caller.
+	 * @param errorHandler the error handler.
+	 */
+	public void setErrorHandler(ErrorHandler errorHandler) {
+		this.errorHandler = errorHandler;
+	}
+
+	@Override
+	public void setBeanName(String name) {
+		this.beanName = name;
+	}
+
+	@Override
+	public void afterPropertiesSet() {
+		if (this.maxInFlight <= 0) {
+			this.maxInFlight = this.workersPerShard * this.batchSize * 2;
+		}
+		int size = 1;
+		while (size < this.wheelSize) {
+			size <<= 1;
+		}
+		Shard[] shards = new Shard[this.shardCount];
+		for (int i = 0; i < shards.length; i++) {
+			shards[i] = new Shard(i, size);
+		}
+		this.running = true;
+		this.shards = shards;
+		for (Shard shard : shards) {
+			shard.start();
+		}
+	}
+
+	@Override
+	public void destroy() {
+		this.running = false;
+		Shard[] shards = this.shards;
+		if (shards != null) {
+			for (Shard shard : shards) {
+				shard.stop();
+			}
+		}
+	}
+
+	/**
+	 * Return the number of tasks that are currently scheduled (including any that are
+	 * running).
+	 * @return the number of tasks.
+	 */
+	public int getScheduledTaskCount() {
+		int count = 0;
+		for (Shard shard : getShards()) {
+			count += shard.taskCount.get();
+		}
+		return count;
+	}
+
+	/**
+	 * Return the number of tasks that have been dispatched but not yet completed.
+	 * @return the number of tasks.
+	 */
+	public int getInFlightCount() {
+		int count = 0;
+		for (Shard shard : getShards()) {
+			count += shard.inFlight.get();
+		}
+		return count;
+	}
+
+	/**
+	 * Return the number of times a due task was deferred to the next tick because its
+	 * shard had {@link #setMaxInFlight(int) maxInFlight} tasks in flight.
+	 * @return the count.
+	 */
+	public long getDeferredCount() {
+		long count = 0;
+		for (Shard shard : getShards()) {
+			count += shard.deferred.get();
+		}
+		return count;
+	}
+
+	@Override
+	@Nullable
+	public ScheduledFuture<?> schedule(Runnable task, Trigger trigger) {
+		Assert.notNull(trigger, "'trigger' must not be null");
+		WheelTask wheelTask = new WheelTask(task, trigger, nextShard());
+		Date first = trigger.nextExecutionTime(wheelTask.triggerContext);
+		if (first == null) {
+			return null;
+		}
+		wheelTask.schedule(first);
+		return wheelTask;
+	}
+
+	@Override
+	public ScheduledFuture<?> schedule(Runnable task, Date startTime) {
+		WheelTask wheelTask = new WheelTask(task, null, nextShard());
+		wheelTask.schedule(startTime);
+		return wheelTask;
+	}
+
+	@Override
+	public ScheduledFuture<?> scheduleAtFixedRate(Runnable task, Date startTime, long period) {
+		PeriodicTrigger trigger = new PeriodicTrigger(period);
+		trigger.setFixedRate(true);
+		trigger.setInitialDelay(Math.max(0, startTime.getTime() - System.currentTimeMillis()));
+		return schedule(task, trigger);
+	}
+
+	@Override
+	public ScheduledFuture<?> scheduleAtFixedRate(Runnable task, long period) {
+		PeriodicTrigger trigger = new PeriodicTrigger(period);
+		trigger.setFixedRate(true);
+		return schedule(task, trigger);
+	}
+
+	@Override
+	public ScheduledFuture<?> scheduleWithFixedDelay(Runnable task, Date startTime, long delay) {
+		PeriodicTrigger trigger = new PeriodicTrigger(delay);
+		trigger.setInitialDelay(Math.max(0, startTime.getTime() - System.currentTimeMillis()));
+		return schedule(task, trigger);
+	}
+
+	@Override
+	public ScheduledFuture<?> scheduleWithFixedDelay(Runnable task, long delay) {
+		return schedule(task, new PeriodicTrigger(delay));
+	}
+
+	private Shard[] getShards() {
+		Shard[] shards = this.shards;
+		return shards == null ? new Shard[0] : shards;
+	}
+
+	private Shard nextShard() {
+		Shard[] shards = this.shards;
+		Assert.state(shards != null && this.running, () -> this.beanName + " is not running");
+		return shards[(this.nextShard.getAndIncrement() & Integer.MAX_VALUE) % shards.length];
+	}
+
+	/**
+	 * A wheel, its ticker thread and its workers. Buckets are only accessed by the
+	 * ticker; other threads add tasks to the {@code pending} queue.
+	 */
+	private final class Shard implements Runnable {
+
+		private final Queue<WheelTask> pending = new ConcurrentLinkedQueue<>();
+
+		private final AtomicInteger taskCount = new AtomicInteger();
+
+		private final AtomicInteger inFlight = new AtomicInteger();
+
+		private final AtomicLong deferred = new AtomicLong();
+
+		private final List<Deque<WheelTask>> wheel;
+
+		private final int mask;
+
+		private final long tickNanos = TimeUnit.MILLISECONDS.toNanos(TimingWheelTaskScheduler.this.tickDuration);
+
+		private final long startNanos = System.nanoTime();
+
+		private final ThreadPoolExecutor workers;
+
+		private final Thread ticker;
+
+		private long tick;
+
+		Shard(int index, int size) {
+			this.wheel = new ArrayList<>(size);
+			for (int i = 0; i < size; i++) {
+				this.wheel.add(new ArrayDeque<>());
+			}
+			this.mask = size - 1;
+			String prefix = TimingWheelTaskScheduler.this.beanName + "-" + index;
+			AtomicInteger threadNumber = new AtomicInteger();
+			int threads = TimingWheelTaskScheduler.this.workersPerShard;
+			this.workers = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+					new LinkedBlockingQueue<>(), r -> {
+						Thread thread = new Thread(r, prefix + "-" + threadNumber.incrementAndGet());
+						thread.setDaemon(true);
+						return thread;
+					});
+			this.ticker = new Thread(this, prefix + "-ticker");
+			this.ticker.setDaemon(true);
+		}
+
+		void start() {
+			this.ticker.start();
+		}
+
+		void stop() {
+			LockSupport.unpark(this.ticker);
+			for (Runnable batch : this.workers.shutdownNow()) {
+				((Batch) batch).cancel();
+			}
+		}
+
+		void add(WheelTask task) {
+			this.pending.add(task);
+		}
+
+		@Override
+		public void run() {
+			while (TimingWheelTaskScheduler.this.running) {
+				long deadline = this.startNanos + (this.tick + 1) * this.tickNanos;
+				long wait;
+				while ((wait = deadline - System.nanoTime()) > 0 && TimingWheelTaskScheduler.this.running) {
+					LockSupport.parkNanos(this, wait);
+				}
+				if (!TimingWheelTaskScheduler.this.running) {
+					break;
+				}
+				transferPending();
+				expire(this.wheel.get((int) (this.tick & this.mask)));
+				this.tick++;
+			}
+			WheelTask task;
+			while ((task = this.pending.poll()) != null) {
+				task.cancel(false);
+			}
+			for (Deque<WheelTask> bucket : this.wheel) {
+				bucket.forEach(t -> t.cancel(false));
+				bucket.clear();
+			}
+		}
+
+		private void transferPending() {
+			WheelTask task;
+			while ((task = this.pending.poll()) != null) {
+				if (task.isCancelled()) {
+					continue;
+				}
+				long ticks = Math.max((task.deadlineNanos - this.startNanos) / this.tickNanos, this.tick);
+				task.remainingRounds = (ticks - this.tick) / this.wheel.size();
+				this.wheel.get((int) (ticks & this.mask)).add(task);
+			}
+		}
+
+		private void expire(Deque<WheelTask> bucket) {
+			List<WheelTask> due = null;
+			Iterator<WheelTask> iterator = bucket.iterator();
+			while (iterator.hasNext()) {
+				WheelTask task = iterator.next();
+				if (task.isCancelled()) {
+					iterator.remove();
+				}
+				else if (task.remainingRounds > 0) {
+					task.remainingRounds--;
+				}
+				else {
+					iterator.remove();
+					if (due == null) {
+						due = new ArrayList<>();
+					}
+					due.add(task);
+				}
+			}
+			if (due != null) {
+				dispatch(due);
+			}
+		}
+
+		private void dispatch(List<WheelTask> due) {
+			int batchSize = TimingWheelTaskScheduler.this.batchSize;
+			int maxInFlight = TimingWheelTaskScheduler.this.maxInFlight;
+			int size = due.size();
+			for (int from = 0; from < size; from += batchSize) {
+				int to = Math.min(from + batchSize, size);
+				int count = to - from;
+				if (this.inFlight.get() + count > maxInFlight && this.inFlight.get() > 0) {
+					Deque<WheelTask> next = this.wheel.get((int) ((this.tick + 1) & this.mask));
+					for (int i = from; i < size; i++) {
+						WheelTask task = due.get(i);
+						task.remainingRounds = 0;
+						next.add(task);
+					}
+					this.deferred.addAndGet(size - from);
+					return;
+				}
+				this.inFlight.addAndGet(count);
+				try {
+					this.workers.execute(new Batch(due.subList(from, to)));
+				}
+				catch (RejectedExecutionException e) {
+					// destroyed meanwhile
+					this.inFlight.addAndGet(-count);
+					due.subList(from, size).forEach(task -> task.cancel(false));
+					return;
+				}
+			}
+		}
+
+		private void runTask(WheelTask task) {
+			try {
+				task.run();
+			}
+			finally {
+				this.inFlight.decrementAndGet();
+			}
+		}
+
+		/**
+		 * Due tasks handed to a worker together.
+		 */
+		private final class Batch implements Runnable {
+
+			private final List<WheelTask> tasks;
+
+			Batch(List<WheelTask> tasks) {
+				this.tasks = tasks;
+			}
+
+			@Override
+			public void run() {
+				this.tasks.forEach(Shard.this::runTask);
+			}
+
+			/**
+			 * Cancel the tasks of a batch that will not run because the workers have
+			 * been shut down.
+			 */
+			void cancel() {
+				for (WheelTask task : this.tasks) {
+					task.cancel(false);
+					Shard.this.inFlight.decrementAndGet();
+				}
+			}
+
+		}
+
+	}
+
+	/**
+	 * A scheduled task and its trigger state.
+	 */
+	private final class WheelTask implements ScheduledFuture<Object> {
+
+		private final Runnable task;
+
+		private final Trigger trigger;
+
+		private final Shard shard;
+
+		private final SimpleTriggerContext triggerContext = new SimpleTriggerContext();
+
+		private final ErrorHandler errorHandler;
+
+		private final Object monitor = new Object();
+
+		private long deadlineNanos;
+
+		private long remainingRounds; // ticker only
+
+		private volatile Date scheduledExecutionTime;
+
+		private volatile Thread runner;
+
+		private volatile boolean cancelled;
+
+		private volatile boolean done;
+
+		private volatile Throwable failure;
+
+		WheelTask(Runnable task, @Nullable Trigger trigger, Shard shard) {
+			Assert.notNull(task, "'task' must not be null");
+			this.task = task;
+			this.trigger = trigger;
+			this.shard = shard;
+			ErrorHandler errorHandler = TimingWheelTaskScheduler.this.errorHandler;
+			this.errorHandler = errorHandler != null || trigger == null
+					? errorHandler
+					: TaskUtils.getDefaultErrorHandler(true);
+		}
+
+		void schedule(Date executionTime) {
+			this.scheduledExecutionTime = executionTime;
+			this.deadlineNanos = System.nanoTime()
+					+ TimeUnit.MILLISECONDS.toNanos(executionTime.getTime() - System.currentTimeMillis());
+			this.shard.taskCount.incrementAndGet();
+			this.shard.add(this);
+		}
+
+		void run() {
+			if (this.cancelled) {
+				return;
+			}
+			Date actualExecutionTime = new Date();
+			this.runner = Thread.currentThread();
+			try {
+				this.task.run();
+			}
+			catch (Throwable t) {
+				if (this.errorHandler != null) {
+					this.errorHandler.handleError(t);
+				}
+				else {
+					this.failure = t;
+					if (logger.isDebugEnabled()) {
+						logger.debug("Scheduled task failed: " + this.task, t);
+					}
+				}
+			}
+			finally {
+				this.runner = null;
+				if (this.cancelled) {
+					Thread.interrupted(); // clear any interrupt from cancel(true)
+				}
+			}
+			if (this.trigger == null || this.cancelled) {
+				complete();
+				return;
+			}
+			this.triggerContext.update(this.scheduledExecutionTime, actualExecutionTime, new Date());
+			Date next = this.trigger.nextExecutionTime(this.triggerContext);
+			if (next == null) {
+				complete();
+			}
+			else {
+				this.scheduledExecutionTime = next;
+				this.deadlineNanos = System.nanoTime()
+						+ TimeUnit.MILLISECONDS.toNanos(next.getTime() - System.currentTimeMillis());
+				this.shard.add(this);
+				if (!TimingWheelTaskScheduler.this.running) {
+					// the ticker may have already cancelled the pending tasks
+					cancel(false);
+				}
+			}
+		}
+
+		void complete() {
+			synchronized (this.monitor) {
+				if (!this.done) {
+					this.done = true;
+					this.shard.taskCount.decrementAndGet();
+					this.monitor.notifyAll();
+				}
+			}
+		}
+
+		@Override
+		public boolean cancel(boolean mayInterruptIfRunning) {
+			if (this.done) {
+				return false;
+			}
+			this.cancelled = true;
+			Thread runner = this.runner;
+			if (mayInterruptIfRunning && runner != null) {
+				runner.interrupt();
+			}
+			complete();
+			return true;
+		}
+
+		@Override
+		public boolean isCancelled() {
+			return this.cancelled;
+		}
+
+		@Override
+		public boolean isDone() {
+			return this.done;
+		}
+
+		@Override
+		public Object get() throws InterruptedException, ExecutionException {
+			synchronized (this.monitor) {
+				while (!this.done) {
+					this.monitor.wait();
+				}
+			}
+			return result();
+		}
+
+		@Override
+		public Object get(long timeout, TimeUnit unit)
+				throws InterruptedException, ExecutionException, TimeoutException {
+
+			long deadline = System.nanoTime() + unit.toNanos(timeout);
+			synchronized (this.monitor) {
+				long wait;
+				while (!this.done) {
+					wait = deadline - System.nanoTime();
+					if (wait <= 0) {
+						throw new TimeoutException();
+					}
+					TimeUnit.NANOSECONDS.timedWait(this.monitor, wait);
+				}
+			}
+			return result();
+		}
+
+		private Object result() throws ExecutionException {
+			if (this.cancelled) {
+				throw new CancellationException();
+			}
+			if (this.failure != null) {
+				throw new ExecutionException(this.failure);
+			}
+			return null;
+		}
+
+		@Override
+		public long getDelay(TimeUnit unit) {
+			return unit.convert(this.scheduledExecutionTime.getTime() - System.currentTimeMillis(),
+					TimeUnit.MILLISECONDS);
+		}
+
+		@Override
+		public int compareTo(Delayed other) {
+			if (this == other) {
+				return 0;
+			}
+			return Long.compare(getDelay(TimeUnit.MILLISECONDS), other.getDelay(TimeUnit.MILLISECONDS));
+		}
+
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2014-2017 the original author or authors.
+ * Copyright 2014-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,10 +16,21 @@
 
 package org.springframework.integration.selector;
 
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
 import org.springframework.integration.core.MessageSelector;
 import org.springframework.integration.handler.MessageProcessor;
 import org.springframework.integration.metadata.ConcurrentMetadataStore;
 import org.springframework.integration.metadata.SimpleMetadataStore;
+import org.springframework.integration.util.ScalableBloomFilter;
 import org.springframework.messaging.Message;
 import org.springframework.util.Assert;
 
@@ -44,18 +55,62 @@ import org.springframework.util.Assert;
  * <p>
  * It can be used in a {@link org.springframework.integration.filter.MessageFilter}
  * or {@link org.springframework.integration.handler.advice.IdempotentReceiverInterceptor}.
+ * <p>
+ * Starting with version 5.1, a {@link #setTimeToLive(long) timeToLive} can be set, in
+ * which case an entry whose (timestamp) value is older than the time to live no longer
+ * counts as a duplicate and is atomically replaced; this provides a deduplication window
+ * with any {@link ConcurrentMetadataStore}.
+ * <p>
+ * An optional local tier can be configured in front of the store:
+ * <ul>
+ * <li>a bounded {@link #setNearCacheSize(int) near cache} of recently seen keys;
+ * duplicates of those keys are rejected without a store round trip;</li>
+ * <li>a {@link #setBloomFilter(ScalableBloomFilter) Bloom filter}; a key that this
+ * selector has definitely not seen is only looked up in the store (which may contain
+ * keys written before a restart) rather than inserted; if it is absent, the key is
+ * claimed locally, accepted, and written to the store later in a batch (see
+ * {@link ConcurrentMetadataStore#putAllIfAbsent(Map)}). Keys pending a write are
+ * rejected as duplicates. The Bloom filter must only be used when this selector is the
+ * only writer of its keys to the store (for example with a single consumer, or with
+ * keys partitioned across consumers); keys still pending when the application stops
+ * are lost, unless {@link #flush()} is called.</li>
+ * </ul>
  *
  * @author Artem Bilan
  * @since 4.1
  */
 public class MetadataStoreSelector implements MessageSelector {
 
+	private static final Log logger = LogFactory.getLog(MetadataStoreSelector.class);
+
 	private final ConcurrentMetadataStore metadataStore;
 
 	private final MessageProcessor<String> keyStrategy;
 
 	private final MessageProcessor<String> valueStrategy;
 
+	private final ConcurrentMap<String, Long> nearCache = new ConcurrentHashMap<>();
+
+	private final AtomicBoolean evicting = new AtomicBoolean();
+
+	private final ConcurrentMap<String, String> pendingEntries = new ConcurrentHashMap<>();
+
+	private final AtomicBoolean flushing = new AtomicBoolean();
+
+	private long timeToLive;
+
+	private int nearCacheSize;
+
+	private long nearCacheTimeToLive = 60000;
+
+	private ScalableBloomFilter bloomFilter;
+
+	private int batchSize = 100;
+
+	private long maxBatchDelay = 1000;
+
+	private volatile long lastFlush = System.currentTimeMillis();
+
 	public MetadataStoreSelector(MessageProcessor<String> keyStrategy) {
 		this(keyStrategy, (MessageProcessor<String>) null);
 	}
@@ -77,6 +132,70 @@ public class MetadataStoreSelector implements MessageSelector {
 		this.valueStrategy = valueStrategy;
 	}
 
+	/**
+	 * Set the time in milliseconds after which a stored key is no longer considered a
+	 * duplicate. Requires the default value strategy (the message timestamp).
+	 * @param timeToLive the time to live; 0 (default) means forever.
+	 * @since 5.1
+	 */
+	public void setTimeToLive(long timeToLive) {
+		Assert.state(this.valueStrategy == null, "A 'timeToLive' cannot be used with a custom 'valueStrategy'");
+		this.timeToLive = timeToLive;
+	}
+
+	/**
+	 * Set the maximum number of recently seen keys to keep locally; 0 (default) disables
+	 * the near cache.
+	 * @param nearCacheSize the size.
+	 * @since 5.1
+	 */
+	public void setNearCacheSize(int nearCacheSize) {
+		this.nearCacheSize = nearCacheSize;
+	}
+
+	/**
+	 * Set the time in milliseconds a key is kept in the near cache; default 60000, and
+	 * never longer than the {@link #setTimeToLive(long) timeToLive}, if set.
+	 * @param nearCacheTimeToLive the time to live.
+	 * @since 5.1
+	 */
+	public void setNearCacheTimeToLive(long nearCacheTimeToLive) {
+		Assert.isTrue(nearCacheTimeToLive > 0, "'nearCacheTimeToLive' must be greater than 0");
+		this.nearCacheTimeToLive = nearCacheTimeToLive;
+	}
+
+	/**
+	 * Set a Bloom filter to look up definitely new keys in the store, instead of
+	 * inserting them, and write them to the store in batches. Only use when this selector
+	 * is the only writer of its keys.
+	 * @param bloomFilter the filter.
+	 * @since 5.1
+	 * @see #setBatchSize(int)
+	 * @see #setMaxBatchDelay(long)
+	 */
+	public void setBloomFilter(ScalableBloomFilter bloomFilter) {
+		this.bloomFilter = bloomFilter;
+	}
+
+	/**
+	 * Set the number of pending new keys that triggers a write to the store; default 100.
+	 * @param batchSize the batch size.
+	 * @since 5.1
+	 */
+	public void setBatchSize(int batchSize) {
+		Assert.isTrue(batchSize > 0, "'batchSize' must be greater than 0");
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Set the time in milliseconds after which pending new keys are written to the store
+	 * by the next {@link #accept(Message)}, even if the batch is not full; default 1000.
+	 * @param maxBatchDelay the delay.
+	 * @since 5.1
+	 */
+	public void setMaxBatchDelay(long maxBatchDelay) {
+		this.maxBatchDelay = maxBatchDelay;
+	}
 
 	@Override
 	public boolean accept(Message<?> message) {
@@ -85,7 +204,149 @@ public class MetadataStoreSelector implements MessageSelector {
 				? this.valueStrategy.processMessage(message)
 				: Long.toString(message.getHeaders().getTimestamp());
 
-		return this.metadataStore.putIfAbsent(key, value) == null;
+		if (this.nearCacheSize <= 0 && this.bloomFilter == null) {
+			return putIfAbsent(key, value);
+		}
+		long now = System.currentTimeMillis();
+		if (this.nearCacheSize > 0 && !addToNearCache(key, now)) {
+			return false;
+		}
+		boolean accepted;
+		try {
+			if (this.bloomFilter == null) {
+				accepted = putIfAbsent(key, value);
+			}
+			else if (!this.bloomFilter.mightContain(key)) {
+				accepted = acceptUnseen(key, value);
+			}
+			else {
+				accepted = !this.pendingEntries.containsKey(key) && putIfAbsent(key, value);
+				if (accepted) {
+					this.bloomFilter.put(key);
+				}
+			}
+		}
+		catch (RuntimeException e) {
+			// the key has not been recorded, so it must not be rejected on redelivery
+			this.nearCache.remove(key);
+			throw e;
+		}
+		if (!this.pendingEntries.isEmpty() && now - this.lastFlush >= this.maxBatchDelay) {
+			flush();
+		}
+		return accepted;
+	}
+
+	/*
+	 * The Bloom filter only tells that this selector has not seen the key; it may still be
+	 * in the store (for example after a restart), or be claimed concurrently.
+	 */
+	private boolean acceptUnseen(String key, String value) {
+		String storedValue = this.metadataStore.get(key);
+		if (storedValue != null && !isExpired(storedValue)) {
+			this.bloomFilter.put(key);
+			return false;
+		}
+		if (this.pendingEntries.putIfAbsent(key, value) != null) {
+			return false;
+		}
+		this.bloomFilter.put(key);
+		if (this.pendingEntries.size() >= this.batchSize) {
+			flush();
+		}
+		return true;
+	}
+
+	/**
+	 * Write keys accepted via the Bloom filter, but not yet written, to the store.
+	 * @since 5.1
+	 */
+	public void flush() {
+		if (this.flushing.compareAndSet(false, true)) {
+			try {
+				// keys stay pending (and so rejected) until they are in the store
+				Map<String, String> batch = new LinkedHashMap<>(this.pendingEntries);
+				if (!batch.isEmpty() && writeBatch(batch)) {
+					batch.forEach(this.pendingEntries::remove);
+				}
+			}
+			finally {
+				this.lastFlush = System.currentTimeMillis();
+				this.flushing.set(false);
+			}
+		}
+	}
+
+	private boolean writeBatch(Map<String, String> batch) {
+		Map<String, String> existing;
+		try {
+			existing = this.metadataStore.putAllIfAbsent(batch);
+		}
+		catch (RuntimeException e) {
+			logger.error("Failed to write " + batch.size() + " keys to the store; they will be retried", e);
+			return false;
+		}
+		existing.forEach((key, oldValue) -> {
+			if (!isExpired(oldValue) || !this.metadataStore.replace(key, oldValue, batch.get(key))) {
+				logger.warn("The key '" + key + "' was accepted locally, but another entry was found "
+						+ "in the store; is the store shared by another writer?");
+			}
+		});
+		return true;
+	}
+
+	private boolean putIfAbsent(String key, String value) {
+		String oldValue = this.metadataStore.putIfAbsent(key, value);
+		if (oldValue == null) {
+			return true;
+		}
+		return isExpired(oldValue) && this.metadataStore.replace(key, oldValue, value);
+	}
+
+	private boolean isExpired(String value) {
+		if (this.timeToLive <= 0) {
+			return false;
+		}
+		try {
+			return System.currentTimeMillis() - Long.parseLong(value) >= this.timeToLive;
+		}
+		catch (NumberFormatException e) {
+			return false;
+		}
+	}
+
+	/*
+	 * Return false if the key is in the near cache (a duplicate); otherwise add it.
+	 */
+	private boolean addToNearCache(String key, long now) {
+		long ttl = this.timeToLive > 0 ? Math.min(this.timeToLive, this.nearCacheTimeToLive) : this.nearCacheTimeToLive;
+		Long expiry = now + ttl;
+		Long existing = this.nearCache.putIfAbsent(key, expiry);
+		if (existing != null) {
+			if (existing > now || !this.nearCache.replace(key, existing, expiry)) {
+				return false;
+			}
+		}
+		else if (this.nearCache.size() > this.nearCacheSize) {
+			evict(now);
+		}
+		return true;
+	}
+
+	private void evict(long now) {
+		if (this.evicting.compareAndSet(false, true)) {
+			try {
+				this.nearCache.values().removeIf(expiry -> expiry <= now);
+				Iterator<String> iterator = this.nearCache.keySet().iterator();
+				while (this.nearCache.size() > this.nearCacheSize && iterator.hasNext()) {
+					iterator.next();
+					iterator.remove();
+				}
+			}
+			finally {
+				this.evicting.set(false);
+			}
+		}
 	}
 
 }
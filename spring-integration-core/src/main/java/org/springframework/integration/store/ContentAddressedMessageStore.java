@@ -0,0 +1,308 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.store;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestInputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.locks.Lock;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.integration.metadata.ConcurrentMetadataStore;
+import org.springframework.integration.metadata.SimpleMetadataStore;
+import org.springframework.integration.support.MutableMessage;
+import org.springframework.integration.support.locks.DefaultLockRegistry;
+import org.springframework.integration.support.locks.LockRegistry;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.MessagingException;
+import org.springframework.util.Assert;
+import org.springframework.util.StreamUtils;
+
+/**
+ * A {@link MessageStore} decorator which stores the payloads of the messages under an id
+ * derived from their content (a SHA-256 digest of the payload type and content), for
+ * example for a {@code ClaimCheckInTransformer}. Identical payloads are stored only once;
+ * the stored message has no headers other than the content id, so the headers of the
+ * claim-check message are the ones that are kept.
+ * <p>
+ * The number of references to each payload is counted, and a payload is removed from the
+ * delegate store when the last reference is removed (for example by a
+ * {@code ClaimCheckOutTransformer} with {@code removeMessage = true}). The counts are
+ * kept in a {@link ConcurrentMetadataStore}, updated while holding a lock for the
+ * content id, obtained from a {@link LockRegistry}; when the delegate store is shared
+ * between applications, use a shared metadata store and a distributed lock registry.
+ * <p>
+ * <b>The counts must be as durable as the payloads.</b> With the default in-memory
+ * {@link SimpleMetadataStore}, the counts are lost on restart while a persistent
+ * delegate store still holds the payloads, so the first removal after the restart would
+ * delete a payload that other claim checks still refer to. A metadata store must
+ * therefore be provided when the delegate is not a {@link SimpleMessageStore};
+ * {@link #afterPropertiesSet()} fails otherwise.
+ * <p>
+ * {@code byte[]}, {@code String} and {@link Serializable} payloads are supported; the
+ * serialized form of the latter is digested as it is written, without an intermediate
+ * {@code byte[]}. An {@link InputStream} payload is read (and digested) in one pass, and
+ * stored as a {@code byte[]}.
+ * <p>
+ * The digest of a {@link Serializable} payload is that of its {@link ObjectOutputStream}
+ * bytes, so equal objects are only stored once if they serialize identically; for
+ * example, two equal {@code HashMap}s with different capacities or insertion histories
+ * may iterate (and serialize) their entries in a different order, and then get different
+ * content ids. The payloads are still stored and checked out correctly, just not shared.
+ *
+ * @since 5.1
+ */
+public class ContentAddressedMessageStore implements MessageStore, InitializingBean {
+
+	private static final String KEY_PREFIX = "contentAddressedMessageStore.";
+
+	private static final OutputStream DISCARD = new OutputStream() {
+
+		@Override
+		public void write(int b) {
+			// discard
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			// discard
+		}
+
+	};
+
+	private static final ThreadLocal<MessageDigest> digests = ThreadLocal.withInitial(() -> {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		}
+		catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	});
+
+	private final MessageStore delegate;
+
+	private ConcurrentMetadataStore metadataStore = new SimpleMetadataStore();
+
+	private boolean metadataStoreSet;
+
+	private LockRegistry lockRegistry = new DefaultLockRegistry();
+
+	/**
+	 * Construct an instance which stores the payloads in the provided store.
+	 * @param delegate the store.
+	 */
+	public ContentAddressedMessageStore(MessageStore delegate) {
+		Assert.notNull(delegate, "'delegate' cannot be null");
+		this.delegate = delegate;
+	}
+
+	/**
+	 * Construct an instance which stores the payloads in the provided store and the
+	 * reference counts in the provided metadata store.
+	 * @param delegate the store.
+	 * @param metadataStore the metadata store for the reference counts.
+	 */
+	public ContentAddressedMessageStore(MessageStore delegate, ConcurrentMetadataStore metadataStore) {
+		this(delegate);
+		setMetadataStore(metadataStore);
+	}
+
+	/**
+	 * Set the metadata store for the reference counts; default an in-memory
+	 * {@link SimpleMetadataStore}, which is only allowed with a {@link SimpleMessageStore}
+	 * delegate.
+	 * @param metadataStore the metadata store.
+	 */
+	public void setMetadataStore(ConcurrentMetadataStore metadataStore) {
+		Assert.notNull(metadataStore, "'metadataStore' cannot be null");
+		this.metadataStore = metadataStore;
+		this.metadataStoreSet = true;
+	}
+
+	/**
+	 * Set the lock registry used while updating the reference counts; default a
+	 * {@link DefaultLockRegistry}.
+	 * @param lockRegistry the lock registry.
+	 */
+	public void setLockRegistry(LockRegistry lockRegistry) {
+		Assert.notNull(lockRegistry, "'lockRegistry' cannot be null");
+		this.lockRegistry = lockRegistry;
+	}
+
+	@Override
+	public void afterPropertiesSet() {
+		Assert.state(this.metadataStoreSet || this.delegate instanceof SimpleMessageStore,
+				"A 'metadataStore' must be provided for the reference counts when the delegate is not a "
+						+ "SimpleMessageStore; the default in-memory counts are lost on restart, while the payloads "
+						+ "are not");
+	}
+
+	@Override
+	public Message<?> getMessage(UUID id) {
+		return this.delegate.getMessage(id);
+	}
+
+	@Override
+	public MessageMetadata getMessageMetadata(UUID id) {
+		return this.delegate.getMessageMetadata(id);
+	}
+
+	/**
+	 * Store the payload of the message, if an identical payload is not already stored,
+	 * and increment its reference count.
+	 * @param message the message.
+	 * @param <T> the payload type.
+	 * @return a message with the payload, whose id is the content id.
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> Message<T> addMessage(Message<T> message) {
+		Assert.notNull(message, "'message' cannot be null");
+		Object payload = message.getPayload();
+		MessageDigest digest = digests.get();
+		digest.reset();
+		try {
+			if (payload instanceof InputStream) {
+				updateType(digest, byte[].class);
+				try (InputStream inputStream = (InputStream) payload) {
+					payload = StreamUtils.copyToByteArray(new DigestInputStream(inputStream, digest));
+				}
+			}
+			else if (payload instanceof byte[]) {
+				updateType(digest, byte[].class);
+				digest.update((byte[]) payload);
+			}
+			else if (payload instanceof String) {
+				updateType(digest, String.class);
+				digest.update(((String) payload).getBytes(StandardCharsets.UTF_8));
+			}
+			else if (payload instanceof Serializable) {
+				updateType(digest, Serializable.class);
+				try (ObjectOutputStream out = new ObjectOutputStream(new DigestOutputStream(DISCARD, digest))) {
+					out.writeObject(payload);
+				}
+			}
+			else {
+				throw new MessageStoreException(message, "Only byte[], String, InputStream and Serializable "
+						+ "payloads can be stored by content, not: " + payload.getClass().getName());
+			}
+		}
+		catch (IOException e) {
+			throw new MessageStoreException(message, "Failed to digest the payload", e);
+		}
+		UUID id = toUuid(digest.digest());
+		Message<Object> stored = new MutableMessage<>(payload, Collections.singletonMap(MessageHeaders.ID, id));
+		Lock lock = this.lockRegistry.obtain(id);
+		try {
+			lock.lockInterruptibly();
+			try {
+				String key = KEY_PREFIX + id;
+				String count = this.metadataStore.get(key);
+				if (count == null) {
+					this.delegate.addMessage(stored);
+					count = "0";
+				}
+				this.metadataStore.put(key, Long.toString(Long.parseLong(count) + 1));
+			}
+			finally {
+				lock.unlock();
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new MessagingException("Interrupted while obtaining lock", e);
+		}
+		return (Message<T>) stored;
+	}
+
+	/**
+	 * Decrement the reference count of the payload and remove it from the delegate store
+	 * if this was the last reference.
+	 * @param id the content id.
+	 * @return the stored message, or null if there is no payload with that id.
+	 */
+	@Override
+	public Message<?> removeMessage(UUID id) {
+		Lock lock = this.lockRegistry.obtain(id);
+		try {
+			lock.lockInterruptibly();
+			try {
+				String key = KEY_PREFIX + id;
+				String count = this.metadataStore.get(key);
+				long remaining = count == null ? 0 : Long.parseLong(count) - 1;
+				if (remaining > 0) {
+					this.metadataStore.put(key, Long.toString(remaining));
+					return this.delegate.getMessage(id);
+				}
+				else {
+					this.metadataStore.remove(key);
+					return this.delegate.removeMessage(id);
+				}
+			}
+			finally {
+				lock.unlock();
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new MessagingException("Interrupted while obtaining lock", e);
+		}
+	}
+
+	/**
+	 * Return the number of references to the payload with this id.
+	 * @param id the content id.
+	 * @return the count.
+	 */
+	public long getReferenceCount(UUID id) {
+		String count = this.metadataStore.get(KEY_PREFIX + id);
+		return count == null ? 0 : Long.parseLong(count);
+	}
+
+	@Override
+	public long getMessageCount() {
+		return this.delegate.getMessageCount();
+	}
+
+	private static void updateType(MessageDigest digest, Class<?> type) {
+		digest.update(type.getName().getBytes(StandardCharsets.UTF_8));
+		digest.update((byte) 0);
+	}
+
+	private static UUID toUuid(byte[] digest) {
+		long msb = 0;
+		long lsb = 0;
+		for (int i = 0; i < 8; i++) {
+			msb = (msb << 8) | (digest[i] & 0xff);
+		}
+		for (int i = 8; i < 16; i++) {
+			lsb = (lsb << 8) | (digest[i] & 0xff);
+		}
+		return new UUID(msb, lsb);
+	}
+
+}
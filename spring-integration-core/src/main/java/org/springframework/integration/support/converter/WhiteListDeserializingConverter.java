@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2017 the original author or authors.
+ * Copyright 2002-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,6 +18,7 @@ package org.springframework.integration.support.converter;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectStreamClass;
 import java.util.Collections;
@@ -141,7 +142,42 @@ public class WhiteListDeserializingConverter implements Converter<byte[], Object
 		}
 	}
 
+	/**
+	 * Convert the data in an {@link InputStream} to an object, without copying it to a
+	 * byte array first.
+	 * @param source the stream.
+	 * @return the object.
+	 * @since 5.1
+	 */
+	public Object convert(InputStream source) {
+		try {
+			if (this.usingDefaultDeserializer) {
+				return deserialize(source);
+			}
+			else {
+				return this.deserializer.deserialize(source);
+			}
+		}
+		catch (Throwable ex) {
+			throw new SerializationFailedException("Failed to deserialize payload. " +
+					"Is the stream a result of corresponding serialization for " +
+					this.deserializer.getClass().getSimpleName() + "?", ex);
+		}
+	}
+
 	protected Object deserialize(ByteArrayInputStream inputStream) throws IOException {
+		return deserialize((InputStream) inputStream);
+	}
+
+	/**
+	 * Deserialize an object from the stream with the default deserializer, applying the
+	 * white list.
+	 * @param inputStream the stream.
+	 * @return the object.
+	 * @throws IOException if the object cannot be deserialized.
+	 * @since 5.1
+	 */
+	protected Object deserialize(InputStream inputStream) throws IOException {
 		try {
 			ObjectInputStream objectInputStream = new ConfigurableObjectInputStream(inputStream,
 					this.defaultDeserializerClassLoader) {
@@ -1,5 +1,5 @@
 /*
- * Copyright 2013-2017 the original author or authors.
+ * Copyright 2013-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -21,12 +21,14 @@ import java.io.InputStream;
 import java.io.Reader;
 import java.lang.reflect.Type;
 import java.net.URL;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Map;
 
 import org.springframework.beans.factory.BeanClassLoaderAware;
 import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
 
 /**
  * Base class for Jackson {@link JsonObjectMapper} implementations.
@@ -43,13 +45,17 @@ public abstract class AbstractJacksonJsonObjectMapper<N, P, J> extends JsonObjec
 		implements BeanClassLoaderAware {
 
 	protected static final Collection<Class<?>> supportedJsonTypes =
-			Arrays.<Class<?>>asList(String.class, byte[].class, File.class, URL.class, InputStream.class, Reader.class);
+			Arrays.<Class<?>>asList(String.class, byte[].class, ByteBuffer.class, File.class, URL.class,
+					InputStream.class, Reader.class);
+
+	private final Map<String, Class<?>> resolvedClasses = new ConcurrentReferenceHashMap<>();
 
 	private volatile ClassLoader classLoader = ClassUtils.getDefaultClassLoader();
 
 	@Override
 	public void setBeanClassLoader(ClassLoader classLoader) {
 		this.classLoader = classLoader;
+		this.resolvedClasses.clear();
 	}
 
 	protected ClassLoader getClassLoader() {
@@ -78,7 +84,12 @@ public abstract class AbstractJacksonJsonObjectMapper<N, P, J> extends JsonObjec
 				aClass = (Class<?>) classValue;
 			}
 			else {
-				aClass = ClassUtils.forName(classValue.toString(), this.classLoader);
+				String className = classValue.toString();
+				aClass = this.resolvedClasses.get(className);
+				if (aClass == null) {
+					aClass = ClassUtils.forName(className, this.classLoader);
+					this.resolvedClasses.put(className, aClass);
+				}
 			}
 
 			return this.constructType(aClass);
@@ -1,5 +1,5 @@
 /*
- * Copyright 2013-2017 the original author or authors.
+ * Copyright 2013-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -22,6 +22,7 @@ import java.io.Reader;
 import java.io.Writer;
 import java.lang.reflect.Type;
 import java.net.URL;
+import java.nio.ByteBuffer;
 import java.util.Collection;
 import java.util.Map;
 
@@ -29,6 +30,7 @@ import org.springframework.beans.BeanUtils;
 import org.springframework.integration.mapping.support.JsonHeaders;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
 
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.DeserializationFeature;
@@ -37,6 +39,9 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.MapperFeature;
 import com.fasterxml.jackson.databind.Module;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
 
 /**
  * Jackson 2 JSON-processor (@link https://github.com/FasterXML)
@@ -50,6 +55,11 @@ import com.fasterxml.jackson.databind.ObjectMapper;
  * <li>{@link DeserializationFeature#FAIL_ON_UNKNOWN_PROPERTIES} is disabled</li>
  * <li>The well-known modules are registered through the classpath scan</li>
  * </ul>
+ * <p>
+ * Since version 5.1, an {@link ObjectReader} and an {@link ObjectWriter} are created
+ * (and cached) for each type being converted, so the root (de)serializer is not looked
+ * up for each conversion; as a consequence, the {@link ObjectMapper} must be fully
+ * configured before the first conversion.
  *
  * See {@code org.springframework.http.converter.json.Jackson2ObjectMapperBuilder}
  * in the spring-web for more information.
@@ -64,6 +74,10 @@ public class Jackson2JsonObjectMapper extends AbstractJacksonJsonObjectMapper<Js
 
 	private final ObjectMapper objectMapper;
 
+	private final Map<JavaType, ObjectReader> readers = new ConcurrentReferenceHashMap<>();
+
+	private final Map<Class<?>, ObjectWriter> writers = new ConcurrentReferenceHashMap<>();
+
 	public Jackson2JsonObjectMapper() {
 		this.objectMapper = new ObjectMapper();
 		this.objectMapper.configure(MapperFeature.DEFAULT_VIEW_INCLUSION, false);
@@ -82,12 +96,22 @@ public class Jackson2JsonObjectMapper extends AbstractJacksonJsonObjectMapper<Js
 
 	@Override
 	public String toJson(Object value) throws Exception {
-		return this.objectMapper.writeValueAsString(value);
+		return writerFor(value).writeValueAsString(value);
 	}
 
 	@Override
 	public void toJson(Object value, Writer writer) throws Exception {
-		this.objectMapper.writeValue(writer, value);
+		writerFor(value).writeValue(writer, value);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>The value is encoded directly into a byte array, without an intermediate
+	 * {@code String}, using the buffers recycled by Jackson.
+	 */
+	@Override
+	public byte[] toJsonBytes(Object value) throws Exception {
+		return writerFor(value).writeValueAsBytes(value);
 	}
 
 	@Override
@@ -97,23 +121,33 @@ public class Jackson2JsonObjectMapper extends AbstractJacksonJsonObjectMapper<Js
 
 	@Override
 	protected <T> T fromJson(Object json, JavaType type) throws Exception {
+		ObjectReader reader = this.readers.computeIfAbsent(type, this.objectMapper::readerFor);
 		if (json instanceof String) {
-			return this.objectMapper.readValue((String) json, type);
+			return reader.readValue((String) json);
 		}
 		else if (json instanceof byte[]) {
-			return this.objectMapper.readValue((byte[]) json, type);
+			return reader.readValue((byte[]) json);
+		}
+		else if (json instanceof ByteBuffer) {
+			ByteBuffer buffer = (ByteBuffer) json;
+			if (buffer.hasArray()) {
+				return reader.readValue(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+			}
+			else {
+				return reader.readValue(new ByteBufferBackedInputStream(buffer.duplicate()));
+			}
 		}
 		else if (json instanceof File) {
-			return this.objectMapper.readValue((File) json, type);
+			return reader.readValue((File) json);
 		}
 		else if (json instanceof URL) {
-			return this.objectMapper.readValue((URL) json, type);
+			return reader.readValue((URL) json);
 		}
 		else if (json instanceof InputStream) {
-			return this.objectMapper.readValue((InputStream) json, type);
+			return reader.readValue((InputStream) json);
 		}
 		else if (json instanceof Reader) {
-			return this.objectMapper.readValue((Reader) json, type);
+			return reader.readValue((Reader) json);
 		}
 		else {
 			throw new IllegalArgumentException("'json' argument must be an instance of: " + supportedJsonTypes
@@ -150,6 +184,13 @@ public class Jackson2JsonObjectMapper extends AbstractJacksonJsonObjectMapper<Js
 		return this.objectMapper.constructType(type);
 	}
 
+	private ObjectWriter writerFor(Object value) {
+		if (value == null) {
+			return this.objectMapper.writer();
+		}
+		return this.writers.computeIfAbsent(value.getClass(), this.objectMapper::writerFor);
+	}
+
 	@SuppressWarnings("unchecked")
 	private void registerWellKnownModulesIfAvailable() {
 		try {
@@ -1,5 +1,5 @@
 /*
- * Copyright 2013-2014 the original author or authors.
+ * Copyright 2013-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,8 +16,11 @@
 
 package org.springframework.integration.support.json;
 
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
 
 /**
@@ -27,6 +30,7 @@ import java.util.Map;
  * @param <P> - The expected type of JSON Parser.
  *
  * @author Artem Bilan
+ *
  * @since 3.0
  *
  */
@@ -36,6 +40,23 @@ public interface JsonObjectMapper<N, P> {
 
 	void toJson(Object value, Writer writer) throws Exception;
 
+	/**
+	 * Convert the value to its UTF-8 encoded JSON representation. The default
+	 * implementation writes the value through {@link #toJson(Object, Writer)};
+	 * implementations should write the bytes directly.
+	 * @param value the value.
+	 * @return the JSON bytes.
+	 * @throws Exception if the conversion fails.
+	 * @since 5.1
+	 */
+	default byte[] toJsonBytes(Object value) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+		toJson(value, writer);
+		writer.flush();
+		return out.toByteArray();
+	}
+
 	N toJsonNode(Object value) throws Exception;
 
 	<T> T fromJson(Object json, Class<T> valueType) throws Exception;
@@ -45,4 +66,5 @@ public interface JsonObjectMapper<N, P> {
 	<T> T fromJson(P parser, Type valueType) throws Exception;
 
 	void populateJavaTypes(Map<String, Object> map, Object object);
+
 }
@@ -19,6 +19,8 @@ package org.springframework.integration.support.management;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import org.springframework.lang.Nullable;
+
 /**
  * Abstract base class for channel metrics implementations.
  *
@@ -35,6 +37,8 @@ public abstract class AbstractMessageChannelMetrics implements ConfigurableMetri
 
 	private volatile boolean fullStatsEnabled;
 
+	private volatile LatencyHistogram sendDurationHistogram;
+
 	/**
 	 * Construct an instance with the provided name.
 	 * @param name the name.
@@ -56,6 +60,26 @@ public abstract class AbstractMessageChannelMetrics implements ConfigurableMetri
 		return this.fullStatsEnabled;
 	}
 
+	/**
+	 * Set a histogram in which to record the send durations, in addition to the
+	 * statistics, so that percentiles are available.
+	 * @param sendDurationHistogram the histogram.
+	 * @since 5.1
+	 */
+	public void setSendDurationHistogram(@Nullable LatencyHistogram sendDurationHistogram) {
+		this.sendDurationHistogram = sendDurationHistogram;
+	}
+
+	/**
+	 * Return the histogram in which the send durations are recorded, if any.
+	 * @return the histogram.
+	 * @since 5.1
+	 */
+	@Nullable
+	public LatencyHistogram getSendDurationHistogram() {
+		return this.sendDurationHistogram;
+	}
+
 	/**
 	 * Begin a send event.
 	 * @return the context to be used in a subsequent {@link #afterSend(MetricsContext, boolean)}
@@ -19,6 +19,8 @@ package org.springframework.integration.support.management;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import org.springframework.lang.Nullable;
+
 /**
  * Abstract base class for handler metrics implementations.
  *
@@ -34,6 +36,8 @@ public abstract class AbstractMessageHandlerMetrics implements ConfigurableMetri
 
 	private volatile boolean fullStatsEnabled;
 
+	private volatile LatencyHistogram durationHistogram;
+
 	public AbstractMessageHandlerMetrics(String name) {
 		this.name = name;
 	}
@@ -51,6 +55,26 @@ public abstract class AbstractMessageHandlerMetrics implements ConfigurableMetri
 		return this.fullStatsEnabled;
 	}
 
+	/**
+	 * Set a histogram in which to record the handler durations, in addition to the
+	 * statistics, so that percentiles are available.
+	 * @param durationHistogram the histogram.
+	 * @since 5.1
+	 */
+	public void setDurationHistogram(@Nullable LatencyHistogram durationHistogram) {
+		this.durationHistogram = durationHistogram;
+	}
+
+	/**
+	 * Return the histogram in which the handler durations are recorded, if any.
+	 * @return the histogram.
+	 * @since 5.1
+	 */
+	@Nullable
+	public LatencyHistogram getDurationHistogram() {
+		return this.durationHistogram;
+	}
+
 	/**
 	 * Begin a handle event.
 	 * @return the context to be used in the {@link #afterHandle(MetricsContext, boolean)}.
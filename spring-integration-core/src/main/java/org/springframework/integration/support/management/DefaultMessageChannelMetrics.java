@@ -106,17 +106,27 @@ public class DefaultMessageChannelMetrics extends AbstractMessageChannelMetrics
 			start = System.nanoTime();
 			this.sendRate.increment(start);
 		}
+		else if (getSendDurationHistogram() != null) {
+			start = System.nanoTime();
+		}
 		this.sendCount.incrementAndGet();
 		return new DefaultChannelMetricsContext(start);
 	}
 
 	@Override
 	public void afterSend(MetricsContext context, boolean result) {
+		LatencyHistogram histogram = getSendDurationHistogram();
 		if (result) {
-			if (isFullStatsEnabled()) {
+			if (isFullStatsEnabled() || histogram != null) {
 				long now = System.nanoTime();
-				this.sendSuccessRatio.success(now);
-				this.sendDuration.append(now - ((DefaultChannelMetricsContext) context).start);
+				long duration = now - ((DefaultChannelMetricsContext) context).start;
+				if (isFullStatsEnabled()) {
+					this.sendSuccessRatio.success(now);
+					this.sendDuration.append(duration);
+				}
+				if (histogram != null) {
+					histogram.record(duration);
+				}
 			}
 		}
 		else {
@@ -135,6 +145,10 @@ public class DefaultMessageChannelMetrics extends AbstractMessageChannelMetrics
 		this.sendErrorRate.reset();
 		this.sendSuccessRatio.reset();
 		this.sendRate.reset();
+		LatencyHistogram histogram = getSendDurationHistogram();
+		if (histogram != null) {
+			histogram.reset();
+		}
 		this.sendCount.set(0);
 		this.sendErrorCount.set(0);
 		this.receiveErrorCount.set(0);
@@ -66,7 +66,7 @@ public class DefaultMessageHandlerMetrics extends AbstractMessageHandlerMetrics
 	@Override
 	public MetricsContext beforeHandle() {
 		long start = 0;
-		if (isFullStatsEnabled()) {
+		if (isFullStatsEnabled() || getDurationHistogram() != null) {
 			start = System.nanoTime();
 		}
 		this.handleCount.incrementAndGet();
@@ -77,8 +77,15 @@ public class DefaultMessageHandlerMetrics extends AbstractMessageHandlerMetrics
 	@Override
 	public void afterHandle(MetricsContext context, boolean success) {
 		this.activeCount.decrementAndGet();
-		if (isFullStatsEnabled() && success) {
-			this.duration.append(System.nanoTime() - ((DefaultHandlerMetricsContext) context).start);
+		LatencyHistogram histogram = getDurationHistogram();
+		if (success && (isFullStatsEnabled() || histogram != null)) {
+			long duration = System.nanoTime() - ((DefaultHandlerMetricsContext) context).start;
+			if (isFullStatsEnabled()) {
+				this.duration.append(duration);
+			}
+			if (histogram != null) {
+				histogram.record(duration);
+			}
 		}
 		else if (!success) {
 			this.errorCount.incrementAndGet();
@@ -88,6 +95,10 @@ public class DefaultMessageHandlerMetrics extends AbstractMessageHandlerMetrics
 	@Override
 	public synchronized void reset() {
 		this.duration.reset();
+		LatencyHistogram histogram = getDurationHistogram();
+		if (histogram != null) {
+			histogram.reset();
+		}
 		this.errorCount.set(0);
 		this.handleCount.set(0);
 	}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2009-2016 the original author or authors.
+ * Copyright 2009-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,12 +16,7 @@
 
 package org.springframework.integration.support.management;
 
-import java.util.ArrayDeque;
-import java.util.ArrayList;
-import java.util.Deque;
-import java.util.List;
-
-
+import java.util.concurrent.atomic.DoubleAccumulator;
 
 /**
  * Cumulative statistics for a series of real numbers with higher weight given to recent data.
@@ -32,6 +27,9 @@ import java.util.List;
  * those trends can be approximately reflected. For performance reasons, the calculation is performed on retrieval,
  * {@code window * 5} samples are retained meaning that the earliest retained value contributes just 0.5% to the
  * sum.
+ * <p>
+ * Since 5.1, recording a measurement is lock-free: the samples are retained in a ring
+ * buffer in which each writer reserves a slot with a single atomic increment.
  *
  * @author Dave Syer
  * @author Gary Russell
@@ -39,13 +37,9 @@ import java.util.List;
  */
 public class ExponentialMovingAverage {
 
-	private volatile long count;
-
-	private volatile double min = Double.MAX_VALUE;
+	private final DoubleAccumulator min = new DoubleAccumulator(Math::min, Double.MAX_VALUE);
 
-	private volatile double max;
-
-	private final Deque<Double> samples = new ArrayDeque<Double>();
+	private final DoubleAccumulator max = new DoubleAccumulator(Math::max, 0);
 
 	private final int retention;
 
@@ -53,6 +47,7 @@ public class ExponentialMovingAverage {
 
 	private final double factor;
 
+	private volatile SampleBuffer samples;
 
 	/**
 	 * Create a moving average accumulator with decay lapse window provided. Measurements older than this will have
@@ -75,42 +70,35 @@ public class ExponentialMovingAverage {
 		this.window = window;
 		this.retention = window * 5; // last retained value contributes just 0.5% to the sum
 		this.factor = factor;
+		this.samples = new SampleBuffer(this.retention);
 	}
 
-	public synchronized void reset() {
-		this.count = 0;
-		this.min = Double.MAX_VALUE;
-		this.max = 0;
-		this.samples.clear();
+	public void reset() {
+		this.samples = new SampleBuffer(this.retention);
+		this.min.reset();
+		this.max.reset();
 	}
 
 	/**
 	 * Add a new measurement to the series.
 	 * @param value the measurement to append
 	 */
-	public synchronized void append(double value) {
-		if (this.samples.size() == this.retention) {
-			this.samples.poll();
-		}
-		this.samples.add(value);
-		this.count++; //NOSONAR - false positive, we're synchronized
+	public void append(double value) {
+		this.samples.add(Double.doubleToRawLongBits(value));
 	}
 
 	private Statistics calc() {
-		List<Double> copy;
-		long count;
-		synchronized (this) {
-			copy = new ArrayList<Double>(this.samples);
-			count = this.count;
-		}
+		SampleBuffer samples = this.samples;
+		long count = samples.count();
+		long[] copy = samples.snapshot();
 		double sum = 0;
 		double decay = 1 - 1. / this.window;
 		double sumSquares = 0;
 		double weight = 0;
-		double min = this.min;
-		double max = this.max;
-		for (Double value : copy) {
-			value /= this.factor;
+		double min = this.min.get();
+		double max = this.max.get();
+		for (long bits : copy) {
+			double value = Double.longBitsToDouble(bits) / this.factor;
 			if (value > max) {
 				max = value;
 			}
@@ -121,14 +109,8 @@ public class ExponentialMovingAverage {
 			sumSquares = decay * sumSquares + value * value;
 			weight = decay * weight + 1;
 		}
-		synchronized (this) {
-			if (max > this.max) {
-				this.max = max;
-			}
-			if (min < this.min) {
-				this.min = min;
-			}
-		}
+		this.max.accumulate(max);
+		this.min.accumulate(min);
 		double mean = weight > 0 ? sum / weight : 0.;
 		double var = weight > 0 ? sumSquares / weight - mean * mean : 0.;
 		double standardDeviation =  var > 0 ? Math.sqrt(var) : 0;
@@ -139,14 +121,14 @@ public class ExponentialMovingAverage {
 	 * @return the number of measurements recorded
 	 */
 	public int getCount() {
-		return (int) this.count;
+		return (int) this.samples.count();
 	}
 
 	/**
 	 * @return the number of measurements recorded
 	 */
 	public long getCountLong() {
-		return this.count;
+		return this.samples.count();
 	}
 
 	/**
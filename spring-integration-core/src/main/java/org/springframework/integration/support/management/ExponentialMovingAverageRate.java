@@ -1,5 +1,5 @@
 /*
- * Copyright 2009-2017 the original author or authors.
+ * Copyright 2009-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,11 +16,7 @@
 
 package org.springframework.integration.support.management;
 
-import java.util.ArrayDeque;
-import java.util.ArrayList;
-import java.util.Deque;
-import java.util.List;
-
+import java.util.concurrent.atomic.DoubleAccumulator;
 
 /**
  * Cumulative statistics for an event rate with higher weight given to recent data.
@@ -36,7 +32,7 @@ import java.util.List;
  * </ul>
  * For performance reasons, the calculation is performed on retrieval,
  * {@code window * 5} samples are retained meaning that the earliest retained value contributes just 0.5% to the
- * sum.
+ * sum. Since 5.1, recording an event is lock-free.
  * @author Dave Syer
  * @author Gary Russell
  * @author Steven Swor
@@ -44,26 +40,24 @@ import java.util.List;
  */
 public class ExponentialMovingAverageRate {
 
-	private volatile double min = Double.MAX_VALUE;
-
-	private volatile double max;
-
-	private volatile double t0;
+	private final DoubleAccumulator min = new DoubleAccumulator(Math::min, Double.MAX_VALUE);
 
-	private volatile long count;
+	private final DoubleAccumulator max = new DoubleAccumulator(Math::max, 0);
 
 	private final double lapse;
 
 	private final double period;
 
-	private final Deque<Long> times = new ArrayDeque<Long>();
-
 	private final int retention;
 
 	private final int window;
 
 	private final double factor;
 
+	private volatile double t0;
+
+	private volatile SampleBuffer times;
+
 
 	/**
 	 * @param period the period to base the rate measurement (in seconds)
@@ -88,21 +82,21 @@ public class ExponentialMovingAverageRate {
 		this.retention = window * 5;
 		this.factor = millis ? 1000000 : 1;
 		this.t0 = System.nanoTime() / this.factor;
+		this.times = new SampleBuffer(this.retention);
 	}
 
 
-	public synchronized void reset() {
-		this.min = Double.MAX_VALUE;
-		this.max = 0;
-		this.count = 0;
-		this.times.clear();
+	public void reset() {
 		this.t0 = System.nanoTime() / this.factor;
+		this.times = new SampleBuffer(this.retention);
+		this.min.reset();
+		this.max.reset();
 	}
 
 	/**
 	 * Add a new event to the series.
 	 */
-	public synchronized void increment() {
+	public void increment() {
 		increment(System.nanoTime());
 	}
 
@@ -110,29 +104,22 @@ public class ExponentialMovingAverageRate {
 	 * Add a new event to the series at time t.
 	 * @param t a new event to the series (System.nanoTime()).
 	 */
-	public synchronized void increment(long t) {
-		if (this.times.size() == this.retention) {
-			this.times.poll();
-		}
+	public void increment(long t) {
 		this.times.add(t);
-		this.count++; //NOSONAR - false positive, we're synchronized
 	}
 
 	private Statistics calcStatic() {
-		List<Long> copy;
-		long count;
-		synchronized (this) {
-			copy = new ArrayList<Long>(this.times);
-			count = this.count;
-		}
+		SampleBuffer times = this.times;
+		long count = times.count();
+		long[] copy = times.snapshot();
 		ExponentialMovingAverage rates = new ExponentialMovingAverage(this.window);
 		double t0 = 0;
 		double sum = 0;
 		double weight = 0;
-		double min = this.min;
-		double max = this.max;
-		int size = copy.size();
-		for (Long time : copy) {
+		double min = this.min.get();
+		double max = this.max.get();
+		int size = copy.length;
+		for (long time : copy) {
 			double t = time / this.factor;
 			if (size == 1) {
 				t0 = this.t0;
@@ -155,14 +142,8 @@ public class ExponentialMovingAverageRate {
 			weight = alpha * weight + 1;
 			rates.append(sum > 0 ? weight / sum : 0);
 		}
-		synchronized (this) {
-			if (max > this.max) {
-				this.max = max;
-			}
-			if (min < this.min) {
-				this.min = min;
-			}
-		}
+		this.max.accumulate(max);
+		this.min.accumulate(min);
 		return new Statistics(count, min < Double.MAX_VALUE ? min : 0, max, rates.getMean(),
 				rates.getStandardDeviation());
 	}
@@ -171,7 +152,7 @@ public class ExponentialMovingAverageRate {
 	 * @return the number of measurements recorded
 	 */
 	public int getCount() {
-		return (int) this.count;
+		return (int) this.times.count();
 	}
 
 	/**
@@ -179,14 +160,14 @@ public class ExponentialMovingAverageRate {
 	 * @since 3.0
 	 */
 	public long getCountLong() {
-		return this.count;
+		return this.times.count();
 	}
 
 	/**
 	 * @return the time in milliseconds since the last measurement
 	 */
 	public double getTimeSinceLastMeasurement() {
-		if (this.count == 0) {
+		if (this.times.count() == 0) {
 			return 0;
 		}
 		double t0 = lastTime();
@@ -206,7 +187,7 @@ public class ExponentialMovingAverageRate {
 	 * @return the new mean.
 	 */
 	private double recalcMean(Statistics staticStats) {
-		long count = this.count;
+		long count = this.times.count();
 		count = count > this.retention ? this.retention : count;
 		if (count == 0) {
 			return 0;
@@ -217,13 +198,10 @@ public class ExponentialMovingAverageRate {
 		return count / (count / staticStats.getMean() + value);
 	}
 
-	private synchronized double lastTime() {
-		if (this.times.size() > 0) {
-			return this.times.peekLast() / this.factor;
-		}
-		else {
-			return this.t0;
-		}
+	private double lastTime() {
+		double t0 = this.t0;
+		SampleBuffer times = this.times;
+		return times.count() > 0 ? times.last((long) (t0 * this.factor)) / this.factor : t0;
 	}
 
 	/**
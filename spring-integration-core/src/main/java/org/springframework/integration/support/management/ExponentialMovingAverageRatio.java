@@ -1,5 +1,5 @@
 /*
- * Copyright 2009-2017 the original author or authors.
+ * Copyright 2009-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,13 +16,7 @@
 
 package org.springframework.integration.support.management;
 
-import java.util.ArrayDeque;
-import java.util.ArrayList;
-import java.util.Deque;
-import java.util.Iterator;
-import java.util.List;
-
-
+import java.util.concurrent.atomic.DoubleAccumulator;
 
 /**
  * Cumulative statistics for success ratio with higher weight given to recent data.
@@ -37,7 +31,8 @@ import java.util.List;
  * </ul>
  * For performance reasons, the calculation is performed on retrieval,
  * {@code window * 5} samples are retained meaning that the earliest retained value contributes just 0.5% to the
- * sum.
+ * sum. Since 5.1, recording an event is lock-free; the time and outcome of each event
+ * are retained together in a single {@code long}.
  * @author Dave Syer
  * @author Gary Russell
  * @author Steven Swor
@@ -45,26 +40,22 @@ import java.util.List;
  */
 public class ExponentialMovingAverageRatio {
 
-	private volatile double t0;
-
-	private volatile long count;
+	private final DoubleAccumulator min = new DoubleAccumulator(Math::min, Double.MAX_VALUE);
 
-	private volatile double min = Double.MAX_VALUE;
-
-	private volatile double max;
+	private final DoubleAccumulator max = new DoubleAccumulator(Math::max, 0);
 
 	private final double lapse;
 
-	private final Deque<Long> times = new ArrayDeque<Long>();
-
-	private final Deque<Integer> values = new ArrayDeque<Integer>();
-
 	private final int retention;
 
 	private final int window;
 
 	private final double factor;
 
+	private volatile double t0;
+
+	private volatile SampleBuffer events;
+
 	/**
 	 * @param lapsePeriod the exponential lapse rate for the rate average (in seconds)
 	 * @param window the exponential lapse window (number of measurements)
@@ -85,6 +76,7 @@ public class ExponentialMovingAverageRatio {
 		this.retention = window * 5;
 		this.factor = millis ? 1000000 : 1;
 		this.t0 = System.nanoTime() / this.factor;
+		this.events = new SampleBuffer(this.retention);
 	}
 
 
@@ -118,55 +110,40 @@ public class ExponentialMovingAverageRatio {
 		append(0, t);
 	}
 
-	public synchronized void reset() {
+	public void reset() {
 		this.t0 = System.nanoTime() / this.factor;
-		this.times.clear();
-		this.values.clear();
-		this.count = 0;
-		this.max = 0;
-		this.min = Double.MAX_VALUE;
+		this.events = new SampleBuffer(this.retention);
+		this.min.reset();
+		this.max.reset();
 	}
 
-	private synchronized void append(int value, long t) {
-		if (this.times.size() == this.retention) {
-			this.times.poll();
-			this.values.poll();
-		}
-		this.times.add(t);
-		this.values.add(value);
-		this.count++; //NOSONAR - false positive, we're synchronized
+	private void append(int value, long t) {
+		this.events.add((t << 1) | value);
 	}
 
 	private Statistics calcStatic() {
-		List<Long> copyTimes;
-		List<Integer> copyValues;
-		long count;
-		synchronized (this) {
-			copyTimes = new ArrayList<Long>(this.times);
-			copyValues = new ArrayList<Integer>(this.values);
-			count = this.count;
-		}
+		SampleBuffer events = this.events;
+		long count = events.count();
+		long[] copy = events.snapshot();
 		ExponentialMovingAverage cumulative = new ExponentialMovingAverage(this.window);
 		double t0 = 0;
 		double sum = 0;
 		double weight = 0;
-		double min = this.min;
-		double max = this.max;
-		int size = copyTimes.size();
-		Iterator<Integer> values = copyValues.iterator();
-		for (Long time : copyTimes) {
-			double t = time / this.factor;
+		double min = this.min.get();
+		double max = this.max.get();
+		int size = copy.length;
+		for (long event : copy) {
+			double t = (event >> 1) / this.factor;
 			if (size == 1) {
 				t0 = this.t0;
 			}
 			else if (t0 == 0) {
 				t0 = t;
-				values.next();
 				continue;
 			}
 			double alpha = Math.exp((t0 - t) * this.lapse);
 			t0 = t;
-			sum = alpha * sum + values.next();
+			sum = alpha * sum + (event & 1);
 			weight = alpha * weight + 1;
 			double value = sum / weight;
 			if (value > max) {
@@ -177,14 +154,8 @@ public class ExponentialMovingAverageRatio {
 			}
 			cumulative.append(value);
 		}
-		synchronized (this) {
-			if (max > this.max) {
-				this.max = max;
-			}
-			if (min < this.min) {
-				this.min = min;
-			}
-		}
+		this.max.accumulate(max);
+		this.min.accumulate(min);
 		return new Statistics(count, min < Double.MAX_VALUE ? min : 0, max, cumulative.getMean(),
 				cumulative.getStandardDeviation());
 	}
@@ -193,14 +164,14 @@ public class ExponentialMovingAverageRatio {
 	 * @return the number of measurements recorded
 	 */
 	public int getCount() {
-		return (int) this.count;
+		return (int) this.events.count();
 	}
 
 	/**
 	 * @return the number of measurements recorded
 	 */
 	public long getCountLong() {
-		return this.count;
+		return this.events.count();
 	}
 
 	/**
@@ -215,7 +186,7 @@ public class ExponentialMovingAverageRatio {
 	 * @return the mean success rate
 	 */
 	public double getMean() {
-		if (this.count == 0) {
+		if (this.events.count() == 0) {
 			// Optimistic to start: success rate is 100%
 			return 1;
 		}
@@ -234,12 +205,14 @@ public class ExponentialMovingAverageRatio {
 		return alpha * mean + 1 - alpha;
 	}
 
-	private synchronized double lastTime() {
-		if (this.times.size() > 0) {
-			return this.times.peekLast();
+	private double lastTime() {
+		double t0 = this.t0;
+		SampleBuffer events = this.events;
+		if (events.count() > 0) {
+			return events.last((long) (t0 * this.factor) << 1) >> 1;
 		}
 		else {
-			return this.t0 * this.factor;
+			return t0 * this.factor;
 		}
 	}
 
@@ -0,0 +1,500 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.support.management;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.util.Assert;
+
+/**
+ * A low-overhead recorder of latencies (in nanoseconds) from which percentiles can be
+ * obtained, so that the tail latency is visible in addition to the mean, min and max
+ * provided by {@link Statistics}.
+ * <p>
+ * Values are counted in log-linear buckets (in the style of HdrHistogram): values below
+ * {@code 2^precisionBits} are counted exactly and larger values with a relative error of
+ * at most {@code 2^(1 - precisionBits)} - about 3% with the default 5 bits.
+ * <p>
+ * Recording is wait-free: a writer increments a bucket of the active interval within a
+ * writer/reader phase. A {@link #snapshot()} swaps in a fresh interval and waits for the
+ * writers of the previous phase to complete before reading it, so readers never block
+ * writers. The intervals are accumulated; with {@code intervalReset}, each
+ * {@link #snapshot()} only contains the values recorded since the previous one.
+ * <p>
+ * Since the interval of {@link #snapshot()} is shared, it should have a single consumer
+ * (the JMX attributes of the component, when configured by the
+ * {@code IntegrationManagementConfigurer}). Any other consumer that needs its own
+ * intervals must obtain a {@link #newReader() Reader}, or use {@link #peek()}.
+ *
+ * @since 5.1
+ */
+public class LatencyHistogram {
+
+	/**
+	 * The default percentiles (50%, 90%, 99% and 99.9%).
+	 */
+	public static final double[] DEFAULT_PERCENTILES = { 0.5, 0.9, 0.99, 0.999 };
+
+	private static final int DEFAULT_PRECISION_BITS = 5;
+
+	private static final long DEFAULT_HIGHEST_TRACKABLE_VALUE = TimeUnit.MINUTES.toNanos(10);
+
+	private static final double NANOS_PER_MILLI = 1000000.;
+
+	private final AtomicLong startEpoch = new AtomicLong();
+
+	private final AtomicLong evenEndEpoch = new AtomicLong();
+
+	private final AtomicLong oddEndEpoch = new AtomicLong(Long.MIN_VALUE);
+
+	private final int precisionBits;
+
+	private final int subBucketCount;
+
+	private final int subBucketHalfCount;
+
+	private final int bucketCount;
+
+	private final double[] percentiles;
+
+	private final boolean intervalReset;
+
+	private final long[] accumulatedCounts;
+
+	private final List<Reader> readers = new ArrayList<>();
+
+	private final Reader defaultReader;
+
+	private long accumulatedSum;
+
+	private long accumulatedMax;
+
+	private Interval inactive;
+
+	private volatile Interval active;
+
+	/**
+	 * Construct an instance that reports the {@link #DEFAULT_PERCENTILES} accumulated
+	 * since it was created (or {@link #reset()}).
+	 */
+	public LatencyHistogram() {
+		this(DEFAULT_PERCENTILES, false);
+	}
+
+	/**
+	 * Construct an instance that reports the provided percentiles, with values up to 10
+	 * minutes tracked with the default precision.
+	 * @param percentiles the percentiles to report, each between 0 and 1.
+	 * @param intervalReset true to report only the values recorded since the previous
+	 * snapshot.
+	 */
+	public LatencyHistogram(double[] percentiles, boolean intervalReset) {
+		this(percentiles, intervalReset, DEFAULT_HIGHEST_TRACKABLE_VALUE, DEFAULT_PRECISION_BITS);
+	}
+
+	/**
+	 * Construct an instance with the provided properties.
+	 * @param percentiles the percentiles to report, each between 0 and 1.
+	 * @param intervalReset true to report only the values recorded since the previous
+	 * snapshot.
+	 * @param highestTrackableValue the highest value (in nanoseconds) counted in its own
+	 * bucket; higher values are counted in the last bucket (but still reported as the max).
+	 * @param precisionBits the number of significant bits of the buckets (2 to 16).
+	 */
+	public LatencyHistogram(double[] percentiles, boolean intervalReset, long highestTrackableValue,
+			int precisionBits) {
+
+		Assert.notNull(percentiles, "'percentiles' cannot be null");
+		for (double percentile : percentiles) {
+			Assert.isTrue(percentile >= 0 && percentile <= 1, "'percentiles' must be between 0 and 1");
+		}
+		Assert.isTrue(precisionBits >= 2 && precisionBits <= 16, "'precisionBits' must be between 2 and 16");
+		this.percentiles = Arrays.copyOf(percentiles, percentiles.length);
+		this.intervalReset = intervalReset;
+		this.precisionBits = precisionBits;
+		this.subBucketCount = 1 << precisionBits;
+		this.subBucketHalfCount = this.subBucketCount / 2;
+		int highestExponent = 63 - Long.numberOfLeadingZeros(Math.max(highestTrackableValue, 1));
+		this.bucketCount = highestExponent < precisionBits
+				? this.subBucketCount
+				: this.subBucketCount + (highestExponent - precisionBits + 1) * this.subBucketHalfCount;
+		this.accumulatedCounts = new long[this.bucketCount];
+		this.active = new Interval(this.bucketCount);
+		this.inactive = new Interval(this.bucketCount);
+		this.defaultReader = intervalReset ? newReader() : null;
+	}
+
+	/**
+	 * Return the percentiles reported by {@link #getPercentiles()}.
+	 * @return the percentiles.
+	 */
+	public double[] getReportedPercentiles() {
+		return Arrays.copyOf(this.percentiles, this.percentiles.length);
+	}
+
+	/**
+	 * Return true if each {@link #snapshot()} only contains the values recorded since the
+	 * previous one.
+	 * @return the interval reset.
+	 */
+	public boolean isIntervalReset() {
+		return this.intervalReset;
+	}
+
+	/**
+	 * Record a latency.
+	 * @param nanos the latency in nanoseconds.
+	 */
+	public void record(long nanos) {
+		long epoch = this.startEpoch.getAndIncrement();
+		try {
+			Interval interval = this.active;
+			long value = Math.max(nanos, 0);
+			interval.counts.getAndIncrement(bucketIndex(value));
+			interval.sum.add(value);
+			interval.max.accumulate(value);
+		}
+		finally {
+			(epoch < 0 ? this.oddEndEpoch : this.evenEndEpoch).getAndIncrement();
+		}
+	}
+
+	/**
+	 * Take a snapshot of the recorded values; with {@code intervalReset}, the values
+	 * are then discarded.
+	 * @return the snapshot.
+	 */
+	public synchronized Snapshot snapshot() {
+		accumulate();
+		if (this.intervalReset) {
+			return this.defaultReader.read();
+		}
+		return new Snapshot(this, Arrays.copyOf(this.accumulatedCounts, this.bucketCount), this.accumulatedSum,
+				this.accumulatedMax);
+	}
+
+	/**
+	 * Take a snapshot of the recorded values without swapping the interval, so that the
+	 * values reported by the next {@link #snapshot()} are not affected (with
+	 * {@code intervalReset}, this only contains the values recorded since the previous
+	 * snapshot). Values being recorded concurrently might be only partially included.
+	 * @return the snapshot.
+	 */
+	public synchronized Snapshot peek() {
+		Interval interval = this.active;
+		long[] counts = new long[this.bucketCount];
+		for (int i = 0; i < this.bucketCount; i++) {
+			counts[i] = this.accumulatedCounts[i] + interval.counts.get(i);
+		}
+		long sum = this.accumulatedSum + interval.sum.sum();
+		long max = interval.max.get();
+		if (this.intervalReset) {
+			Reader reader = this.defaultReader;
+			for (int i = 0; i < this.bucketCount; i++) {
+				counts[i] -= reader.counts[i];
+			}
+			sum -= reader.sum;
+			max = Math.max(max, reader.max);
+		}
+		else {
+			max = Math.max(max, this.accumulatedMax);
+		}
+		return new Snapshot(this, counts, sum, max);
+	}
+
+	/**
+	 * Create a reader with its own intervals: each of its snapshots only contains the
+	 * values recorded since its previous snapshot (or since it was created), regardless
+	 * of the other readers and of {@link #snapshot()}. A reader must be
+	 * {@link Reader#close() closed} when it is no longer used.
+	 * @return the reader.
+	 */
+	public synchronized Reader newReader() {
+		accumulate();
+		Reader reader = new Reader();
+		System.arraycopy(this.accumulatedCounts, 0, reader.counts, 0, this.bucketCount);
+		reader.sum = this.accumulatedSum;
+		this.readers.add(reader);
+		return reader;
+	}
+
+	/**
+	 * Take a {@link #snapshot()} and return the value of each of the configured
+	 * percentiles, in milliseconds, keyed by its name (e.g. {@code p99} for 0.99).
+	 * @return the percentiles.
+	 */
+	public Map<String, Double> getPercentiles() {
+		return snapshot().getPercentiles();
+	}
+
+	/**
+	 * Discard all the recorded values.
+	 */
+	public synchronized void reset() {
+		swap().clear();
+		Arrays.fill(this.accumulatedCounts, 0);
+		this.accumulatedSum = 0;
+		this.accumulatedMax = 0;
+		for (Reader reader : this.readers) {
+			Arrays.fill(reader.counts, 0);
+			reader.sum = 0;
+			reader.max = 0;
+		}
+	}
+
+	/**
+	 * Add the values of the active interval to the accumulated values and to the maximum
+	 * of the current interval of each reader; the caller must hold the lock.
+	 */
+	private void accumulate() {
+		Interval interval = swap();
+		for (int i = 0; i < this.bucketCount; i++) {
+			this.accumulatedCounts[i] += interval.counts.get(i);
+		}
+		this.accumulatedSum += interval.sum.sum();
+		long max = interval.max.get();
+		this.accumulatedMax = Math.max(this.accumulatedMax, max);
+		for (Reader reader : this.readers) {
+			reader.max = Math.max(reader.max, max);
+		}
+		interval.clear();
+	}
+
+	/**
+	 * Make the inactive interval the active one and wait for the writers that may still
+	 * be using the previously active interval.
+	 * @return the previously active interval.
+	 */
+	private Interval swap() {
+		Interval previous = this.active;
+		this.active = this.inactive;
+		this.inactive = previous;
+		boolean nextPhaseIsEven = this.startEpoch.get() < 0;
+		long initialStartValue = nextPhaseIsEven ? 0 : Long.MIN_VALUE;
+		(nextPhaseIsEven ? this.evenEndEpoch : this.oddEndEpoch).set(initialStartValue);
+		long startValueAtFlip = this.startEpoch.getAndSet(initialStartValue);
+		AtomicLong previousEndEpoch = nextPhaseIsEven ? this.oddEndEpoch : this.evenEndEpoch;
+		while (previousEndEpoch.get() != startValueAtFlip) {
+			Thread.yield();
+		}
+		return previous;
+	}
+
+	int bucketIndex(long value) {
+		if (value < this.subBucketCount) {
+			return (int) value;
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		int subBucket = (int) (value >>> (exponent - this.precisionBits + 1));
+		int index = this.subBucketCount + (exponent - this.precisionBits) * this.subBucketHalfCount
+				+ subBucket - this.subBucketHalfCount;
+		return Math.min(index, this.bucketCount - 1);
+	}
+
+	long highestEquivalentValue(int index) {
+		if (index < this.subBucketCount) {
+			return index;
+		}
+		int offset = index - this.subBucketCount;
+		int shift = offset / this.subBucketHalfCount + 1;
+		long subBucket = this.subBucketHalfCount + offset % this.subBucketHalfCount;
+		return ((subBucket + 1) << shift) - 1;
+	}
+
+	private static String percentileName(double percentile) {
+		return "p" + BigDecimal.valueOf(percentile).movePointRight(2).stripTrailingZeros().toPlainString();
+	}
+
+	/**
+	 * An immutable view of the recorded values; all durations are in milliseconds.
+	 */
+	public static final class Snapshot {
+
+		private final LatencyHistogram histogram;
+
+		private final long[] counts;
+
+		private final long count;
+
+		private final long sum;
+
+		private final long max;
+
+		Snapshot(LatencyHistogram histogram, long[] counts, long sum, long max) {
+			this.histogram = histogram;
+			this.counts = counts;
+			long count = 0;
+			for (long bucket : counts) {
+				count += bucket;
+			}
+			this.count = count;
+			this.sum = sum;
+			this.max = max;
+		}
+
+		/**
+		 * @return the number of recorded values.
+		 */
+		public long getCount() {
+			return this.count;
+		}
+
+		/**
+		 * @return the mean latency.
+		 */
+		public double getMean() {
+			return this.count > 0 ? this.sum / NANOS_PER_MILLI / this.count : 0;
+		}
+
+		/**
+		 * @return the maximum latency.
+		 */
+		public double getMax() {
+			return this.max / NANOS_PER_MILLI;
+		}
+
+		/**
+		 * Return the latency below which the provided fraction of the values fall.
+		 * @param percentile the percentile, between 0 and 1.
+		 * @return the latency.
+		 */
+		public double getValueAtPercentile(double percentile) {
+			if (this.count == 0) {
+				return 0;
+			}
+			long rank = Math.max(1, (long) Math.ceil(percentile * this.count));
+			long total = 0;
+			for (int i = 0; i < this.counts.length; i++) {
+				total += this.counts[i];
+				if (total >= rank) {
+					return Math.min(this.histogram.highestEquivalentValue(i), this.max) / NANOS_PER_MILLI;
+				}
+			}
+			return getMax();
+		}
+
+		/**
+		 * Return the value of each of the configured percentiles, keyed by its name
+		 * (e.g. {@code p99} for 0.99).
+		 * @return the percentiles.
+		 */
+		public Map<String, Double> getPercentiles() {
+			Map<String, Double> percentiles = new LinkedHashMap<>();
+			for (double percentile : this.histogram.percentiles) {
+				percentiles.put(percentileName(percentile), getValueAtPercentile(percentile));
+			}
+			return Collections.unmodifiableMap(percentiles);
+		}
+
+		@Override
+		public String toString() {
+			return "[N=" + this.count + ", mean=" + getMean() + ", max=" + getMax() + ", " + getPercentiles() + "]";
+		}
+
+	}
+
+	/**
+	 * A consumer of the histogram with its own intervals.
+	 * @see LatencyHistogram#newReader()
+	 */
+	public final class Reader {
+
+		private final long[] counts = new long[LatencyHistogram.this.bucketCount];
+
+		private long sum;
+
+		private long max;
+
+		Reader() {
+			super();
+		}
+
+		/**
+		 * Take a snapshot of the values recorded since the previous snapshot of this
+		 * reader.
+		 * @return the snapshot.
+		 */
+		public Snapshot snapshot() {
+			synchronized (LatencyHistogram.this) {
+				accumulate();
+				return read();
+			}
+		}
+
+		/**
+		 * Stop tracking the intervals of this reader.
+		 */
+		public void close() {
+			synchronized (LatencyHistogram.this) {
+				LatencyHistogram.this.readers.remove(this);
+			}
+		}
+
+		/**
+		 * Return the values accumulated since the previous read and start a new
+		 * interval; the caller must hold the lock of the histogram.
+		 */
+		Snapshot read() {
+			long[] accumulated = LatencyHistogram.this.accumulatedCounts;
+			long[] delta = new long[accumulated.length];
+			for (int i = 0; i < accumulated.length; i++) {
+				delta[i] = accumulated[i] - this.counts[i];
+			}
+			Snapshot snapshot = new Snapshot(LatencyHistogram.this, delta,
+					LatencyHistogram.this.accumulatedSum - this.sum, this.max);
+			System.arraycopy(accumulated, 0, this.counts, 0, accumulated.length);
+			this.sum = LatencyHistogram.this.accumulatedSum;
+			this.max = 0;
+			return snapshot;
+		}
+
+	}
+
+	private static final class Interval {
+
+		private final AtomicLongArray counts;
+
+		private final LongAdder sum = new LongAdder();
+
+		private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+		Interval(int bucketCount) {
+			this.counts = new AtomicLongArray(bucketCount);
+		}
+
+		void clear() {
+			for (int i = 0; i < this.counts.length(); i++) {
+				this.counts.set(i, 0);
+			}
+			this.sum.reset();
+			this.max.reset();
+		}
+
+	}
+
+}
@@ -112,6 +112,11 @@ public class LifecycleMessageHandlerMetrics implements MessageHandlerMetrics, Li
 		return this.delegate.getDuration();
 	}
 
+	@Override
+	public LatencyHistogram getDurationHistogram() {
+		return this.delegate.getDurationHistogram();
+	}
+
 	@Override
 	public String getManagedName() {
 		return this.delegate.getManagedName();
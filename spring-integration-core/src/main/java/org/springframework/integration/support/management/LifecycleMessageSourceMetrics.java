@@ -91,6 +91,16 @@ public class LifecycleMessageSourceMetrics implements MessageSourceMetrics, Life
 		return this.delegate.getMessageCountLong();
 	}
 
+	@Override
+	public void setReceiveDurationHistogram(LatencyHistogram histogram) {
+		this.delegate.setReceiveDurationHistogram(histogram);
+	}
+
+	@Override
+	public LatencyHistogram getReceiveDurationHistogram() {
+		return this.delegate.getReceiveDurationHistogram();
+	}
+
 	@Override
 	public void setCountsEnabled(boolean countsEnabled) {
 		this.delegate.setCountsEnabled(countsEnabled);
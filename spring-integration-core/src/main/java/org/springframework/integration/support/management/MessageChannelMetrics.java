@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2015 the original author or authors.
+ * Copyright 2002-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,8 +16,13 @@
 
 package org.springframework.integration.support.management;
 
+import java.util.Collections;
+import java.util.Map;
+
+import org.springframework.jmx.export.annotation.ManagedAttribute;
 import org.springframework.jmx.export.annotation.ManagedMetric;
 import org.springframework.jmx.support.MetricType;
+import org.springframework.lang.Nullable;
 
 /**
  * Interface for all message channel monitors containing accessors for various useful metrics that are generic for all
@@ -118,4 +123,24 @@ public interface MessageChannelMetrics extends IntegrationStatsManagement {
 	 */
 	Statistics getErrorRate();
 
+	/**
+	 * @return the histogram of the send durations, or null if not enabled.
+	 * @since 5.1
+	 */
+	@Nullable
+	default LatencyHistogram getSendDurationHistogram() {
+		return null;
+	}
+
+	/**
+	 * @return the configured percentiles of the send duration (milliseconds), keyed by
+	 * name (e.g. {@code p99}); empty if the histogram is not enabled.
+	 * @since 5.1
+	 */
+	@ManagedAttribute(description = "Channel Send Duration Percentiles in Milliseconds")
+	default Map<String, Double> getSendDurationPercentiles() {
+		LatencyHistogram histogram = getSendDurationHistogram();
+		return histogram != null ? histogram.getPercentiles() : Collections.emptyMap();
+	}
+
 }
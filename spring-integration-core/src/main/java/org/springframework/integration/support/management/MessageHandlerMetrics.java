@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2015 the original author or authors.
+ * Copyright 2002-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,8 +16,13 @@
 
 package org.springframework.integration.support.management;
 
+import java.util.Collections;
+import java.util.Map;
+
+import org.springframework.jmx.export.annotation.ManagedAttribute;
 import org.springframework.jmx.export.annotation.ManagedMetric;
 import org.springframework.jmx.support.MetricType;
+import org.springframework.lang.Nullable;
 
 /**
  * @author Dave Syer
@@ -87,6 +92,26 @@ public interface MessageHandlerMetrics extends IntegrationStatsManagement {
 	 */
 	Statistics getDuration();
 
+	/**
+	 * @return the histogram of the handler durations, or null if not enabled.
+	 * @since 5.1
+	 */
+	@Nullable
+	default LatencyHistogram getDurationHistogram() {
+		return null;
+	}
+
+	/**
+	 * @return the configured percentiles of the handler duration (milliseconds), keyed
+	 * by name (e.g. {@code p99}); empty if the histogram is not enabled.
+	 * @since 5.1
+	 */
+	@ManagedAttribute(description = "Handler Duration Percentiles in Milliseconds")
+	default Map<String, Double> getDurationPercentiles() {
+		LatencyHistogram histogram = getDurationHistogram();
+		return histogram != null ? histogram.getPercentiles() : Collections.emptyMap();
+	}
+
 	void setManagedName(String name);
 
 	String getManagedName();
@@ -0,0 +1,675 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.support.management;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.BeanFactoryUtils;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.config.DestructionAwareBeanPostProcessor;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.integration.context.IntegrationContextUtils;
+import org.springframework.integration.support.MessageBuilderFactory;
+import org.springframework.integration.support.context.NamedComponent;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.messaging.Message;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.util.Assert;
+import org.springframework.util.PatternMatchUtils;
+
+/**
+ * Records the end-to-end latency of a sample of messages along each path through the
+ * flow, without the cost of {@link org.springframework.integration.history.MessageHistory}.
+ * <p>
+ * When running, the tracer is supplied to each {@link TrackableComponent} that matches
+ * the {@link #setComponentNamePatterns(String[]) component name patterns}. Ingress
+ * components (message producers, polled sources and gateways) select one message in
+ * {@link #setSampleRate(int) sampleRate} and add a {@link #TRACE_ID_HEADER} to it;
+ * channels and handlers then record a timestamp for each message carrying that header
+ * into a preallocated, per-thread ring buffer. Unsampled messages are neither copied nor
+ * recorded - the only cost is a header lookup at each boundary.
+ * <p>
+ * The buffers are drained on a {@link TaskScheduler} every
+ * {@link #setAggregationInterval(long) aggregationInterval}; a trace is considered to
+ * be complete when no events have been recorded for it for
+ * {@link #setCompletionTimeout(long) completionTimeout} and its latencies are then
+ * aggregated by path. The statistics are available from {@link #getPaths()} (and hence
+ * the control bus and JMX) and from the
+ * {@link org.springframework.integration.graph.IntegrationGraphServer}.
+ * <p>
+ * Since this is a {@code BeanPostProcessor}, it should be declared as a {@code static}
+ * {@code @Bean}.
+ *
+ * @since 5.1
+ */
+@ManagedResource
+@IntegrationManagedResource
+public class MessagePathTracer implements SmartLifecycle, BeanFactoryAware, DestructionAwareBeanPostProcessor {
+
+	/**
+	 * The header carrying the id of a sampled trace.
+	 */
+	public static final String TRACE_ID_HEADER = "pathTraceId";
+
+	public static final int DEFAULT_SAMPLE_RATE = 1000;
+
+	public static final int DEFAULT_BUFFER_SIZE = 1024;
+
+	public static final long DEFAULT_AGGREGATION_INTERVAL = 1000;
+
+	public static final long DEFAULT_COMPLETION_TIMEOUT = 5000;
+
+	public static final int DEFAULT_MAX_PATHS = 1000;
+
+	private final Log logger = LogFactory.getLog(getClass());
+
+	private final Set<TrackableComponent> currentlyTracedComponents = ConcurrentHashMap.newKeySet();
+
+	private final Set<TraceBuffer> buffers = ConcurrentHashMap.newKeySet();
+
+	private final ThreadLocal<TraceBuffer> threadBuffer = ThreadLocal.withInitial(this::createBuffer);
+
+	private final AtomicLong traceIds = new AtomicLong();
+
+	private final Object aggregationMonitor = new Object();
+
+	private final Map<Long, PendingTrace> pendingTraces = new HashMap<>();
+
+	private final Map<List<String>, PathAggregate> paths = new LinkedHashMap<>();
+
+	private String[] componentNamePatterns = { "*" };
+
+	private double[] percentiles = LatencyHistogram.DEFAULT_PERCENTILES;
+
+	private int bufferSize = DEFAULT_BUFFER_SIZE;
+
+	private long aggregationInterval = DEFAULT_AGGREGATION_INTERVAL;
+
+	private long completionTimeout = DEFAULT_COMPLETION_TIMEOUT;
+
+	private int maxPaths = DEFAULT_MAX_PATHS;
+
+	private ListableBeanFactory beanFactory;
+
+	private TaskScheduler taskScheduler;
+
+	private ScheduledFuture<?> aggregationTask;
+
+	private long droppedEvents;
+
+	private boolean maxPathsLogged;
+
+	private boolean autoStartup = true;
+
+	private int phase = Integer.MIN_VALUE;
+
+	private volatile int sampleRate = DEFAULT_SAMPLE_RATE;
+
+	private volatile boolean running;
+
+	/**
+	 * The patterns for which components will be traced; default '*' (all trackable
+	 * components). Cannot be changed if {@link #isRunning()}; invoke {@link #stop()} first.
+	 * @param componentNamePatterns The patterns.
+	 */
+	public void setComponentNamePatterns(String... componentNamePatterns) {
+		Assert.notEmpty(componentNamePatterns, "'componentNamePatterns' must not be empty");
+		Assert.state(!this.running, "'componentNamePatterns' cannot be changed without invoking stop() first");
+		this.componentNamePatterns = Arrays.copyOf(componentNamePatterns, componentNamePatterns.length);
+	}
+
+	/**
+	 * Set the sample rate; one message in {@code sampleRate} is traced on average
+	 * (1 traces every message, 0 disables sampling). Default {@value #DEFAULT_SAMPLE_RATE}.
+	 * @param sampleRate the sample rate.
+	 */
+	@ManagedAttribute(description = "One message in 'sampleRate' is traced; 0 to disable sampling")
+	public void setSampleRate(int sampleRate) {
+		Assert.isTrue(sampleRate >= 0, "'sampleRate' cannot be negative");
+		this.sampleRate = sampleRate;
+	}
+
+	@ManagedAttribute
+	public int getSampleRate() {
+		return this.sampleRate;
+	}
+
+	/**
+	 * Set the number of events each thread can buffer between aggregations; rounded up to
+	 * a power of two. Events recorded while a thread's buffer is full are dropped.
+	 * Default {@value #DEFAULT_BUFFER_SIZE}.
+	 * @param bufferSize the buffer size.
+	 */
+	public void setBufferSize(int bufferSize) {
+		Assert.isTrue(bufferSize > 0, "'bufferSize' must be greater than 0");
+		this.bufferSize = bufferSize;
+	}
+
+	/**
+	 * Set the interval (milliseconds) at which the buffered events are aggregated.
+	 * Default {@value #DEFAULT_AGGREGATION_INTERVAL}.
+	 * @param aggregationInterval the interval.
+	 */
+	public void setAggregationInterval(long aggregationInterval) {
+		Assert.isTrue(aggregationInterval > 0, "'aggregationInterval' must be greater than 0");
+		this.aggregationInterval = aggregationInterval;
+	}
+
+	/**
+	 * Set the time (milliseconds) after the last event of a trace at which it is
+	 * considered to be complete; it must exceed the longest time a sampled message can
+	 * spend between two components (e.g. in a queue or a delayer).
+	 * Default {@value #DEFAULT_COMPLETION_TIMEOUT}.
+	 * @param completionTimeout the timeout.
+	 */
+	public void setCompletionTimeout(long completionTimeout) {
+		Assert.isTrue(completionTimeout >= 0, "'completionTimeout' cannot be negative");
+		this.completionTimeout = completionTimeout;
+	}
+
+	/**
+	 * Set the maximum number of distinct paths for which statistics are retained; traces
+	 * following any further paths are ignored. Default {@value #DEFAULT_MAX_PATHS}.
+	 * @param maxPaths the maximum.
+	 */
+	public void setMaxPaths(int maxPaths) {
+		Assert.isTrue(maxPaths > 0, "'maxPaths' must be greater than 0");
+		this.maxPaths = maxPaths;
+	}
+
+	/**
+	 * Set the end-to-end latency percentiles to report for each path.
+	 * Default {@link LatencyHistogram#DEFAULT_PERCENTILES}.
+	 * @param percentiles the percentiles (0 to 1).
+	 */
+	public void setPercentiles(double... percentiles) {
+		Assert.isTrue(percentiles.length > 0, "'percentiles' must not be empty");
+		this.percentiles = Arrays.copyOf(percentiles, percentiles.length);
+	}
+
+	/**
+	 * Set the scheduler used to aggregate the events; defaults to the integration
+	 * {@code taskScheduler} bean.
+	 * @param taskScheduler the scheduler.
+	 */
+	public void setTaskScheduler(TaskScheduler taskScheduler) {
+		Assert.notNull(taskScheduler, "'taskScheduler' cannot be null");
+		this.taskScheduler = taskScheduler;
+	}
+
+	@Override
+	public void setBeanFactory(BeanFactory beanFactory) throws BeansException {
+		Assert.isInstanceOf(ListableBeanFactory.class, beanFactory,
+				"The provided 'beanFactory' must be of 'ListableBeanFactory' type.");
+		this.beanFactory = (ListableBeanFactory) beanFactory;
+	}
+
+	/**
+	 * Called by ingress components: start a trace for one message in
+	 * {@link #setSampleRate(int) sampleRate}, or continue the trace if the message
+	 * already carries a {@link #TRACE_ID_HEADER}.
+	 * @param message the message.
+	 * @param component the ingress component.
+	 * @param messageBuilderFactory the factory used to add the header to sampled messages.
+	 * @return the message, with the header if it is sampled.
+	 */
+	public Message<?> startTrace(Message<?> message, NamedComponent component,
+			MessageBuilderFactory messageBuilderFactory) {
+
+		Object traceId = message.getHeaders().get(TRACE_ID_HEADER);
+		if (traceId instanceof Long) {
+			record((Long) traceId, component, false);
+			return message;
+		}
+		int sampleRate = this.sampleRate;
+		if (!this.running || sampleRate == 0 || ThreadLocalRandom.current().nextInt(sampleRate) != 0) {
+			return message;
+		}
+		long id = this.traceIds.incrementAndGet();
+		record(id, component, false);
+		return messageBuilderFactory.fromMessage(message)
+				.setHeader(TRACE_ID_HEADER, id)
+				.build();
+	}
+
+	/**
+	 * Called by channels and handlers when a message reaches them; records a timestamp
+	 * if the message is sampled.
+	 * @param message the message.
+	 * @param component the component.
+	 */
+	public void trace(Message<?> message, NamedComponent component) {
+		Object traceId = message.getHeaders().get(TRACE_ID_HEADER);
+		if (traceId instanceof Long) {
+			record((Long) traceId, component, false);
+		}
+	}
+
+	/**
+	 * Called by handlers when they have finished with a message; records a timestamp if
+	 * the message is sampled, so that the time spent in the last component of a path is
+	 * included in its latency.
+	 * @param message the message.
+	 * @param component the component.
+	 */
+	public void traceCompletion(Message<?> message, NamedComponent component) {
+		Object traceId = message.getHeaders().get(TRACE_ID_HEADER);
+		if (traceId instanceof Long) {
+			record((Long) traceId, component, true);
+		}
+	}
+
+	private void record(long traceId, NamedComponent component, boolean completion) {
+		if (this.running) {
+			this.threadBuffer.get().offer(traceId, component.getComponentName(), completion, System.nanoTime());
+		}
+	}
+
+	private TraceBuffer createBuffer() {
+		TraceBuffer buffer = new TraceBuffer(this.bufferSize);
+		this.buffers.add(buffer);
+		return buffer;
+	}
+
+	/**
+	 * Return the statistics for each path seen so far.
+	 * @return the statistics.
+	 */
+	@ManagedAttribute(description = "Latency statistics for each traced path")
+	public List<PathStatistics> getPaths() {
+		synchronized (this.aggregationMonitor) {
+			List<PathStatistics> statistics = new ArrayList<>(this.paths.size());
+			for (PathAggregate aggregate : this.paths.values()) {
+				statistics.add(aggregate.statistics());
+			}
+			return statistics;
+		}
+	}
+
+	/**
+	 * @return the number of events dropped because a thread's buffer was full.
+	 */
+	@ManagedAttribute(description = "Events dropped because a buffer was full")
+	public long getDroppedEvents() {
+		synchronized (this.aggregationMonitor) {
+			long dropped = this.droppedEvents;
+			for (TraceBuffer buffer : this.buffers) {
+				dropped += buffer.dropped.get();
+			}
+			return dropped;
+		}
+	}
+
+	/**
+	 * Discard all statistics and incomplete traces.
+	 */
+	@ManagedOperation
+	public void reset() {
+		synchronized (this.aggregationMonitor) {
+			for (TraceBuffer buffer : this.buffers) {
+				buffer.drain((traceId, component, completion, timestamp) -> { });
+			}
+			this.pendingTraces.clear();
+			this.paths.clear();
+			this.maxPathsLogged = false;
+		}
+	}
+
+	/**
+	 * Drain the buffers and aggregate the completed traces.
+	 */
+	void aggregate() {
+		synchronized (this.aggregationMonitor) {
+			long now = System.nanoTime();
+			Iterator<TraceBuffer> iterator = this.buffers.iterator();
+			while (iterator.hasNext()) {
+				TraceBuffer buffer = iterator.next();
+				boolean abandoned = buffer.isAbandoned();
+				buffer.drain((traceId, component, completion, timestamp) ->
+						this.pendingTraces.computeIfAbsent(traceId, id -> new PendingTrace())
+								.add(component, completion, timestamp, now));
+				if (abandoned) {
+					this.droppedEvents += buffer.dropped.get();
+					iterator.remove();
+				}
+			}
+			long timeout = TimeUnit.MILLISECONDS.toNanos(this.completionTimeout);
+			Iterator<PendingTrace> traces = this.pendingTraces.values().iterator();
+			while (traces.hasNext()) {
+				PendingTrace trace = traces.next();
+				if (now - trace.lastUpdate >= timeout) {
+					complete(trace);
+					traces.remove();
+				}
+			}
+		}
+	}
+
+	private void complete(PendingTrace trace) {
+		trace.sort();
+		List<String> path = new ArrayList<>();
+		List<Long> hops = new ArrayList<>();
+		long start = trace.timestamps[0];
+		long end = trace.timestamps[trace.size - 1];
+		long previous = 0;
+		for (int i = 0; i < trace.size; i++) {
+			if (!trace.completions[i]) {
+				if (!path.isEmpty()) {
+					hops.add(trace.timestamps[i] - previous);
+				}
+				path.add(trace.components[i]);
+				previous = trace.timestamps[i];
+			}
+		}
+		if (path.isEmpty()) {
+			return;
+		}
+		hops.add(end - previous);
+		PathAggregate aggregate = this.paths.get(path);
+		if (aggregate == null) {
+			if (this.paths.size() >= this.maxPaths) {
+				if (!this.maxPathsLogged && this.logger.isWarnEnabled()) {
+					this.logger.warn("Maximum number of traced paths (" + this.maxPaths
+							+ ") reached; further paths are ignored");
+					this.maxPathsLogged = true;
+				}
+				return;
+			}
+			aggregate = new PathAggregate(path, this.percentiles);
+			this.paths.put(path, aggregate);
+		}
+		aggregate.add(end - start, hops);
+	}
+
+	@Override
+	public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+		if (bean instanceof TrackableComponent && this.running) {
+			traceComponentIfAny((TrackableComponent) bean);
+		}
+		return bean;
+	}
+
+	private void traceComponentIfAny(TrackableComponent component) {
+		String componentName = component.getComponentName();
+		if (PatternMatchUtils.simpleMatch(this.componentNamePatterns, componentName)) {
+			component.setPathTracer(this);
+			this.currentlyTracedComponents.add(component);
+			if (this.logger.isDebugEnabled()) {
+				this.logger.debug("Enabling path tracing for component '" + componentName + "'");
+			}
+		}
+	}
+
+	@Override
+	public boolean requiresDestruction(Object bean) {
+		return bean instanceof TrackableComponent;
+	}
+
+	@Override
+	public void postProcessBeforeDestruction(Object bean, String beanName) throws BeansException {
+		this.currentlyTracedComponents.remove(bean);
+	}
+
+	/*
+	 * SmartLifecycle implementation
+	 */
+
+	@Override
+	public boolean isRunning() {
+		return this.running;
+	}
+
+	public void setAutoStartup(boolean autoStartup) {
+		this.autoStartup = autoStartup;
+	}
+
+	@Override
+	public boolean isAutoStartup() {
+		return this.autoStartup;
+	}
+
+	public void setPhase(int phase) {
+		this.phase = phase;
+	}
+
+	@Override
+	public int getPhase() {
+		return this.phase;
+	}
+
+	@ManagedOperation
+	@Override
+	public void start() {
+		synchronized (this.currentlyTracedComponents) {
+			if (!this.running) {
+				if (this.taskScheduler == null) {
+					this.taskScheduler = IntegrationContextUtils.getRequiredTaskScheduler(this.beanFactory);
+				}
+				this.running = true;
+				for (TrackableComponent component : BeanFactoryUtils.beansOfTypeIncludingAncestors(this.beanFactory,
+						TrackableComponent.class).values()) {
+					traceComponentIfAny(component);
+				}
+				this.aggregationTask = this.taskScheduler.scheduleWithFixedDelay(this::aggregate,
+						this.aggregationInterval);
+			}
+		}
+	}
+
+	@ManagedOperation
+	@Override
+	public void stop() {
+		synchronized (this.currentlyTracedComponents) {
+			if (this.running) {
+				this.running = false;
+				this.currentlyTracedComponents.forEach(component -> component.setPathTracer(null));
+				this.currentlyTracedComponents.clear();
+				if (this.aggregationTask != null) {
+					this.aggregationTask.cancel(false);
+					this.aggregationTask = null;
+				}
+				aggregate();
+			}
+		}
+	}
+
+	@Override
+	public void stop(Runnable callback) {
+		stop();
+		callback.run();
+	}
+
+	@FunctionalInterface
+	private interface EventCallback {
+
+		void event(long traceId, String component, boolean completion, long timestamp);
+
+	}
+
+	/**
+	 * A single-producer, single-consumer ring buffer; written only by its owning thread
+	 * and drained only under the aggregation monitor. The arrays are allocated once; the
+	 * tail is published with an ordered write so the consumer sees complete events.
+	 */
+	private static final class TraceBuffer {
+
+		private final WeakReference<Thread> owner = new WeakReference<>(Thread.currentThread());
+
+		private final AtomicLong head = new AtomicLong();
+
+		private final AtomicLong tail = new AtomicLong();
+
+		private final AtomicLong dropped = new AtomicLong();
+
+		private final long[] traceIds;
+
+		private final String[] components;
+
+		private final boolean[] completions;
+
+		private final long[] timestamps;
+
+		private final int mask;
+
+		TraceBuffer(int size) {
+			int capacity = Integer.highestOneBit(size);
+			if (capacity < size) {
+				capacity <<= 1;
+			}
+			this.traceIds = new long[capacity];
+			this.components = new String[capacity];
+			this.completions = new boolean[capacity];
+			this.timestamps = new long[capacity];
+			this.mask = capacity - 1;
+		}
+
+		void offer(long traceId, String component, boolean completion, long timestamp) {
+			long position = this.tail.get();
+			if (position - this.head.get() > this.mask) {
+				this.dropped.lazySet(this.dropped.get() + 1);
+				return;
+			}
+			int slot = (int) position & this.mask;
+			this.traceIds[slot] = traceId;
+			this.components[slot] = component;
+			this.completions[slot] = completion;
+			this.timestamps[slot] = timestamp;
+			this.tail.lazySet(position + 1);
+		}
+
+		void drain(EventCallback callback) {
+			long from = this.head.get();
+			long to = this.tail.get();
+			for (long i = from; i < to; i++) {
+				int slot = (int) i & this.mask;
+				callback.event(this.traceIds[slot], this.components[slot], this.completions[slot],
+						this.timestamps[slot]);
+			}
+			this.head.lazySet(to);
+		}
+
+		boolean isAbandoned() {
+			Thread thread = this.owner.get();
+			return thread == null || !thread.isAlive();
+		}
+
+	}
+
+	private static final class PendingTrace {
+
+		private String[] components = new String[8];
+
+		private boolean[] completions = new boolean[8];
+
+		private long[] timestamps = new long[8];
+
+		private int size;
+
+		private long lastUpdate;
+
+		void add(String component, boolean completion, long timestamp, long now) {
+			if (this.size == this.timestamps.length) {
+				this.components = Arrays.copyOf(this.components, this.size * 2);
+				this.completions = Arrays.copyOf(this.completions, this.size * 2);
+				this.timestamps = Arrays.copyOf(this.timestamps, this.size * 2);
+			}
+			this.components[this.size] = component;
+			this.completions[this.size] = completion;
+			this.timestamps[this.size++] = timestamp;
+			this.lastUpdate = now;
+		}
+
+		/*
+		 * Events arrive per thread, so are mostly in order already; a stable insertion sort
+		 * keeps an entry ahead of a completion recorded in the same nanosecond.
+		 */
+		void sort() {
+			for (int i = 1; i < this.size; i++) {
+				String component = this.components[i];
+				boolean completion = this.completions[i];
+				long timestamp = this.timestamps[i];
+				int j = i - 1;
+				while (j >= 0 && this.timestamps[j] > timestamp) {
+					this.components[j + 1] = this.components[j];
+					this.completions[j + 1] = this.completions[j];
+					this.timestamps[j + 1] = this.timestamps[j];
+					j--;
+				}
+				this.components[j + 1] = component;
+				this.completions[j + 1] = completion;
+				this.timestamps[j + 1] = timestamp;
+			}
+		}
+
+	}
+
+	private static final class PathAggregate {
+
+		private final List<String> path;
+
+		private final LatencyHistogram latencies;
+
+		private final long[] hopTotals;
+
+		PathAggregate(List<String> path, double[] percentiles) {
+			this.path = path;
+			this.latencies = new LatencyHistogram(percentiles, false);
+			this.hopTotals = new long[path.size()];
+		}
+
+		void add(long latency, List<Long> hops) {
+			this.latencies.record(latency);
+			for (int i = 0; i < this.hopTotals.length; i++) {
+				this.hopTotals[i] += hops.get(i);
+			}
+		}
+
+		PathStatistics statistics() {
+			LatencyHistogram.Snapshot snapshot = this.latencies.snapshot();
+			long count = snapshot.getCount();
+			List<Double> hops = new ArrayList<>(this.hopTotals.length);
+			for (long total : this.hopTotals) {
+				hops.add(count > 0 ? total / 1000000.0 / count : 0.0);
+			}
+			return new PathStatistics(this.path, count, snapshot.getMean(), snapshot.getMax(),
+					snapshot.getPercentiles(), hops);
+		}
+
+	}
+
+}
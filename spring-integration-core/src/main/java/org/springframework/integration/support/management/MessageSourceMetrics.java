@@ -16,9 +16,14 @@
 
 package org.springframework.integration.support.management;
 
+import java.util.Collections;
+import java.util.Map;
+
 import org.springframework.integration.support.management.metrics.CounterFacade;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
 import org.springframework.jmx.export.annotation.ManagedMetric;
 import org.springframework.jmx.support.MetricType;
+import org.springframework.lang.Nullable;
 
 /**
  * @author Dave Syer
@@ -50,6 +55,37 @@ public interface MessageSourceMetrics extends IntegrationManagement {
 
 	String getManagedType();
 
+	/**
+	 * Set a histogram in which to record the duration of each receive operation that
+	 * produces a message, so that percentiles are available; requires counts to be
+	 * enabled. Ignored by sources that do not support it.
+	 * @param histogram the histogram.
+	 * @since 5.1
+	 */
+	default void setReceiveDurationHistogram(@Nullable LatencyHistogram histogram) {
+		// no op
+	}
+
+	/**
+	 * @return the histogram of the receive durations, or null if not enabled.
+	 * @since 5.1
+	 */
+	@Nullable
+	default LatencyHistogram getReceiveDurationHistogram() {
+		return null;
+	}
+
+	/**
+	 * @return the configured percentiles of the receive duration (milliseconds), keyed
+	 * by name (e.g. {@code p99}); empty if the histogram is not enabled.
+	 * @since 5.1
+	 */
+	@ManagedAttribute(description = "Message Source Receive Duration Percentiles in Milliseconds")
+	default Map<String, Double> getReceiveDurationPercentiles() {
+		LatencyHistogram histogram = getReceiveDurationHistogram();
+		return histogram != null ? histogram.getPercentiles() : Collections.emptyMap();
+	}
+
 	/**
 	 * Set a micrometer counter to count messages produced.
 	 * @param counter the counter.
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.support.management;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable snapshot of the latency statistics aggregated by a
+ * {@link MessagePathTracer} for one path through the flow (the ordered component names
+ * a sampled message visited, from ingress to egress). All latencies are in milliseconds.
+ *
+ * @since 5.1
+ */
+public class PathStatistics {
+
+	private final List<String> path;
+
+	private final long count;
+
+	private final double meanLatency;
+
+	private final double maxLatency;
+
+	private final Map<String, Double> latencyPercentiles;
+
+	private final List<Double> meanHopLatencies;
+
+	PathStatistics(List<String> path, long count, double meanLatency, double maxLatency,
+			Map<String, Double> latencyPercentiles, List<Double> meanHopLatencies) {
+
+		this.path = Collections.unmodifiableList(path);
+		this.count = count;
+		this.meanLatency = meanLatency;
+		this.maxLatency = maxLatency;
+		this.latencyPercentiles = Collections.unmodifiableMap(latencyPercentiles);
+		this.meanHopLatencies = Collections.unmodifiableList(meanHopLatencies);
+	}
+
+	/**
+	 * @return the component names, in the order in which they were visited.
+	 */
+	public List<String> getPath() {
+		return this.path;
+	}
+
+	/**
+	 * @return the number of sampled messages that followed this path.
+	 */
+	public long getCount() {
+		return this.count;
+	}
+
+	/**
+	 * @return the mean end-to-end latency.
+	 */
+	public double getMeanLatency() {
+		return this.meanLatency;
+	}
+
+	/**
+	 * @return the maximum end-to-end latency.
+	 */
+	public double getMaxLatency() {
+		return this.maxLatency;
+	}
+
+	/**
+	 * @return the end-to-end latency percentiles, keyed by {@code p50}, {@code p99} etc.
+	 */
+	public Map<String, Double> getLatencyPercentiles() {
+		return this.latencyPercentiles;
+	}
+
+	/**
+	 * The mean time attributed to each component of the {@link #getPath() path}: the
+	 * time from reaching the component until reaching the next one or, for the last
+	 * component, until the end of the trace.
+	 * @return the latencies, in the same order as the path.
+	 */
+	public List<Double> getMeanHopLatencies() {
+		return this.meanHopLatencies;
+	}
+
+	@Override
+	public String toString() {
+		return "PathStatistics [path=" + this.path + ", count=" + this.count
+				+ ", meanLatency=" + this.meanLatency + ", maxLatency=" + this.maxLatency
+				+ ", latencyPercentiles=" + this.latencyPercentiles
+				+ ", meanHopLatencies=" + this.meanHopLatencies + "]";
+	}
+
+}
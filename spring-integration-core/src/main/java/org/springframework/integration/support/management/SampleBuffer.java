@@ -0,0 +1,113 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.support.management;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free ring buffer retaining the most recent {@code long} samples, in the
+ * order in which they were added, for the moving average statistics.
+ * <p>
+ * Writers reserve a slot with a single atomic increment (no CAS retry loop) and then
+ * publish the sample with a per-slot sequence; readers take a snapshot, skipping any
+ * slot that is not yet published or that is overwritten during the read. The statistics
+ * are therefore computed from a consistent (if possibly slightly incomplete) view
+ * without blocking the writers.
+ *
+ * @since 5.1
+ */
+final class SampleBuffer {
+
+	private static final long WRITING = -1L;
+
+	private final AtomicLong index = new AtomicLong();
+
+	private final AtomicLongArray samples;
+
+	private final AtomicLongArray sequences;
+
+	private final int capacity;
+
+	SampleBuffer(int capacity) {
+		this.capacity = Math.max(capacity, 1);
+		this.samples = new AtomicLongArray(this.capacity);
+		this.sequences = new AtomicLongArray(this.capacity);
+	}
+
+	/**
+	 * Add a sample, overwriting the oldest one when the buffer is full.
+	 * @param sample the sample.
+	 */
+	void add(long sample) {
+		long sequence = this.index.getAndIncrement();
+		int slot = (int) (sequence % this.capacity);
+		this.sequences.set(slot, WRITING);
+		this.samples.set(slot, sample);
+		this.sequences.set(slot, sequence + 1);
+	}
+
+	/**
+	 * @return the number of samples ever added.
+	 */
+	long count() {
+		return this.index.get();
+	}
+
+	/**
+	 * Return the retained samples, oldest first.
+	 * @return the samples.
+	 */
+	long[] snapshot() {
+		long end = this.index.get();
+		long start = Math.max(0, end - this.capacity);
+		long[] snapshot = new long[(int) (end - start)];
+		int size = 0;
+		for (long sequence = start; sequence < end; sequence++) {
+			int slot = (int) (sequence % this.capacity);
+			if (this.sequences.get(slot) == sequence + 1) {
+				long sample = this.samples.get(slot);
+				if (this.sequences.get(slot) == sequence + 1) {
+					snapshot[size++] = sample;
+				}
+			}
+		}
+		return size == snapshot.length ? snapshot : Arrays.copyOf(snapshot, size);
+	}
+
+	/**
+	 * Return the most recently published sample.
+	 * @param defaultValue the value to return if there is none.
+	 * @return the sample or the default.
+	 */
+	long last(long defaultValue) {
+		long end = this.index.get();
+		long start = Math.max(0, end - this.capacity);
+		for (long sequence = end - 1; sequence >= start; sequence--) {
+			int slot = (int) (sequence % this.capacity);
+			if (this.sequences.get(slot) == sequence + 1) {
+				long sample = this.samples.get(slot);
+				if (this.sequences.get(slot) == sequence + 1) {
+					return sample;
+				}
+			}
+		}
+		return defaultValue;
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2015 the original author or authors.
+ * Copyright 2002-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,6 +18,7 @@ package org.springframework.integration.support.management;
 
 import org.springframework.integration.support.context.NamedComponent;
 import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.lang.Nullable;
 
 /**
  * @author Mark Fisher
@@ -30,4 +31,14 @@ public interface TrackableComponent extends NamedComponent {
 	@ManagedOperation
 	void setShouldTrack(boolean shouldTrack);
 
+	/**
+	 * Set the {@link MessagePathTracer} recording sampled messages at this component;
+	 * {@code null} to stop tracing. Ignored by default.
+	 * @param pathTracer the tracer.
+	 * @since 5.1
+	 */
+	default void setPathTracer(@Nullable MessagePathTracer pathTracer) {
+		// no-op
+	}
+
 }
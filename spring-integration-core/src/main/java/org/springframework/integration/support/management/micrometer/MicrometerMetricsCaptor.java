@@ -16,6 +16,7 @@
 
 package org.springframework.integration.support.management.micrometer;
 
+import java.util.Arrays;
 import java.util.concurrent.TimeUnit;
 import java.util.function.ToDoubleFunction;
 
@@ -48,14 +49,33 @@ public class MicrometerMetricsCaptor implements MetricsCaptor {
 
 	private final MeterRegistry meterRegistry;
 
+	private double[] percentiles;
+
 	public MicrometerMetricsCaptor(MeterRegistry meterRegistry) {
 		Assert.notNull(meterRegistry, "meterRegistry cannot be null");
 		this.meterRegistry = meterRegistry;
 	}
 
+	/**
+	 * Set the percentiles (each between 0 and 1) published by the timers built by this
+	 * captor, such as the send timers of channels and handlers. Timers that are already
+	 * registered are not affected.
+	 * @param percentiles the percentiles.
+	 * @since 5.1
+	 */
+	public void setPercentiles(double... percentiles) {
+		this.percentiles = percentiles != null && percentiles.length > 0
+				? Arrays.copyOf(percentiles, percentiles.length)
+				: null;
+	}
+
 	@Override
 	public TimerBuilder timerBuilder(String name) {
-		return new MicroTimerBuilder(this.meterRegistry, name);
+		MicroTimerBuilder builder = new MicroTimerBuilder(this.meterRegistry, name);
+		if (this.percentiles != null) {
+			builder.builder.publishPercentiles(this.percentiles);
+		}
+		return builder;
 	}
 
 	@Override
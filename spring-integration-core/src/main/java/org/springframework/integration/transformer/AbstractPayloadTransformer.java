@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2009 the original author or authors.
+ * Copyright 2002-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -29,7 +29,7 @@ import org.springframework.messaging.Message;
 public abstract class AbstractPayloadTransformer<T, U> extends AbstractTransformer {
 
 	@SuppressWarnings("unchecked")
-	public final U doTransform(Message<?> message) throws Exception {
+	public U doTransform(Message<?> message) throws Exception {
 		return this.transformPayload((T) message.getPayload());
 	}
 
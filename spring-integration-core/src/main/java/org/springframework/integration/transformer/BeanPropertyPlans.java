@@ -0,0 +1,557 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.transformer;
+
+import java.beans.PropertyDescriptor;
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.core.convert.ConversionException;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.Property;
+import org.springframework.core.convert.TypeDescriptor;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.ObjectUtils;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * Per-class cached plans of the bean property accessors used by the
+ * {@link ObjectToMapTransformer} and {@link MapToObjectTransformer}, so that they don't
+ * have to round trip through JSON, or create a {@code DataBinder}, for each message.
+ * <p>
+ * The read side produces the same {@code Map} as serializing the object to JSON and
+ * reading it back with a default Jackson {@code ObjectMapper}; classes (or values) for
+ * which that cannot be guaranteed (Jackson annotations, JDK types other than the simple
+ * ones, etc.) are not supported, and the caller falls back to the JSON round trip.
+ * <p>
+ * The write side sets the simple (non-nested) properties of a bean with its setters, after
+ * the same conversion as a {@code DataBinder}; other maps are left to a
+ * {@code DataBinder}.
+ *
+ * @since 5.1
+ */
+final class BeanPropertyPlans {
+
+	private static final Log logger = LogFactory.getLog(BeanPropertyPlans.class);
+
+	private static final int MAX_DEPTH = 256;
+
+	private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+	private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+	private static final String[] UNSUPPORTED_PACKAGES = {
+			"java.", "javax.", "kotlin.", "scala.", "groovy.", "org.joda.", "com.fasterxml.jackson."
+	};
+
+	private static final String[] UNSUPPORTED_ANNOTATION_PACKAGES = {
+			"com.fasterxml.jackson.", "java.beans.", "kotlin."
+	};
+
+	private static final ReadPlan UNSUPPORTED = new ReadPlan(new String[0], new MethodHandle[0]);
+
+	private static final ReadPlan PLAIN_ENUM = new ReadPlan(new String[0], new MethodHandle[0]);
+
+	private static final Map<Class<?>, ReadPlan> readPlans = new ConcurrentReferenceHashMap<>();
+
+	private static final Map<Class<?>, WritePlan> writePlans = new ConcurrentReferenceHashMap<>();
+
+	private BeanPropertyPlans() {
+		super();
+	}
+
+	/**
+	 * Return the map of maps that a JSON round trip of the object would produce.
+	 * @param object the object.
+	 * @return the map, or null if the object is not supported.
+	 */
+	@SuppressWarnings("unchecked")
+	static Map<String, Object> toMap(Object object) {
+		if (!(object instanceof Map)) {
+			ReadPlan plan = readPlan(object.getClass());
+			if (plan == UNSUPPORTED || plan == PLAIN_ENUM) {
+				return null;
+			}
+		}
+		try {
+			return (Map<String, Object>) toJsonValue(object, 0);
+		}
+		catch (UnsupportedValueException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Set the properties of the target from the map.
+	 * @param target the target bean.
+	 * @param map the property values.
+	 * @param conversionService the conversion service.
+	 * @return false if the map has to be bound by a {@code DataBinder} instead, in which
+	 * case no property has been set.
+	 */
+	static boolean bind(Object target, Map<?, ?> map, ConversionService conversionService) {
+		WritePlan plan = writePlans.computeIfAbsent(target.getClass(), WritePlan::new);
+		List<Object> values = new ArrayList<>(map.size() * 2);
+		for (Map.Entry<?, ?> entry : map.entrySet()) {
+			String name = entry.getKey().toString();
+			Setter setter = plan.getSetter(name);
+			if (setter == null) {
+				if (name.indexOf('.') >= 0 || name.indexOf('[') >= 0) {
+					return false;
+				}
+				continue; // unknown properties are ignored, as by a DataBinder
+			}
+			Object value = entry.getValue();
+			if (value == null) {
+				if (setter.type.isPrimitive()) {
+					return false;
+				}
+			}
+			else {
+				TypeDescriptor sourceType = TypeDescriptor.forObject(value);
+				if (!conversionService.canConvert(sourceType, setter.type)) {
+					return false;
+				}
+				try {
+					value = conversionService.convert(value, sourceType, setter.type);
+				}
+				catch (ConversionException e) {
+					return false;
+				}
+			}
+			values.add(setter);
+			values.add(value);
+		}
+		for (int i = 0; i < values.size(); i += 2) {
+			Setter setter = (Setter) values.get(i);
+			try {
+				setter.handle.invokeExact(target, values.get(i + 1));
+			}
+			catch (Throwable e) {
+				// a DataBinder records this as a binding error, rather than throwing it
+				if (logger.isWarnEnabled()) {
+					logger.warn("Failed to set property '" + setter.name + "' on " + target, e);
+				}
+			}
+		}
+		return true;
+	}
+
+	private static ReadPlan readPlan(Class<?> type) {
+		return readPlans.computeIfAbsent(type, BeanPropertyPlans::buildReadPlan);
+	}
+
+	private static Object toJsonValue(Object value, int depth) {
+		if (depth > MAX_DEPTH) {
+			throw UnsupportedValueException.INSTANCE;
+		}
+		if (value == null || value instanceof String || value instanceof Boolean || value instanceof Integer) {
+			return value;
+		}
+		else if (value instanceof Long) {
+			return integral((Long) value);
+		}
+		else if (value instanceof Short || value instanceof Byte) {
+			return ((Number) value).intValue();
+		}
+		else if (value instanceof Double) {
+			double d = (Double) value;
+			return Double.isNaN(d) || Double.isInfinite(d) ? Double.toString(d) : value;
+		}
+		else if (value instanceof Float) {
+			float f = (Float) value;
+			return Float.isNaN(f) || Float.isInfinite(f) ? Double.toString(f) : Double.valueOf(Float.toString(f));
+		}
+		else if (value instanceof BigInteger || value instanceof BigDecimal) {
+			return number(value.toString());
+		}
+		else if (value instanceof Character) {
+			return value.toString();
+		}
+		else if (value instanceof Enum) {
+			return enumName((Enum<?>) value);
+		}
+		else if (value instanceof UUID) {
+			return value.toString();
+		}
+		else if (value.getClass() == Date.class) {
+			return integral(((Date) value).getTime());
+		}
+		else if (value instanceof byte[]) {
+			return Base64.getEncoder().encodeToString((byte[]) value);
+		}
+		else if (value instanceof char[]) {
+			return new String((char[]) value);
+		}
+		else if (value instanceof Map) {
+			Map<?, ?> map = (Map<?, ?>) value;
+			Map<String, Object> result = new LinkedHashMap<>(map.size() * 4 / 3 + 1);
+			for (Map.Entry<?, ?> entry : map.entrySet()) {
+				result.put(mapKey(entry.getKey()), toJsonValue(entry.getValue(), depth + 1));
+			}
+			return result;
+		}
+		else if (value instanceof Collection) {
+			Collection<?> collection = (Collection<?>) value;
+			List<Object> result = new ArrayList<>(collection.size());
+			for (Object element : collection) {
+				result.add(toJsonValue(element, depth + 1));
+			}
+			return result;
+		}
+		else if (value.getClass().isArray()) {
+			Object[] array = ObjectUtils.toObjectArray(value);
+			List<Object> result = new ArrayList<>(array.length);
+			for (Object element : array) {
+				result.add(toJsonValue(element, depth + 1));
+			}
+			return result;
+		}
+		else {
+			return readPlan(value.getClass()).read(value, depth + 1);
+		}
+	}
+
+	private static Object integral(long value) {
+		if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+			return (int) value;
+		}
+		else {
+			return value;
+		}
+	}
+
+	/*
+	 * Numbers are written as their toString() and read back as an Integer, Long or
+	 * BigInteger (depending on the magnitude), or a Double if they have a fraction or
+	 * an exponent.
+	 */
+	private static Object number(String text) {
+		if (text.indexOf('.') >= 0 || text.indexOf('e') >= 0 || text.indexOf('E') >= 0) {
+			return Double.valueOf(text);
+		}
+		BigInteger value = new BigInteger(text);
+		return value.bitLength() < 64 ? integral(value.longValue()) : value;
+	}
+
+	private static String enumName(Enum<?> value) {
+		if (readPlan(value.getDeclaringClass()) != PLAIN_ENUM) {
+			throw UnsupportedValueException.INSTANCE;
+		}
+		return value.name();
+	}
+
+	private static String mapKey(Object key) {
+		if (key instanceof String) {
+			return (String) key;
+		}
+		else if (key instanceof Integer || key instanceof Long || key instanceof Short || key instanceof Byte) {
+			return key.toString();
+		}
+		else if (key instanceof Enum) {
+			return enumName((Enum<?>) key);
+		}
+		else {
+			throw UnsupportedValueException.INSTANCE;
+		}
+	}
+
+	private static ReadPlan buildReadPlan(Class<?> type) {
+		if (type.isEnum()) {
+			return hasUnsupportedAnnotations(type) ? UNSUPPORTED : PLAIN_ENUM;
+		}
+		if (!isPlainBeanClass(type) || hasUnsupportedAnnotations(type)) {
+			return UNSUPPORTED;
+		}
+		try {
+			MethodHandles.Lookup lookup = MethodHandles.lookup();
+			Map<String, MethodHandle> getters = new LinkedHashMap<>();
+			for (Field field : type.getFields()) {
+				if (!Modifier.isStatic(field.getModifiers()) && !Modifier.isTransient(field.getModifiers())) {
+					ReflectionUtils.makeAccessible(field);
+					getters.put(field.getName(), lookup.unreflectGetter(field).asType(GETTER_TYPE));
+				}
+			}
+			Map<String, Integer> priorities = new HashMap<>();
+			for (Method method : type.getMethods()) {
+				String name = getterPropertyName(method);
+				if (name != null) {
+					int priority = method.getName().startsWith("get") ? 1 : 2;
+					Integer existing = priorities.put(name, priority);
+					if (existing != null && existing == priority) {
+						return UNSUPPORTED; // conflicting getters
+					}
+					if (existing == null || priority < existing) {
+						ReflectionUtils.makeAccessible(method);
+						getters.put(name, lookup.unreflect(method).asType(GETTER_TYPE));
+					}
+					else {
+						priorities.put(name, existing);
+					}
+				}
+			}
+			if (getters.isEmpty()) {
+				return UNSUPPORTED;
+			}
+			return new ReadPlan(getters.keySet().toArray(new String[0]), getters.values().toArray(new MethodHandle[0]));
+		}
+		catch (Exception e) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Cannot access the properties of " + type + "; falling back to JSON", e);
+			}
+			return UNSUPPORTED;
+		}
+	}
+
+	/*
+	 * The property name of a getter, as determined by Jackson (by default): the leading
+	 * upper case characters are lower cased.
+	 */
+	private static String getterPropertyName(Method method) {
+		if (Modifier.isStatic(method.getModifiers()) || method.getParameterCount() > 0 || method.isBridge()
+				|| method.isSynthetic() || method.getDeclaringClass() == Object.class
+				|| method.getReturnType() == void.class) {
+			return null;
+		}
+		String name = method.getName();
+		int offset;
+		if (name.startsWith("get")) {
+			offset = 3;
+		}
+		else if (name.startsWith("is")
+				&& (method.getReturnType() == boolean.class || method.getReturnType() == Boolean.class)) {
+			offset = 2;
+		}
+		else {
+			return null;
+		}
+		if (name.length() == offset) {
+			return null;
+		}
+		StringBuilder builder = new StringBuilder(name.length() - offset);
+		int i = offset;
+		while (i < name.length() && Character.isUpperCase(name.charAt(i))) {
+			builder.append(Character.toLowerCase(name.charAt(i++)));
+		}
+		return builder.append(name, i, name.length()).toString();
+	}
+
+	private static boolean isPlainBeanClass(Class<?> type) {
+		if (type.isPrimitive() || type.isArray() || type.isInterface() || type.isAnnotation()
+				|| Proxy.isProxyClass(type) || type.getName().contains("$$")) {
+			return false;
+		}
+		for (Class<?> superclass = type; superclass != Object.class; superclass = superclass.getSuperclass()) {
+			if (isInUnsupportedPackage(superclass)) {
+				return false;
+			}
+		}
+		for (Class<?> iface : ClassUtils.getAllInterfacesForClassAsSet(type)) {
+			if (isInUnsupportedPackage(iface) && !iface.equals(java.io.Serializable.class)
+					&& !iface.equals(Cloneable.class) && !iface.equals(Comparable.class)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isInUnsupportedPackage(Class<?> type) {
+		String name = type.getName();
+		for (String prefix : UNSUPPORTED_PACKAGES) {
+			if (name.startsWith(prefix)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean hasUnsupportedAnnotations(Class<?> type) {
+		List<Class<?>> types = new ArrayList<>(ClassUtils.getAllInterfacesForClassAsSet(type));
+		for (Class<?> superclass = type; superclass != null && superclass != Object.class;
+				superclass = superclass.getSuperclass()) {
+			types.add(superclass);
+		}
+		for (Class<?> candidate : types) {
+			if (hasUnsupportedAnnotations((AnnotatedElement) candidate)) {
+				return true;
+			}
+			for (Field field : candidate.getDeclaredFields()) {
+				if (hasUnsupportedAnnotations(field)) {
+					return true;
+				}
+			}
+			for (Method method : candidate.getDeclaredMethods()) {
+				if (hasUnsupportedAnnotations(method)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private static boolean hasUnsupportedAnnotations(AnnotatedElement element) {
+		for (Annotation annotation : element.getDeclaredAnnotations()) {
+			if (isUnsupportedAnnotationType(annotation.annotationType())) {
+				return true;
+			}
+			// for example, an annotation meta-annotated with @JacksonAnnotationsInside
+			for (Annotation metaAnnotation : annotation.annotationType().getDeclaredAnnotations()) {
+				if (isUnsupportedAnnotationType(metaAnnotation.annotationType())) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private static boolean isUnsupportedAnnotationType(Class<? extends Annotation> annotationType) {
+		String name = annotationType.getName();
+		for (String prefix : UNSUPPORTED_ANNOTATION_PACKAGES) {
+			if (name.startsWith(prefix)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static final class ReadPlan {
+
+		private final String[] names;
+
+		private final MethodHandle[] getters;
+
+		ReadPlan(String[] names, MethodHandle[] getters) {
+			this.names = names;
+			this.getters = getters;
+		}
+
+		Map<String, Object> read(Object bean, int depth) {
+			if (this == UNSUPPORTED || this == PLAIN_ENUM) {
+				throw UnsupportedValueException.INSTANCE;
+			}
+			Map<String, Object> result = new LinkedHashMap<>(this.names.length * 4 / 3 + 1);
+			for (int i = 0; i < this.names.length; i++) {
+				Object value;
+				try {
+					value = (Object) this.getters[i].invokeExact(bean);
+				}
+				catch (Throwable e) {
+					// let the JSON round trip report the failure
+					throw UnsupportedValueException.INSTANCE;
+				}
+				result.put(this.names[i], toJsonValue(value, depth));
+			}
+			return result;
+		}
+
+	}
+
+	private static final class WritePlan {
+
+		private final Map<String, Setter> setters = new HashMap<>();
+
+		WritePlan(Class<?> type) {
+			MethodHandles.Lookup lookup = MethodHandles.lookup();
+			for (PropertyDescriptor descriptor : BeanUtils.getPropertyDescriptors(type)) {
+				Method writeMethod = descriptor.getWriteMethod();
+				if (writeMethod != null) {
+					try {
+						ReflectionUtils.makeAccessible(writeMethod);
+						MethodHandle handle = lookup.unreflect(writeMethod).asType(SETTER_TYPE);
+						TypeDescriptor typeDescriptor = new TypeDescriptor(new Property(type,
+								descriptor.getReadMethod(), writeMethod, descriptor.getName()));
+						this.setters.put(descriptor.getName(),
+								new Setter(descriptor.getName(), handle, typeDescriptor));
+					}
+					catch (Exception e) {
+						if (logger.isDebugEnabled()) {
+							logger.debug("Cannot access the setter of property '" + descriptor.getName()
+									+ "' of " + type, e);
+						}
+					}
+				}
+			}
+		}
+
+		/*
+		 * As with a BeanWrapper, fall back to the (un)capitalized property name.
+		 */
+		Setter getSetter(String name) {
+			Setter setter = this.setters.get(name);
+			if (setter == null) {
+				setter = this.setters.get(StringUtils.uncapitalize(name));
+				if (setter == null) {
+					setter = this.setters.get(StringUtils.capitalize(name));
+				}
+			}
+			return setter;
+		}
+
+	}
+
+	private static final class Setter {
+
+		private final String name;
+
+		private final MethodHandle handle;
+
+		private final TypeDescriptor type;
+
+		Setter(String name, MethodHandle handle, TypeDescriptor type) {
+			this.name = name;
+			this.handle = handle;
+			this.type = type;
+		}
+
+	}
+
+	@SuppressWarnings("serial")
+	private static final class UnsupportedValueException extends RuntimeException {
+
+		static final UnsupportedValueException INSTANCE = new UnsupportedValueException();
+
+		private UnsupportedValueException() {
+			super(null, null, false, false);
+		}
+
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2014 the original author or authors.
+ * Copyright 2002-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,9 @@
 
 package org.springframework.integration.transformer;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.UUID;
 
 import org.springframework.integration.store.MessageStore;
@@ -27,6 +30,9 @@ import org.springframework.util.Assert;
  * Transformer that accepts a Message whose payload is a UUID and retrieves the Message associated
  * with that id from a MessageStore if available. An Exception will be thrown if no Message with
  * that ID can be retrieved from the given MessageStore.
+ * <p>
+ * Optionally, the most recently retrieved messages can be cached, so that a message
+ * checked out by several branches of a flow is only retrieved from the store once.
  *
  * @author Mark Fisher
  * @author Oleg Zhurakousky
@@ -39,6 +45,8 @@ public class ClaimCheckOutTransformer extends AbstractTransformer {
 
 	private volatile boolean removeMessage = false;
 
+	private volatile Map<UUID, Message<?>> cache;
+
 
 	/**
 	 * Create a claim check-out transformer that will delegate to the provided MessageStore.
@@ -54,6 +62,38 @@ public class ClaimCheckOutTransformer extends AbstractTransformer {
 		this.removeMessage = removeMessage;
 	}
 
+	/**
+	 * Set the maximum number of retrieved messages to keep in a local cache, so that
+	 * repeated check-outs of the same claim don't have to retrieve the message from
+	 * the store again; default 0 (no cache). The least recently used message is evicted
+	 * when the cache is full. A message is evicted when it is removed from the store by
+	 * this transformer, but not when it is removed by anything else (such as another
+	 * transformer with {@code removeMessage = true}, or a store expiry); a cached message
+	 * can therefore still be checked out after it has been removed from the store. Only
+	 * use a cache when the claim checks are removed by this transformer, or when checking
+	 * out a removed message is acceptable.
+	 * @param cacheSize the cache size.
+	 * @since 5.1
+	 */
+	public void setCacheSize(int cacheSize) {
+		Assert.isTrue(cacheSize >= 0, "'cacheSize' cannot be negative");
+		if (cacheSize == 0) {
+			this.cache = null;
+		}
+		else {
+			this.cache = Collections.synchronizedMap(new LinkedHashMap<UUID, Message<?>>(16, 0.75f, true) {
+
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<UUID, Message<?>> eldest) {
+					return size() > cacheSize;
+				}
+
+			});
+		}
+	}
+
 	@Override
 	public String getComponentType() {
 		return "claim-check-out";
@@ -65,12 +105,25 @@ public class ClaimCheckOutTransformer extends AbstractTransformer {
 		Assert.isTrue(message.getPayload() instanceof UUID, "payload must be a UUID");
 		UUID id = (UUID) message.getPayload();
 		Message<?> retrievedMessage;
+		Map<UUID, Message<?>> cache = this.cache;
 		if (this.removeMessage) {
+			if (cache != null) {
+				cache.remove(id);
+			}
 			retrievedMessage = this.messageStore.removeMessage(id);
 			if (logger.isDebugEnabled()) {
 				logger.debug("Removed Message with claim-check '" + id + "' from the MessageStore.");
 			}
 		}
+		else if (cache != null) {
+			retrievedMessage = cache.get(id);
+			if (retrievedMessage == null) {
+				retrievedMessage = this.messageStore.getMessage(id);
+				if (retrievedMessage != null) {
+					cache.put(id, retrievedMessage);
+				}
+			}
+		}
 		else {
 			retrievedMessage = this.messageStore.getMessage(id);
 		}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2017 the original author or authors.
+ * Copyright 2002-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -33,6 +33,8 @@ import org.springframework.validation.DataBinder;
  * Such bean must be of 'prototype' scope otherwise {@link MessageTransformationException} will be thrown.
  * This transformer is integrated with the {@link ConversionService} allowing values in the Map to be converted
  * to types that represent the properties of the Object.
+ * Maps of simple property names are applied with cached setters; nested or indexed
+ * property paths are bound with a {@link DataBinder}.
  *
  * @author Oleg Zhurakousky
  * @author Artem Bilan
@@ -81,13 +83,15 @@ public class MapToObjectTransformer extends AbstractPayloadTransformer<Map<?, ?>
 				? BeanUtils.instantiateClass(this.targetClass)
 				: this.getBeanFactory().getBean(this.targetBeanName);
 
-		DataBinder binder = new DataBinder(target);
 		ConversionService conversionService = getConversionService();
 		if (conversionService == null) {
 			conversionService = DefaultConversionService.getSharedInstance();
 		}
-		binder.setConversionService(conversionService);
-		binder.bind(new MutablePropertyValues(payload));
+		if (!BeanPropertyPlans.bind(target, payload, conversionService)) {
+			DataBinder binder = new DataBinder(target);
+			binder.setConversionService(conversionService);
+			binder.bind(new MutablePropertyValues(payload));
+		}
 
 		return target;
 	}
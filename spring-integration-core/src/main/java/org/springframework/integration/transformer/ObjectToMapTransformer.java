@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2017 the original author or authors.
+ * Copyright 2002-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -21,6 +21,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
 
+import org.springframework.integration.support.json.JacksonPresent;
 import org.springframework.integration.support.json.JsonObjectMapper;
 import org.springframework.integration.support.json.JsonObjectMapperProvider;
 import org.springframework.util.Assert;
@@ -38,6 +39,10 @@ import org.springframework.util.StringUtils;
  * Object hierarchy is represented when 'shouldFlattenKeys' is TRUE.
  *<p>
  * The transformation is based on to and then from JSON conversion.
+ * When constructed with the default {@link JsonObjectMapper} (Jackson), the properties of
+ * plain beans are read directly, with cached accessors, producing the same {@code Map};
+ * types that Jackson might serialize differently (for example, because of annotations)
+ * still go through JSON.
  *
  * <code>
  * public class Person {
@@ -67,6 +72,8 @@ public class ObjectToMapTransformer extends AbstractPayloadTransformer<Object, M
 
 	private final JsonObjectMapper<?, ?> jsonObjectMapper;
 
+	private final boolean readPropertiesDirectly;
+
 	private volatile boolean shouldFlattenKeys = true;
 
 	/**
@@ -74,7 +81,7 @@ public class ObjectToMapTransformer extends AbstractPayloadTransformer<Object, M
 	 * {@link JsonObjectMapperProvider#newInstance() factory}.
 	 */
 	public ObjectToMapTransformer() {
-		this(JsonObjectMapperProvider.newInstance());
+		this(JsonObjectMapperProvider.newInstance(), JacksonPresent.isJackson2Present());
 	}
 
 	/**
@@ -83,8 +90,13 @@ public class ObjectToMapTransformer extends AbstractPayloadTransformer<Object, M
 	 * @since 5.0
 	 */
 	public ObjectToMapTransformer(JsonObjectMapper<?, ?> jsonObjectMapper) {
+		this(jsonObjectMapper, false);
+	}
+
+	private ObjectToMapTransformer(JsonObjectMapper<?, ?> jsonObjectMapper, boolean readPropertiesDirectly) {
 		Assert.notNull(jsonObjectMapper, "'jsonObjectMapper' must not be null");
 		this.jsonObjectMapper = jsonObjectMapper;
+		this.readPropertiesDirectly = readPropertiesDirectly;
 	}
 
 	public void setShouldFlattenKeys(boolean shouldFlattenKeys) {
@@ -94,7 +106,10 @@ public class ObjectToMapTransformer extends AbstractPayloadTransformer<Object, M
 	@Override
 	@SuppressWarnings("unchecked")
 	protected Map<String, Object> transformPayload(Object payload) throws Exception {
-		Map<String, Object> result = this.jsonObjectMapper.fromJson(this.jsonObjectMapper.toJson(payload), Map.class);
+		Map<String, Object> result = this.readPropertiesDirectly ? BeanPropertyPlans.toMap(payload) : null;
+		if (result == null) {
+			result = this.jsonObjectMapper.fromJson(this.jsonObjectMapper.toJson(payload), Map.class);
+		}
 		if (this.shouldFlattenKeys) {
 			result = this.flattenMap(result);
 		}
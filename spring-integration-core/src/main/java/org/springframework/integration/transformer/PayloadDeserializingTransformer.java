@@ -16,10 +16,17 @@
 
 package org.springframework.integration.transformer;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.core.serializer.Deserializer;
+import org.springframework.integration.codec.Codec;
 import org.springframework.integration.support.converter.WhiteListDeserializingConverter;
+import org.springframework.messaging.Message;
 import org.springframework.util.Assert;
+import org.springframework.util.StreamUtils;
 
 /**
  * Transformer that deserializes the inbound byte array payload to an object by delegating
@@ -28,6 +35,10 @@ import org.springframework.util.Assert;
  *
  * <p>
  * The byte array payload must be a result of equivalent serialization.
+ * <p>
+ * {@link ByteBuffer} and {@link InputStream} payloads are also accepted; they are read
+ * directly, without copying their contents to a byte array first (unless a custom
+ * converter is used).
  *
  * @author Mark Fisher
  * @author Gary Russell
@@ -35,6 +46,9 @@ import org.springframework.util.Assert;
  */
 public class PayloadDeserializingTransformer extends PayloadTypeConvertingTransformer<byte[], Object> {
 
+	private Codec codec;
+
+	private Class<?> targetType = Object.class;
 
 	public PayloadDeserializingTransformer() {
 		doSetConverter(new WhiteListDeserializingConverter());
@@ -63,9 +77,107 @@ public class PayloadDeserializingTransformer extends PayloadTypeConvertingTransf
 		((WhiteListDeserializingConverter) this.converter).setWhiteListPatterns(patterns);
 	}
 
+	/**
+	 * Set a {@link Codec} to decode the payload, instead of a converter; for example, a
+	 * {@link org.springframework.integration.codec.kryo.PojoCodec}. When set, the codec
+	 * takes precedence over any converter.
+	 * @param codec the codec.
+	 * @since 5.1
+	 * @see #setTargetType(Class)
+	 */
+	public void setCodec(Codec codec) {
+		Assert.notNull(codec, "'codec' cannot be null");
+		this.codec = codec;
+	}
+
+	/**
+	 * Set the type to decode to when a {@link Codec} is used; default {@link Object}.
+	 * @param targetType the target type.
+	 * @since 5.1
+	 */
+	public void setTargetType(Class<?> targetType) {
+		Assert.notNull(targetType, "'targetType' cannot be null");
+		this.targetType = targetType;
+	}
+
+	@Override
+	public Object doTransform(Message<?> message) throws Exception {
+		Object payload = message.getPayload();
+		if (payload instanceof ByteBuffer) {
+			return transformStream(inputStream((ByteBuffer) payload));
+		}
+		else if (payload instanceof InputStream) {
+			return transformStream((InputStream) payload);
+		}
+		else {
+			return super.doTransform(message);
+		}
+	}
+
 	@Override
 	protected Object transformPayload(byte[] payload) throws Exception {
+		if (this.codec != null) {
+			return this.codec.decode(payload, this.targetType);
+		}
 		return this.converter.convert(payload);
 	}
 
+	private Object transformStream(InputStream payload) throws Exception {
+		if (this.codec != null) {
+			return this.codec.decode(payload, this.targetType);
+		}
+		else if (this.converter instanceof WhiteListDeserializingConverter) {
+			return ((WhiteListDeserializingConverter) this.converter).convert(payload);
+		}
+		else {
+			return this.converter.convert(StreamUtils.copyToByteArray(payload));
+		}
+	}
+
+	private static InputStream inputStream(ByteBuffer payload) {
+		if (payload.hasArray()) {
+			return new ByteArrayInputStream(payload.array(), payload.arrayOffset() + payload.position(),
+					payload.remaining());
+		}
+		else {
+			return new ByteBufferInputStream(payload.duplicate());
+		}
+	}
+
+	/**
+	 * Reads a (direct) buffer without changing the payload's position.
+	 */
+	private static final class ByteBufferInputStream extends InputStream {
+
+		private final ByteBuffer buffer;
+
+		ByteBufferInputStream(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		@Override
+		public int read() {
+			return this.buffer.hasRemaining() ? this.buffer.get() & 0xff : -1;
+		}
+
+		@Override
+		public int read(byte[] bytes, int offset, int length) {
+			if (length == 0) {
+				return 0;
+			}
+			if (!this.buffer.hasRemaining()) {
+				return -1;
+			}
+			int count = Math.min(length, this.buffer.remaining());
+			this.buffer.get(bytes, offset, count);
+			return count;
+		}
+
+		@Override
+		public int available() {
+			return this.buffer.remaining();
+		}
+
+	}
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2010 the original author or authors.
+ * Copyright 2002-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,15 +16,26 @@
 
 package org.springframework.integration.transformer;
 
+import java.io.ByteArrayOutputStream;
+import java.util.Map;
+
+import org.springframework.core.serializer.DefaultSerializer;
 import org.springframework.core.serializer.Serializer;
-import org.springframework.core.serializer.support.SerializingConverter;
+import org.springframework.core.serializer.support.SerializationFailedException;
+import org.springframework.integration.codec.Codec;
+import org.springframework.util.Assert;
+import org.springframework.util.ConcurrentReferenceHashMap;
 
 /**
  * Transformer that serializes the inbound payload into a byte array by delegating to a
- * Converter&lt;Object, byte[]&gt;. Default delegate is a {@link SerializingConverter} using
- * Java serialization.
+ * {@link Serializer} (Java serialization by default), a {@link Codec}, or a
+ * Converter&lt;Object, byte[]&gt;.
+ *
+ * <p>The payload instance must be Serializable if the default serializer is used.
  *
- * <p>The payload instance must be Serializable if the default converter is used.
+ * <p>Unless a converter is provided, payloads are serialized into a buffer that is reused
+ * by the current thread; the buffer is grown up front to the size of the previous payload
+ * of the same type, so that it is not repeatedly grown (and copied) while serializing.
  *
  * @author Mark Fisher
  * @author Gary Russell
@@ -32,16 +43,94 @@ import org.springframework.core.serializer.support.SerializingConverter;
  */
 public class PayloadSerializingTransformer extends PayloadTypeConvertingTransformer<Object, byte[]> {
 
+	private static final int INITIAL_BUFFER_SIZE = 1024;
+
+	private static final int MAX_RETAINED_BUFFER_SIZE = 64 * 1024;
+
+	private static final ThreadLocal<PooledByteArrayOutputStream> buffers = new ThreadLocal<>();
+
+	private final Map<Class<?>, Integer> sizeHints = new ConcurrentReferenceHashMap<>();
+
+	private Serializer<Object> serializer = new DefaultSerializer();
+
+	private Codec codec;
+
+	/**
+	 * Set the serializer to use; default Java serialization.
+	 * @param serializer the serializer.
+	 */
 	public void setSerializer(Serializer<Object> serializer) {
-		this.setConverter(new SerializingConverter(serializer));
+		Assert.notNull(serializer, "'serializer' cannot be null");
+		this.serializer = serializer;
+		this.codec = null;
+		this.converter = null;
+	}
+
+	/**
+	 * Set a {@link Codec} to encode the payload, instead of a {@link Serializer}; for
+	 * example, a {@link org.springframework.integration.codec.kryo.PojoCodec}.
+	 * @param codec the codec.
+	 * @since 5.1
+	 */
+	public void setCodec(Codec codec) {
+		Assert.notNull(codec, "'codec' cannot be null");
+		this.codec = codec;
+		this.converter = null;
 	}
 
 	@Override
 	protected byte[] transformPayload(Object payload) throws Exception {
-		if (this.converter == null) {
-			this.setConverter(new SerializingConverter());
+		if (this.converter != null) {
+			return this.converter.convert(payload);
+		}
+		PooledByteArrayOutputStream buffer = buffers.get();
+		int sizeHint = this.sizeHints.getOrDefault(payload.getClass(), INITIAL_BUFFER_SIZE);
+		if (buffer == null) {
+			buffer = new PooledByteArrayOutputStream(sizeHint);
+		}
+		else {
+			buffers.remove(); // in case the serializer re-enters this method
+			buffer.ensureCapacity(sizeHint);
 		}
-		return this.converter.convert(payload);
+		try {
+			if (this.codec != null) {
+				this.codec.encode(payload, buffer);
+			}
+			else {
+				this.serializer.serialize(payload, buffer);
+			}
+			this.sizeHints.put(payload.getClass(), buffer.size());
+			return buffer.toByteArray();
+		}
+		catch (Throwable e) {
+			throw new SerializationFailedException("Failed to serialize object using "
+					+ (this.codec != null ? this.codec : this.serializer).getClass().getSimpleName(), e);
+		}
+		finally {
+			buffer.recycle();
+		}
+	}
+
+	private static final class PooledByteArrayOutputStream extends ByteArrayOutputStream {
+
+		PooledByteArrayOutputStream(int size) {
+			super(size);
+		}
+
+		void ensureCapacity(int capacity) {
+			if (capacity > this.buf.length) {
+				this.buf = new byte[capacity];
+			}
+		}
+
+		void recycle() {
+			if (this.buf.length > MAX_RETAINED_BUFFER_SIZE) {
+				return; // let large buffers be garbage collected
+			}
+			reset();
+			buffers.set(this);
+		}
+
 	}
 
 }
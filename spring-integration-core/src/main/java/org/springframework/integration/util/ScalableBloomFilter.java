@@ -0,0 +1,190 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.util;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.util.Assert;
+
+/**
+ * A thread-safe, lock-free Bloom filter for {@link String} keys that grows as keys
+ * are added. When the current stage reaches its capacity, a new stage with twice the
+ * capacity and half the false positive probability is added, so the overall false
+ * positive probability stays bounded by twice the configured value.
+ * <p>
+ * {@link #mightContain(String)} never returns {@code false} for a key that has been
+ * {@link #put(String) put}; it may return {@code true} for a key that has not.
+ *
+ * @since 5.1
+ */
+public class ScalableBloomFilter {
+
+	private static final double LN2 = Math.log(2);
+
+	private final AtomicReference<Stage[]> stages;
+
+	/**
+	 * Create a filter with an initial capacity of 10000 keys and a false positive
+	 * probability of 0.01.
+	 */
+	public ScalableBloomFilter() {
+		this(10000, 0.01); // NOSONAR magic number
+	}
+
+	/**
+	 * Create a filter.
+	 * @param initialCapacity the number of keys the first stage is sized for.
+	 * @param falsePositiveProbability the false positive probability of the first stage.
+	 */
+	public ScalableBloomFilter(int initialCapacity, double falsePositiveProbability) {
+		Assert.isTrue(initialCapacity > 0, "'initialCapacity' must be greater than 0");
+		Assert.isTrue(falsePositiveProbability > 0 && falsePositiveProbability < 1,
+				"'falsePositiveProbability' must be between 0 and 1");
+		this.stages = new AtomicReference<>(new Stage[] { new Stage(initialCapacity, falsePositiveProbability) });
+	}
+
+	/**
+	 * Return false if the key has definitely not been added to the filter.
+	 * @param key the key.
+	 * @return false if the key is absent, true if it might be present.
+	 */
+	public boolean mightContain(String key) {
+		long hash1 = hash(key);
+		long hash2 = mix(hash1);
+		for (Stage stage : this.stages.get()) {
+			if (stage.mightContain(hash1, hash2)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Add the key to the filter.
+	 * @param key the key.
+	 */
+	public void put(String key) {
+		long hash1 = hash(key);
+		long hash2 = mix(hash1);
+		Stage[] current = this.stages.get();
+		Stage stage = current[current.length - 1];
+		stage.put(hash1, hash2);
+		if (stage.count.incrementAndGet() == stage.capacity) {
+			Stage[] grown = Arrays.copyOf(current, current.length + 1);
+			grown[current.length] = new Stage(stage.capacity * 2, stage.falsePositiveProbability / 2);
+			this.stages.compareAndSet(current, grown);
+		}
+	}
+
+	/**
+	 * Return the approximate number of keys added to the filter.
+	 * @return the count.
+	 */
+	public long getCount() {
+		long count = 0;
+		for (Stage stage : this.stages.get()) {
+			count += stage.count.get();
+		}
+		return count;
+	}
+
+	/**
+	 * Remove all keys, keeping only the first stage.
+	 */
+	public void clear() {
+		Stage first = this.stages.get()[0];
+		this.stages.set(new Stage[] { new Stage(first.capacity, first.falsePositiveProbability) });
+	}
+
+	private static long hash(String key) {
+		// FNV-1a over the UTF-16 code units
+		long hash = 0xcbf29ce484222325L;
+		for (int i = 0; i < key.length(); i++) {
+			hash ^= key.charAt(i);
+			hash *= 0x100000001b3L;
+		}
+		return mix(hash);
+	}
+
+	private static long mix(long value) {
+		// MurmurHash3 finalizer
+		long hash = value;
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb9fe1a85ec53L;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+
+	private static final class Stage {
+
+		private final int capacity;
+
+		private final double falsePositiveProbability;
+
+		private final AtomicLongArray bits;
+
+		private final long numberOfBits;
+
+		private final int numberOfHashes;
+
+		private final AtomicInteger count = new AtomicInteger();
+
+		Stage(int capacity, double falsePositiveProbability) {
+			this.capacity = capacity;
+			this.falsePositiveProbability = falsePositiveProbability;
+			long optimalBits = (long) Math.ceil(-capacity * Math.log(falsePositiveProbability) / (LN2 * LN2));
+			int words = (int) Math.min(Integer.MAX_VALUE - 8, (optimalBits + 63) / 64);
+			this.bits = new AtomicLongArray(Math.max(1, words));
+			this.numberOfBits = this.bits.length() * 64L;
+			this.numberOfHashes = Math.max(1, (int) Math.round((double) this.numberOfBits / capacity * LN2));
+		}
+
+		boolean mightContain(long hash1, long hash2) {
+			for (int i = 0; i < this.numberOfHashes; i++) {
+				long index = index(hash1, hash2, i);
+				if ((this.bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		void put(long hash1, long hash2) {
+			for (int i = 0; i < this.numberOfHashes; i++) {
+				long index = index(hash1, hash2, i);
+				int word = (int) (index >>> 6);
+				long mask = 1L << index;
+				long current = this.bits.get(word);
+				while ((current & mask) == 0 && !this.bits.compareAndSet(word, current, current | mask)) {
+					current = this.bits.get(word);
+				}
+			}
+		}
+
+		private long index(long hash1, long hash2, int i) {
+			long combined = hash1 + i * hash2;
+			return (combined & Long.MAX_VALUE) % this.numberOfBits;
+		}
+
+	}
+
+}
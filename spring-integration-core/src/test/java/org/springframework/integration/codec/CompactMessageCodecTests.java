@@ -0,0 +1,176 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.codec;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Date;
+import java.util.UUID;
+
+import org.junit.Test;
+
+import org.springframework.core.serializer.support.SerializingConverter;
+import org.springframework.integration.channel.QueueChannel;
+import org.springframework.integration.store.MessageGroupMetadata;
+import org.springframework.integration.store.MessageHolder;
+import org.springframework.integration.store.SimpleMessageGroup;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.integration.support.MutableMessage;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.support.ErrorMessage;
+import org.springframework.messaging.support.GenericMessage;
+import org.springframework.util.MimeTypeUtils;
+
+/**
+ * @since 5.1
+ */
+public class CompactMessageCodecTests {
+
+	private final CompactMessageCodec codec = new CompactMessageCodec();
+
+	@Test
+	public void testGenericMessage() throws Exception {
+		Message<String> message = MessageBuilder.withPayload("foo")
+				.setCorrelationId(UUID.randomUUID())
+				.setSequenceNumber(2)
+				.setSequenceSize(3)
+				.setPriority(5)
+				.setExpirationDate(12345L)
+				.setHeader(MessageHeaders.CONTENT_TYPE, MimeTypeUtils.TEXT_PLAIN)
+				.setHeader("string", "bar")
+				.setHeader("int", 42)
+				.setHeader("long", 42L)
+				.setHeader("true", true)
+				.setHeader("double", 1.5d)
+				.setHeader("float", 2.5f)
+				.setHeader("short", (short) 3)
+				.setHeader("byte", (byte) 4)
+				.setHeader("char", 'x')
+				.setHeader("date", new Date(1000))
+				.setHeader("bytes", new byte[] { 1, 2, 3 })
+				.setHeader("uuid", UUID.randomUUID())
+				.setReplyChannel(new QueueChannel())
+				.build();
+		Message<?> decoded = this.codec.decode(this.codec.encode(message), Message.class);
+		assertThat(decoded).isExactlyInstanceOf(GenericMessage.class);
+		assertThat(decoded.getPayload()).isEqualTo("foo");
+		assertThat(decoded.getHeaders().getId()).isEqualTo(message.getHeaders().getId());
+		assertThat(decoded.getHeaders().getTimestamp()).isEqualTo(message.getHeaders().getTimestamp());
+		assertThat(decoded.getHeaders().get("bytes")).isEqualTo(new byte[] { 1, 2, 3 });
+		assertThat(decoded.getHeaders()).doesNotContainKey(MessageHeaders.REPLY_CHANNEL);
+		for (String name : message.getHeaders().keySet()) {
+			if (!name.equals("bytes") && !name.equals(MessageHeaders.REPLY_CHANNEL)) {
+				assertThat(decoded.getHeaders().get(name)).as(name).isEqualTo(message.getHeaders().get(name));
+			}
+		}
+	}
+
+	@Test
+	public void testSmallerThanJavaSerialization() throws Exception {
+		Message<String> message = MessageBuilder.withPayload("foo")
+				.setCorrelationId("bar")
+				.setSequenceNumber(1)
+				.setSequenceSize(1)
+				.build();
+		byte[] compact = this.codec.encode(message);
+		byte[] serialized = new SerializingConverter().convert(message);
+		assertThat(compact.length).isLessThan(serialized.length / 4);
+	}
+
+	@Test
+	public void testMessageTypes() throws Exception {
+		MutableMessage<byte[]> mutableMessage = new MutableMessage<>(new byte[] { 1 });
+		Message<?> decoded = this.codec.decode(this.codec.encode(mutableMessage), Message.class);
+		assertThat(decoded).isExactlyInstanceOf(MutableMessage.class);
+		assertThat(decoded.getHeaders().getId()).isEqualTo(mutableMessage.getHeaders().getId());
+		assertThat(decoded.getPayload()).isEqualTo(new byte[] { 1 });
+
+		ErrorMessage errorMessage = new ErrorMessage(new MessagingException("test"));
+		decoded = this.codec.decode(this.codec.encode(errorMessage), Message.class);
+		assertThat(decoded).isExactlyInstanceOf(ErrorMessage.class);
+		assertThat(decoded.getPayload()).isInstanceOf(MessagingException.class);
+
+		ErrorMessage withOriginal = new ErrorMessage(new RuntimeException("test"), new GenericMessage<>("foo"));
+		decoded = this.codec.decode(this.codec.encode(withOriginal), Message.class);
+		assertThat(((ErrorMessage) decoded).getOriginalMessage().getPayload()).isEqualTo("foo");
+	}
+
+	@Test
+	public void testStoreObjects() throws Exception {
+		MessageHolder holder = new MessageHolder(new GenericMessage<>("foo"));
+		holder.setTimestamp(1234L);
+		MessageHolder decodedHolder = this.codec.decode(this.codec.encode(holder), MessageHolder.class);
+		assertThat(decodedHolder.getMessage().getPayload()).isEqualTo("foo");
+		assertThat(decodedHolder.getMessageMetadata().getTimestamp()).isEqualTo(1234L);
+		assertThat(decodedHolder.getMessageMetadata().getMessageId())
+				.isEqualTo(holder.getMessage().getHeaders().getId());
+
+		MessageGroupMetadata metadata = new MessageGroupMetadata(new SimpleMessageGroup("group"));
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		this.codec.encode(metadata, out);
+		MessageGroupMetadata decodedMetadata =
+				this.codec.decode(new ByteArrayInputStream(out.toByteArray()), MessageGroupMetadata.class);
+		assertThat(decodedMetadata.getTimestamp()).isEqualTo(metadata.getTimestamp());
+	}
+
+	@Test
+	public void testReadsJavaSerialization() throws Exception {
+		Message<String> message = MessageBuilder.withPayload("foo").setHeader("bar", "baz").build();
+		byte[] serialized = new SerializingConverter().convert(message);
+		Message<?> decoded = this.codec.decode(serialized, Message.class);
+		assertThat(decoded).isEqualTo(message);
+	}
+
+	@Test
+	public void testInvalidLengths() throws Exception {
+		byte[] encoded = this.codec.encode(new GenericMessage<>("foo"));
+		// magic, version and kind, then the header count
+		assertThatThrownBy(() -> this.codec.decode(withVarInt(encoded, 4, Integer.MAX_VALUE), Message.class))
+				.isInstanceOf(IOException.class)
+				.hasMessageContaining("Invalid length " + Integer.MAX_VALUE);
+		assertThatThrownBy(() -> this.codec.decode(withVarInt(encoded, 4, -1), Message.class))
+				.isInstanceOf(IOException.class)
+				.hasMessageContaining("Invalid length -1");
+		// the payload is last: type and length, then "foo"
+		assertThatThrownBy(() -> this.codec.decode(withVarInt(encoded, encoded.length - 4, 100), Message.class))
+				.isInstanceOf(IOException.class)
+				.hasMessageContaining("Invalid length 100 with 3 bytes remaining");
+	}
+
+	/*
+	 * Replace the one byte var int at the index.
+	 */
+	private static byte[] withVarInt(byte[] bytes, int index, int value) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		out.write(bytes, 0, index);
+		int remaining = value;
+		while ((remaining & ~0x7f) != 0) {
+			out.write((remaining & 0x7f) | 0x80);
+			remaining >>>= 7;
+		}
+		out.write(remaining);
+		out.write(bytes, index + 1, bytes.length - index - 1);
+		return out.toByteArray();
+	}
+
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.codec.compression;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import org.springframework.core.serializer.support.SerializingConverter;
+import org.springframework.integration.codec.CompactMessageCodec;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.GenericMessage;
+
+/**
+ * @since 5.1
+ */
+public class CompressingCodecTests {
+
+	@Test
+	public void testCompressAboveThreshold() throws Exception {
+		CompactMessageCodec delegate = new CompactMessageCodec();
+		CompressingCodec codec = new CompressingCodec(delegate);
+		Message<String> large = new GenericMessage<>(json(1000));
+		byte[] encoded = codec.encode(large);
+		assertThat(encoded[0]).isEqualTo(DeflateCompressor.ID);
+		assertThat(encoded.length).isLessThan(delegate.encode(large).length / 10);
+		Message<?> decoded = codec.decode(encoded, Message.class);
+		assertThat(decoded.getPayload()).isEqualTo(large.getPayload());
+		assertThat(decoded.getHeaders().getId()).isEqualTo(large.getHeaders().getId());
+		decoded = codec.decode(new ByteArrayInputStream(encoded), Message.class);
+		assertThat(decoded.getPayload()).isEqualTo(large.getPayload());
+
+		Message<String> small = new GenericMessage<>("foo");
+		encoded = codec.encode(small);
+		assertThat(encoded[0]).isEqualTo(CompressionSupport.UNCOMPRESSED);
+		assertThat(Arrays.copyOfRange(encoded, 1, encoded.length)).isEqualTo(delegate.encode(small));
+		assertThat(codec.decode(encoded, Message.class).getPayload()).isEqualTo("foo");
+	}
+
+	@Test
+	public void testIncompressibleAndThreshold() throws Exception {
+		CompressionSupport support = new CompressionSupport();
+		support.setThreshold(0);
+		byte[] random = new byte[2048];
+		new Random(42).nextBytes(random);
+		byte[] marked = support.compress(random);
+		assertThat(marked[0]).isEqualTo(CompressionSupport.UNCOMPRESSED);
+		assertThat(marked.length).isEqualTo(random.length + 1);
+		assertThat(support.decompress(marked)).isEqualTo(random);
+	}
+
+	@Test
+	public void testAlternateCompressors() throws Exception {
+		byte[] data = json(100).getBytes(StandardCharsets.UTF_8);
+		byte[] marked = new CompressionSupport(new DeflateCompressor(9)).compress(data);
+		CompressionSupport reader = new CompressionSupport(new TestCompressor(), new DeflateCompressor());
+		assertThat(reader.decompress(marked)).isEqualTo(data);
+		assertThat(reader.compress(data)[0]).isEqualTo((byte) 42);
+		assertThatThrownBy(() -> new CompressionSupport().decompress(reader.compress(data)))
+				.isInstanceOf(IOException.class)
+				.hasMessageContaining("Unknown compression marker: 42");
+		byte[] truncated = Arrays.copyOf(marked, marked.length / 2);
+		assertThatThrownBy(() -> reader.decompress(truncated))
+				.isInstanceOf(IOException.class)
+				.hasMessageContaining("truncated");
+	}
+
+	@Test
+	public void testDecodeDataWrittenWithoutCompression() throws Exception {
+		CompactMessageCodec delegate = new CompactMessageCodec();
+		CompressingCodec codec = new CompressingCodec(delegate);
+		Message<String> message = new GenericMessage<>("foo");
+		assertThat(codec.decode(delegate.encode(message), Message.class)).isEqualTo(message);
+		assertThat(codec.decode(new SerializingConverter().convert(message), Message.class)).isEqualTo(message);
+		assertThatThrownBy(() -> new CompressionSupport(new TestCompressor((byte) 0x53)))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("is reserved");
+	}
+
+	@Test
+	public void testMaxDecompressedLength() throws Exception {
+		CompressionSupport support = new CompressionSupport();
+		byte[] data = json(100).getBytes(StandardCharsets.UTF_8);
+		byte[] marked = support.compress(data);
+		support.setMaxDecompressedLength(data.length - 1);
+		assertThatThrownBy(() -> support.decompress(marked))
+				.isInstanceOf(IOException.class)
+				.hasMessageContaining("exceeds the maximum " + (data.length - 1));
+		assertThatThrownBy(() -> support.decompress(marked, Integer.MAX_VALUE))
+				.isInstanceOf(IOException.class)
+				.hasMessageContaining("exceeds the maximum " + (data.length - 1));
+
+		// a corrupt original length doesn't allocate the array up front
+		support.setMaxDecompressedLength(Integer.MAX_VALUE);
+		marked[1] = 0x7f;
+		assertThatThrownBy(() -> support.decompress(marked))
+				.isInstanceOf(IOException.class)
+				.hasMessageContaining("truncated");
+	}
+
+	private static String json(int count) {
+		StringBuilder builder = new StringBuilder("[");
+		for (int i = 0; i < count; i++) {
+			builder.append("{\"name\":\"foo\",\"value\":").append(i % 10).append("},");
+		}
+		return builder.append("{}]").toString();
+	}
+
+	private static class TestCompressor extends DeflateCompressor {
+
+		private final byte id;
+
+		TestCompressor() {
+			this((byte) 42);
+		}
+
+		TestCompressor(byte id) {
+			this.id = id;
+		}
+
+		@Override
+		public byte getId() {
+			return this.id;
+		}
+
+	}
+
+}
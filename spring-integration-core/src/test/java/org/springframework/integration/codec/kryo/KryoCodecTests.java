@@ -1,5 +1,5 @@
 /*
- * Copyright 2015-2016 the original author or authors.
+ * Copyright 2015-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,18 +16,31 @@
 
 package org.springframework.integration.codec.kryo;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.Test;
 
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.GenericMessage;
+
 /**
  * @author David Turanski
  * @since 4.2
@@ -124,6 +137,55 @@ public class KryoCodecTests {
 		assertEquals(2, foo2.get("two"));
 	}
 
+	@Test
+	public void testByteBufferSerialization() throws IOException {
+		MessageCodec codec = new MessageCodec();
+		codec.warmUp();
+		Message<String> message = new GenericMessage<>("foo");
+		byte[] bytes = codec.encode(message);
+		for (ByteBuffer buffer : new ByteBuffer[] { ByteBuffer.allocate(1024),
+				ByteBuffer.allocateDirect(1024).order(ByteOrder.LITTLE_ENDIAN) }) {
+
+			ByteOrder order = buffer.order();
+			buffer.put((byte) 42);
+			codec.encode(message, buffer);
+			assertEquals(1 + bytes.length, buffer.position());
+			assertEquals(order, buffer.order());
+			buffer.flip();
+			byte[] written = new byte[bytes.length];
+			buffer.get();
+			buffer.duplicate().get(written);
+			assertArrayEquals(bytes, written);
+			Message<?> decoded = codec.decode(buffer, Message.class);
+			assertEquals("foo", decoded.getPayload());
+			assertEquals(0, buffer.remaining());
+		}
+	}
+
+	@Test
+	public void testConcurrentPooledSerialization() throws Exception {
+		PojoCodec codec = new PojoCodec();
+		ExecutorService exec = Executors.newFixedThreadPool(4);
+		List<Future<?>> futures = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			futures.add(exec.submit(() -> {
+				for (int j = 0; j < 1000; j++) {
+					SomeClassWithNoDefaultConstructors foo = new SomeClassWithNoDefaultConstructors("foo", j);
+					ByteArrayOutputStream bos = new ByteArrayOutputStream();
+					codec.encode(foo, bos);
+					assertEquals(foo, codec.decode(new ByteArrayInputStream(bos.toByteArray()),
+							SomeClassWithNoDefaultConstructors.class));
+					assertEquals(foo, codec.decode(codec.encode(foo), SomeClassWithNoDefaultConstructors.class));
+				}
+				return null;
+			}));
+		}
+		for (Future<?> future : futures) {
+			future.get(30, TimeUnit.SECONDS);
+		}
+		exec.shutdownNow();
+	}
+
 	static class SomeClassWithNoDefaultConstructors {
 
 		private String val1;
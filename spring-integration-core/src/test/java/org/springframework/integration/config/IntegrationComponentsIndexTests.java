@@ -0,0 +1,124 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Collections;
+import java.util.Properties;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import org.springframework.integration.annotation.ServiceActivator;
+import org.springframework.util.ClassUtils;
+
+/**
+ * @since 5.1
+ */
+public class IntegrationComponentsIndexTests {
+
+	@Rule
+	public TemporaryFolder temp = new TemporaryFolder();
+
+	@Test
+	public void testIndexedRoot() {
+		String classFile = ClassUtils.getClassFileName(getClass());
+		String location = getClass().getResource(classFile).toString();
+		String root = location.substring(0,
+				location.length() - ClassUtils.convertClassNameToResourcePath(getClass().getName()).length()
+						- ".class".length());
+		Properties index = new Properties();
+		index.setProperty(Indexed.class.getName(), IntegrationComponentsIndex.ENDPOINT);
+		index.setProperty(Gateway.class.getName(), IntegrationComponentsIndex.GATEWAY);
+		IntegrationComponentsIndex componentsIndex =
+				new IntegrationComponentsIndex(Collections.singletonMap(root, index));
+		assertThat(componentsIndex.mayHaveMessagingAnnotations(Indexed.class)).isTrue();
+		assertThat(componentsIndex.mayHaveMessagingAnnotations(NotIndexed.class)).isFalse();
+		assertThat(componentsIndex.mayHaveMessagingAnnotations(new NotIndexed() { }.getClass())).isTrue();
+		assertThat(componentsIndex.mayHaveMessagingAnnotations(String.class)).isTrue();
+		assertThat(componentsIndex.mayHaveMessagingAnnotations(ServiceActivator.class)).isTrue();
+		assertThat(componentsIndex.getGateways("org.springframework.integration")).containsExactly(
+				Gateway.class.getName());
+		assertThat(componentsIndex.getGateways("org.springframework.*.config")).containsExactly(
+				Gateway.class.getName());
+		assertThat(componentsIndex.getGateways("org.springframework.integration.channel")).isEmpty();
+	}
+
+	@Test
+	public void testLoadIndex() throws Exception {
+		File metaInf = this.temp.newFolder("META-INF");
+		Properties index = new Properties();
+		index.setProperty("com.example.Foo", IntegrationComponentsIndex.GATEWAY);
+		try (OutputStream out = new FileOutputStream(new File(metaInf, "spring-integration.components"))) {
+			index.store(out, null);
+		}
+		try (URLClassLoader classLoader =
+				new URLClassLoader(new URL[] { this.temp.getRoot().toURI().toURL() }, null)) {
+
+			IntegrationComponentsIndex componentsIndex = IntegrationComponentsIndex.loadIndex(classLoader);
+			assertThat(componentsIndex).isNotNull();
+			assertThat(IntegrationComponentsIndex.loadIndex(classLoader)).isSameAs(componentsIndex);
+			assertThat(componentsIndex.getGateways("com.example")).containsExactly("com.example.Foo");
+			assertThat(componentsIndex.isIndexed(new URL(this.temp.getRoot().toURI().toURL(),
+					"com/example/Foo.class"))).isTrue();
+		}
+		try (URLClassLoader classLoader = new URLClassLoader(new URL[0], null)) {
+			assertThat(IntegrationComponentsIndex.loadIndex(classLoader)).isNull();
+		}
+	}
+
+	@Test
+	public void testRootWithKotlinClassesIsIgnored() throws Exception {
+		File metaInf = this.temp.newFolder("META-INF");
+		Properties index = new Properties();
+		index.setProperty("com.example.Foo", IntegrationComponentsIndex.GATEWAY);
+		try (OutputStream out = new FileOutputStream(new File(metaInf, "spring-integration.components"))) {
+			index.store(out, null);
+		}
+		assertThat(new File(metaInf, "main.kotlin_module").createNewFile()).isTrue();
+		try (URLClassLoader classLoader =
+				new URLClassLoader(new URL[] { this.temp.getRoot().toURI().toURL() }, null)) {
+
+			assertThat(IntegrationComponentsIndex.loadIndex(classLoader)).isNull();
+		}
+	}
+
+	public static class Indexed {
+
+		@ServiceActivator
+		public void handle(String in) {
+			// empty
+		}
+
+	}
+
+	public static class NotIndexed {
+
+	}
+
+	public interface Gateway {
+
+	}
+
+}
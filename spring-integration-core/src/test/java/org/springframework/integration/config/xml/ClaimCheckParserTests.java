@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2013 the original author or authors.
+ * Copyright 2002-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -68,6 +68,12 @@ public class ClaimCheckParserTests {
 	@Autowired
 	private EventDrivenConsumer checkout;
 
+	@Autowired
+	private MessageChannel checkoutChannelB;
+
+	@Autowired
+	private EventDrivenConsumer checkoutWithCache;
+
 	@Autowired
 	private MessageStore sampleMessageStore;
 
@@ -120,4 +126,24 @@ public class ClaimCheckParserTests {
 		assertNull(this.sampleMessageStore.getMessage(payload));
 	}
 
+	@Test
+	public void integrationTestWithCache() {
+		ClaimCheckOutTransformer transformer = (ClaimCheckOutTransformer) new DirectFieldAccessor(
+				new DirectFieldAccessor(checkoutWithCache).getPropertyValue("handler")).getPropertyValue("transformer");
+		assertNotNull(new DirectFieldAccessor(transformer).getPropertyValue("cache"));
+		Message<?> message = this.sampleMessageStore.addMessage(MessageBuilder.withPayload("test").build());
+		UUID id = message.getHeaders().getId();
+		QueueChannel replyChannel = new QueueChannel();
+		checkoutChannelB.send(MessageBuilder.withPayload(id).setReplyChannel(replyChannel).build());
+		Message<?> resultMessage = replyChannel.receive(0);
+		assertNotNull(resultMessage);
+		assertEquals("test", resultMessage.getPayload());
+		// served from the cache
+		this.sampleMessageStore.removeMessage(id);
+		checkoutChannelB.send(MessageBuilder.withPayload(id).setReplyChannel(replyChannel).build());
+		resultMessage = replyChannel.receive(0);
+		assertNotNull(resultMessage);
+		assertEquals("test", resultMessage.getPayload());
+	}
+
 }
@@ -29,6 +29,7 @@ import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
@@ -516,6 +517,56 @@ public class ManualFlowTests {
 		flowRegistrations.forEach(IntegrationFlowRegistration::destroy);
 	}
 
+	@Test
+	public void testBatchRegistration() {
+		List<IntegrationFlowContext.IntegrationFlowRegistrationBuilder> builders = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			String suffix = "" + i;
+			IntegrationFlow flow = f -> f.<String, String>transform(p -> p + suffix);
+			builders.add(this.integrationFlowContext.registration(flow).id("batchFlow" + i));
+		}
+		List<IntegrationFlowRegistration> registrations = this.integrationFlowContext.registerAll(builders);
+		assertEquals(3, registrations.size());
+		for (int i = 0; i < 3; i++) {
+			assertSame(registrations.get(i), this.integrationFlowContext.getRegistrationById("batchFlow" + i));
+			assertEquals("foo" + i,
+					registrations.get(i).getMessagingTemplate().convertSendAndReceive("foo", String.class));
+		}
+		registrations.forEach(IntegrationFlowRegistration::destroy);
+		assertFalse(this.beanFactory.containsBean("batchFlow0.input"));
+
+		this.integrationFlowContext.registration(f -> f.bridge()).id("batchFlow2").register();
+		builders.clear();
+		builders.add(this.integrationFlowContext.registration(f -> f.bridge()).id("batchFlow1"));
+		builders.add(this.integrationFlowContext.registration(f -> f.bridge()).id("batchFlow2"));
+		try {
+			this.integrationFlowContext.registerAll(builders);
+			fail("expected IllegalArgumentException");
+		}
+		catch (IllegalArgumentException e) {
+			assertThat(e.getMessage(), containsString("with flowId 'batchFlow2' is already registered."));
+		}
+		assertNull(this.integrationFlowContext.getRegistrationById("batchFlow1"));
+		assertFalse(this.beanFactory.containsBean("batchFlow1"));
+		this.integrationFlowContext.remove("batchFlow2");
+	}
+
+	@Test
+	public void testReuseComponentAfterRemoval() {
+		QueueChannel channel = new QueueChannel();
+		for (int i = 0; i < 2; i++) {
+			IntegrationFlowRegistration registration = this.integrationFlowContext
+					.registration(f -> f.channel(channel))
+					.id("reuseFlow")
+					.register();
+			assertTrue(this.beanFactory.getBeansOfType(QueueChannel.class).containsValue(channel));
+			registration.getMessagingTemplate().send(new GenericMessage<>("foo"));
+			assertNotNull(channel.receive(10_000));
+			registration.destroy();
+			assertFalse(this.beanFactory.getBeansOfType(QueueChannel.class).containsValue(channel));
+		}
+	}
+
 	@Configuration
 	@EnableIntegration
 	@EnableMessageHistory
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.endpoint;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.integration.channel.QueueChannel;
+import org.springframework.messaging.support.GenericMessage;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.scheduling.support.PeriodicTrigger;
+
+/**
+ * @since 5.1
+ */
+public class AdaptivePollerConcurrencyTests {
+
+	private final ThreadPoolTaskScheduler taskScheduler = new ThreadPoolTaskScheduler();
+
+	private final QueueChannel channel = new QueueChannel();
+
+	private final CountDownLatch latch = new CountDownLatch(200);
+
+	private PollingConsumer endpoint;
+
+	@Before
+	public void init() {
+		this.taskScheduler.setPoolSize(5);
+		this.taskScheduler.afterPropertiesSet();
+		this.endpoint = new PollingConsumer(this.channel, m -> {
+			try {
+				Thread.sleep(5);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			this.latch.countDown();
+		});
+		this.endpoint.setTaskScheduler(this.taskScheduler);
+		this.endpoint.setTrigger(new PeriodicTrigger(10));
+		this.endpoint.setMaxMessagesPerPoll(1);
+		this.endpoint.setReceiveTimeout(0);
+		this.endpoint.setConcurrency(1, 4);
+		this.endpoint.setScaleUpThreshold(2);
+		this.endpoint.setScaleDownThreshold(3);
+		this.endpoint.setBeanFactory(mock(BeanFactory.class));
+		this.endpoint.afterPropertiesSet();
+	}
+
+	@After
+	public void tearDown() {
+		this.endpoint.stop();
+		this.taskScheduler.destroy();
+	}
+
+	@Test
+	public void testScaleUpOnBacklogAndDownWhenIdle() throws Exception {
+		assertThat(this.endpoint.getConcurrency()).isEqualTo(0);
+		for (int i = 0; i < 200; i++) {
+			this.channel.send(new GenericMessage<>("foo"));
+		}
+		this.endpoint.start();
+		assertThat(this.endpoint.getConcurrency()).isEqualTo(1);
+		int n = 0;
+		while (n++ < 1000 && this.endpoint.getConcurrency() < 4) {
+			Thread.sleep(10);
+		}
+		// 200 messages of 5ms cannot be handled before two busy polls per worker scale it to the max
+		assertThat(this.endpoint.getConcurrency()).isEqualTo(4);
+		assertThat(this.endpoint.getScaleUpCount()).isEqualTo(3);
+		assertThat(this.latch.await(10, TimeUnit.SECONDS)).isTrue();
+		n = 0;
+		while (n++ < 500 && this.endpoint.getConcurrency() > 1) {
+			Thread.sleep(10);
+		}
+		assertThat(this.endpoint.getConcurrency()).isEqualTo(1);
+		assertThat(this.endpoint.getScaleDownCount()).isEqualTo(this.endpoint.getScaleUpCount());
+		this.endpoint.stop();
+		assertThat(this.endpoint.getConcurrency()).isEqualTo(0);
+	}
+
+	@Test
+	public void testNeverExceedsMaxConcurrency() throws Exception {
+		for (int i = 0; i < 200; i++) {
+			this.channel.send(new GenericMessage<>("foo"));
+		}
+		this.endpoint.start();
+		int max = 0;
+		int n = 0;
+		while (n++ < 10_000 && this.latch.getCount() > 0) {
+			max = Math.max(max, this.endpoint.getConcurrency());
+			Thread.sleep(1);
+		}
+		assertThat(this.latch.getCount()).isEqualTo(0);
+		assertThat(max).isBetween(2, 4);
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2016 the original author or authors.
+ * Copyright 2002-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -286,6 +286,34 @@ public class GatewayMethodInboundMessageMapperToMessageTests {
 	}
 
 
+	@Test
+	public void toMessageWithConstantAndDynamicHeaderPrecedence() throws Exception {
+		Method method = TestService.class.getMethod("sendPayloadAndHeader", String.class, String.class);
+		SpelExpressionParser parser = new SpelExpressionParser();
+		Map<String, Expression> headerExpressions = new HashMap<>();
+		headerExpressions.put("foo", new LiteralExpression("methodFoo"));
+		headerExpressions.put("arg", parser.parseExpression("#args[0] + #gatewayMethod.name"));
+		Map<String, Expression> globalHeaderExpressions = new HashMap<>();
+		globalHeaderExpressions.put("arg", new LiteralExpression("globalArg"));
+		globalHeaderExpressions.put("global", parser.parseExpression("#args[1].toUpperCase()"));
+		globalHeaderExpressions.put("shared", new LiteralExpression("global"));
+		Map<String, Object> staticHeaders = new HashMap<>();
+		staticHeaders.put("shared", "static");
+		staticHeaders.put("static", "static");
+		GatewayMethodInboundMessageMapper mapper = new GatewayMethodInboundMessageMapper(method,
+				headerExpressions, globalHeaderExpressions, staticHeaders, null, null);
+		mapper.setBeanFactory(mock(BeanFactory.class));
+		for (int i = 0; i < 3; i++) {
+			Message<?> message = mapper.toMessage(new Object[] { "test" + i, "bar" });
+			assertEquals("test" + i, message.getPayload());
+			assertEquals("methodFoo", message.getHeaders().get("foo"));
+			assertEquals("test" + i + "sendPayloadAndHeader", message.getHeaders().get("arg"));
+			assertEquals("BAR", message.getHeaders().get("global"));
+			assertEquals("global", message.getHeaders().get("shared"));
+			assertEquals("static", message.getHeaders().get("static"));
+		}
+	}
+
 	private interface TestService {
 
 		void sendPayload(String payload);
@@ -25,6 +25,7 @@ import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
 
 import java.lang.reflect.Method;
 import java.util.Collections;
@@ -36,12 +37,14 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.BeanInitializationException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.context.ApplicationContext;
 import org.springframework.context.support.ClassPathXmlApplicationContext;
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.core.convert.support.DefaultConversionService;
@@ -131,6 +134,37 @@ public class GatewayProxyFactoryBeanTests {
 		assertEquals("test", message.getPayload());
 	}
 
+	@Test
+	public void testLazyInit() throws Exception {
+		QueueChannel requestChannel = new QueueChannel();
+		GatewayProxyFactoryBean proxyFactory = new GatewayProxyFactoryBean();
+		proxyFactory.setServiceInterface(TestService.class);
+		proxyFactory.setDefaultRequestChannel(requestChannel);
+		proxyFactory.setBeanName("testGateway");
+		proxyFactory.setBeanFactory(mock(BeanFactory.class));
+		proxyFactory.setLazyInit(true);
+		ApplicationContext applicationContext = mock(ApplicationContext.class);
+		proxyFactory.setApplicationContext(applicationContext);
+		proxyFactory.afterPropertiesSet();
+		proxyFactory.start();
+		TestService service = (TestService) proxyFactory.getObject();
+		assertThat(proxyFactory.getGateways().size(), equalTo(0));
+		service.oneWay("test");
+		Message<?> message = requestChannel.receive(1000);
+		assertNotNull(message);
+		assertEquals("test", message.getPayload());
+		assertThat(proxyFactory.getGateways().size(), equalTo(1));
+		Method oneWay = TestService.class.getMethod("oneWay", String.class);
+		assertThat(proxyFactory.getGateways().get(oneWay).isRunning(), equalTo(true));
+		ArgumentCaptor<GatewayMethodCreatedEvent> event = ArgumentCaptor.forClass(GatewayMethodCreatedEvent.class);
+		verify(applicationContext).publishEvent(event.capture());
+		assertThat(event.getValue().getSource(), equalTo(proxyFactory));
+		assertThat(event.getValue().getMethod(), equalTo(oneWay));
+		assertThat(event.getValue().getGateway(), equalTo(proxyFactory.getGateways().get(oneWay)));
+		proxyFactory.stop();
+		assertThat(proxyFactory.getGateways().get(oneWay).isRunning(), equalTo(false));
+	}
+
 	@Test
 	public void testSolicitResponse() throws Exception {
 		QueueChannel replyChannel = new QueueChannel();
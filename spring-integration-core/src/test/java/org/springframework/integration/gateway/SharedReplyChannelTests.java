@@ -0,0 +1,230 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.gateway;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.integration.channel.DirectChannel;
+import org.springframework.integration.channel.ExecutorChannel;
+import org.springframework.integration.channel.QueueChannel;
+import org.springframework.integration.handler.ServiceActivatingHandler;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.ErrorMessage;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * @since 5.1
+ */
+public class SharedReplyChannelTests {
+
+	private final ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+
+	@Before
+	public void setUp() {
+		this.scheduler.initialize();
+	}
+
+	@After
+	public void tearDown() {
+		this.scheduler.destroy();
+	}
+
+	@Test
+	public void testSynchronousRequestReply() throws Exception {
+		DirectChannel requestChannel = new DirectChannel();
+		requestChannel.subscribe(upperCase());
+		GatewayProxyFactoryBean proxyFactory = proxyFactory(requestChannel, null);
+		Service service = (Service) proxyFactory.getObject();
+		assertEquals("FOO", service.upperCase("foo"));
+		Message<?> reply = service.upperCaseMessage(MessageBuilder.withPayload("bar")
+				.setReplyChannelName("original")
+				.build());
+		assertEquals("BAR", reply.getPayload());
+		assertEquals("original", reply.getHeaders().getReplyChannel());
+		assertFalse(reply.getHeaders().containsKey(SharedReplyChannel.REPLY_CORRELATION_HEADER));
+	}
+
+	@Test
+	public void testNonBlockingFutureAndMono() throws Exception {
+		ExecutorChannel requestChannel = new ExecutorChannel(this.scheduler);
+		requestChannel.subscribe(upperCase());
+		GatewayProxyFactoryBean proxyFactory = proxyFactory(requestChannel, null);
+		proxyFactory.setAsyncExecutor(null);
+		Service service = (Service) proxyFactory.getObject();
+		CompletableFuture<String> future = service.upperCaseFuture("foo");
+		assertEquals("FOO", future.get(10, TimeUnit.SECONDS));
+		assertEquals("BAR", service.upperCaseMono("bar").block(Duration.ofSeconds(10)));
+	}
+
+	@Test
+	public void testAsyncTimeoutOnTimingWheel() throws Exception {
+		QueueChannel requestChannel = new QueueChannel();
+		GatewayProxyFactoryBean proxyFactory = proxyFactory(requestChannel, 100L);
+		Service service = (Service) proxyFactory.getObject();
+		long start = System.currentTimeMillis();
+		assertNull(service.upperCaseMono("foo").block(Duration.ofSeconds(10)));
+		assertTrue(System.currentTimeMillis() - start >= 100);
+		Message<?> request = requestChannel.receive(0);
+		assertTrue(request.getHeaders().getReplyChannel() instanceof SharedReplyChannel);
+		SharedReplyChannel replyChannel = (SharedReplyChannel) request.getHeaders().getReplyChannel();
+		assertEquals(0, replyChannel.getPendingReplyCount());
+		// late reply is discarded
+		assertTrue(replyChannel.send(MessageBuilder.fromMessage(request).build()));
+		replyChannel.setThrowExceptionOnLateReply(true);
+		assertFalse(replyChannel.send(MessageBuilder.fromMessage(request).build()));
+	}
+
+	@Test
+	public void testTimeoutWithoutTaskScheduler() throws Exception {
+		SharedReplyChannel replyChannel = new SharedReplyChannel(8, 5);
+		SharedReplyChannel.PendingReply pendingReply =
+				replyChannel.register(MessageBuilder.withPayload("foo").build(), 20);
+		try {
+			assertNull(pendingReply.getFuture().get(10, TimeUnit.SECONDS));
+			assertEquals(0, replyChannel.getPendingReplyCount());
+		}
+		finally {
+			replyChannel.stopTicker();
+		}
+	}
+
+	@Test
+	public void testNestedGateways() {
+		DirectChannel innerRequestChannel = new DirectChannel();
+		innerRequestChannel.subscribe(upperCase());
+		Service inner = (Service) proxyFactory(innerRequestChannel, 10000L).getObject();
+		DirectChannel outerRequestChannel = new DirectChannel();
+		ServiceActivatingHandler handler =
+				new ServiceActivatingHandler((Message<?> m) -> inner.upperCaseMessage(m));
+		handler.setBeanFactory(mock(BeanFactory.class));
+		handler.afterPropertiesSet();
+		outerRequestChannel.subscribe(handler);
+		Service outer = (Service) proxyFactory(outerRequestChannel, 10000L).getObject();
+		assertEquals("FOO", outer.upperCase("foo"));
+		Message<?> reply = outer.upperCaseMessage(MessageBuilder.withPayload("bar").build());
+		assertEquals("BAR", reply.getPayload());
+		assertFalse(reply.getHeaders().containsKey(SharedReplyChannel.REPLY_CORRELATION_HEADER));
+	}
+
+	@Test
+	public void testCancelledMonoRemovesPendingReply() {
+		QueueChannel requestChannel = new QueueChannel();
+		Service service = (Service) proxyFactory(requestChannel, -1L).getObject();
+		service.upperCaseMono("foo").subscribe().dispose();
+		Message<?> request = requestChannel.receive(0);
+		SharedReplyChannel replyChannel = (SharedReplyChannel) request.getHeaders().getReplyChannel();
+		assertEquals(0, replyChannel.getPendingReplyCount());
+
+		service = (Service) proxyFactory(requestChannel, 10000L).getObject();
+		service.upperCaseMono("foo").subscribe().dispose();
+		request = requestChannel.receive(0);
+		replyChannel = (SharedReplyChannel) request.getHeaders().getReplyChannel();
+		assertEquals(0, replyChannel.getPendingReplyCount());
+		replyChannel.stopTicker();
+	}
+
+	@Test
+	public void testErrorMessageCompletesExceptionally() throws Exception {
+		DirectChannel requestChannel = new DirectChannel();
+		requestChannel.subscribe(message -> {
+			throw new MessageDeliveryException(message, "test");
+		});
+		ExecutorChannel asyncRequestChannel = new ExecutorChannel(this.scheduler);
+		asyncRequestChannel.subscribe(message ->
+				((SharedReplyChannel) message.getHeaders().get(MessageHeaders.ERROR_CHANNEL))
+						.send(new ErrorMessage(
+								new MessageDeliveryException(message, "async"))));
+		GatewayProxyFactoryBean proxyFactory = proxyFactory(asyncRequestChannel, null);
+		proxyFactory.setAsyncExecutor(null);
+		Service service = (Service) proxyFactory.getObject();
+		try {
+			service.upperCaseFuture("foo").get(10, TimeUnit.SECONDS);
+			fail("Expected ExecutionException");
+		}
+		catch (ExecutionException e) {
+			assertThat(e.getCause(), instanceOf(MessageDeliveryException.class));
+		}
+		service = (Service) proxyFactory(requestChannel, null).getObject();
+		try {
+			service.upperCase("foo");
+			fail("Expected MessageDeliveryException");
+		}
+		catch (MessageDeliveryException e) {
+			assertThat(e.getMessage(), containsString("test"));
+		}
+	}
+
+	private GatewayProxyFactoryBean proxyFactory(MessageChannel requestChannel, Long replyTimeout) {
+		GatewayProxyFactoryBean proxyFactory = new GatewayProxyFactoryBean();
+		proxyFactory.setServiceInterface(Service.class);
+		proxyFactory.setDefaultRequestChannel(requestChannel);
+		if (replyTimeout != null) {
+			proxyFactory.setDefaultReplyTimeout(replyTimeout);
+		}
+		proxyFactory.setSharedReplyChannel(true);
+		proxyFactory.setTaskScheduler(this.scheduler);
+		proxyFactory.setBeanFactory(mock(BeanFactory.class));
+		proxyFactory.setBeanName("sharedReplyGateway");
+		proxyFactory.afterPropertiesSet();
+		return proxyFactory;
+	}
+
+	private static ServiceActivatingHandler upperCase() {
+		ServiceActivatingHandler handler =
+				new ServiceActivatingHandler((Message<?> m) -> ((String) m.getPayload()).toUpperCase());
+		handler.setBeanFactory(mock(BeanFactory.class));
+		handler.afterPropertiesSet();
+		return handler;
+	}
+
+	public interface Service {
+
+		String upperCase(String in);
+
+		Message<?> upperCaseMessage(Message<?> in);
+
+		CompletableFuture<String> upperCaseFuture(String in);
+
+		Mono<String> upperCaseMono(String in);
+
+	}
+
+}
@@ -0,0 +1,221 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.handler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.integration.IntegrationMessageHeaderAccessor;
+import org.springframework.integration.acks.AcknowledgmentCallback;
+import org.springframework.integration.acks.AcknowledgmentCallback.Status;
+import org.springframework.integration.channel.DirectChannel;
+import org.springframework.integration.channel.QueueChannel;
+import org.springframework.integration.endpoint.SourcePollingChannelAdapter;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.MessagingException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.scheduling.support.PeriodicTrigger;
+
+/**
+ * @since 5.1
+ */
+public class BatchingMessageHandlerTests {
+
+	private final ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+
+	@Before
+	public void setUp() {
+		this.scheduler.initialize();
+	}
+
+	@After
+	public void tearDown() {
+		this.scheduler.destroy();
+	}
+
+	@Test
+	public void testReleaseOnSize() {
+		QueueChannel out = new QueueChannel();
+		BatchingMessageHandler handler = new BatchingMessageHandler(out::send);
+		handler.setMaxSize(3);
+		handler.setLingerTime(60000);
+		init(handler);
+		for (int i = 0; i < 7; i++) {
+			handler.handleMessage(MessageBuilder.withPayload(i).build());
+		}
+		assertEquals(2, out.getQueueSize());
+		List<?> batch = (List<?>) out.receive(0).getPayload();
+		assertEquals(3, batch.size());
+		assertEquals(0, batch.get(0));
+		handler.stop();
+		out.receive(0);
+		assertEquals(1, ((List<?>) out.receive(0).getPayload()).size());
+	}
+
+	@Test
+	public void testReleaseOnBytesAndLinger() {
+		QueueChannel out = new QueueChannel();
+		BatchingMessageHandler handler = new BatchingMessageHandler(out::send);
+		handler.setMaxBytes(10);
+		handler.setLingerTime(50);
+		init(handler);
+		handler.handleMessage(MessageBuilder.withPayload("foobar").build());
+		handler.handleMessage(MessageBuilder.withPayload("bazqux").build());
+		assertEquals(2, ((List<?>) out.receive(0).getPayload()).size());
+		handler.handleMessage(MessageBuilder.withPayload("foo").build());
+		assertNull(out.receive(0));
+		Message<?> lingered = out.receive(10000);
+		assertNotNull(lingered);
+		assertEquals(Collections.singletonList("foo"), lingered.getPayload());
+	}
+
+	@Test
+	public void testPartialFailureAndAcksFromPolledSource() throws Exception {
+		QueueChannel errors = new QueueChannel();
+		BatchingMessageHandler handler = new BatchingMessageHandler(messages -> {
+			throw new BatchMessageHandlingException("test",
+					Collections.singletonMap(1, new IllegalStateException("bad")));
+		});
+		handler.setMaxSize(2);
+		handler.setLingerTime(60000);
+		handler.setErrorChannel(errors);
+		init(handler);
+		DirectChannel channel = new DirectChannel();
+		channel.subscribe(handler);
+		TestAckCallback good = new TestAckCallback();
+		TestAckCallback bad = new TestAckCallback();
+		Message<String> badMessage = MessageBuilder.withPayload("bad")
+				.setHeader(IntegrationMessageHeaderAccessor.ACKNOWLEDGMENT_CALLBACK, bad)
+				.build();
+		BlockingQueue<Message<?>> polled = new LinkedBlockingQueue<>(Arrays.asList(
+				MessageBuilder.withPayload("good")
+						.setHeader(IntegrationMessageHeaderAccessor.ACKNOWLEDGMENT_CALLBACK, good)
+						.build(),
+				badMessage));
+		SourcePollingChannelAdapter adapter = new SourcePollingChannelAdapter();
+		adapter.setSource(polled::poll);
+		adapter.setOutputChannel(channel);
+		adapter.setTaskScheduler(this.scheduler);
+		adapter.setMaxMessagesPerPoll(2);
+		adapter.setTrigger(new PeriodicTrigger(60000));
+		adapter.start();
+		Message<?> error = errors.receive(10000);
+		adapter.stop();
+		assertNotNull(error);
+		assertSame(badMessage, ((MessagingException) error.getPayload()).getFailedMessage());
+		assertEquals(Status.ACCEPT, good.status);
+		assertEquals(Status.REJECT, bad.status);
+		assertNull(errors.receive(0));
+
+		handler.stop();
+		TestAckCallback stopped = new TestAckCallback();
+		try {
+			channel.send(MessageBuilder.withPayload("stopped")
+					.setHeader(IntegrationMessageHeaderAccessor.ACKNOWLEDGMENT_CALLBACK, stopped)
+					.build());
+			fail("Expected MessageDeliveryException");
+		}
+		catch (MessageDeliveryException e) {
+			assertTrue(stopped.autoAck);
+		}
+	}
+
+	@Test
+	public void testConcurrentSenders() throws Exception {
+		AtomicInteger received = new AtomicInteger();
+		CountDownLatch latch = new CountDownLatch(1);
+		int total = 10000;
+		BatchingMessageHandler handler = new BatchingMessageHandler(messages -> {
+			if (received.addAndGet(messages.size()) == total) {
+				latch.countDown();
+			}
+		});
+		handler.setMaxSize(64);
+		handler.setLingerTime(20);
+		init(handler);
+		ExecutorService exec = Executors.newFixedThreadPool(8);
+		for (int i = 0; i < total; i++) {
+			Message<Integer> message = MessageBuilder.withPayload(i).build();
+			exec.execute(() -> handler.handleMessage(message));
+		}
+		assertTrue(latch.await(10, TimeUnit.SECONDS));
+		exec.shutdown();
+		assertEquals(total, received.get());
+	}
+
+	private static final class TestAckCallback implements AcknowledgmentCallback {
+
+		private volatile Status status;
+
+		private volatile boolean autoAck = true;
+
+		TestAckCallback() {
+			super();
+		}
+
+		@Override
+		public void acknowledge(Status status) {
+			this.status = status;
+		}
+
+		@Override
+		public boolean isAcknowledged() {
+			return this.status != null;
+		}
+
+		@Override
+		public void noAutoAck() {
+			this.autoAck = false;
+		}
+
+		@Override
+		public boolean isAutoAck() {
+			return this.autoAck;
+		}
+
+	}
+
+	private void init(BatchingMessageHandler handler) {
+		handler.setBeanFactory(mock(BeanFactory.class));
+		handler.setTaskScheduler(this.scheduler);
+		handler.afterPropertiesSet();
+	}
+
+}
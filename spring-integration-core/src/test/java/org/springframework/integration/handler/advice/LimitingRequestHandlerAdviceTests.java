@@ -0,0 +1,297 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.handler.advice;
+
+import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.integration.MessageRejectedException;
+import org.springframework.integration.channel.QueueChannel;
+import org.springframework.integration.handler.AbstractReplyProducingMessageHandler;
+import org.springframework.integration.handler.advice.AbstractLimitingRequestHandlerAdvice.LimitExceededPolicy;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.ErrorMessage;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * @since 5.1
+ */
+public class LimitingRequestHandlerAdviceTests {
+
+	@Test
+	public void testRateLimiterRejects() {
+		RateLimiterRequestHandlerAdvice advice = new RateLimiterRequestHandlerAdvice();
+		advice.setLimitForPeriod(2);
+		advice.setPeriod(60000);
+		QueueChannel replies = new QueueChannel();
+		AbstractReplyProducingMessageHandler handler = handler(advice, replies, null);
+		Message<String> message = MessageBuilder.withPayload("foo").build();
+		handler.handleMessage(message);
+		handler.handleMessage(message);
+		assertEquals(0, advice.getAvailablePermits(handler));
+		try {
+			handler.handleMessage(message);
+			fail("Expected MessageRejectedException");
+		}
+		catch (Exception e) {
+			assertThat(e, instanceOf(MessageRejectedException.class));
+		}
+		assertEquals(2, replies.getQueueSize());
+	}
+
+	@Test
+	public void testRateLimiterWaits() {
+		RateLimiterRequestHandlerAdvice advice = new RateLimiterRequestHandlerAdvice();
+		advice.setLimitForPeriod(10);
+		advice.setPeriod(1000);
+		advice.setBurstCapacity(1);
+		advice.setLimitExceededPolicy(LimitExceededPolicy.WAIT);
+		advice.setTimeout(500);
+		QueueChannel replies = new QueueChannel();
+		AbstractReplyProducingMessageHandler handler = handler(advice, replies, null);
+		Message<String> message = MessageBuilder.withPayload("foo").build();
+		long start = System.currentTimeMillis();
+		handler.handleMessage(message);
+		handler.handleMessage(message);
+		handler.handleMessage(message);
+		assertTrue(System.currentTimeMillis() - start >= 150);
+		assertEquals(3, replies.getQueueSize());
+	}
+
+	@Test
+	public void testRateLimiterPerKeyToErrorChannel() {
+		RateLimiterRequestHandlerAdvice advice = new RateLimiterRequestHandlerAdvice();
+		advice.setLimitForPeriod(1);
+		advice.setPeriod(60000);
+		advice.setKeyExpressionString("headers.partner");
+		QueueChannel errors = new QueueChannel();
+		advice.setErrorChannel(errors);
+		QueueChannel replies = new QueueChannel();
+		AbstractReplyProducingMessageHandler handler = handler(advice, replies, null);
+		handler.handleMessage(MessageBuilder.withPayload("foo").setHeader("partner", "a").build());
+		handler.handleMessage(MessageBuilder.withPayload("foo").setHeader("partner", "b").build());
+		handler.handleMessage(MessageBuilder.withPayload("foo").setHeader("partner", "a").build());
+		assertEquals(2, replies.getQueueSize());
+		Message<?> error = errors.receive(0);
+		assertNotNull(error);
+		assertThat(error, instanceOf(ErrorMessage.class));
+		assertThat(error.getPayload(), instanceOf(MessageRejectedException.class));
+		assertNull(errors.receive(0));
+	}
+
+	@Test
+	public void testBulkheadRejects() throws Exception {
+		BulkheadRequestHandlerAdvice advice = new BulkheadRequestHandlerAdvice();
+		advice.setMaxConcurrentCalls(1);
+		CountDownLatch inHandler = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		QueueChannel replies = new QueueChannel();
+		AbstractReplyProducingMessageHandler handler = handler(advice, replies, () -> {
+			inHandler.countDown();
+			try {
+				release.await(10, TimeUnit.SECONDS);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		Message<String> message = MessageBuilder.withPayload("foo").build();
+		ExecutorService exec = Executors.newSingleThreadExecutor();
+		exec.execute(() -> handler.handleMessage(message));
+		assertTrue(inHandler.await(10, TimeUnit.SECONDS));
+		assertEquals(0, advice.getAvailablePermits(handler));
+		try {
+			handler.handleMessage(message);
+			fail("Expected MessageRejectedException");
+		}
+		catch (Exception e) {
+			assertThat(e, instanceOf(MessageRejectedException.class));
+		}
+		release.countDown();
+		assertNotNull(replies.receive(10000));
+		exec.shutdown();
+		assertTrue(exec.awaitTermination(10, TimeUnit.SECONDS));
+		assertEquals(1, advice.getAvailablePermits(handler));
+	}
+
+	@Test
+	public void testBulkheadDelays() throws Exception {
+		BulkheadRequestHandlerAdvice advice = new BulkheadRequestHandlerAdvice();
+		advice.setMaxConcurrentCalls(1);
+		advice.setLimitExceededPolicy(LimitExceededPolicy.DELAY);
+		advice.setDelay(50);
+		ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+		scheduler.initialize();
+		advice.setTaskScheduler(scheduler);
+		CountDownLatch inHandler = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		QueueChannel replies = new QueueChannel();
+		AbstractReplyProducingMessageHandler handler = handler(advice, replies, () -> {
+			if (inHandler.getCount() > 0) {
+				inHandler.countDown();
+				try {
+					release.await(10, TimeUnit.SECONDS);
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		});
+		handler.setAsync(true);
+		Message<String> message = MessageBuilder.withPayload("foo").build();
+		ExecutorService exec = Executors.newSingleThreadExecutor();
+		exec.execute(() -> handler.handleMessage(message));
+		assertTrue(inHandler.await(10, TimeUnit.SECONDS));
+		handler.handleMessage(message);
+		assertNull(replies.receive(100));
+		release.countDown();
+		assertNotNull(replies.receive(10000));
+		assertNotNull(replies.receive(10000));
+		exec.shutdown();
+		scheduler.destroy();
+	}
+
+	@Test
+	public void testDelayWaitsWhenNotAsync() throws Exception {
+		BulkheadRequestHandlerAdvice advice = new BulkheadRequestHandlerAdvice();
+		advice.setMaxConcurrentCalls(1);
+		advice.setLimitExceededPolicy(LimitExceededPolicy.DELAY);
+		advice.setDelay(50);
+		ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+		scheduler.initialize();
+		advice.setTaskScheduler(scheduler);
+		CountDownLatch inHandler = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		QueueChannel replies = new QueueChannel();
+		AbstractReplyProducingMessageHandler handler = handler(advice, replies, () -> {
+			if (inHandler.getCount() > 0) {
+				inHandler.countDown();
+				try {
+					release.await(10, TimeUnit.SECONDS);
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		});
+		Message<String> message = MessageBuilder.withPayload("foo").build();
+		ExecutorService exec = Executors.newSingleThreadExecutor();
+		exec.execute(() -> handler.handleMessage(message));
+		assertTrue(inHandler.await(10, TimeUnit.SECONDS));
+		try {
+			handler.handleMessage(message);
+			fail("expected MessageRejectedException");
+		}
+		catch (Exception e) {
+			assertThat(e, instanceOf(MessageRejectedException.class));
+		}
+		release.countDown();
+		Message<?> reply = replies.receive(10000);
+		assertNotNull(reply);
+		assertEquals("bar", reply.getPayload());
+		handler.handleMessage(message);
+		reply = replies.receive(10000);
+		assertNotNull(reply);
+		assertEquals("bar", reply.getPayload());
+		exec.shutdown();
+		scheduler.destroy();
+	}
+
+	@Test
+	public void testDelayedRetriesEndInReject() throws Exception {
+		BulkheadRequestHandlerAdvice advice = new BulkheadRequestHandlerAdvice();
+		advice.setMaxConcurrentCalls(1);
+		advice.setLimitExceededPolicy(LimitExceededPolicy.DELAY);
+		advice.setDelay(20);
+		advice.setTimeout(200);
+		ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+		scheduler.initialize();
+		advice.setTaskScheduler(scheduler);
+		CountDownLatch inHandler = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		QueueChannel replies = new QueueChannel();
+		AbstractReplyProducingMessageHandler handler = handler(advice, replies, () -> {
+			if (inHandler.getCount() > 0) {
+				inHandler.countDown();
+				try {
+					release.await(10, TimeUnit.SECONDS);
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		});
+		handler.setAsync(true);
+		QueueChannel errors = new QueueChannel();
+		Message<String> message = MessageBuilder.withPayload("foo").setErrorChannel(errors).build();
+		ExecutorService exec = Executors.newSingleThreadExecutor();
+		exec.execute(() -> handler.handleMessage(message));
+		assertTrue(inHandler.await(10, TimeUnit.SECONDS));
+		handler.handleMessage(message);
+		Message<?> error = errors.receive(10000);
+		assertNotNull(error);
+		assertThat(error, instanceOf(ErrorMessage.class));
+		assertThat(((ErrorMessage) error).getPayload(), instanceOf(MessageRejectedException.class));
+		release.countDown();
+		assertNotNull(replies.receive(10000));
+		assertNull(replies.receive(100));
+		exec.shutdown();
+		scheduler.destroy();
+	}
+
+	private AbstractReplyProducingMessageHandler handler(AbstractLimitingRequestHandlerAdvice<?> advice,
+			QueueChannel replies, Runnable work) {
+
+		BeanFactory beanFactory = mock(BeanFactory.class);
+		advice.setBeanFactory(beanFactory);
+		advice.afterPropertiesSet();
+		AbstractReplyProducingMessageHandler handler = new AbstractReplyProducingMessageHandler() {
+
+			@Override
+			protected Object handleRequestMessage(Message<?> requestMessage) {
+				if (work != null) {
+					work.run();
+				}
+				return "bar";
+			}
+
+		};
+		handler.setBeanName("limited");
+		handler.setOutputChannel(replies);
+		handler.setAdviceChain(Collections.singletonList(advice));
+		handler.setBeanFactory(beanFactory);
+		handler.afterPropertiesSet();
+		return handler;
+	}
+
+}
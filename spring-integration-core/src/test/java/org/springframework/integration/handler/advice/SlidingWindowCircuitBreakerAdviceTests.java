@@ -0,0 +1,263 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.handler.advice;
+
+import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.integration.channel.QueueChannel;
+import org.springframework.integration.handler.AbstractReplyProducingMessageHandler;
+import org.springframework.integration.handler.advice.RequestHandlerCircuitBreakerAdvice.CircuitBreakerOpenException;
+import org.springframework.integration.handler.advice.SlidingWindowCircuitBreakerAdvice.State;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.messaging.Message;
+
+/**
+ * @since 5.1
+ */
+public class SlidingWindowCircuitBreakerAdviceTests {
+
+	@Test
+	public void testTripOnFailureRateAndCloseAfterProbes() throws Exception {
+		AtomicBoolean doFail = new AtomicBoolean(true);
+		SlidingWindowCircuitBreakerAdvice advice = new SlidingWindowCircuitBreakerAdvice();
+		advice.setMinimumNumberOfCalls(4);
+		advice.setFailureRateThreshold(50);
+		advice.setHalfOpenAfter(100);
+		advice.setHalfOpenPermits(2);
+		List<CircuitBreakerStateChangedEvent> events = Collections.synchronizedList(new ArrayList<>());
+		advice.setApplicationEventPublisher(e -> events.add((CircuitBreakerStateChangedEvent) e));
+		AbstractReplyProducingMessageHandler handler = handler(advice, doFail);
+		Message<String> message = MessageBuilder.withPayload("foo").build();
+
+		handler.handleMessage(message);
+		handler.handleMessage(message);
+		failure(handler, message, RuntimeException.class);
+		assertEquals(State.CLOSED, advice.getState(handler));
+		failure(handler, message, RuntimeException.class);
+		assertEquals(State.OPEN, advice.getState(handler));
+		failure(handler, message, CircuitBreakerOpenException.class);
+
+		Thread.sleep(150);
+		doFail.set(false);
+		handler.handleMessage(message);
+		assertEquals(State.HALF_OPEN, advice.getState(handler));
+		handler.handleMessage(message);
+		assertEquals(State.CLOSED, advice.getState(handler));
+
+		assertEquals(3, events.size());
+		assertEquals(State.OPEN, events.get(0).getState());
+		assertEquals(State.HALF_OPEN, events.get(1).getState());
+		assertEquals(State.CLOSED, events.get(2).getState());
+	}
+
+	@Test
+	public void testFailedProbeReopens() throws Exception {
+		AtomicBoolean doFail = new AtomicBoolean(true);
+		SlidingWindowCircuitBreakerAdvice advice = new SlidingWindowCircuitBreakerAdvice();
+		advice.setMinimumNumberOfCalls(1);
+		advice.setHalfOpenAfter(100);
+		AbstractReplyProducingMessageHandler handler = handler(advice, doFail);
+		Message<String> message = MessageBuilder.withPayload("foo").build();
+
+		failure(handler, message, RuntimeException.class);
+		assertEquals(State.OPEN, advice.getState(handler));
+		Thread.sleep(150);
+		failure(handler, message, RuntimeException.class);
+		assertEquals(State.OPEN, advice.getState(handler));
+		failure(handler, message, CircuitBreakerOpenException.class);
+	}
+
+	@Test
+	public void testSlowCalls() throws Exception {
+		SlidingWindowCircuitBreakerAdvice advice = new SlidingWindowCircuitBreakerAdvice();
+		advice.setMinimumNumberOfCalls(2);
+		advice.setSlowCallDuration(10);
+		advice.setSlowCallRateThreshold(100);
+		AbstractReplyProducingMessageHandler handler = new AbstractReplyProducingMessageHandler() {
+
+			@Override
+			protected Object handleRequestMessage(Message<?> requestMessage) {
+				try {
+					Thread.sleep(20);
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return "bar";
+			}
+
+		};
+		advise(handler, advice);
+		Message<String> message = MessageBuilder.withPayload("foo").build();
+		handler.handleMessage(message);
+		assertEquals(State.CLOSED, advice.getState(handler));
+		handler.handleMessage(message);
+		assertEquals(State.OPEN, advice.getState(handler));
+		failure(handler, message, CircuitBreakerOpenException.class);
+	}
+
+	@Test
+	public void testPerKeyCircuits() throws Exception {
+		SlidingWindowCircuitBreakerAdvice advice = new SlidingWindowCircuitBreakerAdvice();
+		advice.setMinimumNumberOfCalls(1);
+		advice.setKeyExpressionString("headers.host");
+		AbstractReplyProducingMessageHandler handler = new AbstractReplyProducingMessageHandler() {
+
+			@Override
+			protected Object handleRequestMessage(Message<?> requestMessage) {
+				if ("bad".equals(requestMessage.getHeaders().get("host"))) {
+					throw new RuntimeException("foo");
+				}
+				return "bar";
+			}
+
+		};
+		advise(handler, advice);
+		Message<String> bad = MessageBuilder.withPayload("foo").setHeader("host", "bad").build();
+		Message<String> good = MessageBuilder.withPayload("foo").setHeader("host", "good").build();
+		failure(handler, bad, RuntimeException.class);
+		failure(handler, bad, CircuitBreakerOpenException.class);
+		handler.handleMessage(good);
+		assertEquals(State.OPEN, advice.getState("bad"));
+		assertEquals(State.CLOSED, advice.getState("good"));
+		advice.reset();
+		assertEquals(State.CLOSED, advice.getState("bad"));
+	}
+
+	@Test
+	public void testResetClearsProbes() throws Exception {
+		CountDownLatch probing = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicBoolean doFail = new AtomicBoolean(true);
+		AtomicBoolean block = new AtomicBoolean();
+		SlidingWindowCircuitBreakerAdvice advice = new SlidingWindowCircuitBreakerAdvice();
+		advice.setMinimumNumberOfCalls(1);
+		advice.setHalfOpenAfter(100);
+		AbstractReplyProducingMessageHandler handler = new AbstractReplyProducingMessageHandler() {
+
+			@Override
+			protected Object handleRequestMessage(Message<?> requestMessage) {
+				if (block.get()) {
+					probing.countDown();
+					try {
+						release.await(10, TimeUnit.SECONDS);
+					}
+					catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}
+				if (doFail.get()) {
+					throw new RuntimeException("foo");
+				}
+				return "bar";
+			}
+
+		};
+		advise(handler, advice);
+		Message<String> message = MessageBuilder.withPayload("foo").build();
+
+		failure(handler, message, RuntimeException.class);
+		Thread.sleep(150);
+		doFail.set(false);
+		block.set(true);
+		ExecutorService exec = Executors.newSingleThreadExecutor();
+		Future<?> probe = exec.submit(() -> handler.handleMessage(message));
+		assertTrue(probing.await(10, TimeUnit.SECONDS));
+		assertEquals(State.HALF_OPEN, advice.getState(handler));
+		advice.reset();
+		assertEquals(State.CLOSED, advice.getState(handler));
+		block.set(false);
+
+		doFail.set(true);
+		failure(handler, message, RuntimeException.class);
+		assertEquals(State.OPEN, advice.getState(handler));
+		Thread.sleep(150);
+		doFail.set(false);
+		handler.handleMessage(message);
+		assertEquals(State.CLOSED, advice.getState(handler));
+
+		release.countDown();
+		probe.get(10, TimeUnit.SECONDS);
+		exec.shutdownNow();
+		assertEquals(State.CLOSED, advice.getState(handler));
+	}
+
+	private AbstractReplyProducingMessageHandler handler(SlidingWindowCircuitBreakerAdvice advice,
+			AtomicBoolean doFail) {
+
+		AbstractReplyProducingMessageHandler handler = new AbstractReplyProducingMessageHandler() {
+
+			@Override
+			protected Object handleRequestMessage(Message<?> requestMessage) {
+				if (doFail.get()) {
+					throw new RuntimeException("foo");
+				}
+				return "bar";
+			}
+
+		};
+		advise(handler, advice);
+		return handler;
+	}
+
+	private void advise(AbstractReplyProducingMessageHandler handler, SlidingWindowCircuitBreakerAdvice advice) {
+		BeanFactory beanFactory = mock(BeanFactory.class);
+		advice.setBeanFactory(beanFactory);
+		advice.afterPropertiesSet();
+		handler.setBeanName("baz");
+		handler.setOutputChannel(new QueueChannel());
+		handler.setAdviceChain(Collections.singletonList(advice));
+		handler.setBeanFactory(beanFactory);
+		handler.afterPropertiesSet();
+	}
+
+	private void failure(AbstractReplyProducingMessageHandler handler, Message<?> message,
+			Class<? extends Exception> expected) {
+
+		try {
+			handler.handleMessage(message);
+			fail("Expected failure");
+		}
+		catch (Exception e) {
+			if (CircuitBreakerOpenException.class.equals(expected)) {
+				assertThat(e, instanceOf(expected));
+			}
+			else {
+				assertThat(e.getCause(), instanceOf(expected));
+			}
+		}
+	}
+
+}
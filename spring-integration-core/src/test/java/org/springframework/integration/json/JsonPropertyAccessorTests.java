@@ -1,5 +1,5 @@
 /*
- * Copyright 2013-2017 the original author or authors.
+ * Copyright 2013-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,6 +20,12 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 import java.util.List;
 
@@ -32,6 +38,7 @@ import org.springframework.expression.spel.SpelEvaluationException;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.expression.spel.support.StandardEvaluationContext;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
@@ -187,6 +194,61 @@ public class JsonPropertyAccessorTests {
 		assertNull(value2);
 	}
 
+	@Test
+	public void testStringParsedOnce() throws Exception {
+		ObjectMapper objectMapper = spy(new ObjectMapper());
+		JsonPropertyAccessor accessor = new JsonPropertyAccessor();
+		accessor.setObjectMapper(objectMapper);
+		StandardEvaluationContext evaluationContext = new StandardEvaluationContext();
+		evaluationContext.addPropertyAccessor(accessor);
+		String json = "{\"foo\": {\"bar\": 4, \"fizz\": 5}, \"baz\": \"qux\"}";
+		assertEquals("54qux", parser.parseExpression("foo.fizz.toString() + foo.bar.toString() + baz.toString()")
+				.getValue(evaluationContext, json));
+		Expression expression = parser.parseExpression("baz.toString()");
+		assertEquals("qux", expression.getValue(evaluationContext, json));
+		// the accessor is now cached by the expression, so read() is called without canRead()
+		assertEquals("quux", expression.getValue(evaluationContext, "{\"baz\": \"quux\"}"));
+		// a top level property is streamed once per access; the tree is never built
+		verify(objectMapper, never()).readTree(anyString());
+		verify(objectMapper, times(5)).readTree(any(JsonParser.class));
+	}
+
+	@Test
+	public void testStreamingLookup() throws Exception {
+		Object actual = evaluate("{\"foo\": {\"bar\": 4}, \"fizz\": [5]}", "foo.bar", Object.class);
+		assertEquals("4", actual.toString());
+		assertEquals("null", evaluate("{\"foo\": null}", "foo", Object.class).toString());
+	}
+
+	@Test
+	public void testDuplicatePropertiesInString() throws Exception {
+		String json = "{\"foo\": 1, \"bar\": 2, \"foo\": 3}";
+		// the last one wins, both when streaming and with the tree
+		assertEquals("3", evaluate(json, "foo", Object.class).toString());
+		assertEquals("23", evaluate(json, "bar.toString() + foo.toString()", Object.class).toString());
+	}
+
+	@Test(expected = SpelEvaluationException.class)
+	public void testMalformedString() throws Exception {
+		evaluate("{\"foo\": {\"bar\": 4}, \"fizz\": [ not json", "foo.bar", Object.class);
+	}
+
+	@Test(expected = SpelEvaluationException.class)
+	public void testMissingPropertyInString() throws Exception {
+		evaluate("{\"foo\": \"bar\"}", "fizz", Object.class);
+	}
+
+	@Test
+	public void testNumericLikePropertyNames() throws Exception {
+		Object json = mapper.readTree(
+				"{\"99999999999\": \"big\", \"-\": \"dash\", \"+1\": \"plus\", \"1a\": \"mixed\"}");
+		assertEquals("big", evaluate(json, "['99999999999']", Object.class).toString());
+		assertEquals("dash", evaluate(json, "['-']", Object.class).toString());
+		assertEquals("plus", evaluate(json, "['+1']", Object.class).toString());
+		assertEquals("mixed", evaluate(json, "['1a']", Object.class).toString());
+		assertEquals("5", evaluate(mapper.readTree("[3, 4, 5]"), "['+2']", Object.class).toString());
+	}
+
 	private <T> T evaluate(Object target, String expression, Class<T> expectedType) {
 		return parser.parseExpression(expression).getValue(context, target, expectedType);
 	}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2016 the original author or authors.
+ * Copyright 2002-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,8 +18,13 @@ package org.springframework.integration.json;
 
 import static org.junit.Assert.assertEquals;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
 import org.junit.Test;
 
+import org.springframework.integration.mapping.support.JsonHeaders;
+import org.springframework.integration.support.MessageBuilder;
 import org.springframework.integration.support.json.BoonJsonObjectMapper;
 import org.springframework.integration.support.json.Jackson2JsonObjectMapper;
 import org.springframework.messaging.Message;
@@ -81,4 +86,35 @@ public class JsonToObjectTransformerTests {
 		assertEquals("123 Main Street", person.getAddress().toString());
 	}
 
+	@Test
+	public void byteBufferPayload() throws Exception {
+		JsonToObjectTransformer transformer = new JsonToObjectTransformer(TestPerson.class);
+		byte[] json = ("xx{\"firstName\":\"John\",\"lastName\":\"Doe\",\"age\":42}")
+				.getBytes(StandardCharsets.UTF_8);
+		ByteBuffer heap = ByteBuffer.wrap(json, 2, json.length - 2).slice();
+		TestPerson person = (TestPerson) transformer.transform(new GenericMessage<>(heap)).getPayload();
+		assertEquals("John", person.getFirstName());
+		assertEquals(42, person.getAge());
+		ByteBuffer direct = ByteBuffer.allocateDirect(json.length);
+		direct.put(json).position(2);
+		person = (TestPerson) transformer.transform(new GenericMessage<>(direct)).getPayload();
+		assertEquals("Doe", person.getLastName());
+		assertEquals(2, direct.position());
+	}
+
+	@Test
+	public void bytesPayloadWithTypeHeaders() throws Exception {
+		JsonToObjectTransformer transformer = new JsonToObjectTransformer();
+		for (int i = 0; i < 2; i++) {
+			Message<byte[]> message = MessageBuilder.withPayload("{\"firstName\":\"John\",\"age\":42}"
+					.getBytes(StandardCharsets.UTF_8))
+					.setHeader(JsonHeaders.TYPE_ID, TestPerson.class.getName())
+					.build();
+			Message<?> result = transformer.transform(message);
+			TestPerson person = (TestPerson) result.getPayload();
+			assertEquals("John", person.getFirstName());
+			assertEquals(42, person.getAge());
+		}
+	}
+
 }
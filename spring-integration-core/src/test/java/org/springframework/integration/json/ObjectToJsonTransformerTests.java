@@ -24,6 +24,7 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -127,6 +128,17 @@ public class ObjectToJsonTransformerTests {
 		assertEquals("123", new String((byte[]) result));
 	}
 
+	@Test
+	public void objectAsUtf8BytesPayload() throws Exception {
+		ObjectToJsonTransformer transformer = new ObjectToJsonTransformer(ObjectToJsonTransformer.ResultType.BYTES);
+		TestPerson person = new TestPerson("J\u00f6rg", "M\u00fcller", 42);
+		Object result = transformer.transform(new GenericMessage<>(person)).getPayload();
+		assertThat(result, instanceOf(byte[].class));
+		String json = new String((byte[]) result, StandardCharsets.UTF_8);
+		assertThat(json, containsString("\"firstName\":\"J\u00f6rg\""));
+		assertThat(json, containsString("\"lastName\":\"M\u00fcller\""));
+	}
+
 	@Test
 	public void objectPayload() throws Exception {
 		ObjectToJsonTransformer transformer = new ObjectToJsonTransformer();
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2016 the original author or authors.
+ * Copyright 2002-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -34,6 +34,7 @@ import org.springframework.integration.mapping.AbstractHeaderMapper.HeaderMatche
 import org.springframework.integration.mapping.AbstractHeaderMapper.PatternBasedHeaderMatcher;
 import org.springframework.integration.mapping.AbstractHeaderMapper.PrefixBasedMatcher;
 import org.springframework.integration.mapping.AbstractHeaderMapper.SinglePatternBasedHeaderMatcher;
+import org.springframework.integration.test.util.TestUtils;
 import org.springframework.messaging.MessageHeaders;
 import org.springframework.util.StringUtils;
 
@@ -265,6 +266,37 @@ public class HeaderMapperTests {
 		assertEquals(2, properties.getUserDefinedHeaders().size());
 	}
 
+	@Test
+	public void fromHeadersToRequestCachesDecisions() {
+		this.mapper.setRequestHeaderNames("!fiz*", "*buz",
+				GenericTestHeaderMapper.STANDARD_REQUEST_HEADER_NAME_PATTERN);
+		Map<String, Object> headers = new HashMap<String, Object>();
+		headers.put(GenericTestHeaders.APP_ID, "myAppId");
+		headers.put(GenericTestHeaders.REPLY_ONLY, "reply-456");
+		headers.put("fizbuz", "fizbuz");
+		headers.put("buzbuz", "buzbuz");
+		MessageHeaders messageHeaders = new MessageHeaders(headers);
+		for (int i = 0; i < 2; i++) {
+			GenericTestProperties properties = new GenericTestProperties();
+			this.mapper.fromHeadersToRequest(messageHeaders, properties);
+			assertEquals("myAppId", properties.getAppId());
+			assertNull(properties.getReplyOnly());
+			assertEquals("buzbuz", properties.getUserDefinedHeaders().get("buzbuz"));
+			assertEquals(1, properties.getUserDefinedHeaders().size());
+		}
+		Map<?, ?> decisions = TestUtils.getPropertyValue(this.mapper, "requestHeaderMatcher.cache.decisions",
+				Map.class);
+		assertEquals(true, decisions.get("buzbuz"));
+		assertEquals(false, decisions.get("fizbuz"));
+		assertEquals(false, decisions.get(GenericTestHeaders.REPLY_ONLY));
+
+		this.mapper.setRequestHeaderNames("fiz*");
+		GenericTestProperties properties = new GenericTestProperties();
+		this.mapper.fromHeadersToRequest(messageHeaders, properties);
+		assertEquals("fizbuz", properties.getUserDefinedHeaders().get("fizbuz"));
+		assertEquals(1, properties.getUserDefinedHeaders().size());
+	}
+
 	@Test
 	public void fromHeadersToReply() {
 		MessageHeaders messageHeaders = createSimpleMessageHeaders();
@@ -376,6 +408,31 @@ public class HeaderMapperTests {
 		assertMapping(strategy, "foo_", false);
 	}
 
+	@Test
+	public void containsSingleHeaderPatternMatching() {
+		SinglePatternBasedHeaderMatcher strategy =
+				new SinglePatternBasedHeaderMatcher("*fOo*");
+
+		assertMapping(strategy, "foo", true);
+		assertMapping(strategy, "123foo456", true);
+		assertMapping(strategy, "FoO_", true);
+
+		assertMapping(strategy, "fo_o", false);
+	}
+
+	@Test
+	public void generalSingleHeaderPatternMatching() {
+		SinglePatternBasedHeaderMatcher strategy =
+				new SinglePatternBasedHeaderMatcher("foo*bar");
+
+		assertMapping(strategy, "foobar", true);
+		assertMapping(strategy, "foo123bar", true);
+		assertMapping(strategy, "FOO_BAR", true);
+
+		assertMapping(strategy, "foo123", false);
+		assertMapping(strategy, "foobar_", false);
+	}
+
 	@Test
 	public void contentHeaderMatching() {
 		ContentBasedHeaderMatcher strategy =
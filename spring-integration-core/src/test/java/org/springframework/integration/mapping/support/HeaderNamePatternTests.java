@@ -0,0 +1,68 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.mapping.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+import org.springframework.util.PatternMatchUtils;
+
+/**
+ * @since 5.1
+ */
+public class HeaderNamePatternTests {
+
+	private static final String[] PATTERNS = { "foo", "*", "**", "foo*", "*foo", "*foo*", "foo*bar", "*foo*bar",
+			"f*o*o", "foo**", "**foo", "" };
+
+	private static final String[] NAMES = { "foo", "foobar", "barfoo", "barfoobar", "foo_bar", "fo", "f_o_o", "",
+			"FOO", "foofoo", "foobarbar" };
+
+	@Test
+	public void testSameAsSimpleMatch() {
+		for (String pattern : PATTERNS) {
+			HeaderNamePattern compiled = HeaderNamePattern.compile(pattern);
+			assertThat(compiled.getPattern()).isEqualTo(pattern);
+			for (String name : NAMES) {
+				assertThat(compiled.matches(name))
+						.as(pattern + " : " + name)
+						.isEqualTo(PatternMatchUtils.simpleMatch(pattern, name));
+			}
+			assertThat(compiled.matches(null)).isFalse();
+		}
+	}
+
+	@Test
+	public void testCacheIsBounded() {
+		int[] evaluations = new int[1];
+		HeaderNameMatchCache cache = new HeaderNameMatchCache(name -> {
+			evaluations[0]++;
+			return name.startsWith("foo");
+		}, 2);
+		assertThat(cache.matches("foo")).isTrue();
+		assertThat(cache.matches("bar")).isFalse();
+		assertThat(cache.matches("foo")).isTrue();
+		assertThat(cache.matches("bar")).isFalse();
+		assertThat(evaluations[0]).isEqualTo(2);
+		assertThat(cache.matches("foobar")).isTrue();
+		assertThat(cache.matches("foobar")).isTrue();
+		assertThat(evaluations[0]).isEqualTo(4);
+		assertThat(cache.size()).isEqualTo(2);
+	}
+
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.scheduling;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.integration.channel.QueueChannel;
+import org.springframework.integration.endpoint.PollingConsumer;
+import org.springframework.messaging.support.GenericMessage;
+import org.springframework.scheduling.support.PeriodicTrigger;
+
+/**
+ * @since 5.1
+ */
+public class TimingWheelTaskSchedulerTests {
+
+	private final TimingWheelTaskScheduler scheduler = new TimingWheelTaskScheduler();
+
+	@Before
+	public void setUp() {
+		this.scheduler.setShardCount(4);
+		this.scheduler.setTickDuration(5);
+		this.scheduler.setWheelSize(64);
+	}
+
+	@After
+	public void tearDown() {
+		this.scheduler.destroy();
+	}
+
+	@Test
+	public void testOneTimeTask() throws Exception {
+		this.scheduler.afterPropertiesSet();
+		AtomicInteger count = new AtomicInteger();
+		long start = System.currentTimeMillis();
+		ScheduledFuture<?> future = this.scheduler.schedule(count::incrementAndGet, new Date(start + 50));
+		assertThat(future.get(10, TimeUnit.SECONDS)).isNull();
+		assertThat(System.currentTimeMillis() - start).isGreaterThanOrEqualTo(50);
+		assertThat(count.get()).isEqualTo(1);
+		assertThat(this.scheduler.getScheduledTaskCount()).isEqualTo(0);
+		ScheduledFuture<?> failed = this.scheduler.schedule(() -> {
+			throw new IllegalStateException("test");
+		}, new Date());
+		assertThatThrownBy(() -> failed.get(10, TimeUnit.SECONDS))
+				.isInstanceOf(ExecutionException.class)
+				.hasCauseInstanceOf(IllegalStateException.class);
+	}
+
+	@Test
+	public void testLongDelayWrapsTheWheel() throws Exception {
+		this.scheduler.setWheelSize(4);
+		this.scheduler.afterPropertiesSet();
+		long start = System.currentTimeMillis();
+		ScheduledFuture<?> future = this.scheduler.schedule(() -> { }, new Date(start + 100));
+		future.get(10, TimeUnit.SECONDS);
+		assertThat(System.currentTimeMillis() - start).isGreaterThanOrEqualTo(100);
+	}
+
+	@Test
+	public void testPeriodicTaskAndCancel() throws Exception {
+		this.scheduler.afterPropertiesSet();
+		CountDownLatch latch = new CountDownLatch(5);
+		ScheduledFuture<?> future = this.scheduler.schedule(latch::countDown, new PeriodicTrigger(10));
+		assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(this.scheduler.getScheduledTaskCount()).isEqualTo(1);
+		assertThat(future.cancel(true)).isTrue();
+		assertThat(future.isDone()).isTrue();
+		assertThat(this.scheduler.getScheduledTaskCount()).isEqualTo(0);
+		assertThatThrownBy(future::get).isInstanceOf(CancellationException.class);
+	}
+
+	@Test
+	public void testManyPollers() throws Exception {
+		this.scheduler.afterPropertiesSet();
+		int pollers = 10_000;
+		CountDownLatch latch = new CountDownLatch(pollers * 3);
+		PeriodicTrigger trigger = new PeriodicTrigger(20);
+		List<ScheduledFuture<?>> futures = new ArrayList<>(pollers);
+		for (int i = 0; i < pollers; i++) {
+			futures.add(this.scheduler.schedule(latch::countDown, trigger));
+		}
+		assertThat(latch.await(30, TimeUnit.SECONDS)).isTrue();
+		assertThat(this.scheduler.getScheduledTaskCount()).isEqualTo(pollers);
+		futures.forEach(f -> f.cancel(false));
+		assertThat(this.scheduler.getScheduledTaskCount()).isEqualTo(0);
+	}
+
+	@Test
+	public void testBackPressureDefersDueTasks() throws Exception {
+		this.scheduler.setShardCount(1);
+		this.scheduler.setWorkersPerShard(1);
+		this.scheduler.setBatchSize(1);
+		this.scheduler.setMaxInFlight(1);
+		this.scheduler.afterPropertiesSet();
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch done = new CountDownLatch(2);
+		Date now = new Date();
+		this.scheduler.schedule(() -> {
+			try {
+				release.await(10, TimeUnit.SECONDS);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			done.countDown();
+		}, now);
+		this.scheduler.schedule(done::countDown, now);
+		int n = 0;
+		while (n++ < 1000 && this.scheduler.getDeferredCount() == 0) {
+			Thread.sleep(10);
+		}
+		assertThat(this.scheduler.getDeferredCount()).isGreaterThan(0);
+		assertThat(this.scheduler.getInFlightCount()).isEqualTo(1);
+		release.countDown();
+		assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+	}
+
+	@Test
+	public void testDestroyCompletesPendingFutures() throws Exception {
+		this.scheduler.setShardCount(1);
+		this.scheduler.setWorkersPerShard(1);
+		this.scheduler.setBatchSize(1);
+		this.scheduler.afterPropertiesSet();
+		CountDownLatch running = new CountDownLatch(1);
+		Date now = new Date();
+		ScheduledFuture<?> blocking = this.scheduler.schedule(() -> {
+			running.countDown();
+			try {
+				Thread.sleep(10_000);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}, now);
+		ScheduledFuture<?> queued = this.scheduler.schedule(() -> { }, now);
+		ScheduledFuture<?> later = this.scheduler.schedule(() -> { }, new Date(now.getTime() + 60_000));
+		assertThat(running.await(10, TimeUnit.SECONDS)).isTrue();
+		int n = 0;
+		while (n++ < 1000 && this.scheduler.getInFlightCount() < 2) {
+			Thread.sleep(10);
+		}
+		assertThat(this.scheduler.getInFlightCount()).isEqualTo(2);
+		this.scheduler.destroy();
+		assertThatThrownBy(() -> queued.get(10, TimeUnit.SECONDS)).isInstanceOf(CancellationException.class);
+		assertThatThrownBy(() -> later.get(10, TimeUnit.SECONDS)).isInstanceOf(CancellationException.class);
+		// the running task is interrupted
+		assertThat(blocking.get(10, TimeUnit.SECONDS)).isNull();
+		n = 0;
+		while (n++ < 1000 && this.scheduler.getInFlightCount() > 0) {
+			Thread.sleep(10);
+		}
+		assertThat(this.scheduler.getInFlightCount()).isEqualTo(0);
+		assertThat(this.scheduler.getScheduledTaskCount()).isEqualTo(0);
+	}
+
+	@Test
+	public void testPollingConsumer() throws Exception {
+		this.scheduler.afterPropertiesSet();
+		QueueChannel channel = new QueueChannel();
+		CountDownLatch latch = new CountDownLatch(10);
+		PollingConsumer consumer = new PollingConsumer(channel, m -> latch.countDown());
+		consumer.setTaskScheduler(this.scheduler);
+		consumer.setTrigger(new PeriodicTrigger(10));
+		consumer.setReceiveTimeout(0);
+		consumer.setBeanFactory(mock(BeanFactory.class));
+		consumer.afterPropertiesSet();
+		consumer.start();
+		for (int i = 0; i < 10; i++) {
+			channel.send(new GenericMessage<>("foo"));
+		}
+		assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+		consumer.stop();
+		assertThat(this.scheduler.getScheduledTaskCount()).isEqualTo(0);
+	}
+
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.selector;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import org.junit.Test;
+
+import org.springframework.integration.metadata.ConcurrentMetadataStore;
+import org.springframework.integration.metadata.SimpleMetadataStore;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.integration.util.ScalableBloomFilter;
+import org.springframework.messaging.Message;
+
+/**
+ * @since 5.1
+ */
+public class MetadataStoreSelectorTests {
+
+	@Test
+	public void testTimeToLive() throws Exception {
+		SimpleMetadataStore store = new SimpleMetadataStore();
+		MetadataStoreSelector selector = new MetadataStoreSelector(m -> m.getPayload().toString(), store);
+		selector.setTimeToLive(100);
+		assertTrue(selector.accept(message("foo")));
+		assertFalse(selector.accept(message("foo")));
+		Thread.sleep(150);
+		assertTrue(selector.accept(message("foo")));
+		assertFalse(selector.accept(message("foo")));
+	}
+
+	@Test
+	public void testNearCacheRejectsLocally() {
+		ConcurrentMetadataStore store = spy(new SimpleMetadataStore());
+		MetadataStoreSelector selector = new MetadataStoreSelector(m -> m.getPayload().toString(), store);
+		selector.setNearCacheSize(10);
+		assertTrue(selector.accept(message("foo")));
+		assertFalse(selector.accept(message("foo")));
+		assertFalse(selector.accept(message("foo")));
+		verify(store, times(1)).putIfAbsent(anyString(), anyString());
+		for (int i = 0; i < 20; i++) {
+			assertTrue(selector.accept(message("bar" + i)));
+		}
+		// rejected by the near cache or, if evicted, by the store
+		assertFalse(selector.accept(message("bar0")));
+	}
+
+	@Test
+	public void testBloomFilterBatchesNewKeys() {
+		ConcurrentMetadataStore store = spy(new SimpleMetadataStore());
+		MetadataStoreSelector selector = new MetadataStoreSelector(m -> m.getPayload().toString(), store);
+		selector.setNearCacheSize(100);
+		selector.setBloomFilter(new ScalableBloomFilter(100, 0.01));
+		selector.setBatchSize(3);
+		assertTrue(selector.accept(message("foo")));
+		assertTrue(selector.accept(message("bar")));
+		assertFalse(selector.accept(message("foo")));
+		assertNull(store.get("foo"));
+		assertTrue(selector.accept(message("baz")));
+		assertNotNull(store.get("foo"));
+		assertNotNull(store.get("bar"));
+		assertNotNull(store.get("baz"));
+		verify(store, times(1)).putAllIfAbsent(anyMap());
+		assertTrue(selector.accept(message("qux")));
+		assertNull(store.get("qux"));
+		selector.flush();
+		assertNotNull(store.get("qux"));
+	}
+
+	@Test
+	public void testBloomFilterAfterRestart() {
+		ConcurrentMetadataStore store = spy(new SimpleMetadataStore());
+		store.put("foo", "1");
+		MetadataStoreSelector selector = new MetadataStoreSelector(m -> m.getPayload().toString(), store);
+		selector.setBloomFilter(new ScalableBloomFilter(100, 0.01));
+		assertFalse(selector.accept(message("foo")));
+		assertTrue(selector.accept(message("bar")));
+		// pending keys are rejected without the near cache
+		assertFalse(selector.accept(message("bar")));
+		assertNull(store.get("bar"));
+		verify(store, never()).putIfAbsent(anyString(), anyString());
+		selector.flush();
+		assertNotNull(store.get("bar"));
+		assertFalse(selector.accept(message("bar")));
+	}
+
+	@Test
+	public void testBloomFilter() {
+		ScalableBloomFilter filter = new ScalableBloomFilter(100, 0.01);
+		for (int i = 0; i < 1000; i++) {
+			filter.put("key" + i);
+		}
+		for (int i = 0; i < 1000; i++) {
+			assertTrue(filter.mightContain("key" + i));
+		}
+		int falsePositives = 0;
+		for (int i = 0; i < 10000; i++) {
+			if (filter.mightContain("other" + i)) {
+				falsePositives++;
+			}
+		}
+		assertTrue("Too many false positives: " + falsePositives, falsePositives < 400);
+		assertEquals(1000, filter.getCount());
+		filter.clear();
+		assertFalse(filter.mightContain("key0"));
+	}
+
+	private static Message<String> message(String payload) {
+		return MessageBuilder.withPayload(payload).build();
+	}
+
+}
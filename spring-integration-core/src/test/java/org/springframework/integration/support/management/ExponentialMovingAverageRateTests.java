@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2017 the original author or authors.
+ * Copyright 2002-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -23,8 +23,6 @@ import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
-import java.util.Deque;
-
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.junit.Ignore;
@@ -62,13 +60,13 @@ public class ExponentialMovingAverageRateTests {
 		for (int i = 0; i < TestUtils.getPropertyValue(history, "retention", Integer.class); i++) {
 			history.increment(now);
 		}
-		final Deque<Long> times = TestUtils.getPropertyValue(history, "times", Deque.class);
-		assertEquals(Long.valueOf(now), times.peekFirst());
-		assertEquals(Long.valueOf(now), times.peekLast());
+		final SampleBuffer times = TestUtils.getPropertyValue(history, "times", SampleBuffer.class);
+		assertEquals(now, times.snapshot()[0]);
+		assertEquals(now, times.last(0));
 
 		//increment just so we'll have a different value between first and last
 		history.increment(System.nanoTime()  - sleepTime * 1000000);
-		assertNotEquals(times.peekFirst(), times.peekLast());
+		assertNotEquals(times.snapshot()[0], times.last(0));
 
 		/*
 		 * We've called Thread.sleep twice with the same value in quick
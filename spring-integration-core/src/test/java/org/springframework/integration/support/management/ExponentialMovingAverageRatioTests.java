@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2016 the original author or authors.
+ * Copyright 2002-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -23,8 +23,6 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertThat;
 
-import java.util.Deque;
-
 import org.hamcrest.Matchers;
 import org.junit.Ignore;
 import org.junit.Test;
@@ -59,13 +57,13 @@ public class ExponentialMovingAverageRatioTests {
 		for (int i = 0; i < TestUtils.getPropertyValue(history, "retention", Integer.class); i++) {
 			history.success(now);
 		}
-		final Deque<Long> times = TestUtils.getPropertyValue(history, "times", Deque.class);
-		assertEquals(Long.valueOf(now), times.peekFirst());
-		assertEquals(Long.valueOf(now), times.peekLast());
+		final SampleBuffer events = TestUtils.getPropertyValue(history, "events", SampleBuffer.class);
+		assertEquals(now, events.snapshot()[0] >> 1);
+		assertEquals(now, events.last(0) >> 1);
 
 		//increment just so we'll have a different value between first and last
 		history.success(System.nanoTime() - sleepTime * 1000000);
-		assertNotEquals(times.peekFirst(), times.peekLast());
+		assertNotEquals(events.snapshot()[0], events.last(0));
 
 		/*
 		 * We've called Thread.sleep twice with the same value in quick
@@ -16,7 +16,9 @@
 
 package org.springframework.integration.support.management;
 
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
@@ -34,12 +36,14 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.integration.channel.AbstractMessageChannel;
 import org.springframework.integration.channel.DirectChannel;
+import org.springframework.integration.channel.QueueChannel;
 import org.springframework.integration.config.EnableIntegration;
 import org.springframework.integration.config.EnableIntegrationManagement;
 import org.springframework.integration.config.IntegrationManagementConfigurer;
 import org.springframework.integration.endpoint.AbstractMessageSource;
 import org.springframework.integration.handler.AbstractMessageHandler;
 import org.springframework.integration.router.RecipientListRouter;
+import org.springframework.integration.support.MessageBuilder;
 import org.springframework.integration.test.util.TestUtils;
 import org.springframework.messaging.MessageChannel;
 
@@ -104,6 +108,21 @@ public class IntegrationManagementConfigurerTests {
 		ctx.close();
 	}
 
+	@Test
+	public void testLatencyPercentiles() {
+		AnnotationConfigApplicationContext ctx =
+				new AnnotationConfigApplicationContext(ConfigLatencyPercentiles.class);
+		QueueChannel channel = ctx.getBean("channel", QueueChannel.class);
+		channel.send(MessageBuilder.withPayload("foo").build());
+		channel.send(MessageBuilder.withPayload("bar").build());
+		LatencyHistogram histogram = channel.getSendDurationHistogram();
+		assertTrue(histogram.isIntervalReset());
+		assertThat(channel.getSendDurationPercentiles().keySet(), contains("p50", "p99"));
+		channel.send(MessageBuilder.withPayload("baz").build());
+		assertEquals(1, histogram.snapshot().getCount());
+		ctx.close();
+	}
+
 	@Configuration
 	@EnableIntegration
 	@EnableIntegrationManagement
@@ -122,4 +141,16 @@ public class IntegrationManagementConfigurerTests {
 		}
 	}
 
+	@Configuration
+	@EnableIntegration
+	@EnableIntegrationManagement(latencyPercentiles = "0.5, 0.99", latencyIntervalReset = "true")
+	public static class ConfigLatencyPercentiles {
+
+		@Bean
+		public QueueChannel channel() {
+			return new QueueChannel();
+		}
+
+	}
+
 }
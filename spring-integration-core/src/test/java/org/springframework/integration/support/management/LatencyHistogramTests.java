@@ -0,0 +1,155 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.support.management;
+
+import static org.hamcrest.Matchers.contains;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * @since 5.1
+ */
+public class LatencyHistogramTests {
+
+	private static final long MILLIS = 1000000L;
+
+	@Test
+	public void testPercentiles() {
+		LatencyHistogram histogram = new LatencyHistogram(new double[] { 0.5, 0.99, 0.999 }, false);
+		for (long i = 1; i <= 1000; i++) {
+			histogram.record(i * MILLIS);
+		}
+		LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+		assertEquals(1000, snapshot.getCount());
+		assertEquals(500.5, snapshot.getMean(), 0.001);
+		assertEquals(1000, snapshot.getMax(), 0.001);
+		assertEquals(500, snapshot.getValueAtPercentile(0.5), 500 * 0.04);
+		assertEquals(990, snapshot.getValueAtPercentile(0.99), 990 * 0.04);
+		assertEquals(1000, snapshot.getValueAtPercentile(1), 0.001);
+		Map<String, Double> percentiles = snapshot.getPercentiles();
+		assertThat(percentiles.keySet(), contains("p50", "p99", "p99.9"));
+		// cumulative
+		histogram.record(2000 * MILLIS);
+		assertEquals(1001, histogram.snapshot().getCount());
+		histogram.reset();
+		assertEquals(0, histogram.snapshot().getCount());
+		assertEquals(0, histogram.snapshot().getValueAtPercentile(0.99), 0);
+	}
+
+	@Test
+	public void testIntervalReset() {
+		LatencyHistogram histogram = new LatencyHistogram(LatencyHistogram.DEFAULT_PERCENTILES, true);
+		histogram.record(10 * MILLIS);
+		histogram.record(20 * MILLIS);
+		assertEquals(2, histogram.snapshot().getCount());
+		histogram.record(5 * MILLIS);
+		LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+		assertEquals(1, snapshot.getCount());
+		assertEquals(5, snapshot.getMax(), 0.001);
+		assertEquals(0, histogram.snapshot().getCount());
+	}
+
+	@Test
+	public void testPeekDoesNotResetInterval() {
+		LatencyHistogram histogram = new LatencyHistogram(LatencyHistogram.DEFAULT_PERCENTILES, true);
+		histogram.record(10 * MILLIS);
+		histogram.record(20 * MILLIS);
+		assertEquals(2, histogram.peek().getCount());
+		assertEquals(20, histogram.peek().getMax(), 0.001);
+		assertEquals(2, histogram.snapshot().getCount());
+		assertEquals(0, histogram.peek().getCount());
+		LatencyHistogram cumulative = new LatencyHistogram();
+		cumulative.record(10 * MILLIS);
+		cumulative.snapshot();
+		cumulative.record(30 * MILLIS);
+		LatencyHistogram.Snapshot peek = cumulative.peek();
+		assertEquals(2, peek.getCount());
+		assertEquals(20, peek.getMean(), 0.001);
+		assertEquals(2, cumulative.snapshot().getCount());
+	}
+
+	@Test
+	public void testReadersHaveTheirOwnIntervals() {
+		LatencyHistogram histogram = new LatencyHistogram(LatencyHistogram.DEFAULT_PERCENTILES, true);
+		histogram.record(10 * MILLIS);
+		LatencyHistogram.Reader reader = histogram.newReader();
+		histogram.record(20 * MILLIS);
+		assertEquals(2, histogram.snapshot().getCount());
+		histogram.record(5 * MILLIS);
+		LatencyHistogram.Snapshot snapshot = reader.snapshot();
+		assertEquals(2, snapshot.getCount());
+		assertEquals(20, snapshot.getMax(), 0.001);
+		assertEquals(12.5, snapshot.getMean(), 0.001);
+		snapshot = histogram.snapshot();
+		assertEquals(1, snapshot.getCount());
+		assertEquals(5, snapshot.getMax(), 0.001);
+		assertEquals(0, reader.snapshot().getCount());
+		histogram.record(30 * MILLIS);
+		histogram.reset();
+		histogram.record(40 * MILLIS);
+		snapshot = reader.snapshot();
+		assertEquals(1, snapshot.getCount());
+		assertEquals(40, snapshot.getMax(), 0.001);
+		reader.close();
+	}
+
+	@Test
+	public void testBuckets() {
+		LatencyHistogram histogram = new LatencyHistogram(LatencyHistogram.DEFAULT_PERCENTILES, false, 1L << 20, 4);
+		for (long value = 0; value < 1L << 20; value = value * 3 / 2 + 1) {
+			int index = histogram.bucketIndex(value);
+			long highest = histogram.highestEquivalentValue(index);
+			assertTrue(value + " > " + highest, value <= highest);
+			assertTrue(value + " too imprecise: " + highest, highest - value <= Math.max(value / 4, 1));
+		}
+		// beyond the highest trackable value
+		assertEquals(histogram.bucketIndex((1L << 21) - 1), histogram.bucketIndex(Long.MAX_VALUE));
+	}
+
+	@Test
+	public void testConcurrentRecordAndRead() throws Exception {
+		LatencyHistogram histogram = new LatencyHistogram(LatencyHistogram.DEFAULT_PERCENTILES, true);
+		ExecutorService exec = Executors.newFixedThreadPool(8);
+		CountDownLatch latch = new CountDownLatch(8);
+		for (int i = 0; i < 8; i++) {
+			exec.execute(() -> {
+				for (int j = 0; j < 100000; j++) {
+					histogram.record(j);
+				}
+				latch.countDown();
+			});
+		}
+		long total = 0;
+		while (latch.getCount() > 0) {
+			total += histogram.snapshot().getCount();
+		}
+		assertTrue(latch.await(10, TimeUnit.SECONDS));
+		total += histogram.snapshot().getCount();
+		exec.shutdown();
+		assertEquals(800000, total);
+	}
+
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.support.management;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.integration.annotation.ServiceActivator;
+import org.springframework.integration.channel.DirectChannel;
+import org.springframework.integration.channel.QueueChannel;
+import org.springframework.integration.config.EnableIntegration;
+import org.springframework.integration.endpoint.MessageProducerSupport;
+import org.springframework.integration.graph.IntegrationGraphServer;
+import org.springframework.integration.handler.BridgeHandler;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.support.GenericMessage;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit4.SpringRunner;
+
+/**
+ * @since 5.1
+ */
+@RunWith(SpringRunner.class)
+@DirtiesContext
+public class MessagePathTracerTests {
+
+	@Autowired
+	private MessagePathTracer tracer;
+
+	@Autowired
+	private TestProducer producer;
+
+	@Autowired
+	private QueueChannel output;
+
+	@Autowired
+	private IntegrationGraphServer server;
+
+	@After
+	public void tearDown() {
+		this.tracer.setSampleRate(1);
+		this.tracer.reset();
+	}
+
+	@Test
+	public void testPathIsTraced() {
+		for (int i = 0; i < 10; i++) {
+			this.producer.produce(new GenericMessage<>("foo"));
+			Message<?> out = this.output.receive(0);
+			assertThat(out).isNotNull();
+			assertThat(out.getHeaders()).containsKey(MessagePathTracer.TRACE_ID_HEADER);
+		}
+		this.tracer.aggregate();
+		List<PathStatistics> paths = this.tracer.getPaths();
+		assertThat(paths).hasSize(1);
+		PathStatistics statistics = paths.get(0);
+		assertThat(statistics.getPath()).containsExactly("producer", "input", "handler", "output");
+		assertThat(statistics.getCount()).isEqualTo(10);
+		assertThat(statistics.getMeanHopLatencies()).hasSize(4);
+		assertThat(statistics.getMaxLatency()).isGreaterThanOrEqualTo(statistics.getMeanLatency());
+		assertThat(statistics.getLatencyPercentiles()).containsKeys("p50", "p99");
+		Collection<PathStatistics> graphPaths = this.server.getPaths();
+		assertThat(graphPaths).hasSize(1);
+		assertThat(graphPaths.iterator().next().getPath()).isEqualTo(statistics.getPath());
+	}
+
+	@Test
+	public void testUnsampledMessagesAreNotTouched() {
+		this.tracer.setSampleRate(0);
+		GenericMessage<String> message = new GenericMessage<>("foo");
+		this.producer.produce(message);
+		Message<?> out = this.output.receive(0);
+		assertThat(out).isSameAs(message);
+		this.tracer.aggregate();
+		assertThat(this.tracer.getPaths()).isEmpty();
+	}
+
+	@Test
+	public void testStopDetachesComponents() {
+		this.tracer.stop();
+		try {
+			this.producer.produce(new GenericMessage<>("foo"));
+			Message<?> out = this.output.receive(0);
+			assertThat(out).isNotNull();
+			assertThat(out.getHeaders()).doesNotContainKey(MessagePathTracer.TRACE_ID_HEADER);
+			assertThat(this.tracer.getPaths()).isEmpty();
+		}
+		finally {
+			this.tracer.start();
+		}
+	}
+
+	@Configuration
+	@EnableIntegration
+	public static class Config {
+
+		@Bean
+		public static MessagePathTracer tracer() {
+			MessagePathTracer tracer = new MessagePathTracer();
+			tracer.setSampleRate(1);
+			tracer.setCompletionTimeout(0);
+			tracer.setAggregationInterval(60_000);
+			return tracer;
+		}
+
+		@Bean
+		public DirectChannel input() {
+			return new DirectChannel();
+		}
+
+		@Bean
+		public QueueChannel output() {
+			return new QueueChannel();
+		}
+
+		@Bean
+		public TestProducer producer() {
+			TestProducer producer = new TestProducer();
+			producer.setOutputChannelName("input");
+			return producer;
+		}
+
+		@Bean
+		@ServiceActivator(inputChannel = "input")
+		public MessageHandler handler() {
+			BridgeHandler handler = new BridgeHandler();
+			handler.setOutputChannelName("output");
+			return handler;
+		}
+
+		@Bean
+		public IntegrationGraphServer server() {
+			return new IntegrationGraphServer();
+		}
+
+	}
+
+	public static class TestProducer extends MessageProducerSupport {
+
+		void produce(Message<?> message) {
+			sendMessage(message);
+		}
+
+	}
+
+}
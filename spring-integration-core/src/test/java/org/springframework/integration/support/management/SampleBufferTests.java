@@ -0,0 +1,71 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.support.management;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * @since 5.1
+ */
+public class SampleBufferTests {
+
+	@Test
+	public void testRetainsMostRecentInOrder() {
+		SampleBuffer buffer = new SampleBuffer(3);
+		assertEquals(0, buffer.snapshot().length);
+		assertEquals(-1, buffer.last(-1));
+		for (long i = 1; i <= 5; i++) {
+			buffer.add(i);
+		}
+		assertEquals(5, buffer.count());
+		assertArrayEquals(new long[] { 3, 4, 5 }, buffer.snapshot());
+		assertEquals(5, buffer.last(-1));
+	}
+
+	@Test
+	public void testConcurrentWriters() throws Exception {
+		ExponentialMovingAverage average = new ExponentialMovingAverage(10);
+		ExponentialMovingAverageRatio ratio = new ExponentialMovingAverageRatio(60, 10);
+		ExecutorService exec = Executors.newFixedThreadPool(8);
+		for (int i = 0; i < 8; i++) {
+			exec.execute(() -> {
+				for (int j = 0; j < 10000; j++) {
+					average.append(2);
+					ratio.success();
+					average.getStatistics();
+				}
+			});
+		}
+		exec.shutdown();
+		assertTrue(exec.awaitTermination(30, TimeUnit.SECONDS));
+		assertEquals(80000, average.getCountLong());
+		assertEquals(80000, ratio.getCountLong());
+		assertEquals(2, average.getMean(), 0.0001);
+		assertEquals(2, average.getMax(), 0.0001);
+		assertEquals(2, average.getMin(), 0.0001);
+		assertEquals(1, ratio.getMean(), 0.0001);
+	}
+
+}
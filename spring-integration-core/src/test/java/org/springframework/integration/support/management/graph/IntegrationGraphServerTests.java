@@ -20,6 +20,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import java.io.ByteArrayOutputStream;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -30,6 +31,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.ImportResource;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.ContextRefreshedEvent;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.integration.annotation.Filter;
 import org.springframework.integration.annotation.IntegrationComponentScan;
@@ -45,11 +48,15 @@ import org.springframework.integration.core.MessageProducer;
 import org.springframework.integration.dsl.IntegrationFlow;
 import org.springframework.integration.dsl.context.IntegrationFlowContext;
 import org.springframework.integration.dsl.context.IntegrationFlowContext.IntegrationFlowRegistration;
+import org.springframework.integration.dsl.context.IntegrationFlowRegisteredEvent;
+import org.springframework.integration.dsl.context.IntegrationFlowRemovedEvent;
 import org.springframework.integration.endpoint.EventDrivenConsumer;
 import org.springframework.integration.endpoint.MessageProducerSupport;
 import org.springframework.integration.endpoint.PollingConsumer;
+import org.springframework.integration.gateway.GatewayMethodCreatedEvent;
 import org.springframework.integration.graph.Graph;
 import org.springframework.integration.graph.IntegrationGraphServer;
+import org.springframework.integration.graph.LiveNodeStats;
 import org.springframework.integration.router.ExpressionEvaluatingRouter;
 import org.springframework.integration.router.HeaderValueRouter;
 import org.springframework.integration.router.RecipientListRouter;
@@ -61,6 +68,7 @@ import org.springframework.messaging.MessageHandler;
 import org.springframework.messaging.MessagingException;
 import org.springframework.messaging.PollableChannel;
 import org.springframework.messaging.SubscribableChannel;
+import org.springframework.messaging.support.GenericMessage;
 import org.springframework.scheduling.support.PeriodicTrigger;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
@@ -88,6 +96,9 @@ public class IntegrationGraphServerTests {
 	@Autowired
 	private IntegrationFlowContext flowContext;
 
+	@Autowired
+	private PollableChannel four;
+
 	@SuppressWarnings("unchecked")
 	@Test
 	public void test() throws Exception {
@@ -144,6 +155,52 @@ public class IntegrationGraphServerTests {
 		assertThat(graph.getNodes().size()).isEqualTo(32);
 	}
 
+	@Test
+	public void testFlowRegistrationUpdatesGraphIncrementally() {
+		Graph graph = this.server.getGraph();
+		int nodeCount = graph.getNodes().size();
+		int linkCount = graph.getLinks().size();
+		IntegrationFlow flow = f -> f.handle(m -> { });
+		IntegrationFlowRegistration reg = this.flowContext.registration(flow).register();
+		Graph updated = this.server.getGraph();
+		assertThat(updated).isNotSameAs(graph);
+		assertThat(updated.getNodes().size()).isEqualTo(nodeCount + 2);
+		assertThat(updated.getLinks().size()).isEqualTo(linkCount + 1);
+		assertThat(updated.getNodes()).containsAll(graph.getNodes());
+		this.flowContext.remove(reg.getId());
+		updated = this.server.getGraph();
+		assertThat(updated.getNodes().size()).isEqualTo(nodeCount);
+		assertThat(updated.getLinks().size()).isEqualTo(linkCount);
+	}
+
+	@Test
+	public void testLiveStats() {
+		this.four.send(new GenericMessage<>("foo"));
+		try {
+			Collection<LiveNodeStats> stats = this.server.getLiveStats();
+			assertThat(stats).hasSize(this.server.getGraph().getNodes().size());
+			LiveNodeStats fourStats = stats.stream()
+					.filter(s -> "four".equals(s.getName()))
+					.findFirst()
+					.get();
+			assertThat(fourStats.getBacklog()).isEqualTo(1);
+			assertThat(fourStats.getRate()).isNotNull();
+			assertThat(fourStats.getNodeId()).isGreaterThan(0);
+		}
+		finally {
+			this.four.receive(0);
+		}
+	}
+
+	@Test
+	public void testSupportedEvents() {
+		assertThat(this.server.supportsEventType(ContextRefreshedEvent.class)).isTrue();
+		assertThat(this.server.supportsEventType(IntegrationFlowRegisteredEvent.class)).isTrue();
+		assertThat(this.server.supportsEventType(IntegrationFlowRemovedEvent.class)).isTrue();
+		assertThat(this.server.supportsEventType(GatewayMethodCreatedEvent.class)).isTrue();
+		assertThat(this.server.supportsEventType(ContextClosedEvent.class)).isFalse();
+	}
+
 	@Configuration
 	@EnableIntegration
 	@EnableIntegrationManagement
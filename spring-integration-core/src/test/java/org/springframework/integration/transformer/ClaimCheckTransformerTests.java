@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2010 the original author or authors.
+ * Copyright 2002-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,16 +16,30 @@
 
 package org.springframework.integration.transformer;
 
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
+import java.io.ByteArrayInputStream;
 import java.util.UUID;
 
 import org.junit.Test;
 
-import org.springframework.messaging.Message;
+import org.springframework.integration.metadata.SimpleMetadataStore;
+import org.springframework.integration.store.ContentAddressedMessageStore;
 import org.springframework.integration.store.MessageStore;
 import org.springframework.integration.store.SimpleMessageStore;
 import org.springframework.integration.support.MessageBuilder;
+import org.springframework.messaging.Message;
 
 /**
  * @author Mark Fisher
@@ -61,4 +75,82 @@ public class ClaimCheckTransformerTests {
 		transformer.transform(MessageBuilder.withPayload(UUID.randomUUID()).build());
 	}
 
+	@Test
+	public void contentAddressed() {
+		SimpleMessageStore delegate = new SimpleMessageStore(10);
+		ContentAddressedMessageStore store = new ContentAddressedMessageStore(delegate);
+		ClaimCheckInTransformer checkIn = new ClaimCheckInTransformer(store);
+		Message<?> claim1 = checkIn.transform(MessageBuilder.withPayload("test").setHeader("foo", "bar").build());
+		Message<?> claim2 = checkIn.transform(MessageBuilder.withPayload("test").build());
+		Message<?> claim3 = checkIn.transform(MessageBuilder.withPayload("test".getBytes()).build());
+		assertEquals(claim1.getPayload(), claim2.getPayload());
+		assertNotEquals(claim1.getPayload(), claim3.getPayload());
+		assertEquals("bar", claim1.getHeaders().get("foo"));
+		assertEquals(2, delegate.getMessageCount());
+		assertEquals(2, store.getReferenceCount((UUID) claim1.getPayload()));
+
+		Message<?> claim4 = checkIn.transform(MessageBuilder.withPayload(new ByteArrayInputStream("test".getBytes()))
+				.build());
+		assertEquals(claim3.getPayload(), claim4.getPayload());
+
+		ClaimCheckOutTransformer checkOut = new ClaimCheckOutTransformer(store);
+		checkOut.setRemoveMessage(true);
+		Message<?> output = checkOut.transform(claim1);
+		assertEquals("test", output.getPayload());
+		assertEquals("bar", output.getHeaders().get("foo"));
+		assertEquals(2, delegate.getMessageCount());
+		assertEquals("test", checkOut.transform(claim2).getPayload());
+		assertEquals(1, delegate.getMessageCount());
+		assertNull(delegate.getMessage((UUID) claim1.getPayload()));
+		assertArrayEquals("test".getBytes(), (byte[]) checkOut.transform(claim3).getPayload());
+		assertArrayEquals("test".getBytes(), (byte[]) checkOut.transform(claim4).getPayload());
+		assertEquals(0, delegate.getMessageCount());
+	}
+
+	@Test
+	public void contentAddressedCountsSurviveRestart() {
+		try {
+			new ContentAddressedMessageStore(mock(MessageStore.class)).afterPropertiesSet();
+			fail("Expected IllegalStateException");
+		}
+		catch (IllegalStateException e) {
+			assertThat(e.getMessage(), containsString("metadataStore"));
+		}
+		SimpleMessageStore delegate = new SimpleMessageStore(10);
+		SimpleMetadataStore metadataStore = new SimpleMetadataStore();
+		ContentAddressedMessageStore store = new ContentAddressedMessageStore(delegate, metadataStore);
+		store.afterPropertiesSet();
+		ClaimCheckInTransformer checkIn = new ClaimCheckInTransformer(store);
+		Message<?> claim1 = checkIn.transform(MessageBuilder.withPayload("test").build());
+		Message<?> claim2 = checkIn.transform(MessageBuilder.withPayload("test").build());
+
+		store = new ContentAddressedMessageStore(delegate, metadataStore);
+		store.afterPropertiesSet();
+		ClaimCheckOutTransformer checkOut = new ClaimCheckOutTransformer(store);
+		checkOut.setRemoveMessage(true);
+		assertEquals("test", checkOut.transform(claim1).getPayload());
+		assertEquals(1, delegate.getMessageCount());
+		assertEquals("test", checkOut.transform(claim2).getPayload());
+		assertEquals(0, delegate.getMessageCount());
+	}
+
+	@Test
+	public void cachedRetrieve() {
+		MessageStore store = spy(new SimpleMessageStore(10));
+		Message<?> message = MessageBuilder.withPayload("test").build();
+		store.addMessage(message);
+		ClaimCheckOutTransformer transformer = new ClaimCheckOutTransformer(store);
+		transformer.setCacheSize(1);
+		Message<?> input = MessageBuilder.withPayload(message.getHeaders().getId()).build();
+		assertEquals("test", transformer.transform(input).getPayload());
+		assertEquals("test", transformer.transform(input).getPayload());
+		verify(store, times(1)).getMessage(any(UUID.class));
+		Message<?> other = MessageBuilder.withPayload("other").build();
+		store.addMessage(other);
+		assertEquals("other", transformer.transform(MessageBuilder.withPayload(other.getHeaders().getId()).build())
+				.getPayload());
+		assertEquals("test", transformer.transform(input).getPayload());
+		verify(store, times(3)).getMessage(any(UUID.class));
+	}
+
 }
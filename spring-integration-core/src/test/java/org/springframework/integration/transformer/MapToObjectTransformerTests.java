@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2014 the original author or authors.
+ * Copyright 2002-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -118,6 +118,37 @@ public class MapToObjectTransformerTests {
 		assertEquals("1123 Main st", person.getAddress().getStreet());
 	}
 
+	@Test
+	public void testMapToObjectTransformationConvertsAndIgnoresUnknown() {
+		Map<String, Object> map = new HashMap<String, Object>();
+		map.put("Fname", "Justin");
+		map.put("age", "42");
+		map.put("unknown", "foo");
+
+		MapToObjectTransformer transformer = new MapToObjectTransformer(Person.class);
+		transformer.setBeanFactory(this.getBeanFactory());
+		Person person = (Person) transformer.transform(MessageBuilder.withPayload(map).build()).getPayload();
+		assertEquals("Justin", person.getFname());
+		assertEquals(42, person.getAge());
+		assertNull(person.getLname());
+	}
+
+	@Test
+	public void testMapToObjectTransformationWithNestedPaths() {
+		Map<String, Object> map = new HashMap<String, Object>();
+		map.put("fname", "Justin");
+		map.put("age", 42L);
+		map.put("address.street", "1123 Main st");
+
+		MapToObjectTransformer transformer = new MapToObjectTransformer(Person.class);
+		transformer.setBeanFactory(this.getBeanFactory());
+		Person person = (Person) transformer.transform(MessageBuilder.withPayload(map).build()).getPayload();
+		assertEquals("Justin", person.getFname());
+		assertEquals(42, person.getAge());
+		assertNotNull(person.getAddress());
+		assertEquals("1123 Main st", person.getAddress().getStreet());
+	}
+
 	private BeanFactory getBeanFactory() {
 		GenericApplicationContext ctx = TestUtils.createTestApplicationContext();
 		ctx.registerBeanDefinition(IntegrationUtils.INTEGRATION_CONVERSION_SERVICE_BEAN_NAME,
@@ -134,6 +165,8 @@ public class MapToObjectTransformerTests {
 
 		private String ssn;
 
+		private int age;
+
 		private Address address;
 
 		public String getSsn() {
@@ -160,6 +193,14 @@ public class MapToObjectTransformerTests {
 			this.lname = lname;
 		}
 
+		public int getAge() {
+			return age;
+		}
+
+		public void setAge(int age) {
+			this.age = age;
+		}
+
 		public Address getAddress() {
 			return address;
 		}
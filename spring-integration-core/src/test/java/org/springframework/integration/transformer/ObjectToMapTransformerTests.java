@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2017 the original author or authors.
+ * Copyright 2002-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -43,6 +43,7 @@ import org.springframework.integration.support.MessageBuilder;
 import org.springframework.integration.support.json.Jackson2JsonObjectMapper;
 import org.springframework.messaging.Message;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 
@@ -200,6 +201,30 @@ public class ObjectToMapTransformerTests {
 		assertThat(transformedMap.get("listOfDates[1][1]"), instanceOf(String.class));
 	}
 
+	@Test
+	public void testDirectPropertiesSameAsJson() throws Exception {
+		Employee employee = buildEmployee();
+		ObjectToMapTransformer direct = new ObjectToMapTransformer();
+		ObjectToMapTransformer json = new ObjectToMapTransformer(new Jackson2JsonObjectMapper());
+		assertEquals(json.transformPayload(employee), direct.transformPayload(employee));
+		direct.setShouldFlattenKeys(false);
+		json.setShouldFlattenKeys(false);
+		assertEquals(json.transformPayload(employee), direct.transformPayload(employee));
+
+		Values values = new Values();
+		assertEquals(json.transformPayload(values), direct.transformPayload(values));
+	}
+
+	@Test
+	public void testJacksonAnnotationsHonored() throws Exception {
+		Annotated annotated = new Annotated();
+		annotated.foo = "foo";
+		annotated.bar = "bar";
+		Map<String, Object> transformedMap = new ObjectToMapTransformer().transformPayload(annotated);
+		assertEquals(1, transformedMap.size());
+		assertEquals("foo", transformedMap.get("foo"));
+	}
+
 	@SuppressWarnings({ "unchecked", "rawtypes" })
 	public Employee buildEmployee() {
 		Address companyAddress = new Address();
@@ -495,4 +520,56 @@ public class ObjectToMapTransformerTests {
 
 	}
 
+	public enum Color {
+		RED, GREEN
+	}
+
+	public static class Values {
+
+		public int intValue = 1;
+
+		public long longValue = Long.MAX_VALUE;
+
+		public long smallLongValue = 2L;
+
+		public float floatValue = 1.1f;
+
+		public double nan = Double.NaN;
+
+		public char charValue = 'c';
+
+		public byte[] bytes = { 1, 2, 3 };
+
+		public int[] ints = { 4, 5 };
+
+		public BigDecimal decimal = new BigDecimal("1.50");
+
+		public Color color = Color.GREEN;
+
+		public Map<Object, Object> map = new HashMap<>();
+
+		public String nullValue;
+
+		private boolean active = true;
+
+		public Values() {
+			this.map.put(1, "one");
+			this.map.put(Color.RED, new Address());
+		}
+
+		public boolean isActive() {
+			return this.active;
+		}
+
+	}
+
+	public static class Annotated {
+
+		public String foo;
+
+		@JsonIgnore
+		public String bar;
+
+	}
+
 }
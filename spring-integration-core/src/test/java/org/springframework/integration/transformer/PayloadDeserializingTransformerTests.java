@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2016 the original author or authors.
+ * Copyright 2002-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -23,12 +23,15 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.nio.ByteBuffer;
 
 import org.junit.Test;
 
+import org.springframework.integration.codec.kryo.PojoCodec;
 import org.springframework.integration.support.MessageBuilder;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.support.GenericMessage;
@@ -107,6 +110,62 @@ public class PayloadDeserializingTransformerTests {
 		assertEquals("Converted", message.getPayload());
 	}
 
+	@Test
+	public void deserializeByteBufferAndStream() throws Exception {
+		TestBean testBean = new TestBean("test");
+		ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
+		byteStream.write(new byte[] { 1, 2, 3 });
+		ObjectOutputStream objectStream = new ObjectOutputStream(byteStream);
+		objectStream.writeObject(testBean);
+		objectStream.close();
+		byte[] serialized = byteStream.toByteArray();
+		PayloadDeserializingTransformer transformer = new PayloadDeserializingTransformer();
+
+		ByteBuffer heapBuffer = ByteBuffer.wrap(serialized);
+		heapBuffer.position(3);
+		Object payload = transformer.transform(new GenericMessage<>(heapBuffer.slice())).getPayload();
+		assertEquals(testBean.name, ((TestBean) payload).name);
+
+		ByteBuffer directBuffer = ByteBuffer.allocateDirect(serialized.length);
+		directBuffer.put(serialized).flip();
+		directBuffer.position(3);
+		payload = transformer.transform(new GenericMessage<>(directBuffer)).getPayload();
+		assertEquals(testBean.name, ((TestBean) payload).name);
+		assertEquals(3, directBuffer.position());
+
+		payload = transformer.transform(new GenericMessage<>(
+				new ByteArrayInputStream(serialized, 3, serialized.length - 3))).getPayload();
+		assertEquals(testBean.name, ((TestBean) payload).name);
+	}
+
+	@Test
+	public void deserializeStreamWhiteList() throws Exception {
+		TestBean testBean = new TestBean("test");
+		ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
+		ObjectOutputStream objectStream = new ObjectOutputStream(byteStream);
+		objectStream.writeObject(testBean);
+		PayloadDeserializingTransformer transformer = new PayloadDeserializingTransformer();
+		transformer.setWhiteListPatterns("com.*");
+		try {
+			transformer.transform(new GenericMessage<>(ByteBuffer.wrap(byteStream.toByteArray())));
+			fail("expected security exception");
+		}
+		catch (MessageTransformationException e) {
+			assertThat(e.getCause().getCause(), instanceOf(SecurityException.class));
+		}
+	}
+
+	@Test
+	public void codec() throws Exception {
+		PojoCodec codec = new PojoCodec();
+		PayloadDeserializingTransformer transformer = new PayloadDeserializingTransformer();
+		transformer.setCodec(codec);
+		transformer.setTargetType(String.class);
+		assertEquals("foo", transformer.transform(new GenericMessage<>(codec.encode("foo"))).getPayload());
+		assertEquals("bar", transformer.transform(new GenericMessage<>(ByteBuffer.wrap(codec.encode("bar"))))
+				.getPayload());
+	}
+
 	@SuppressWarnings("serial")
 	private static class TestBean implements Serializable {
 
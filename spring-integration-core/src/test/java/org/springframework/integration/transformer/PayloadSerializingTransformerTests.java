@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2016 the original author or authors.
+ * Copyright 2002-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -23,10 +23,13 @@ import static org.junit.Assert.assertTrue;
 import java.io.ByteArrayInputStream;
 import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.util.Map;
 
 import org.junit.Test;
 
+import org.springframework.integration.codec.kryo.PojoCodec;
 import org.springframework.integration.support.MessageBuilder;
+import org.springframework.integration.test.util.TestUtils;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.support.GenericMessage;
 
@@ -77,6 +80,34 @@ public class PayloadSerializingTransformerTests {
 		assertEquals("Converted", new String((byte[]) message.getPayload()));
 	}
 
+	@Test
+	public void sizeHintsAndReusedBuffer() throws Exception {
+		PayloadSerializingTransformer transformer = new PayloadSerializingTransformer();
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < 1000; i++) {
+			builder.append("foo");
+		}
+		String large = builder.toString();
+		byte[] largeBytes = (byte[]) transformer.transform(new GenericMessage<>(large)).getPayload();
+		byte[] smallBytes = (byte[]) transformer.transform(new GenericMessage<>("bar")).getPayload();
+		byte[] testBeanBytes = (byte[]) transformer.transform(new GenericMessage<>(new TestBean("baz"))).getPayload();
+		assertEquals(large, new ObjectInputStream(new ByteArrayInputStream(largeBytes)).readObject());
+		assertEquals("bar", new ObjectInputStream(new ByteArrayInputStream(smallBytes)).readObject());
+		assertEquals("baz",
+				((TestBean) new ObjectInputStream(new ByteArrayInputStream(testBeanBytes)).readObject()).name);
+		Map<?, ?> sizeHints = TestUtils.getPropertyValue(transformer, "sizeHints", Map.class);
+		assertEquals(smallBytes.length, sizeHints.get(String.class));
+		assertEquals(testBeanBytes.length, sizeHints.get(TestBean.class));
+	}
+
+	@Test
+	public void codec() throws Exception {
+		PayloadSerializingTransformer transformer = new PayloadSerializingTransformer();
+		PojoCodec codec = new PojoCodec();
+		transformer.setCodec(codec);
+		Message<?> message = transformer.transform(new GenericMessage<>("foo"));
+		assertEquals("foo", codec.decode((byte[]) message.getPayload(), String.class));
+	}
 
 	@SuppressWarnings("serial")
 	private static class TestBean implements Serializable {
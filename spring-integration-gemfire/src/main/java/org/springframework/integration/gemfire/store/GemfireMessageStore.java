@@ -16,12 +16,16 @@
 
 package org.springframework.integration.gemfire.store;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 
 import org.apache.geode.cache.Region;
 
+import org.springframework.core.serializer.support.SerializationFailedException;
+import org.springframework.integration.codec.Codec;
+import org.springframework.integration.codec.CompactMessageCodec;
 import org.springframework.integration.store.AbstractKeyValueMessageStore;
 import org.springframework.integration.store.MessageGroupStore;
 import org.springframework.integration.store.MessageStore;
@@ -43,6 +47,8 @@ public class GemfireMessageStore extends AbstractKeyValueMessageStore {
 
 	private final Region<Object, Object> messageStoreRegion;
 
+	private Codec codec;
+
 	/**
 	 * Provides the region to be used for the message store. This is useful when
 	 * using a configured region. This is also required if using a client region
@@ -66,24 +72,37 @@ public class GemfireMessageStore extends AbstractKeyValueMessageStore {
 		this.messageStoreRegion = messageStoreRegion;
 	}
 
+	/**
+	 * Set a {@link Codec} to store the objects (messages and group metadata) in the
+	 * region as byte arrays, such as the {@link CompactMessageCodec}, instead of leaving
+	 * their serialization to Gemfire. Objects stored before the codec was set are still
+	 * returned as is.
+	 * @param codec the codec.
+	 * @since 5.1
+	 */
+	public void setMessageCodec(Codec codec) {
+		Assert.notNull(codec, "'codec' must not be null");
+		this.codec = codec;
+	}
+
 	@Override
 	protected Object doRetrieve(Object id) {
 		Assert.notNull(id, "'id' must not be null");
-		return this.messageStoreRegion.get(id);
+		return decode(this.messageStoreRegion.get(id));
 	}
 
 	@Override
 	protected void doStore(Object id, Object objectToStore) {
 		Assert.notNull(id, "'id' must not be null");
 		Assert.notNull(objectToStore, "'objectToStore' must not be null");
-		this.messageStoreRegion.put(id, objectToStore);
+		this.messageStoreRegion.put(id, encode(objectToStore));
 	}
 
 	@Override
 	protected void doStoreIfAbsent(Object id, Object objectToStore) {
 		Assert.notNull(id, "'id' must not be null");
 		Assert.notNull(objectToStore, "'objectToStore' must not be null");
-		Object present = this.messageStoreRegion.putIfAbsent(id, objectToStore);
+		Object present = decode(this.messageStoreRegion.putIfAbsent(id, encode(objectToStore)));
 		if (present != null && logger.isDebugEnabled()) {
 			logger.debug("The message: [" + present + "] is already present in the store. " +
 					"The [" + objectToStore + "] is ignored.");
@@ -93,7 +112,7 @@ public class GemfireMessageStore extends AbstractKeyValueMessageStore {
 	@Override
 	protected Object doRemove(Object id) {
 		Assert.notNull(id, "'id' must not be null");
-		return this.messageStoreRegion.remove(id);
+		return decode(this.messageStoreRegion.remove(id));
 	}
 
 	@Override
@@ -115,4 +134,28 @@ public class GemfireMessageStore extends AbstractKeyValueMessageStore {
 		return keyList;
 	}
 
+	private Object encode(Object object) {
+		if (this.codec == null) {
+			return object;
+		}
+		try {
+			return this.codec.encode(object);
+		}
+		catch (IOException e) {
+			throw new SerializationFailedException("Failed to encode " + object, e);
+		}
+	}
+
+	private Object decode(Object stored) {
+		if (this.codec == null || !(stored instanceof byte[])) {
+			return stored;
+		}
+		try {
+			return this.codec.decode((byte[]) stored, Object.class);
+		}
+		catch (IOException e) {
+			throw new SerializationFailedException("Failed to decode the stored object", e);
+		}
+	}
+
 }
@@ -19,6 +19,7 @@ package org.springframework.integration.gemfire.store;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -35,6 +36,7 @@ import org.junit.Test;
 import org.springframework.data.gemfire.CacheFactoryBean;
 import org.springframework.data.gemfire.GenericRegionFactoryBean;
 import org.springframework.integration.channel.DirectChannel;
+import org.springframework.integration.codec.CompactMessageCodec;
 import org.springframework.integration.history.MessageHistory;
 import org.springframework.integration.store.MessageGroup;
 import org.springframework.integration.store.MessageGroupMetadata;
@@ -142,6 +144,28 @@ public class GemfireMessageStoreTests {
 		assertEquals(0, group.size());
 	}
 
+	@Test
+	public void testMessageCodec() {
+		GemfireMessageStore messageStore = new GemfireMessageStore(region);
+		Message<?> legacyMessage = MessageBuilder.withPayload("legacy").build();
+		messageStore.addMessage(legacyMessage);
+
+		messageStore.setMessageCodec(new CompactMessageCodec());
+		Message<?> message = MessageBuilder.withPayload("test").setHeader("foo", 42).build();
+		messageStore.addMessage(message);
+		assertTrue(region.get("MESSAGE_" + message.getHeaders().getId()) instanceof byte[]);
+		assertEquals(message, messageStore.getMessage(message.getHeaders().getId()));
+		// entries stored before the codec was set are still readable
+		assertEquals(legacyMessage, messageStore.getMessage(legacyMessage.getHeaders().getId()));
+
+		messageStore.addMessagesToGroup("X", message);
+		assertTrue(region.get("MESSAGE_GROUP_X") instanceof byte[]);
+		MessageGroup group = messageStore.getMessageGroup("X");
+		assertEquals(1, group.size());
+		assertEquals(message, group.getOne());
+		assertEquals(message, messageStore.removeMessage(message.getHeaders().getId()));
+	}
+
 	@Before
 	public void prepare() {
 		if (region != null) {
@@ -16,13 +16,21 @@
 
 package org.springframework.integration.http.management;
 
+import java.time.Duration;
+import java.util.Collection;
+
+import org.springframework.http.MediaType;
 import org.springframework.integration.graph.Graph;
 import org.springframework.integration.graph.IntegrationGraphServer;
+import org.springframework.integration.graph.LiveNodeStats;
 import org.springframework.integration.http.config.HttpContextUtils;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import reactor.core.publisher.Flux;
+
 /**
  * The REST Controller to provide the management API over {@link IntegrationGraphServer}.
  *
@@ -54,4 +62,28 @@ public class IntegrationGraphController {
 		return this.integrationGraphServer.rebuild();
 	}
 
+	/**
+	 * Return the current throughput, p99 latency and backlog of each node.
+	 * @return the live stats.
+	 * @since 5.1
+	 */
+	@GetMapping(path = "/live", name = "getLiveStats")
+	public Collection<LiveNodeStats> getLiveStats() {
+		return this.integrationGraphServer.getLiveStats();
+	}
+
+	/**
+	 * Stream the {@link #getLiveStats() live stats} as server-sent events.
+	 * @param interval the interval (milliseconds) between events.
+	 * @return the stream.
+	 * @since 5.1
+	 */
+	@GetMapping(path = "/live/stream", name = "streamLiveStats", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public Flux<Collection<LiveNodeStats>> streamLiveStats(
+			@RequestParam(name = "interval", defaultValue = "1000") long interval) {
+
+		return Flux.interval(Duration.ZERO, Duration.ofMillis(Math.max(interval, 100)))
+				.map(tick -> this.integrationGraphServer.getLiveStats());
+	}
+
 }
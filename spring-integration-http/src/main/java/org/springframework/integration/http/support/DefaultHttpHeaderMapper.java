@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2017 the original author or authors.
+ * Copyright 2002-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -51,6 +51,7 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.integration.mapping.HeaderMapper;
+import org.springframework.integration.mapping.support.HeaderNameMatchCache;
 import org.springframework.integration.support.utils.IntegrationUtils;
 import org.springframework.messaging.MessageHeaders;
 import org.springframework.util.Assert;
@@ -61,6 +62,10 @@ import org.springframework.util.StringUtils;
 
 /**
  * Default {@link HeaderMapper} implementation for HTTP.
+ * <p>
+ * The decision whether a header is mapped is cached for each distinct (lower case)
+ * header name (up to {@link HeaderNameMatchCache#DEFAULT_MAX_SIZE} names in each
+ * direction).
  *
  * @author Mark Fisher
  * @author Jeremy Grelle
@@ -294,6 +299,10 @@ public class DefaultHttpHeaderMapper implements HeaderMapper<HttpHeaders>, BeanF
 
 	private volatile boolean isDefaultInboundMapper;
 
+	private volatile HeaderNameMatchCache outboundMatchCache;
+
+	private volatile HeaderNameMatchCache inboundMatchCache;
+
 	private volatile ConversionService conversionService;
 
 	private volatile BeanFactory beanFactory;
@@ -338,6 +347,7 @@ public class DefaultHttpHeaderMapper implements HeaderMapper<HttpHeaders>, BeanF
 				Arrays.copyOf(outboundHeaderNamesLower, this.outboundHeaderNames.length + 1);
 		this.outboundHeaderNamesLowerWithContentType[this.outboundHeaderNamesLowerWithContentType.length - 1]
 				= MessageHeaders.CONTENT_TYPE.toLowerCase();
+		this.outboundMatchCache = null;
 	}
 
 	/**
@@ -364,6 +374,7 @@ public class DefaultHttpHeaderMapper implements HeaderMapper<HttpHeaders>, BeanF
 				this.inboundHeaderNamesLower[i] = this.inboundHeaderNames[i].toLowerCase();
 			}
 		}
+		this.inboundMatchCache = null;
 	}
 
 	/**
@@ -378,6 +389,7 @@ public class DefaultHttpHeaderMapper implements HeaderMapper<HttpHeaders>, BeanF
 				"'excludedOutboundStandardRequestHeaderNames' must not have null elements");
 		this.excludedOutboundStandardRequestHeaderNames = Arrays.copyOf(excludedOutboundStandardRequestHeaderNames,
 				excludedOutboundStandardRequestHeaderNames.length);
+		this.outboundMatchCache = null;
 	}
 
 	/**
@@ -392,6 +404,7 @@ public class DefaultHttpHeaderMapper implements HeaderMapper<HttpHeaders>, BeanF
 				"'excludedInboundStandardResponseHeaderNames' must not have null elements");
 		this.excludedInboundStandardResponseHeaderNames = Arrays.copyOf(excludedInboundStandardResponseHeaderNames,
 				excludedInboundStandardResponseHeaderNames.length);
+		this.outboundMatchCache = null;
 	}
 
 	/**
@@ -502,6 +515,15 @@ public class DefaultHttpHeaderMapper implements HeaderMapper<HttpHeaders>, BeanF
 	}
 
 	private boolean shouldMapOutboundHeader(String headerName) {
+		HeaderNameMatchCache cache = this.outboundMatchCache;
+		if (cache == null) {
+			cache = new HeaderNameMatchCache(this::matchOutboundHeader);
+			this.outboundMatchCache = cache;
+		}
+		return cache.matches(headerName);
+	}
+
+	private boolean matchOutboundHeader(String headerName) {
 		String[] outboundHeaderNamesLower = this.outboundHeaderNamesLowerWithContentType;
 
 		if (this.isDefaultInboundMapper) {
@@ -533,7 +555,13 @@ public class DefaultHttpHeaderMapper implements HeaderMapper<HttpHeaders>, BeanF
 	}
 
 	protected final boolean shouldMapInboundHeader(String headerName) {
-		return this.shouldMapHeader(headerName, this.inboundHeaderNamesLower);
+		HeaderNameMatchCache cache = this.inboundMatchCache;
+		if (cache == null) {
+			String[] inboundHeaderNamesLower = this.inboundHeaderNamesLower;
+			cache = new HeaderNameMatchCache(name -> shouldMapHeader(name, inboundHeaderNamesLower));
+			this.inboundMatchCache = cache;
+		}
+		return cache.matches(headerName);
 	}
 
 	/**
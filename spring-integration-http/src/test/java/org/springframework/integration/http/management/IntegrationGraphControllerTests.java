@@ -99,6 +99,18 @@ public class IntegrationGraphControllerTests {
 				.andExpect(jsonPath("$.links").exists());
 	}
 
+	@Test
+	public void testIntegrationGraphLiveStats() throws Exception {
+		this.mockMvc.perform(get("/testIntegration/live")
+				.accept(MediaType.parseMediaType("application/json;charset=UTF-8")))
+				.andExpect(status().isOk())
+				.andExpect(handler().methodName("getLiveStats"))
+				.andExpect(jsonPath("$..name")
+						.value(Matchers.containsInAnyOrder("nullChannel", "errorChannel",
+								"_org.springframework.integration.errorLogger")))
+				.andExpect(jsonPath("$[0].nodeId").exists());
+	}
+
 	@Test
 	public void testIntegrationGraphControllerParser() throws Exception {
 		ConfigurableApplicationContext context = new ClassPathXmlApplicationContext(
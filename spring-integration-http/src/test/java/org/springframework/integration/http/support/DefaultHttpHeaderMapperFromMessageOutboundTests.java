@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2017 the original author or authors.
+ * Copyright 2002-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -695,6 +695,24 @@ public class DefaultHttpHeaderMapperFromMessageOutboundTests {
 		assertNull(headers.get("Content-Length"));
 	}
 
+	@Test
+	public void cachedDecisionsResetWhenReconfigured() {
+		DefaultHttpHeaderMapper mapper = new DefaultHttpHeaderMapper();
+		mapper.setOutboundHeaderNames(new String[] { "foo*" });
+		Map<String, Object> messageHeaders = new HashMap<String, Object>();
+		messageHeaders.put("foobar", "baz");
+		for (int i = 0; i < 2; i++) {
+			HttpHeaders headers = new HttpHeaders();
+			mapper.fromHeaders(new MessageHeaders(messageHeaders), headers);
+			assertEquals("baz", headers.getFirst("foobar"));
+		}
+
+		mapper.setOutboundHeaderNames(new String[] { "bar*" });
+		HttpHeaders headers = new HttpHeaders();
+		mapper.fromHeaders(new MessageHeaders(messageHeaders), headers);
+		assertNull(headers.get("foobar"));
+	}
+
 	@Test
 	public void testInt3063InvalidExpiresHeader() {
 		HttpHeaders headers = new HttpHeaders();
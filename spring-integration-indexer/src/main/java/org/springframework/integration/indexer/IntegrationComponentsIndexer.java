@@ -0,0 +1,228 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.indexer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * An annotation processor which generates the {@value #COMPONENTS_RESOURCE_LOCATION}
+ * index of the messaging components of a module at compile time, so that the
+ * {@code MessagingAnnotationPostProcessor} and {@code @IntegrationComponentScan} don't
+ * have to introspect (or scan) the classes of that module at runtime.
+ * <p>
+ * A class is indexed as {@value #ENDPOINT} if it, or any of its superclasses or
+ * interfaces, has a method with a messaging annotation (such as
+ * {@code @ServiceActivator}), directly or as a meta-annotation; an interface with
+ * {@code @MessagingGateway} is indexed as {@value #GATEWAY}.
+ * <p>
+ * This module has no dependencies; add it to the annotation processor path of the
+ * compiler.
+ *
+ * @since 5.1
+ */
+@SupportedAnnotationTypes("*")
+public class IntegrationComponentsIndexer extends AbstractProcessor {
+
+	static final String COMPONENTS_RESOURCE_LOCATION = "META-INF/spring-integration.components";
+
+	static final String ENDPOINT = "endpoint";
+
+	static final String GATEWAY = "gateway";
+
+	private static final String ANNOTATION_PACKAGE = "org.springframework.integration.annotation.";
+
+	private static final Set<String> ENDPOINT_ANNOTATIONS = new HashSet<>(Arrays.asList(
+			ANNOTATION_PACKAGE + "Aggregator",
+			ANNOTATION_PACKAGE + "BridgeFrom",
+			ANNOTATION_PACKAGE + "BridgeTo",
+			ANNOTATION_PACKAGE + "Filter",
+			ANNOTATION_PACKAGE + "InboundChannelAdapter",
+			ANNOTATION_PACKAGE + "Router",
+			ANNOTATION_PACKAGE + "ServiceActivator",
+			ANNOTATION_PACKAGE + "Splitter",
+			ANNOTATION_PACKAGE + "Transformer"));
+
+	private static final Set<String> GATEWAY_ANNOTATIONS =
+			new HashSet<>(Arrays.asList(ANNOTATION_PACKAGE + "MessagingGateway"));
+
+	private final Map<String, String> index = new TreeMap<>();
+
+	private final Set<String> processed = new HashSet<>();
+
+	private Elements elements;
+
+	@Override
+	public synchronized void init(ProcessingEnvironment processingEnv) {
+		super.init(processingEnv);
+		this.elements = processingEnv.getElementUtils();
+	}
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		for (Element element : roundEnv.getRootElements()) {
+			if (element instanceof TypeElement) {
+				processType((TypeElement) element);
+			}
+		}
+		if (roundEnv.processingOver()) {
+			writeIndex();
+		}
+		return false;
+	}
+
+	private void processType(TypeElement type) {
+		String className = this.elements.getBinaryName(type).toString();
+		this.processed.add(className);
+		if (type.getKind() == ElementKind.INTERFACE) {
+			if (hasAnnotation(type, GATEWAY_ANNOTATIONS, new HashSet<>())) {
+				this.index.put(className, GATEWAY);
+			}
+		}
+		else if ((type.getKind() == ElementKind.CLASS || type.getKind() == ElementKind.ENUM)
+				&& hasEndpointMethods(type, new HashSet<>())) {
+			this.index.put(className, ENDPOINT);
+		}
+		for (TypeElement member : ElementFilter.typesIn(type.getEnclosedElements())) {
+			processType(member);
+		}
+	}
+
+	private boolean hasEndpointMethods(TypeElement type, Set<String> visited) {
+		if (!visited.add(type.getQualifiedName().toString())
+				|| type.getQualifiedName().contentEquals(Object.class.getName())) {
+			return false;
+		}
+		for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+			if (hasAnnotation(method, ENDPOINT_ANNOTATIONS, new HashSet<>())) {
+				return true;
+			}
+		}
+		if (hasEndpointMethods(type.getSuperclass(), visited)) {
+			return true;
+		}
+		for (TypeMirror iface : type.getInterfaces()) {
+			if (hasEndpointMethods(iface, visited)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private boolean hasEndpointMethods(TypeMirror type, Set<String> visited) {
+		return type.getKind() == TypeKind.DECLARED
+				&& hasEndpointMethods((TypeElement) ((DeclaredType) type).asElement(), visited);
+	}
+
+	private boolean hasAnnotation(Element element, Set<String> annotationTypes, Set<String> visited) {
+		for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+			TypeElement annotationType = (TypeElement) annotation.getAnnotationType().asElement();
+			String name = annotationType.getQualifiedName().toString();
+			if (annotationTypes.contains(name)) {
+				return true;
+			}
+			if (!name.startsWith("java.lang") && visited.add(name)
+					&& hasAnnotation(annotationType, annotationTypes, visited)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void writeIndex() {
+		mergePreviousIndex();
+		if (this.index.isEmpty()) {
+			return;
+		}
+		try {
+			FileObject file = this.processingEnv.getFiler()
+					.createResource(StandardLocation.CLASS_OUTPUT, "", COMPONENTS_RESOURCE_LOCATION);
+			try (OutputStream out = file.openOutputStream();
+					Writer writer = new OutputStreamWriter(out, StandardCharsets.ISO_8859_1)) {
+
+				for (Map.Entry<String, String> entry : this.index.entrySet()) {
+					writer.write(entry.getKey());
+					writer.write('=');
+					writer.write(entry.getValue());
+					writer.write('\n');
+				}
+			}
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Failed to write messaging components index file", ex);
+		}
+	}
+
+	/*
+	 * With incremental compilation, only the changed sources are processed; keep the
+	 * entries of the types which were not processed this time, but still exist.
+	 */
+	private void mergePreviousIndex() {
+		Properties previous = new Properties();
+		try {
+			FileObject file = this.processingEnv.getFiler()
+					.getResource(StandardLocation.CLASS_OUTPUT, "", COMPONENTS_RESOURCE_LOCATION);
+			try (InputStream in = file.openInputStream()) {
+				previous.load(in);
+			}
+		}
+		catch (IOException ex) {
+			// no previous index
+			return;
+		}
+		for (String className : previous.stringPropertyNames()) {
+			if (!this.processed.contains(className)
+					&& this.elements.getTypeElement(className.replace('$', '.')) != null) {
+				this.index.put(className, previous.getProperty(className));
+			}
+		}
+	}
+
+}
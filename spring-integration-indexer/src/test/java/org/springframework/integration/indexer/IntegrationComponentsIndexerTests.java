@@ -0,0 +1,137 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.indexer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Properties;
+
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * @since 5.1
+ */
+public class IntegrationComponentsIndexerTests {
+
+	@Rule
+	public TemporaryFolder temp = new TemporaryFolder();
+
+	private File sources;
+
+	private File classes;
+
+	@Before
+	public void setUp() throws Exception {
+		this.sources = this.temp.newFolder("src");
+		this.classes = this.temp.newFolder("classes");
+	}
+
+	@Test
+	public void testIndex() throws Exception {
+		source("Activator",
+				"@org.springframework.integration.annotation.ServiceActivator public void handle(String in) { }");
+		source("Sub extends Activator", "");
+		source("Plain", "public void handle(String in) { }\n"
+				+ "public static class Nested { @org.springframework.integration.annotation.Transformer "
+				+ "public String handle(String in) { return in; } }");
+		metaAnnotation();
+		source("Meta", "@MyActivator public void handle(String in) { }");
+		write("Gateway", "@org.springframework.integration.annotation.MessagingGateway\n"
+				+ "public interface Gateway { void send(String in); }");
+		write("NotGateway", "public interface NotGateway { void send(String in); }");
+		Properties index = compile();
+		assertThat(index).hasSize(5);
+		assertThat(index.getProperty("com.example.Activator")).isEqualTo(IntegrationComponentsIndexer.ENDPOINT);
+		assertThat(index.getProperty("com.example.Sub")).isEqualTo(IntegrationComponentsIndexer.ENDPOINT);
+		assertThat(index.getProperty("com.example.Plain$Nested")).isEqualTo(IntegrationComponentsIndexer.ENDPOINT);
+		assertThat(index.getProperty("com.example.Meta")).isEqualTo(IntegrationComponentsIndexer.ENDPOINT);
+		assertThat(index.getProperty("com.example.Gateway")).isEqualTo(IntegrationComponentsIndexer.GATEWAY);
+	}
+
+	@Test
+	public void testIncrementalCompilation() throws Exception {
+		source("Activator",
+				"@org.springframework.integration.annotation.ServiceActivator public void handle(String in) { }");
+		assertThat(compile()).containsOnlyKeys("com.example.Activator");
+		for (File file : this.sources.listFiles()) {
+			file.delete();
+		}
+		source("Other",
+				"@org.springframework.integration.annotation.Filter public boolean accept(String in) { return true; }");
+		assertThat(compile()).containsOnlyKeys("com.example.Activator", "com.example.Other");
+	}
+
+	@Test
+	public void testNoComponentsNoIndex() throws Exception {
+		source("Plain", "public void handle(String in) { }");
+		assertThat(compile()).isNull();
+	}
+
+	private void source(String declaration, String body) throws Exception {
+		String name = declaration.split(" ")[0];
+		write(name, "public class " + declaration + " {\n" + body + "\n}");
+	}
+
+	private void metaAnnotation() throws Exception {
+		write("MyActivator", "@java.lang.annotation.Retention(java.lang.annotation.RetentionPolicy.RUNTIME)\n"
+				+ "@org.springframework.integration.annotation.ServiceActivator\n"
+				+ "public @interface MyActivator { }");
+	}
+
+	private void write(String name, String type) throws Exception {
+		Files.write(new File(this.sources, name + ".java").toPath(),
+				("package com.example;\n\n" + type).getBytes(StandardCharsets.UTF_8));
+	}
+
+	private Properties compile() throws Exception {
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null)) {
+			fileManager.setLocation(StandardLocation.CLASS_OUTPUT, Collections.singletonList(this.classes));
+			JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, null,
+					Arrays.asList("-classpath", System.getProperty("java.class.path") + File.pathSeparator
+							+ this.classes.getAbsolutePath()),
+					null, fileManager.getJavaFileObjects(this.sources.listFiles()));
+			task.setProcessors(Collections.singletonList(new IntegrationComponentsIndexer()));
+			assertThat(task.call()).isTrue();
+		}
+		File indexFile = new File(this.classes, IntegrationComponentsIndexer.COMPONENTS_RESOURCE_LOCATION);
+		if (!indexFile.exists()) {
+			return null;
+		}
+		Properties index = new Properties();
+		try (InputStream in = new FileInputStream(indexFile)) {
+			index.load(in);
+		}
+		return index;
+	}
+
+}
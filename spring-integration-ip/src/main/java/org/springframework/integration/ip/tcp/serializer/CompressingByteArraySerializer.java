@@ -0,0 +1,119 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.ip.tcp.serializer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.integration.codec.compression.CompressionSupport;
+import org.springframework.util.Assert;
+
+/**
+ * Wraps another (de)serializer to compress the data written to (and decompress the data
+ * read from) the stream, when it is larger than a threshold; see
+ * {@link CompressionSupport} for the format. The delegate frames the compressed data;
+ * since compressed data is binary, it must be a delegate that supports any content, such
+ * as a {@link ByteArrayLengthHeaderSerializer}, rather than one that uses terminators.
+ * Both peers must use this (de)serializer. The decompressed data is also limited to the
+ * {@link #setMaxMessageSize(int) maxMessageSize}.
+ *
+ * @since 5.1
+ */
+public class CompressingByteArraySerializer extends AbstractByteArraySerializer {
+
+	private final AbstractByteArraySerializer delegate;
+
+	private final CompressionSupport compressionSupport;
+
+	/**
+	 * Construct an instance using a
+	 * {@link org.springframework.integration.codec.compression.DeflateCompressor}.
+	 * @param delegate the (de)serializer to frame the data.
+	 */
+	public CompressingByteArraySerializer(AbstractByteArraySerializer delegate) {
+		this(delegate, new CompressionSupport());
+	}
+
+	/**
+	 * Construct an instance using the provided {@link CompressionSupport}.
+	 * @param delegate the (de)serializer to frame the data.
+	 * @param compressionSupport the compression support.
+	 */
+	public CompressingByteArraySerializer(AbstractByteArraySerializer delegate,
+			CompressionSupport compressionSupport) {
+
+		Assert.notNull(delegate, "'delegate' cannot be null");
+		Assert.notNull(compressionSupport, "'compressionSupport' cannot be null");
+		this.delegate = delegate;
+		this.compressionSupport = compressionSupport;
+	}
+
+	/**
+	 * Set the size (in bytes) below which the data is not compressed; default
+	 * {@value CompressionSupport#DEFAULT_THRESHOLD}.
+	 * @param threshold the threshold.
+	 */
+	public void setThreshold(int threshold) {
+		this.compressionSupport.setThreshold(threshold);
+	}
+
+	/**
+	 * The maximum supported message size of the delegate; it also limits the size of the
+	 * decompressed data.
+	 * @return The max message size.
+	 */
+	@Override
+	public int getMaxMessageSize() {
+		return this.delegate.getMaxMessageSize();
+	}
+
+	/**
+	 * The maximum supported message size of the delegate; it also limits the size of the
+	 * decompressed data.
+	 * @param maxMessageSize The max message size.
+	 */
+	@Override
+	public void setMaxMessageSize(int maxMessageSize) {
+		this.delegate.setMaxMessageSize(maxMessageSize);
+	}
+
+	@Override
+	public void setApplicationEventPublisher(ApplicationEventPublisher applicationEventPublisher) {
+		super.setApplicationEventPublisher(applicationEventPublisher);
+		this.delegate.setApplicationEventPublisher(applicationEventPublisher);
+	}
+
+	@Override
+	public void serialize(byte[] bytes, OutputStream outputStream) throws IOException {
+		this.delegate.serialize(this.compressionSupport.compress(bytes), outputStream);
+	}
+
+	@Override
+	public byte[] deserialize(InputStream inputStream) throws IOException {
+		byte[] data = this.delegate.deserialize(inputStream);
+		try {
+			return this.compressionSupport.decompress(data, getMaxMessageSize());
+		}
+		catch (IOException e) {
+			publishEvent(e, data, 0);
+			throw e;
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2016 the original author or authors.
+ * Copyright 2016-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -111,6 +111,15 @@ public final class TcpCodecs {
 		return fourByteLHS;
 	}
 
+	/**
+	 * @param delegate the (de)serializer to frame the compressed data.
+	 * @return a {@link CompressingByteArraySerializer} wrapping the delegate.
+	 * @since 5.1
+	 */
+	public static CompressingByteArraySerializer compressing(AbstractByteArraySerializer delegate) {
+		return new CompressingByteArraySerializer(delegate);
+	}
+
 	/**
 	 * @param bytes header length.
 	 * @return a {@link ByteArrayLengthHeaderSerializer} with a 1, 2 or 4 byte header.
@@ -1,5 +1,5 @@
 /*
- * Copyright 2016 the original author or authors.
+ * Copyright 2016-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,9 +16,18 @@
 
 package org.springframework.integration.ip.tcp.serializer;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 
 import org.junit.Test;
 
@@ -64,4 +73,36 @@ public class TcpCodecsTests {
 		assertEquals(4, TestUtils.getPropertyValue(codec, "headerSize"));
 	}
 
+	@Test
+	public void testCompressing() throws Exception {
+		CompressingByteArraySerializer codec = TcpCodecs.compressing(new ByteArrayLengthHeaderSerializer());
+		codec.setMaxMessageSize(10000);
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < 500; i++) {
+			builder.append("{\"foo\":\"bar\"}");
+		}
+		byte[] large = builder.toString().getBytes(StandardCharsets.UTF_8);
+		byte[] small = "foo".getBytes(StandardCharsets.UTF_8);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		codec.serialize(large, out);
+		int compressedSize = out.size();
+		assertThat(compressedSize, lessThan(large.length / 10));
+		codec.serialize(small, out);
+		assertEquals(compressedSize + 4 + 1 + small.length, out.size());
+		ByteArrayInputStream in = new ByteArrayInputStream(out.toByteArray());
+		assertArrayEquals(large, codec.deserialize(in));
+		assertArrayEquals(small, codec.deserialize(in));
+
+		// the decompressed data is limited to the max message size too
+		codec.setMaxMessageSize(1000);
+		in = new ByteArrayInputStream(out.toByteArray());
+		try {
+			codec.deserialize(in);
+			fail("Expected IOException");
+		}
+		catch (IOException e) {
+			assertThat(e.getMessage(), containsString("exceeds the maximum 1000"));
+		}
+	}
+
 }
@@ -16,12 +16,21 @@
 
 package org.springframework.integration.jdbc.metadata;
 
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 import javax.sql.DataSource;
 
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.integration.metadata.ConcurrentMetadataStore;
 import org.springframework.integration.metadata.MetadataStore;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcOperations;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.transaction.annotation.Transactional;
@@ -155,6 +164,57 @@ public class JdbcMetadataStore implements ConcurrentMetadataStore, InitializingB
 		}
 	}
 
+	/**
+	 * Insert the entries with a single JDBC batch; the values of entries that were not
+	 * inserted are then queried individually. When the driver does not report the row
+	 * count of a batch entry (e.g. {@link Statement#SUCCESS_NO_INFO}), the entry is
+	 * checked individually and is only reported as already present if the stored value
+	 * differs from the new value.
+	 * @param entries The entries.
+	 * @return the entries that were not inserted, with the value already in the store.
+	 * @since 5.1
+	 */
+	@Override
+	@Transactional
+	public Map<String, String> putAllIfAbsent(Map<String, String> entries) {
+		Assert.notNull(entries, "'entries' cannot be null");
+		List<Map.Entry<String, String>> list = new ArrayList<>(entries.entrySet());
+		int[] affectedRows = this.jdbcTemplate.batchUpdate(this.putIfAbsentValueQuery,
+				new BatchPreparedStatementSetter() {
+
+					@Override
+					public void setValues(PreparedStatement ps, int i) throws SQLException {
+						Map.Entry<String, String> entry = list.get(i);
+						Assert.notNull(entry.getKey(), "'key' cannot be null");
+						Assert.notNull(entry.getValue(), "'value' cannot be null");
+						ps.setString(1, entry.getKey());
+						ps.setString(2, entry.getValue());
+						ps.setString(3, JdbcMetadataStore.this.region);
+						ps.setString(4, entry.getKey());
+						ps.setString(5, JdbcMetadataStore.this.region);
+					}
+
+					@Override
+					public int getBatchSize() {
+						return list.size();
+					}
+
+				});
+		Map<String, String> existing = new HashMap<>();
+		for (int i = 0; i < affectedRows.length; i++) {
+			int rows = affectedRows[i];
+			if (rows == 0 || rows == Statement.SUCCESS_NO_INFO || rows == Statement.EXECUTE_FAILED) {
+				// already present (or unknown); fall back to the single entry algorithm to get the value
+				Map.Entry<String, String> entry = list.get(i);
+				String oldValue = putIfAbsent(entry.getKey(), entry.getValue());
+				if (oldValue != null && (rows == 0 || !oldValue.equals(entry.getValue()))) {
+					existing.put(entry.getKey(), oldValue);
+				}
+			}
+		}
+		return existing;
+	}
+
 	private int tryToPutIfAbsent(String key, String value) {
 		return this.jdbcTemplate.update(this.putIfAbsentValueQuery,
 				ps -> {
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2017 the original author or authors.
+ * Copyright 2002-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -37,6 +37,8 @@ import org.springframework.core.serializer.Deserializer;
 import org.springframework.core.serializer.Serializer;
 import org.springframework.core.serializer.support.SerializingConverter;
 import org.springframework.dao.DuplicateKeyException;
+import org.springframework.integration.codec.Codec;
+import org.springframework.integration.codec.CompactMessageCodec;
 import org.springframework.integration.jdbc.store.channel.ChannelMessageStorePreparedStatementSetter;
 import org.springframework.integration.jdbc.store.channel.ChannelMessageStoreQueryProvider;
 import org.springframework.integration.jdbc.store.channel.MessageRowMapper;
@@ -198,6 +200,21 @@ public class JdbcChannelMessageStore implements PriorityCapableChannelMessageSto
 		this.deserializer = new WhiteListDeserializingConverter((Deserializer) deserializer);
 	}
 
+	/**
+	 * Set a {@link Codec} to convert messages to and from byte arrays for storage, such
+	 * as the {@link CompactMessageCodec}; a shortcut for setting both the
+	 * {@link #setSerializer(Serializer) serializer} and the
+	 * {@link #setDeserializer(Deserializer) deserializer}. White list patterns, if
+	 * supported, have to be configured on the codec.
+	 * @param codec the codec.
+	 * @since 5.1
+	 */
+	public void setMessageCodec(Codec codec) {
+		Assert.notNull(codec, "'codec' must not be null");
+		setSerializer(codec::encode);
+		setDeserializer(inputStream -> codec.decode(inputStream, Message.class));
+	}
+
 	/**
 	 * Add patterns for packages/classes that are allowed to be deserialized. A class can
 	 * be fully qualified or a wildcard '*' is allowed at the beginning or end of the
@@ -1,5 +1,5 @@
 /*
- * Copyright 2017 the original author or authors.
+ * Copyright 2017-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,6 +18,15 @@ package org.springframework.integration.jdbc.metadata;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.spy;
+
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import javax.sql.DataSource;
 
@@ -25,6 +34,8 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
@@ -106,4 +117,40 @@ public class JdbcMetadataStoreTests {
 		assertEquals("bar", bar);
 	}
 
+	@Test
+	public void onlyAbsentKeysAreInsertedOnPutAllIfAbsent() {
+		metadataStore.put("foo", "bar");
+		Map<String, String> entries = new LinkedHashMap<>();
+		entries.put("foo", "bar1");
+		entries.put("foo2", "bar2");
+		entries.put("foo3", "bar3");
+		Map<String, String> existing = metadataStore.putAllIfAbsent(entries);
+		assertEquals(1, existing.size());
+		assertEquals("bar", existing.get("foo"));
+		assertEquals("bar", metadataStore.get("foo"));
+		assertEquals("bar2", metadataStore.get("foo2"));
+		assertEquals("bar3", metadataStore.get("foo3"));
+	}
+
+	@Test
+	public void existingKeysAreReportedWhenDriverReturnsNoRowCounts() throws Exception {
+		JdbcTemplate jdbcTemplate = spy(new JdbcTemplate(this.dataSource));
+		willAnswer(invocation -> {
+			int[] rows = (int[]) invocation.callRealMethod();
+			Arrays.fill(rows, Statement.SUCCESS_NO_INFO);
+			return rows;
+		}).given(jdbcTemplate).batchUpdate(anyString(), any(BatchPreparedStatementSetter.class));
+		JdbcMetadataStore store = new JdbcMetadataStore(jdbcTemplate);
+		store.afterPropertiesSet();
+		store.put("foo", "bar");
+		Map<String, String> entries = new LinkedHashMap<>();
+		entries.put("foo", "bar1");
+		entries.put("foo2", "bar2");
+		Map<String, String> existing = store.putAllIfAbsent(entries);
+		assertEquals(1, existing.size());
+		assertEquals("bar", existing.get("foo"));
+		assertEquals("bar", store.get("foo"));
+		assertEquals("bar2", store.get("foo2"));
+	}
+
 }
@@ -43,6 +43,7 @@ import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.integration.IntegrationMessageHeaderAccessor;
 import org.springframework.integration.channel.DirectChannel;
+import org.springframework.integration.codec.CompactMessageCodec;
 import org.springframework.integration.history.MessageHistory;
 import org.springframework.integration.store.MessageGroup;
 import org.springframework.integration.support.MessageBuilder;
@@ -143,6 +144,24 @@ public class JdbcMessageStoreTests {
 		assertEquals("foo", result.getPayload());
 	}
 
+	@Test
+	public void testMessageCodec() throws Exception {
+		Message<String> legacyMessage = MessageBuilder.withPayload("legacy").build();
+		Message<String> legacySaved = messageStore.addMessage(legacyMessage);
+
+		messageStore.setMessageCodec(new CompactMessageCodec());
+		Message<String> message = MessageBuilder.withPayload("foo").setHeader("bar", 42).build();
+		Message<String> saved = messageStore.addMessage(message);
+		Message<?> result = messageStore.getMessage(saved.getHeaders().getId());
+		assertNotNull(result);
+		assertThat(saved, sameExceptIgnorableHeaders(result));
+		assertEquals(42, result.getHeaders().get("bar"));
+		// rows written before the codec was set are still readable
+		result = messageStore.getMessage(legacySaved.getHeaders().getId());
+		assertNotNull(result);
+		assertThat(legacySaved, sameExceptIgnorableHeaders(result));
+	}
+
 	@Test
 	public void testAddAndGetWithDifferentRegion() throws Exception {
 		Message<String> message = MessageBuilder.withPayload("foo").build();
@@ -16,6 +16,7 @@
 
 package org.springframework.integration.redis.store;
 
+import java.io.IOException;
 import java.util.Collection;
 
 import org.springframework.beans.factory.BeanClassLoaderAware;
@@ -26,6 +27,8 @@ import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer
 import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.SerializationException;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.integration.codec.Codec;
+import org.springframework.integration.codec.CompactMessageCodec;
 import org.springframework.integration.redis.util.RedisUtils;
 import org.springframework.integration.store.AbstractKeyValueMessageStore;
 import org.springframework.integration.store.MessageGroupStore;
@@ -87,6 +90,18 @@ public class RedisMessageStore extends AbstractKeyValueMessageStore implements B
 		this.valueSerializerSet = true;
 	}
 
+	/**
+	 * Set a {@link Codec} to convert the stored objects (messages and group metadata) to
+	 * and from byte arrays, such as the {@link CompactMessageCodec}; a shortcut for
+	 * {@link #setValueSerializer(RedisSerializer)}.
+	 * @param codec the codec.
+	 * @since 5.1
+	 */
+	public void setMessageCodec(Codec codec) {
+		Assert.notNull(codec, "'codec' must not be null");
+		setValueSerializer(new CodecRedisSerializer(codec));
+	}
+
 	@Override
 	protected Object doRetrieve(Object id) {
 		Assert.notNull(id, "'id' must not be null");
@@ -164,4 +179,42 @@ public class RedisMessageStore extends AbstractKeyValueMessageStore implements B
 				"RedisSerializer via 'setValueSerializer(..)'", e);
 	}
 
+	private static final class CodecRedisSerializer implements RedisSerializer<Object> {
+
+		private static final byte[] EMPTY_ARRAY = new byte[0];
+
+		private final Codec codec;
+
+		CodecRedisSerializer(Codec codec) {
+			this.codec = codec;
+		}
+
+		@Override
+		public byte[] serialize(Object object) throws SerializationException {
+			if (object == null) {
+				return EMPTY_ARRAY;
+			}
+			try {
+				return this.codec.encode(object);
+			}
+			catch (IOException e) {
+				throw new SerializationException("Failed to encode " + object, e);
+			}
+		}
+
+		@Override
+		public Object deserialize(byte[] bytes) throws SerializationException {
+			if (bytes == null || bytes.length == 0) {
+				return null;
+			}
+			try {
+				return this.codec.decode(bytes, Object.class);
+			}
+			catch (IOException e) {
+				throw new SerializationException("Failed to decode", e);
+			}
+		}
+
+	}
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2007-2016 the original author or authors.
+ * Copyright 2007-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -35,6 +35,7 @@ import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.BoundValueOperations;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.integration.channel.DirectChannel;
+import org.springframework.integration.codec.CompactMessageCodec;
 import org.springframework.integration.history.MessageHistory;
 import org.springframework.integration.redis.rules.RedisAvailable;
 import org.springframework.integration.redis.rules.RedisAvailableTests;
@@ -155,6 +156,29 @@ public class RedisMessageStoreTests extends RedisAvailableTests {
 		assertNull(store.getMessage(stringMessage.getHeaders().getId()));
 	}
 
+	@Test
+	@RedisAvailable
+	public void testMessageCodec() {
+		RedisConnectionFactory jcf = this.getConnectionFactoryForTest();
+		RedisMessageStore store = new RedisMessageStore(jcf);
+		Message<String> legacyMessage = new GenericMessage<>("legacy");
+		store.addMessage(legacyMessage);
+
+		store.setMessageCodec(new CompactMessageCodec());
+		Message<String> message = MessageBuilder.withPayload("Hello Redis").setHeader("foo", 42).build();
+		store.addMessage(message);
+		assertEquals(message, store.getMessage(message.getHeaders().getId()));
+		// entries written before the codec was set are still readable
+		assertEquals(legacyMessage, store.getMessage(legacyMessage.getHeaders().getId()));
+
+		store.addMessagesToGroup("X", message);
+		MessageGroup group = store.getMessageGroup("X");
+		assertEquals(1, group.size());
+		assertEquals(message, group.getOne());
+		store.removeMessageGroup("X");
+		assertEquals(message, store.removeMessage(message.getHeaders().getId()));
+	}
+
 	@Test
 	@RedisAvailable
 	public void testWithMessageHistory() throws Exception {
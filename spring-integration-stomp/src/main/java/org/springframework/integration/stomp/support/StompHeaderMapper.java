@@ -1,5 +1,5 @@
 /*
- * Copyright 2015-2016 the original author or authors.
+ * Copyright 2015-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -27,6 +27,7 @@ import org.apache.commons.logging.LogFactory;
 
 import org.springframework.http.MediaType;
 import org.springframework.integration.mapping.HeaderMapper;
+import org.springframework.integration.mapping.support.HeaderNameMatchCache;
 import org.springframework.messaging.MessageHeaders;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.messaging.simp.stomp.StompHeaders;
@@ -38,6 +39,8 @@ import org.springframework.util.StringUtils;
 
 /**
  * The STOMP {@link HeaderMapper} implementation.
+ * <p>
+ * The decision whether a header is mapped is cached for each distinct header name.
  *
  * @author Artem Bilan
  * @since 4.2
@@ -78,12 +81,17 @@ public class StompHeaderMapper implements HeaderMapper<StompHeaders> {
 
 	private volatile String[] outboundHeaderNames = STOMP_OUTBOUND_HEADER_NAMES;
 
+	private volatile HeaderNameMatchCache inboundMatchCache = createMatchCache(STOMP_INBOUND_HEADER_NAMES);
+
+	private volatile HeaderNameMatchCache outboundMatchCache = createMatchCache(STOMP_OUTBOUND_HEADER_NAMES);
+
 	public void setInboundHeaderNames(String[] inboundHeaderNames) { //NOSONAR - false positive
 		Assert.notNull(inboundHeaderNames, "'inboundHeaderNames' must not be null.");
 		Assert.noNullElements(inboundHeaderNames, "'inboundHeaderNames' must not contains null elements.");
 		Arrays.sort(inboundHeaderNames);
 		if (!Arrays.equals(STOMP_INBOUND_HEADER_NAMES, inboundHeaderNames)) {
 			this.inboundHeaderNames = inboundHeaderNames;
+			this.inboundMatchCache = createMatchCache(inboundHeaderNames);
 		}
 	}
 
@@ -93,6 +101,7 @@ public class StompHeaderMapper implements HeaderMapper<StompHeaders> {
 		Arrays.sort(outboundHeaderNames);
 		if (!Arrays.equals(STOMP_OUTBOUND_HEADER_NAMES, outboundHeaderNames)) {
 			this.outboundHeaderNames = outboundHeaderNames;
+			this.outboundMatchCache = createMatchCache(outboundHeaderNames);
 		}
 	}
 
@@ -101,7 +110,7 @@ public class StompHeaderMapper implements HeaderMapper<StompHeaders> {
 	public void fromHeaders(MessageHeaders headers, StompHeaders target) {
 		for (Map.Entry<String, Object> entry : headers.entrySet()) {
 			String name = entry.getKey();
-			if (shouldMapHeader(name, this.outboundHeaderNames)) {
+			if (this.outboundMatchCache.matches(name)) {
 				Object value = entry.getValue();
 				if (value != null) {
 					setStompHeader(target, name, value);
@@ -112,7 +121,7 @@ public class StompHeaderMapper implements HeaderMapper<StompHeaders> {
 						headers.get(StompHeaderAccessor.NATIVE_HEADERS, MultiValueMap.class);
 				for (Map.Entry<String, List<String>> entry1 : multiValueMap.entrySet()) {
 					name = entry1.getKey();
-					if (shouldMapHeader(name, this.outboundHeaderNames)) {
+					if (this.outboundMatchCache.matches(name)) {
 						String value = entry1.getValue().get(0);
 						if (StringUtils.hasText(value)) {
 							setStompHeader(target, name, value);
@@ -189,7 +198,7 @@ public class StompHeaderMapper implements HeaderMapper<StompHeaders> {
 	public Map<String, Object> toHeaders(StompHeaders source) {
 		Map<String, Object> target = new HashMap<String, Object>();
 		for (String name : source.keySet()) {
-			if (shouldMapHeader(name, this.inboundHeaderNames)) {
+			if (this.inboundMatchCache.matches(name)) {
 				if (StompHeaders.CONTENT_TYPE.equals(name)) {
 					target.put(MessageHeaders.CONTENT_TYPE, source.getContentType());
 				}
@@ -206,6 +215,10 @@ public class StompHeaderMapper implements HeaderMapper<StompHeaders> {
 	}
 
 
+	private HeaderNameMatchCache createMatchCache(String[] patterns) {
+		return new HeaderNameMatchCache(name -> shouldMapHeader(name, patterns));
+	}
+
 	private boolean shouldMapHeader(String headerName, String[] patterns) {
 		if (patterns != null && patterns.length > 0) {
 			for (String pattern : patterns) {